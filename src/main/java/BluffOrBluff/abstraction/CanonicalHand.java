@@ -0,0 +1,90 @@
+package BluffOrBluff.abstraction;
+
+import BluffOrBluff.model.FastHandEvaluator;
+
+/**
+ * Suit-isomorphic key of hole cards plus board. Hands that differ only by a renaming of
+ * suits (A♠K♠ on a ♥ flop and A♥K♥ on a ♠ flop) get the same key, which shrinks the
+ * number of distinct flop hands from 26 million to 1.3 million.
+ *
+ * Suits are renamed in order of (hole cards in the suit, board cards in the suit), card
+ * order within the hole cards and within the board is ignored, and the result is packed
+ * as 6-bit card codes: board count (3 bits), 2 hole cards, up to 5 board cards.
+ */
+public final class CanonicalHand {
+    private CanonicalHand() {
+    }
+
+    public static long key(long holeMask, long boardMask) {
+        // Per-suit signature: hole ranks above board ranks, so suits sort by hole cards first
+        long[] signatures = new long[4];
+        for (int suit = 0; suit < 4; suit++) {
+            long hole = (holeMask >>> (16 * suit)) & 0x1FFF;
+            long board = (boardMask >>> (16 * suit)) & 0x1FFF;
+            signatures[suit] = (hole << 13 | board) << 2 | suit;
+        }
+        sortDescending(signatures);
+
+        long key = 0;
+        int boardCount = 0;
+        // Cards come out in a fixed order: canonical suit, then rank, high to low
+        for (int canonical = 0; canonical < 4; canonical++) {
+            int suit = (int) (signatures[canonical] & 3);
+            long hole = (holeMask >>> (16 * suit)) & 0x1FFF;
+            long board = (boardMask >>> (16 * suit)) & 0x1FFF;
+            key = appendCodes(key, canonical, hole);
+            boardCount += Long.bitCount(board);
+        }
+        for (int canonical = 0; canonical < 4; canonical++) {
+            int suit = (int) (signatures[canonical] & 3);
+            key = appendCodes(key, canonical, (boardMask >>> (16 * suit)) & 0x1FFF);
+        }
+        return (long) boardCount << 61 | key;
+    }
+
+    private static long appendCodes(long key, int suit, long ranks) {
+        while (ranks != 0) {
+            int rank = 63 - Long.numberOfLeadingZeros(ranks);
+            ranks &= ~(1L << rank);
+            key = key << 6 | (suit * 13 + rank);
+        }
+        return key;
+    }
+
+    private static void sortDescending(long[] values) {
+        for (int i = 1; i < values.length; i++) {
+            long value = values[i];
+            int j = i - 1;
+            while (j >= 0 && values[j] < value) {
+                values[j + 1] = values[j];
+                j--;
+            }
+            values[j + 1] = value;
+        }
+    }
+
+    /**
+     * Number of board cards in a key
+     */
+    public static int boardCount(long key) {
+        return (int) (key >>> 61);
+    }
+
+    /**
+     * Hole and board masks of a representative hand for a key: {hole, board}
+     */
+    public static long[] masks(long key) {
+        int boardCount = boardCount(key);
+        long hole = 0;
+        long board = 0;
+        for (int i = 0; i < boardCount; i++) {
+            board |= FastHandEvaluator.bit((int) (key & 63));
+            key >>>= 6;
+        }
+        for (int i = 0; i < 2; i++) {
+            hole |= FastHandEvaluator.bit((int) (key & 63));
+            key >>>= 6;
+        }
+        return new long[] {hole, board};
+    }
+}
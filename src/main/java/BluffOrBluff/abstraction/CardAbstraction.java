@@ -0,0 +1,270 @@
+package BluffOrBluff.abstraction;
+
+import BluffOrBluff.logic.RoundStage;
+import BluffOrBluff.model.Card;
+import BluffOrBluff.model.FastHandEvaluator;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * Maps any hand on any street to one of a few hundred buckets of strategically similar hands.
+ *
+ * Per street, equity histograms of a sample of canonical hands are clustered with KMeans;
+ * the centroids define the buckets. The bucket of each canonical hand is stored, and hands
+ * outside the sample get theirs on first lookup (histogram + nearest centroid), after which
+ * the lookup is a single map access. Pre-flop there are only 169 canonical hands and all of
+ * them are clustered.
+ *
+ * Usage: CardAbstraction [--out file] [--samples N] [--buckets N] [--runouts N] [--opponents N]
+ */
+public class CardAbstraction {
+    public static final String DEFAULT_FILE = "card-abstraction.bin";
+    public static final int BINS = 50;
+
+    private static final int MAGIC = 0x424F4341; // "BOCA"
+    private static final int VERSION = 1;
+
+    private final Map<RoundStage, Street> streets = new EnumMap<>(RoundStage.class);
+
+    private static final class Street {
+        final int runouts;
+        final int opponents;
+        final float[][] centroids;
+        final Map<Long, Integer> buckets = new ConcurrentHashMap<>();
+
+        Street(int runouts, int opponents, float[][] centroids) {
+            this.runouts = runouts;
+            this.opponents = opponents;
+            this.centroids = centroids;
+        }
+    }
+
+    /**
+     * Builds the abstraction for every street
+     *
+     * @param bucketCounts buckets per street
+     * @param samples      hands sampled (and clustered) per post-flop street
+     */
+    public static CardAbstraction build(Map<RoundStage, Integer> bucketCounts, int samples, int runouts,
+                                        int opponents, long seed) {
+        CardAbstraction abstraction = new CardAbstraction();
+        SplittableRandom random = new SplittableRandom(seed);
+        for (Map.Entry<RoundStage, Integer> entry : bucketCounts.entrySet()) {
+            RoundStage stage = entry.getKey();
+            long[] keys = stage == RoundStage.PRE_FLOP ? preFlopKeys() : sampleKeys(stage, samples, random.split());
+            // Only 169 hands pre-flop, so they can afford far more runouts and far less noise
+            int stageRunouts = stage == RoundStage.PRE_FLOP ? runouts * 16 : runouts;
+            SplittableRandom stageRandom = random.split();
+            SplittableRandom[] randoms = new SplittableRandom[keys.length];
+            for (int i = 0; i < keys.length; i++) randoms[i] = stageRandom.split();
+
+            float[][] histograms = IntStream.range(0, keys.length).parallel()
+                    .mapToObj(i -> {
+                        long[] masks = CanonicalHand.masks(keys[i]);
+                        return EquityHistogram.compute(masks[0], masks[1], BINS, stageRunouts, opponents, randoms[i]);
+                    })
+                    .toArray(float[][]::new);
+            KMeans.Result result = new KMeans(50, seed).cluster(histograms, entry.getValue());
+
+            Street street = new Street(stageRunouts, opponents, sortByEquity(result));
+            for (int i = 0; i < keys.length; i++) {
+                street.buckets.put(keys[i], KMeans.nearest(street.centroids, histograms[i]));
+            }
+            abstraction.streets.put(stage, street);
+        }
+        return abstraction;
+    }
+
+    /**
+     * Centroids reordered by mean equity, so a higher bucket is a stronger hand on average
+     */
+    private static float[][] sortByEquity(KMeans.Result result) {
+        return Arrays.stream(result.getCentroids())
+                .sorted((a, b) -> Double.compare(EquityHistogram.mean(a), EquityHistogram.mean(b)))
+                .toArray(float[][]::new);
+    }
+
+    private static long[] preFlopKeys() {
+        return IntStream.range(0, 52).boxed()
+                .flatMapToLong(first -> IntStream.range(first + 1, 52)
+                        .mapToLong(second -> CanonicalHand.key(
+                                FastHandEvaluator.bit(first) | FastHandEvaluator.bit(second), 0)))
+                .distinct()
+                .toArray();
+    }
+
+    private static long[] sampleKeys(RoundStage stage, int samples, SplittableRandom random) {
+        int boardSize = stage == RoundStage.FLOP ? 3 : stage == RoundStage.TURN ? 4 : 5;
+        int[] deck = IntStream.range(0, 52).toArray();
+        long[] keys = new long[samples];
+        for (int s = 0; s < samples; s++) {
+            for (int i = 0; i < 2 + boardSize; i++) {
+                int j = i + random.nextInt(52 - i);
+                int card = deck[j];
+                deck[j] = deck[i];
+                deck[i] = card;
+            }
+            long hole = FastHandEvaluator.bit(deck[0]) | FastHandEvaluator.bit(deck[1]);
+            long board = 0;
+            for (int i = 2; i < 2 + boardSize; i++) board |= FastHandEvaluator.bit(deck[i]);
+            keys[s] = CanonicalHand.key(hole, board);
+        }
+        return Arrays.stream(keys).distinct().toArray();
+    }
+
+    public int bucket(List<Card> holeCards, List<Card> communityCards) {
+        return bucket(FastHandEvaluator.mask(holeCards), FastHandEvaluator.mask(communityCards));
+    }
+
+    /**
+     * Bucket of a hand; the street follows from the number of board cards
+     */
+    public int bucket(long holeMask, long boardMask) {
+        Street street = streets.get(stageOf(Long.bitCount(boardMask)));
+        if (street == null) throw new IllegalStateException("No abstraction for this street");
+        long key = CanonicalHand.key(holeMask, boardMask);
+        Integer bucket = street.buckets.get(key);
+        if (bucket != null) return bucket;
+
+        long[] masks = CanonicalHand.masks(key);
+        float[] histogram = EquityHistogram.compute(masks[0], masks[1], BINS, street.runouts, street.opponents,
+                new SplittableRandom(key));
+        int nearest = KMeans.nearest(street.centroids, histogram);
+        street.buckets.putIfAbsent(key, nearest);
+        return nearest;
+    }
+
+    public int bucketCount(RoundStage stage) {
+        Street street = streets.get(stage);
+        return street == null ? 0 : street.centroids.length;
+    }
+
+    /**
+     * Number of canonical hands with a stored bucket on a street
+     */
+    public int knownHands(RoundStage stage) {
+        Street street = streets.get(stage);
+        return street == null ? 0 : street.buckets.size();
+    }
+
+    /**
+     * Mean equity of a bucket's centroid
+     */
+    public double bucketEquity(RoundStage stage, int bucket) {
+        return EquityHistogram.mean(streets.get(stage).centroids[bucket]);
+    }
+
+    static RoundStage stageOf(int boardCards) {
+        return switch (boardCards) {
+            case 0 -> RoundStage.PRE_FLOP;
+            case 3 -> RoundStage.FLOP;
+            case 4 -> RoundStage.TURN;
+            case 5 -> RoundStage.RIVER;
+            default -> throw new IllegalArgumentException("Invalid board size " + boardCards);
+        };
+    }
+
+    public void save(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(streets.size());
+            for (Map.Entry<RoundStage, Street> entry : streets.entrySet()) {
+                Street street = entry.getValue();
+                out.writeByte(entry.getKey().ordinal());
+                out.writeInt(street.runouts);
+                out.writeInt(street.opponents);
+                out.writeInt(street.centroids.length);
+                for (float[] centroid : street.centroids) {
+                    for (float value : centroid) out.writeFloat(value);
+                }
+                // Copy first: lookups may add entries while we write
+                Map<Long, Integer> buckets = new LinkedHashMap<>(street.buckets);
+                out.writeInt(buckets.size());
+                for (Map.Entry<Long, Integer> bucket : buckets.entrySet()) {
+                    out.writeLong(bucket.getKey());
+                    out.writeShort(bucket.getValue());
+                }
+            }
+        }
+    }
+
+    public static CardAbstraction load(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a card abstraction file: " + file);
+            }
+            CardAbstraction abstraction = new CardAbstraction();
+            int count = in.readInt();
+            for (int s = 0; s < count; s++) {
+                RoundStage stage = RoundStage.values()[in.readByte()];
+                int runouts = in.readInt();
+                int opponents = in.readInt();
+                float[][] centroids = new float[in.readInt()][BINS];
+                for (float[] centroid : centroids) {
+                    for (int b = 0; b < BINS; b++) centroid[b] = in.readFloat();
+                }
+                Street street = new Street(runouts, opponents, centroids);
+                int known = in.readInt();
+                for (int i = 0; i < known; i++) {
+                    street.buckets.put(in.readLong(), (int) in.readShort());
+                }
+                abstraction.streets.put(stage, street);
+            }
+            return abstraction;
+        }
+    }
+
+    public static void main(String[] args) {
+        Path out = Paths.get(DEFAULT_FILE);
+        int samples = 20000;
+        int buckets = 200;
+        int runouts = 32;
+        int opponents = 64;
+        try {
+            for (int i = 0; i + 1 < args.length; i += 2) {
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--out" -> out = Paths.get(value);
+                    case "--samples" -> samples = Integer.parseInt(value);
+                    case "--buckets" -> buckets = Integer.parseInt(value);
+                    case "--runouts" -> runouts = Integer.parseInt(value);
+                    case "--opponents" -> opponents = Integer.parseInt(value);
+                    default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+            Map<RoundStage, Integer> counts = new EnumMap<>(RoundStage.class);
+            counts.put(RoundStage.PRE_FLOP, Math.min(buckets, 169));
+            counts.put(RoundStage.FLOP, buckets);
+            counts.put(RoundStage.TURN, buckets);
+            counts.put(RoundStage.RIVER, buckets);
+
+            long start = System.nanoTime();
+            CardAbstraction abstraction = build(counts, samples, runouts, opponents, 42);
+            for (RoundStage stage : counts.keySet()) {
+                System.out.printf("%s: %d buckets from %d canonical hands%n", stage,
+                        abstraction.bucketCount(stage), abstraction.knownHands(stage));
+            }
+            abstraction.save(out);
+            System.out.println("Card abstraction written to " + out + " (" + Files.size(out) + " bytes) in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms");
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+}
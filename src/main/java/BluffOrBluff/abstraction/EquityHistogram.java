@@ -0,0 +1,91 @@
+package BluffOrBluff.abstraction;
+
+import BluffOrBluff.model.FastHandEvaluator;
+
+import java.util.SplittableRandom;
+
+/**
+ * Distribution of a hand's final equity over the runouts still to come. A flush draw and a
+ * weak made hand can both have 40% equity today, but the draw's histogram has mass near 0
+ * and near 1 while the made hand sits in the middle - which is exactly what bucketing by a
+ * single win probability loses.
+ *
+ * Each sampled runout completes the board; the hand's river equity against random
+ * opponent hands then goes into one of {@code bins} equal-width bins. On the river there is
+ * nothing left to deal and the histogram is a single spike.
+ */
+public final class EquityHistogram {
+    private EquityHistogram() {
+    }
+
+    /**
+     * @param runouts   board completions to sample (ignored on the river)
+     * @param opponents opponent hands sampled per completed board
+     */
+    public static float[] compute(long holeMask, long boardMask, int bins, int runouts, int opponents,
+                                  SplittableRandom random) {
+        long dead = holeMask | boardMask;
+        int[] deck = new int[52 - Long.bitCount(dead)];
+        int size = 0;
+        for (int code = 0; code < 52; code++) {
+            if ((dead & FastHandEvaluator.bit(code)) == 0) deck[size++] = code;
+        }
+
+        int missing = 5 - Long.bitCount(boardMask);
+        int samples = missing == 0 ? 1 : runouts;
+        float[] histogram = new float[bins];
+        for (int s = 0; s < samples; s++) {
+            long board = boardMask;
+            for (int i = 0; i < missing; i++) {
+                int j = i + random.nextInt(size - i);
+                int card = deck[j];
+                deck[j] = deck[i];
+                deck[i] = card;
+                board |= FastHandEvaluator.bit(card);
+            }
+            double equity = riverEquity(holeMask, board, deck, missing, size, opponents, random);
+            histogram[Math.min(bins - 1, (int) (equity * bins))] += 1f / samples;
+        }
+        return histogram;
+    }
+
+    /**
+     * Equity against {@code opponents} random hands from deck[from..size)
+     */
+    private static double riverEquity(long hole, long board, int[] deck, int from, int size, int opponents,
+                                      SplittableRandom random) {
+        int mine = FastHandEvaluator.evaluate(hole | board);
+        double score = 0;
+        for (int o = 0; o < opponents; o++) {
+            int first = from + random.nextInt(size - from);
+            int second = from + random.nextInt(size - from - 1);
+            if (second >= first) second++;
+            long theirs = FastHandEvaluator.bit(deck[first]) | FastHandEvaluator.bit(deck[second]);
+            int value = FastHandEvaluator.evaluate(theirs | board);
+            score += mine > value ? 1 : mine == value ? 0.5 : 0;
+        }
+        return score / opponents;
+    }
+
+    /**
+     * Earth mover's distance between two histograms over [0, 1]: in one dimension this is the
+     * area between the cumulative distributions
+     */
+    public static double distance(float[] a, float[] b) {
+        double cumulative = 0;
+        double distance = 0;
+        for (int i = 0; i < a.length; i++) {
+            cumulative += a[i] - b[i];
+            distance += Math.abs(cumulative);
+        }
+        return distance / a.length;
+    }
+
+    public static double mean(float[] histogram) {
+        double mean = 0;
+        for (int i = 0; i < histogram.length; i++) {
+            mean += histogram[i] * (i + 0.5) / histogram.length;
+        }
+        return mean;
+    }
+}
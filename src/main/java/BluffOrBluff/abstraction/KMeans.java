@@ -0,0 +1,170 @@
+package BluffOrBluff.abstraction;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * k-means over equity histograms with earth mover's distance, seeded with k-means++.
+ *
+ * The assignment step - the expensive part, points x clusters distances - runs in parallel
+ * over the points. The update step averages each cluster's histograms; per-thread partial
+ * sums are merged at the end, so no thread writes to shared state.
+ */
+public class KMeans {
+    private final int maxIterations;
+    private final long seed;
+
+    public KMeans(int maxIterations, long seed) {
+        this.maxIterations = maxIterations;
+        this.seed = seed;
+    }
+
+    public static final class Result {
+        private final float[][] centroids;
+        private final int[] assignments;
+        private final int iterations;
+
+        Result(float[][] centroids, int[] assignments, int iterations) {
+            this.centroids = centroids;
+            this.assignments = assignments;
+            this.iterations = iterations;
+        }
+
+        public float[][] getCentroids() {
+            return centroids;
+        }
+
+        public int[] getAssignments() {
+            return assignments;
+        }
+
+        public int getIterations() {
+            return iterations;
+        }
+    }
+
+    public Result cluster(float[][] points, int k) {
+        k = Math.min(k, points.length);
+        float[][] centroids = seed(points, k);
+        int[] assignments = new int[points.length];
+        int iteration = 0;
+        int changed = points.length;
+        // Stop when fewer than 0.1% of the points move
+        while (iteration < maxIterations && changed > points.length / 1000) {
+            iteration++;
+            float[][] current = centroids;
+            int[] next = IntStream.range(0, points.length).parallel()
+                    .map(i -> nearest(current, points[i]))
+                    .toArray();
+            changed = 0;
+            for (int i = 0; i < points.length; i++) {
+                if (next[i] != assignments[i]) changed++;
+            }
+            System.arraycopy(next, 0, assignments, 0, points.length);
+            centroids = update(points, assignments, current);
+        }
+        // Final assignment against the final centroids
+        float[][] last = centroids;
+        int[] finalAssignments = IntStream.range(0, points.length).parallel()
+                .map(i -> nearest(last, points[i]))
+                .toArray();
+        return new Result(centroids, finalAssignments, iteration);
+    }
+
+    public static int nearest(float[][] centroids, float[] point) {
+        int best = 0;
+        double bestDistance = Double.MAX_VALUE;
+        for (int c = 0; c < centroids.length; c++) {
+            double distance = EquityHistogram.distance(point, centroids[c]);
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = c;
+            }
+        }
+        return best;
+    }
+
+    private float[][] update(float[][] points, int[] assignments, float[][] previous) {
+        int k = previous.length;
+        int bins = points[0].length;
+        Partial total = IntStream.range(0, points.length).parallel()
+                .collect(() -> new Partial(k, bins),
+                        (partial, i) -> partial.add(assignments[i], points[i]),
+                        Partial::merge);
+
+        float[][] centroids = new float[k][];
+        for (int c = 0; c < k; c++) {
+            if (total.counts[c] == 0) {
+                centroids[c] = previous[c]; // empty cluster keeps its place
+                continue;
+            }
+            centroids[c] = new float[bins];
+            for (int b = 0; b < bins; b++) {
+                centroids[c][b] = (float) (total.sums[c][b] / total.counts[c]);
+            }
+        }
+        return centroids;
+    }
+
+    private static final class Partial {
+        final double[][] sums;
+        final long[] counts;
+
+        Partial(int k, int bins) {
+            sums = new double[k][bins];
+            counts = new long[k];
+        }
+
+        void add(int cluster, float[] point) {
+            counts[cluster]++;
+            for (int b = 0; b < point.length; b++) {
+                sums[cluster][b] += point[b];
+            }
+        }
+
+        void merge(Partial other) {
+            for (int c = 0; c < counts.length; c++) {
+                counts[c] += other.counts[c];
+                for (int b = 0; b < sums[c].length; b++) {
+                    sums[c][b] += other.sums[c][b];
+                }
+            }
+        }
+    }
+
+    /**
+     * k-means++: each new centroid is drawn with probability proportional to its squared
+     * distance from the nearest centroid chosen so far
+     */
+    private float[][] seed(float[][] points, int k) {
+        SplittableRandom random = new SplittableRandom(seed);
+        float[][] centroids = new float[k][];
+        centroids[0] = points[random.nextInt(points.length)].clone();
+        double[] closest = new double[points.length];
+        Arrays.fill(closest, Double.MAX_VALUE);
+
+        for (int c = 1; c < k; c++) {
+            float[] added = centroids[c - 1];
+            IntStream.range(0, points.length).parallel().forEach(i -> {
+                double distance = EquityHistogram.distance(points[i], added);
+                closest[i] = Math.min(closest[i], distance * distance);
+            });
+            double total = 0;
+            for (double distance : closest) total += distance;
+            int chosen = random.nextInt(points.length);
+            if (total > 0) {
+                double target = random.nextDouble() * total;
+                for (int i = 0; i < points.length; i++) {
+                    target -= closest[i];
+                    if (target <= 0) {
+                        chosen = i;
+                        break;
+                    }
+                }
+            }
+            centroids[c] = points[chosen].clone();
+        }
+        return centroids;
+    }
+}
@@ -0,0 +1,88 @@
+package BluffOrBluff.ai;
+
+import BluffOrBluff.exception.GameException;
+import BluffOrBluff.logic.RoundStage;
+import BluffOrBluff.model.BettingAction;
+import BluffOrBluff.model.Card;
+import BluffOrBluff.model.FastHandEvaluator;
+import BluffOrBluff.model.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Times one flop decision at each of many tables, asked one table at a time through
+ * getAIDecision and all together through decideAll. The tables share a few boards, as they
+ * do when many tables reach the flop at once. Every run deals new hands so neither side
+ * gets answers from the equity cache.
+ * Usage: BatchDecisionBenchmark [tables] [boards] [difficulty] [runs]
+ */
+public class BatchDecisionBenchmark {
+    public static void main(String[] args) throws GameException {
+        int tables = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int boards = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int difficulty = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+        int runs = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+        System.out.printf("%d tables on %d flops, difficulty %d, %d core(s), best of %d runs%n", tables, boards,
+                difficulty, Runtime.getRuntime().availableProcessors(), runs);
+
+        long oneByOne = Long.MAX_VALUE;
+        long batched = Long.MAX_VALUE;
+        for (int run = 0; run <= runs; run++) {
+            List<PokerAI.DecisionRequest> requests = deal(tables, boards, difficulty, 2L * run);
+            long start = System.nanoTime();
+            for (PokerAI.DecisionRequest request : requests) {
+                PokerAI ai = request.ai;
+                List<Card> board = request.communityCards;
+                ai.getAIDecision(ai.contextFor(RoundStage.FLOP, board).getHandRank(), request.currentBet, request.pot,
+                        RoundStage.FLOP, board);
+            }
+            long single = System.nanoTime() - start;
+
+            requests = deal(tables, boards, difficulty, 2L * run + 1);
+            start = System.nanoTime();
+            List<BettingAction> actions = PokerAI.decideAll(requests);
+            long batch = System.nanoTime() - start;
+            if (actions.size() != tables) throw new IllegalStateException("Missing decisions");
+
+            // Run 0 is warm-up
+            if (run > 0) {
+                oneByOne = Math.min(oneByOne, single);
+                batched = Math.min(batched, batch);
+            }
+        }
+        System.out.printf("one by one: %8.1f us/decision%n", oneByOne / 1e3 / tables);
+        System.out.printf("decideAll:  %8.1f us/decision (%.1fx)%n", batched / 1e3 / tables, (double) oneByOne / batched);
+    }
+
+    /**
+     * A fresh AI with new hole cards at every table, facing no bet on one of boardCount flops
+     */
+    private static List<PokerAI.DecisionRequest> deal(int tables, int boardCount, int difficulty, long seed)
+            throws GameException {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<List<Card>> boards = new ArrayList<>();
+        for (int b = 0; b < boardCount; b++) boards.add(draw(random, 3, 0));
+        List<PokerAI.DecisionRequest> requests = new ArrayList<>();
+        for (int t = 0; t < tables; t++) {
+            List<Card> board = boards.get(t % boardCount);
+            Player player = new Player("AI " + t, 1000);
+            for (Card card : draw(random, 2, FastHandEvaluator.mask(board))) player.receiveCard(card);
+            requests.add(new PokerAI.DecisionRequest(new PokerAI(player, difficulty), 0, 200, RoundStage.FLOP, board));
+        }
+        return requests;
+    }
+
+    private static List<Card> draw(SplittableRandom random, int count, long dead) {
+        List<Card> cards = new ArrayList<>();
+        while (cards.size() < count) {
+            int code = random.nextInt(52);
+            long bit = FastHandEvaluator.bit(code);
+            if ((dead & bit) != 0) continue;
+            dead |= bit;
+            cards.add(FastHandEvaluator.card(code));
+        }
+        return cards;
+    }
+}
@@ -0,0 +1,135 @@
+package BluffOrBluff.ai;
+
+import BluffOrBluff.logic.RoundStage;
+import BluffOrBluff.model.Card;
+import BluffOrBluff.model.FastHandEvaluator;
+import BluffOrBluff.model.HandEvaluator;
+import BluffOrBluff.model.HandRank;
+import BluffOrBluff.simulation.DecisionScheduler;
+import BluffOrBluff.simulation.HandPotential;
+import BluffOrBluff.simulation.HandPotentialCalculator;
+import BluffOrBluff.simulation.Outs;
+import BluffOrBluff.simulation.OutsAnalyzer;
+import BluffOrBluff.simulation.RangeEquity;
+import BluffOrBluff.simulation.SimulationBudgeter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * What the AI knows about its own hand on one street. Hole cards and board don't change
+ * while the players raise back and forth, so the hand rank and equity are computed on
+ * first use and then shared by every decision until the next card is dealt.
+ */
+public class DecisionContext {
+    // Flop runouts sampled for the range equity; the turn and river are exact
+    private static final int RANGE_RUNOUTS = 64;
+
+    private final RoundStage stage;
+    private final List<Card> holeCards;
+    private final List<Card> board;
+
+    private HandRank handRank;
+    private double equity = -1;
+    private HandPotential potential;
+    private Outs outs;
+    private RangeEquity rangeEquity;
+
+    DecisionContext(RoundStage stage, List<Card> holeCards, List<Card> board) {
+        this.stage = stage;
+        this.holeCards = new ArrayList<>(holeCards);
+        this.board = new ArrayList<>(board);
+    }
+
+    boolean matches(RoundStage stage, List<Card> holeCards, List<Card> board) {
+        return this.stage == stage && this.board.equals(board) && this.holeCards.equals(holeCards);
+    }
+
+    public RoundStage getStage() {
+        return stage;
+    }
+
+    public HandRank getHandRank() {
+        if (handRank == null) {
+            List<Card> fullHand = new ArrayList<>(holeCards);
+            fullHand.addAll(board);
+            handRank = HandEvaluator.evaluateHand(fullHand);
+        }
+        return handRank;
+    }
+
+    /**
+     * Win probability at the accuracy the difficulty needs, simulated at most once per street
+     */
+    public double getEquity(int difficulty) {
+        if (equity < 0) {
+            equity = SimulationBudgeter.shared().estimate(difficulty, holeCards, board);
+        }
+        return equity;
+    }
+
+    /**
+     * Like getEquity(difficulty), but queued on a shared scheduler so that many tables' AIs
+     * get CPU time in deadline order (see DecisionScheduler)
+     */
+    public double getEquity(int difficulty, DecisionScheduler scheduler) {
+        if (equity < 0) {
+            equity = scheduler.estimate(difficulty, holeCards, board);
+        }
+        return equity;
+    }
+
+    /**
+     * Takes an equity estimated elsewhere (PokerAI.decideAll) as this street's
+     */
+    void setEquity(double equity) {
+        this.equity = equity;
+    }
+
+    List<Card> getHoleCards() {
+        return holeCards;
+    }
+
+    List<Card> getBoard() {
+        return board;
+    }
+
+    /**
+     * Hand strength and one-card potential, enumerated once per street; null pre-flop
+     */
+    public HandPotential getPotential() {
+        if (potential == null && !board.isEmpty()) {
+            potential = HandPotentialCalculator.calculate(holeCards, board);
+        }
+        return potential;
+    }
+
+    /**
+     * Outs on the flop and turn, found once per street; null on other streets
+     */
+    public Outs getOuts() {
+        if (outs == null && (board.size() == 3 || board.size() == 4)) {
+            outs = OutsAnalyzer.analyze(holeCards, board);
+        }
+        return outs;
+    }
+
+    /**
+     * Equity against every opponent hand, computed once per street and shared by all the
+     * bet sizes the AI considers; null pre-flop
+     */
+    public RangeEquity getRangeEquity() {
+        if (rangeEquity == null && !board.isEmpty()) {
+            long holeMask = FastHandEvaluator.mask(holeCards);
+            long boardMask = FastHandEvaluator.mask(board);
+            rangeEquity = RangeEquity.compute(holeMask, boardMask, RANGE_RUNOUTS,
+                    new SplittableRandom(holeMask * 31 + boardMask));
+        }
+        return rangeEquity;
+    }
+
+    public boolean hasEquity() {
+        return equity >= 0;
+    }
+}
@@ -0,0 +1,119 @@
+package BluffOrBluff.ai;
+
+import BluffOrBluff.logic.RoundListener;
+import BluffOrBluff.logic.RoundStage;
+import BluffOrBluff.model.BettingAction;
+import BluffOrBluff.model.Player;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Learns how the human opponents play from RoundManager's action stream.
+ * Attach it with RoundManager.setOpponentModel so the AI can read the profiles.
+ * Profiles are kept per player name and can be saved between sessions.
+ */
+public class OpponentModel implements RoundListener {
+    private static final int FILE_MAGIC = 0x424F4F4D; // "BOOM"
+    private static final int FILE_VERSION = 1;
+    // Per-hand decay; a hand from 50 hands ago counts for about a third
+    public static final double DEFAULT_DECAY = 0.98;
+
+    private final Map<String, OpponentProfile> profiles = new HashMap<>();
+    private final double decay;
+
+    private OpponentProfile current;
+    private RoundStage currentStage;
+    private boolean facingBet;
+
+    public OpponentModel() {
+        this(DEFAULT_DECAY);
+    }
+
+    public OpponentModel(double decay) {
+        this.decay = decay;
+    }
+
+    /**
+     * Profile of the opponent at the table in the current hand, or null before the first hand
+     */
+    public OpponentProfile currentProfile() {
+        return current;
+    }
+
+    public OpponentProfile getProfile(String name) {
+        return profiles.get(name);
+    }
+
+    @Override
+    public void onHandStart(long handNumber, int difficulty, Player human, Player ai) {
+        current = profiles.computeIfAbsent(human.getName(), OpponentProfile::new);
+        current.startHand(decay);
+        currentStage = null;
+        facingBet = false;
+    }
+
+    @Override
+    public void onAction(RoundStage stage, int seat, BettingAction action, int amount, int pot) {
+        if (current == null) return;
+        if (stage != currentStage) {
+            currentStage = stage;
+            facingBet = false;
+        }
+
+        boolean aggressive = action == BettingAction.BET || action == BettingAction.RAISE
+                || action == BettingAction.ALL_IN;
+        if (seat == AI_SEAT) {
+            if (aggressive) facingBet = true;
+            return;
+        }
+
+        if (facingBet) {
+            current.recordFacingBet(stage, action == BettingAction.FOLD);
+        }
+        if (stage == RoundStage.PRE_FLOP) {
+            current.recordPreFlop(amount > 0, aggressive);
+        } else {
+            current.recordPostFlop(aggressive, action == BettingAction.CALL);
+        }
+        // After the human acts the AI is the one facing (or not facing) a bet
+        facingBet = false;
+    }
+
+    public void save(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(FILE_VERSION);
+            out.writeInt(profiles.size());
+            for (OpponentProfile profile : profiles.values()) {
+                profile.write(out);
+            }
+        }
+    }
+
+    /**
+     * Loads saved profiles; a missing file just means a fresh model
+     */
+    public static OpponentModel load(Path file) throws IOException {
+        OpponentModel model = new OpponentModel();
+        if (!Files.exists(file)) return model;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != FILE_MAGIC || in.readInt() != FILE_VERSION) {
+                throw new IOException("Not an opponent model file: " + file);
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                OpponentProfile profile = OpponentProfile.read(in);
+                model.profiles.put(profile.getName(), profile);
+            }
+        }
+        return model;
+    }
+}
@@ -0,0 +1,146 @@
+package BluffOrBluff.ai;
+
+import BluffOrBluff.logic.RoundStage;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Running statistics about one opponent. Every counter is exponentially decayed once per
+ * hand, so old habits fade out and the profile follows a player who changes gears.
+ * Updates only touch primitive fields: no allocation, constant time.
+ */
+public class OpponentProfile {
+    private static final int STAGES = RoundStage.values().length;
+    // Enough decayed observations before a number is trusted
+    private static final double MIN_SAMPLES = 5;
+
+    private final String name;
+    private double hands;
+    private double vpipHands;
+    private double pfrHands;
+    private double aggressiveActions; // post-flop bets, raises and all-ins
+    private double passiveActions;    // post-flop calls
+    private final double[] facedBet = new double[STAGES];
+    private final double[] foldedToBet = new double[STAGES];
+
+    // Per-hand flags so VPIP/PFR count at most once per hand
+    private boolean vpipThisHand;
+    private boolean pfrThisHand;
+
+    OpponentProfile(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    void startHand(double decay) {
+        hands *= decay;
+        vpipHands *= decay;
+        pfrHands *= decay;
+        aggressiveActions *= decay;
+        passiveActions *= decay;
+        for (int i = 0; i < STAGES; i++) {
+            facedBet[i] *= decay;
+            foldedToBet[i] *= decay;
+        }
+        hands += 1;
+        vpipThisHand = false;
+        pfrThisHand = false;
+    }
+
+    void recordPreFlop(boolean voluntary, boolean raise) {
+        if (voluntary && !vpipThisHand) {
+            vpipThisHand = true;
+            vpipHands += 1;
+        }
+        if (raise && !pfrThisHand) {
+            pfrThisHand = true;
+            pfrHands += 1;
+        }
+    }
+
+    void recordPostFlop(boolean aggressive, boolean call) {
+        if (aggressive) aggressiveActions += 1;
+        else if (call) passiveActions += 1;
+    }
+
+    void recordFacingBet(RoundStage stage, boolean folded) {
+        facedBet[stage.ordinal()] += 1;
+        if (folded) foldedToBet[stage.ordinal()] += 1;
+    }
+
+    /**
+     * Share of hands where the opponent voluntarily put chips in pre-flop
+     */
+    public double getVpip() {
+        return hands == 0 ? 0 : vpipHands / hands;
+    }
+
+    /**
+     * Share of hands where the opponent raised pre-flop
+     */
+    public double getPfr() {
+        return hands == 0 ? 0 : pfrHands / hands;
+    }
+
+    /**
+     * Post-flop (bets + raises) / calls; 1.0 until there is data
+     */
+    public double getAggressionFactor() {
+        if (aggressiveActions + passiveActions < MIN_SAMPLES) return 1.0;
+        return aggressiveActions / Math.max(1.0, passiveActions);
+    }
+
+    public double getFoldToBet(RoundStage stage) {
+        double faced = facedBet[stage.ordinal()];
+        return faced == 0 ? 0 : foldedToBet[stage.ordinal()] / faced;
+    }
+
+    /**
+     * True once there are enough (decayed) observations of the opponent facing a bet on this street
+     */
+    public boolean knowsFoldToBet(RoundStage stage) {
+        return facedBet[stage.ordinal()] >= MIN_SAMPLES;
+    }
+
+    public double getHands() {
+        return hands;
+    }
+
+    void write(DataOutput out) throws IOException {
+        out.writeUTF(name);
+        out.writeFloat((float) hands);
+        out.writeFloat((float) vpipHands);
+        out.writeFloat((float) pfrHands);
+        out.writeFloat((float) aggressiveActions);
+        out.writeFloat((float) passiveActions);
+        for (int i = 0; i < STAGES; i++) {
+            out.writeFloat((float) facedBet[i]);
+            out.writeFloat((float) foldedToBet[i]);
+        }
+    }
+
+    static OpponentProfile read(DataInput in) throws IOException {
+        OpponentProfile profile = new OpponentProfile(in.readUTF());
+        profile.hands = in.readFloat();
+        profile.vpipHands = in.readFloat();
+        profile.pfrHands = in.readFloat();
+        profile.aggressiveActions = in.readFloat();
+        profile.passiveActions = in.readFloat();
+        for (int i = 0; i < STAGES; i++) {
+            profile.facedBet[i] = in.readFloat();
+            profile.foldedToBet[i] = in.readFloat();
+        }
+        return profile;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %.0f hands, VPIP %.0f%%, PFR %.0f%%, AF %.2f",
+                name, hands, 100 * getVpip(), 100 * getPfr(), getAggressionFactor());
+    }
+}
@@ -1,16 +1,87 @@
 package BluffOrBluff.ai;
 
+import BluffOrBluff.blueprint.BlueprintRegistry;
+import BluffOrBluff.blueprint.BlueprintTable;
+import BluffOrBluff.metrics.AIDecisionEvent;
+import BluffOrBluff.metrics.LatencyHistogram;
+import BluffOrBluff.metrics.Metrics;
 import BluffOrBluff.model.*;
+import BluffOrBluff.logic.RoundListener;
+import BluffOrBluff.logic.RoundManager;
 import BluffOrBluff.logic.RoundStage;
-import BluffOrBluff.simulation.MonteCarloSimulator;
-
+import BluffOrBluff.simulation.DecisionScheduler;
+import BluffOrBluff.simulation.HandPotential;
+import BluffOrBluff.simulation.Outs;
+import BluffOrBluff.simulation.SimulationBudgeter;
+import BluffOrBluff.solver.BettingTree;
+import BluffOrBluff.solver.RiverSearch;
+import BluffOrBluff.solver.StrategyTable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+public class PokerAI implements RoundListener {
+    public static final int EXPERT_PLUS = 4;
+    // Time the river search may take per decision: -Dbluff.river.budgetMs
+    private static final long RIVER_BUDGET_NANOS = Long.getLong("bluff.river.budgetMs", 20) * 1_000_000;
+    // Share of its range the human is assumed to bet the river with
+    private static final double RIVER_BET_RANGE = 0.6;
+    private static final double RIVER_RAISE_RANGE = 0.15;
+
+    // ai.decision.d<difficulty>.<stage>, by difficulty (1-4) and stage ordinal, looked up once
+    private static final LatencyHistogram[][] DECISION_LATENCY = new LatencyHistogram[EXPERT_PLUS + 1][];
+
+    static {
+        for (int d = 1; d <= EXPERT_PLUS; d++) {
+            DECISION_LATENCY[d] = new LatencyHistogram[RoundStage.values().length];
+            for (RoundStage stage : RoundStage.values()) {
+                DECISION_LATENCY[d][stage.ordinal()] = Metrics.latency("ai.decision.d" + d + "." + stage);
+            }
+        }
+    }
+
+    /**
+     * One table's question for decideAll; the hole cards are those of the AI's player
+     */
+    public static final class DecisionRequest {
+        final PokerAI ai;
+        final int currentBet;
+        final int pot;
+        final RoundStage stage;
+        final List<Card> communityCards;
+
+        public DecisionRequest(PokerAI ai, int currentBet, int pot, RoundStage stage, List<Card> communityCards) {
+            this.ai = ai;
+            this.currentBet = currentBet;
+            this.pot = pot;
+            this.stage = stage;
+            this.communityCards = communityCards;
+        }
+    }
 
-public class PokerAI {
     private final Player ai;
     private final int difficulty;
     private final Random random;
+    private DecisionContext context;
+    private OpponentModel opponentModel;
+    private DecisionScheduler scheduler;
+    private final BetSizingEngine sizing = new BetSizingEngine();
+
+    // Actions on the current street, used to find the Expert+ strategy node
+    private final List<BettingAction> streetActions = new ArrayList<>();
+    private RoundStage streetStage;
+    private Player human;
+
+    // River search for the current river, kept so its transposition table survives re-raises
+    private RiverSearch riverSearch;
+    private DecisionContext riverSearchContext;
 
     public PokerAI(Player ai, int difficulty) {
         this.ai = ai;
@@ -18,7 +89,127 @@ public class PokerAI {
         this.random = new Random();
     }
 
+    /**
+     * Lets post-flop decisions adapt to how the current opponent has been playing
+     */
+    public void setOpponentModel(OpponentModel opponentModel) {
+        this.opponentModel = opponentModel;
+    }
+
+    /**
+     * Runs this AI's equity estimates on a scheduler shared with other tables, so they get
+     * CPU time by deadline; null (the default) estimates on the caller's thread
+     */
+    public void setDecisionScheduler(DecisionScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Decision context for the AI's hand on the current street; reused while the street
+     * lasts and replaced as soon as the stage, board or hole cards change
+     */
+    public DecisionContext contextFor(RoundStage stage, List<Card> communityCards) {
+        List<Card> holeCards = ai.getHand().getCards();
+        if (context == null || !context.matches(stage, holeCards, communityCards)) {
+            context = new DecisionContext(stage, holeCards, communityCards);
+        }
+        return context;
+    }
+
+    /**
+     * Drops the memoized context, e.g. when a new hand starts
+     */
+    public void resetContext() {
+        context = null;
+    }
+
+    @Override
+    public void onHandStart(long handNumber, int difficulty, Player human, Player ai) {
+        streetActions.clear();
+        streetStage = null;
+        this.human = human;
+    }
+
+    @Override
+    public void onAction(RoundStage stage, int seat, BettingAction action, int amount, int pot) {
+        if (stage != streetStage) {
+            streetActions.clear();
+            streetStage = stage;
+        }
+        streetActions.add(action);
+    }
+
     public BettingAction getAIDecision(HandRank aiHandRank, int currentBet, int pot, RoundStage stage, List<Card> communityCards) {
+        AIDecisionEvent event = new AIDecisionEvent();
+        event.begin();
+        long start = Metrics.start();
+
+        BettingAction action = decide(aiHandRank, currentBet, pot, stage, communityCards);
+
+        if (Metrics.ENABLED) {
+            // The constructor accepts any difficulty; time one out of range with the nearest level
+            DECISION_LATENCY[Math.max(1, Math.min(difficulty, EXPERT_PLUS))][stage.ordinal()].recordSince(start);
+        }
+        if (event.shouldCommit()) {
+            event.difficulty = difficulty;
+            event.stage = stage.name();
+            event.action = action.name();
+            event.currentBet = currentBet;
+            event.pot = pot;
+            event.commit();
+        }
+        return action;
+    }
+
+    /**
+     * Decides for many tables at once. The equity that every post-flop decision needs comes
+     * from one SimulationBudgeter.estimateAll call, which estimates each distinct spot once
+     * and shares deals between tables on the same board. Then the AIs decide in parallel as getAIDecision
+     * would, using those equities. An AI may appear only once per call.
+     * @return one action per request, in order
+     */
+    public static List<BettingAction> decideAll(List<DecisionRequest> requests) {
+        Set<PokerAI> asked = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<DecisionContext> streets = new ArrayList<>();
+        List<Integer> difficulties = new ArrayList<>();
+        for (DecisionRequest request : requests) {
+            PokerAI pokerAI = request.ai;
+            if (!asked.add(pokerAI)) throw new IllegalArgumentException("Two requests for the same AI");
+            // The same cases decide() answers without equity
+            int chips = pokerAI.ai.getChips();
+            if (request.stage == RoundStage.PRE_FLOP || chips == 0 || chips < request.currentBet) continue;
+            DecisionContext street = pokerAI.contextFor(request.stage, request.communityCards);
+            if (street.hasEquity()) continue;
+            streets.add(street);
+            difficulties.add(pokerAI.difficulty);
+        }
+
+        if (!streets.isEmpty()) {
+            List<List<Card>> holes = new ArrayList<>(streets.size());
+            List<List<Card>> boards = new ArrayList<>(streets.size());
+            for (DecisionContext street : streets) {
+                holes.add(street.getHoleCards());
+                boards.add(street.getBoard());
+            }
+            int[] levels = difficulties.stream().mapToInt(Integer::intValue).toArray();
+            double[] equities = SimulationBudgeter.shared().estimateAll(holes, boards, levels,
+                    ThreadLocalRandom.current().nextLong());
+            for (int i = 0; i < equities.length; i++) {
+                streets.get(i).setEquity(equities[i]);
+            }
+        }
+
+        BettingAction[] actions = new BettingAction[requests.size()];
+        IntStream.range(0, actions.length).parallel().forEach(i -> {
+            DecisionRequest request = requests.get(i);
+            HandRank handRank = request.ai.contextFor(request.stage, request.communityCards).getHandRank();
+            actions[i] = request.ai.getAIDecision(handRank, request.currentBet, request.pot, request.stage,
+                    request.communityCards);
+        });
+        return Arrays.asList(actions);
+    }
+
+    private BettingAction decide(HandRank aiHandRank, int currentBet, int pot, RoundStage stage, List<Card> communityCards) {
         // int handStrength = HandEvaluator.getHandRankValue(aiHandRank.getRank()); TODO if anomaly revert
         //int handStrength;
         int aiChips = ai.getChips();
@@ -38,32 +229,123 @@ public class PokerAI {
             return BettingAction.CALL;
         }
 
-        // Post-flop uses Monte Carlo simulation
-        List<Card> aiCards = ai.getHand().getCards();
-        double winProbability;
-
-        // Different simulation depths based on difficulty
-        if (difficulty == 3) {
-            // Expert AI - full simulation
-            MonteCarloSimulator simulator = new MonteCarloSimulator(aiCards, communityCards);
-            winProbability = simulator.estimateWinProbability();
-        } else if (difficulty == 2) {
-            // Normal AI - adaptive simulation with confidence threshold
-            MonteCarloSimulator simulator = new MonteCarloSimulator(aiCards, communityCards, 3000);
-            winProbability = simulator.estimateWithConfidence(0.02);
-        } else {
-            // Beginner AI - quick estimate
-            MonteCarloSimulator simulator = new MonteCarloSimulator(aiCards, communityCards, 1000);
-            winProbability = simulator.quickEstimate();
+        // Post-flop: the budgeter picks cache, exact enumeration or sampling to meet
+        // the accuracy this difficulty needs; re-raises on the same street reuse the result
+        DecisionContext street = contextFor(stage, communityCards);
+        double winProbability = scheduler == null ? street.getEquity(difficulty)
+                : street.getEquity(difficulty, scheduler);
+
+        if (difficulty == EXPERT_PLUS) {
+            BettingAction action = solvedStrategyDecision(winProbability, currentBet, pot, stage);
+            if (action != null) return action;
+        }
+
+        if (difficulty >= 3 && stage == RoundStage.RIVER) {
+            BettingAction action = riverSearchDecision(street, currentBet, pot, aiChips);
+            if (action != null) return action;
+        }
+
+        OpponentProfile opponent = opponentModel == null ? null : opponentModel.currentProfile();
+        return makeProbabilityBasedDecision(winProbability, currentBet, pot, stage, aiChips, opponent, street);
+    }
+
+    /**
+     * Expert+: plays the precomputed strategy for this street's betting so far. The mapped
+     * blueprint is tried first, then the exact CFR strategy table. Returns null (play Expert)
+     * when neither has an answer.
+     */
+    private BettingAction solvedStrategyDecision(double winProbability, int currentBet, int pot, RoundStage stage) {
+        List<BettingAction> history = stage == streetStage ? streetActions : List.of();
+        if (!history.isEmpty() && history.get(history.size() - 1) == BettingAction.CALL) {
+            // The human called our raise; the street is closed in the abstraction
+            return BettingAction.CHECK;
+        }
+
+        BlueprintTable blueprint = BlueprintRegistry.shared();
+        if (blueprint != null) {
+            BettingAction action = blueprint.sample(stage, blueprint.historyOf(history),
+                    blueprint.potOddsBucket(currentBet, pot), blueprint.handBucketOf(winProbability), random);
+            if (action != null) return legalAction(action, currentBet);
+        }
+
+        StrategyTable table = StrategyTable.shared();
+        if (table == null) return null;
+        BettingTree.Node node = table.find(stage, history);
+        if (node == null || node.getPlayer() != BettingTree.SECOND) return null;
+        return table.sample(stage, node, table.bucketOf(winProbability), random);
+    }
+
+    /**
+     * Expert and Expert+ on the river: the best action of an expectimax search of the rest of
+     * the street. Returns null (use the thresholds) when there is nothing to search with.
+     */
+    private BettingAction riverSearchDecision(DecisionContext street, int currentBet, int pot, int aiChips) {
+        if (human == null) return null;
+        List<BettingAction> history = streetStage == RoundStage.RIVER ? streetActions : List.of();
+        if (!history.isEmpty() && history.get(history.size() - 1) == BettingAction.CALL) {
+            return BettingAction.CHECK; // The human called our raise; calling again would pay twice
+        }
+
+        if (riverSearch == null || riverSearchContext != street) {
+            OpponentProfile opponent = opponentModel == null ? null : opponentModel.currentProfile();
+            riverSearch = new RiverSearch(street.getRangeEquity(),
+                    (bet, potSize, aiStack, humanStack) -> sizeFor(street, potSize, RoundManager.minimumRaise(bet),
+                            aiStack, humanStack),
+                    BetSizingEngine.tightness(opponent, RoundStage.RIVER));
+            riverSearchContext = street;
+        }
+
+        // Narrow the human's range by how they played the river (they act on even turns)
+        double share = 1;
+        int raises = 0;
+        for (int i = 0; i < history.size(); i++) {
+            BettingAction action = history.get(i);
+            if (action != BettingAction.BET && action != BettingAction.RAISE && action != BettingAction.ALL_IN) continue;
+            raises++;
+            if (i % 2 == 0) share *= raises == 1 ? RIVER_BET_RANGE : RIVER_RAISE_RANGE;
         }
+        int hands = street.getRangeEquity().size();
+        int rangeLow = (int) Math.round(hands * (1 - share));
 
-        return makeProbabilityBasedDecision(winProbability, currentBet, pot, stage, aiChips);
+        RiverSearch.Result result = riverSearch.search(currentBet, pot, aiChips, human.getChips(), rangeLow, raises,
+                RIVER_BUDGET_NANOS);
+        return result == null ? null : result.getAction();
     }
 
-    private BettingAction makeProbabilityBasedDecision(double winProbability, int currentBet, int pot, RoundStage stage, int aiChips) {
+    /**
+     * Maps a strategy action onto what is legal facing (or not facing) the current bet
+     */
+    private static BettingAction legalAction(BettingAction action, int currentBet) {
+        if (currentBet == 0) {
+            return switch (action) {
+                case FOLD, CALL -> BettingAction.CHECK;
+                case RAISE -> BettingAction.BET;
+                default -> action;
+            };
+        }
+        return switch (action) {
+            case CHECK -> BettingAction.CALL;
+            case BET -> BettingAction.RAISE;
+            default -> action;
+        };
+    }
+
+    private BettingAction makeProbabilityBasedDecision(double winProbability, int currentBet, int pot, RoundStage stage,
+                                                       int aiChips, OpponentProfile opponent, DecisionContext street) {
         // Calculate pot odds for decision making
         double potOdds = currentBet > 0 ? (double) currentBet / (pot + currentBet) : 0;
 
+        // Opponent reads (Normal and Expert only): an aggressive opponent bets weaker hands,
+        // so call a little lighter; one who folds to bets a lot gets bluffed more often
+        double callMargin = 0;
+        int bluffChance = 15;
+        if (opponent != null) {
+            if (opponent.getAggressionFactor() > 2.5) callMargin = 0.05;
+            if (opponent.knowsFoldToBet(stage)) {
+                bluffChance = (int) Math.round(Math.max(5, Math.min(50, 40 * opponent.getFoldToBet(stage))));
+            }
+        }
+
         if (difficulty == 1) { // Beginner AI - simple decisions
             if (winProbability < 0.3) {
                 return currentBet == 0 ? BettingAction.CHECK : BettingAction.FOLD;
@@ -76,7 +358,8 @@ public class PokerAI {
             }
             return currentBet == 0 ? BettingAction.BET : BettingAction.CALL;
         } else if (difficulty == 2) { // Normal AI - moderate strategy
-            if (winProbability < 0.25 && currentBet > 0) {
+            // Keep drawing while the next card is more likely to be an out than the price
+            if (winProbability < 0.25 - callMargin && currentBet > 0 && !hasDrawingOdds(street, potOdds)) {
                 return BettingAction.FOLD;
             }
             if (winProbability < 0.45) {
@@ -91,12 +374,19 @@ public class PokerAI {
             return currentBet == 0 ? BettingAction.CHECK : BettingAction.CALL;
         } else { // Expert AI - sophisticated strategy
             // Profitable call calculation
-            boolean profitableCall = potOdds < winProbability;
-
-            if (winProbability < 0.2 && currentBet > 0) {
+            boolean profitableCall = potOdds < winProbability + callMargin;
+
+            // Draws: semi-bluff some of the time, and keep calling while the chance of
+            // improving on the next card beats the price
+            HandPotential potential = stage != RoundStage.RIVER ? street.getPotential() : null;
+            if (potential != null && potential.isDraw()) {
+                if (currentBet == 0 && random.nextInt(100) < 30) return BettingAction.BET;
+                if (currentBet > 0 && potential.getPositivePotential() > potOdds) return BettingAction.CALL;
+            }
+            if (winProbability < 0.2 - callMargin && currentBet > 0) {
                 return BettingAction.FOLD;
             }
-            if (winProbability < 0.3 && random.nextInt(100) < 15 && pot > 100) {
+            if (winProbability < 0.3 && random.nextInt(100) < bluffChance && pot > 100) {
                 return currentBet == 0 ? BettingAction.BET : BettingAction.RAISE; // Occasional bluff
             }
             if (winProbability > 0.8 && random.nextInt(100) < 40 && stage == RoundStage.RIVER) {
@@ -112,6 +402,38 @@ public class PokerAI {
         }
     }
 
+    /**
+     * Chips the AI puts in when it bets (currentBet == 0) or raises. Expert and Expert+ search
+     * the EV-maximizing size post-flop; returns -1 when the caller should keep the fixed size
+     * of the other levels.
+     *
+     * @param minimum       smallest legal bet or raise
+     * @param opponentChips chips the opponent has left to call with
+     */
+    public int chooseBetSize(int currentBet, int pot, int minimum, int opponentChips, RoundStage stage,
+                             List<Card> communityCards) {
+        if (difficulty < 3 || stage == RoundStage.PRE_FLOP) return -1;
+        return sizeFor(contextFor(stage, communityCards), pot, minimum, ai.getChips(), opponentChips);
+    }
+
+    private int sizeFor(DecisionContext street, int pot, int minimum, int aiChips, int opponentChips) {
+        if (minimum >= aiChips) return aiChips;
+        // A call never puts in more than the opponent has, so bigger sizes only risk chips
+        int maximum = Math.max(minimum, Math.min(aiChips, opponentChips));
+        return searchSize(street, pot, minimum, maximum);
+    }
+
+    private int searchSize(DecisionContext street, int pot, int minimum, int maximum) {
+        OpponentProfile opponent = opponentModel == null ? null : opponentModel.currentProfile();
+        return sizing.chooseSize(street.getRangeEquity(), pot, minimum, maximum,
+                BetSizingEngine.tightness(opponent, street.getStage()));
+    }
+
+    private static boolean hasDrawingOdds(DecisionContext street, double potOdds) {
+        Outs outs = street.getOuts();
+        return outs != null && outs.getNextCardOdds() > potOdds;
+    }
+
     // Keep all existing methods below unchanged
     private BettingAction handleShortStackDecision(int handStrength, RoundStage stage) {
         // Existing implementation
@@ -126,6 +448,7 @@ public class PokerAI {
                 return BettingAction.CHECK;
 
             case 3: // 🟢 Expert AI: Aggressive, strategic bluffs
+            case EXPERT_PLUS:
                 if (handStrength >= 6 || (stage == RoundStage.RIVER && random.nextInt(100) < 40)) {
                     return BettingAction.ALL_IN;
                 }
@@ -134,39 +457,6 @@ public class PokerAI {
         return BettingAction.CHECK; // Default safety return
     }
 
-    // Keep other existing methods (decideOnRaise, decideAllInCall, etc.)
-    public int decideOnRaise(int currentBet, int pot, HandRank aiHandRank) {
-        int handStrength = HandEvaluator.getHandRankValue(aiHandRank.getRank());
-        int aiChips = ai.getChips();
-
-        if (handStrength < 3 && currentBet > aiChips / 3) {
-            int foldChance = difficulty == 1 ? 10 : (difficulty == 2 ? 30 : 50);
-            if (random.nextInt(100) < foldChance) return currentBet; // AI calls more often
-            return -1; // Otherwise, AI folds (only sometimes)
-        }
-
-
-        // AI Calls if already committed or if pot odds are favorable
-        double potOdds = (double) currentBet / (pot + currentBet);
-        double aiCallChance = (handStrength * 0.15) + (1 - potOdds) + (difficulty * 0.05);
-        if (random.nextDouble() < aiCallChance) {
-            return currentBet;
-        }
-
-        if (currentBet == 0) { // Check
-            return 0;
-        }
-
-        // raise only if it has a strong hand and hasn't matched the bet
-        if (handStrength >= 6 && currentBet < aiChips / 2) {
-            int raiseAmount = Math.min(currentBet + 50, aiChips); // Ensures AI doesn't overbet
-            return raiseAmount;
-        }
-
-        return currentBet;
-    }
-
-
     public int decideAllInCall(int currentBet, int pot, HandRank aiHandRank, int difficulty) {
         int handStrength = HandEvaluator.getHandRankValue(aiHandRank.getRank());
         double potOdds = (double) currentBet / (pot + currentBet);
@@ -179,6 +469,7 @@ public class PokerAI {
                 if (handStrength >= 7 || potOdds < 0.4) return 1;
                 return 2;
             case 3:
+            case EXPERT_PLUS:
                 if (handStrength >= 5 || potOdds < 0.6) return 1;
                 return 2;
             default:
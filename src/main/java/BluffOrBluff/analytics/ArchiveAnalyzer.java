@@ -0,0 +1,111 @@
+package BluffOrBluff.analytics;
+
+import BluffOrBluff.history.HandRecord;
+import BluffOrBluff.history.SegmentReader;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Computes ArchiveStats over hand-history archives with fork/join.
+ *
+ * The archive is split by segment, because every segment restarts the codec's delta state
+ * and can be decoded on its own. Each leaf task streams one segment through its own
+ * accumulator, and results are merged on the way back up.
+ *
+ * Usage: ArchiveAnalyzer <segment file or directory>... [--top N]
+ */
+public class ArchiveAnalyzer {
+    private final ForkJoinPool pool;
+
+    public ArchiveAnalyzer() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public ArchiveAnalyzer(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public ArchiveStats analyze(List<Path> segments) throws IOException {
+        try {
+            return pool.invoke(new ChunkTask(segments, 0, segments.size()));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class ChunkTask extends RecursiveTask<ArchiveStats> {
+        // ForkJoinTask is Serializable, but tasks never leave the pool
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<Path> segments;
+        private final int from;
+        private final int to;
+
+        ChunkTask(List<Path> segments, int from, int to) {
+            this.segments = segments;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected ArchiveStats compute() {
+            if (to - from <= 1) {
+                return from < to ? analyzeSegment(segments.get(from)) : new ArchiveStats();
+            }
+            int middle = (from + to) >>> 1;
+            ChunkTask left = new ChunkTask(segments, from, middle);
+            left.fork();
+            ArchiveStats right = new ChunkTask(segments, middle, to).compute();
+            return left.join().merge(right);
+        }
+
+        private ArchiveStats analyzeSegment(Path path) {
+            ArchiveStats stats = new ArchiveStats();
+            try (SegmentReader reader = new SegmentReader(path)) {
+                HandRecord record;
+                while ((record = reader.next()) != null) {
+                    stats.add(record);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return stats;
+        }
+    }
+
+    public static void main(String[] args) {
+        int top = 10;
+        List<Path> segments = new ArrayList<>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                if (args[i].equals("--top") && i + 1 < args.length) {
+                    top = Integer.parseInt(args[++i]);
+                    continue;
+                }
+                Path path = Paths.get(args[i]);
+                if (Files.isDirectory(path)) segments.addAll(SegmentReader.listSegments(path));
+                else segments.add(path);
+            }
+            if (segments.isEmpty()) {
+                System.out.println("Usage: ArchiveAnalyzer <segment file or directory>... [--top N]");
+                return;
+            }
+
+            long start = System.nanoTime();
+            ArchiveStats stats = new ArchiveAnalyzer().analyze(segments);
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            System.out.print(stats.report(top));
+            System.out.println("\n" + segments.size() + " segment(s) in " + millis + " ms");
+        } catch (IOException | IllegalStateException | NumberFormatException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package BluffOrBluff.analytics;
+
+import BluffOrBluff.history.HandRecord;
+import BluffOrBluff.logic.RoundListener;
+import BluffOrBluff.logic.RoundStage;
+import BluffOrBluff.model.BettingAction;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aggregates for a set of hands: per-player results by starting hand and showdown
+ * frequency, plus AI fold rates per street and difficulty. One instance is filled per
+ * chunk and the chunks are merged, so nothing but these counters is ever kept in memory.
+ */
+public class ArchiveStats {
+    private static final int DIFFICULTY_SLOTS = 5;
+    private static final int STAGES = RoundStage.values().length;
+
+    private final Map<String, PlayerAccumulator> players = new HashMap<>();
+    private final long[] aiDecisions = new long[DIFFICULTY_SLOTS * STAGES];
+    private final long[] aiFolds = new long[DIFFICULTY_SLOTS * STAGES];
+    private long hands;
+
+    public void add(HandRecord record) {
+        hands++;
+        long[] invested = new long[2];
+        for (int i = 0; i < record.getActionCount(); i++) {
+            int seat = record.getActionSeat(i);
+            invested[seat] += record.getActionAmount(i);
+            if (seat == RoundListener.AI_SEAT && record.getDifficulty() < DIFFICULTY_SLOTS) {
+                int slot = record.getDifficulty() * STAGES + record.getActionStage(i).ordinal();
+                aiDecisions[slot]++;
+                if (record.getAction(i) == BettingAction.FOLD) aiFolds[slot]++;
+            }
+        }
+
+        for (int seat = 0; seat < 2; seat++) {
+            boolean won = record.getWinner() == seat;
+            long payout = won ? record.getPot()
+                    : record.getWinner() == RoundListener.SPLIT_POT ? record.getPot() / 2 : 0;
+            int startingHand = StartingHands.indexOf(record.getHoleCard(seat, 0), record.getHoleCard(seat, 1));
+            players.computeIfAbsent(record.getName(seat), name -> new PlayerAccumulator())
+                   .add(startingHand, won, record.isShowdown(), payout - invested[seat]);
+        }
+    }
+
+    public ArchiveStats merge(ArchiveStats other) {
+        hands += other.hands;
+        for (int i = 0; i < aiDecisions.length; i++) {
+            aiDecisions[i] += other.aiDecisions[i];
+            aiFolds[i] += other.aiFolds[i];
+        }
+        other.players.forEach((name, accumulator) ->
+                players.computeIfAbsent(name, key -> new PlayerAccumulator()).merge(accumulator));
+        return this;
+    }
+
+    public long getHands() {
+        return hands;
+    }
+
+    public Map<String, PlayerAccumulator> getPlayers() {
+        return players;
+    }
+
+    public long getAIDecisions(int difficulty, RoundStage stage) {
+        return aiDecisions[difficulty * STAGES + stage.ordinal()];
+    }
+
+    public double getAIFoldRate(int difficulty, RoundStage stage) {
+        long decisions = getAIDecisions(difficulty, stage);
+        return decisions == 0 ? 0 : (double) aiFolds[difficulty * STAGES + stage.ordinal()] / decisions;
+    }
+
+    /**
+     * Text report; topHands limits the starting-hand table per player
+     */
+    public String report(int topHands) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Hands analysed: ").append(hands).append("\n");
+
+        for (Map.Entry<String, PlayerAccumulator> entry : players.entrySet()) {
+            PlayerAccumulator player = entry.getValue();
+            sb.append(String.format("%n%s: %d hands, win rate %.1f%%, showdown %.1f%% (won %.1f%%), net %+d chips%n",
+                    entry.getKey(), player.getHands(), 100 * player.getWinRate(),
+                    100 * player.getShowdownFrequency(), 100 * player.getShowdownWinRate(), player.getNetChips()));
+
+            List<Integer> dealt = new ArrayList<>();
+            for (int i = 0; i < StartingHands.COUNT; i++) {
+                if (player.getHands(i) > 0) dealt.add(i);
+            }
+            dealt.sort((a, b) -> Double.compare(player.getNetPerHand(b), player.getNetPerHand(a)));
+            for (int i = 0; i < Math.min(topHands, dealt.size()); i++) {
+                int hand = dealt.get(i);
+                sb.append(String.format("  %-4s %6d hands  win %5.1f%%  %+8.1f chips/hand%n",
+                        StartingHands.nameOf(hand), player.getHands(hand),
+                        100 * player.getWinRate(hand), player.getNetPerHand(hand)));
+            }
+        }
+
+        sb.append("\nAI fold rate by street:\n");
+        for (int difficulty = 1; difficulty < DIFFICULTY_SLOTS; difficulty++) {
+            StringBuilder row = new StringBuilder();
+            for (RoundStage stage : RoundStage.values()) {
+                if (getAIDecisions(difficulty, stage) == 0) continue;
+                row.append(String.format("  %s %.1f%% (%d)", stage, 100 * getAIFoldRate(difficulty, stage),
+                        getAIDecisions(difficulty, stage)));
+            }
+            if (row.length() > 0) sb.append("  difficulty ").append(difficulty).append(":").append(row).append("\n");
+        }
+        return sb.toString();
+    }
+}
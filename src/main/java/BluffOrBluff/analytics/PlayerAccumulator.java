@@ -0,0 +1,77 @@
+package BluffOrBluff.analytics;
+
+/**
+ * Running totals for one player name, all in primitive arrays so merging two chunks is a loop
+ */
+public class PlayerAccumulator {
+    private long hands;
+    private long wins;
+    private long showdowns;
+    private long showdownWins;
+    private long netChips;
+    private final long[] handsByStart = new long[StartingHands.COUNT];
+    private final long[] winsByStart = new long[StartingHands.COUNT];
+    private final long[] netByStart = new long[StartingHands.COUNT];
+
+    void add(int startingHand, boolean won, boolean showdown, long net) {
+        hands++;
+        handsByStart[startingHand]++;
+        netChips += net;
+        netByStart[startingHand] += net;
+        if (won) {
+            wins++;
+            winsByStart[startingHand]++;
+        }
+        if (showdown) {
+            showdowns++;
+            if (won) showdownWins++;
+        }
+    }
+
+    void merge(PlayerAccumulator other) {
+        hands += other.hands;
+        wins += other.wins;
+        showdowns += other.showdowns;
+        showdownWins += other.showdownWins;
+        netChips += other.netChips;
+        for (int i = 0; i < StartingHands.COUNT; i++) {
+            handsByStart[i] += other.handsByStart[i];
+            winsByStart[i] += other.winsByStart[i];
+            netByStart[i] += other.netByStart[i];
+        }
+    }
+
+    public long getHands() {
+        return hands;
+    }
+
+    public double getWinRate() {
+        return hands == 0 ? 0 : (double) wins / hands;
+    }
+
+    public double getShowdownFrequency() {
+        return hands == 0 ? 0 : (double) showdowns / hands;
+    }
+
+    public double getShowdownWinRate() {
+        return showdowns == 0 ? 0 : (double) showdownWins / showdowns;
+    }
+
+    public long getNetChips() {
+        return netChips;
+    }
+
+    public long getHands(int startingHand) {
+        return handsByStart[startingHand];
+    }
+
+    public double getWinRate(int startingHand) {
+        long dealt = handsByStart[startingHand];
+        return dealt == 0 ? 0 : (double) winsByStart[startingHand] / dealt;
+    }
+
+    public double getNetPerHand(int startingHand) {
+        long dealt = handsByStart[startingHand];
+        return dealt == 0 ? 0 : (double) netByStart[startingHand] / dealt;
+    }
+}
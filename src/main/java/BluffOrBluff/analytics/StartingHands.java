@@ -0,0 +1,35 @@
+package BluffOrBluff.analytics;
+
+import BluffOrBluff.model.Card;
+
+/**
+ * The 169 distinct starting hands (13 pairs, 78 suited, 78 offsuit) as dense indexes.
+ * Index = high * 13 + low for suited hands, low * 13 + high for offsuit, rank * 14 for pairs.
+ */
+public final class StartingHands {
+    public static final int COUNT = 169;
+    private static final String RANKS = "23456789TJQKA";
+
+    private StartingHands() {
+    }
+
+    public static int indexOf(Card first, Card second) {
+        int a = first.getRank().ordinal();
+        int b = second.getRank().ordinal();
+        int high = Math.max(a, b);
+        int low = Math.min(a, b);
+        boolean suited = first.getSuit() == second.getSuit();
+        return suited ? high * 13 + low : low * 13 + high;
+    }
+
+    /**
+     * Short name such as "AKs", "T9o" or "QQ"
+     */
+    public static String nameOf(int index) {
+        int row = index / 13;
+        int column = index % 13;
+        if (row == column) return "" + RANKS.charAt(row) + RANKS.charAt(row);
+        if (row > column) return "" + RANKS.charAt(row) + RANKS.charAt(column) + "s";
+        return "" + RANKS.charAt(column) + RANKS.charAt(row) + "o";
+    }
+}
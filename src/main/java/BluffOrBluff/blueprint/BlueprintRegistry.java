@@ -0,0 +1,47 @@
+package BluffOrBluff.blueprint;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps each blueprint file once per JVM, on first use, and hands the same table to every
+ * caller. Missing or unreadable files are remembered too, so they are not retried per decision.
+ */
+public final class BlueprintRegistry {
+    public static final String DEFAULT_FILE = "expert-plus.blueprint";
+
+    private static final Map<Path, Optional<BlueprintTable>> TABLES = new ConcurrentHashMap<>();
+    // Resolved once: shared() is asked on every Expert+ decision
+    private static final Path SHARED_FILE = Paths.get(System.getProperty("bluff.blueprint.file", DEFAULT_FILE))
+            .toAbsolutePath().normalize();
+
+    private BlueprintRegistry() {
+    }
+
+    /**
+     * Blueprint from -Dbluff.blueprint.file (default expert-plus.blueprint), or null
+     */
+    public static BlueprintTable shared() {
+        return TABLES.computeIfAbsent(SHARED_FILE, BlueprintRegistry::open).orElse(null);
+    }
+
+    public static BlueprintTable get(Path file) {
+        return TABLES.computeIfAbsent(file.toAbsolutePath().normalize(), BlueprintRegistry::open).orElse(null);
+    }
+
+    private static Optional<BlueprintTable> open(Path file) {
+        if (!Files.exists(file)) return Optional.empty();
+        try {
+            return Optional.of(BlueprintTable.open(file));
+        } catch (IOException e) {
+            // Stderr like the journal's and hand history's errors; stdout is the game's table
+            System.err.println("Ignoring blueprint " + file + ": " + e.getMessage());
+            return Optional.empty();
+        }
+    }
+}
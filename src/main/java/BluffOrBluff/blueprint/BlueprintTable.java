@@ -0,0 +1,158 @@
+package BluffOrBluff.blueprint;
+
+import BluffOrBluff.logic.RoundStage;
+import BluffOrBluff.model.BettingAction;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Read-only blueprint strategy, memory-mapped from a versioned file so it lives off-heap
+ * and every game in the JVM shares the same pages (see BlueprintRegistry).
+ *
+ * The table is a dense array of 8-byte cells indexed by
+ * (stage, action history, pot-odds bucket, hand bucket). A cell packs the cumulative
+ * probability of each BettingAction, one byte per action in ordinal order, so drawing an
+ * action is one read and a few shifts. An all-zero cell means "no data".
+ *
+ * File layout (big-endian):
+ *   magic "BOBP", version u16, reserved u16, stages, histories, potOddsBuckets, handBuckets,
+ *   created (epoch millis, long), padding to HEADER_SIZE, then the cells
+ */
+public class BlueprintTable {
+    static final int MAGIC = 0x424F4250; // "BOBP"
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int ACTIONS = BettingAction.values().length;
+    // Largest pot odds a bet can offer is 1:1 when the caller is priced in at half the pot
+    static final double MAX_POT_ODDS = 0.5;
+
+    private final MappedByteBuffer cells;
+    private final int stages;
+    private final int histories;
+    private final int potOddsBuckets;
+    private final int handBuckets;
+    private final long created;
+
+    private BlueprintTable(MappedByteBuffer cells, int stages, int histories, int potOddsBuckets,
+                           int handBuckets, long created) {
+        this.cells = cells;
+        this.stages = stages;
+        this.histories = histories;
+        this.potOddsBuckets = potOddsBuckets;
+        this.handBuckets = handBuckets;
+        this.created = created;
+    }
+
+    /**
+     * Maps a blueprint file; prefer BlueprintRegistry, which maps each file only once
+     */
+    public static BlueprintTable open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) throw new IOException("Not a blueprint file: " + file);
+            // The mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt(0) != MAGIC) throw new IOException("Not a blueprint file: " + file);
+            short version = buffer.getShort(4);
+            if (version != VERSION) {
+                throw new IOException("Unsupported blueprint version " + version + " in " + file);
+            }
+            int stages = buffer.getInt(8);
+            int histories = buffer.getInt(12);
+            int potOddsBuckets = buffer.getInt(16);
+            int handBuckets = buffer.getInt(20);
+            long created = buffer.getLong(24);
+            long expected = HEADER_SIZE + 8L * stages * histories * potOddsBuckets * handBuckets;
+            if (channel.size() != expected) {
+                throw new IOException("Truncated blueprint file " + file + ": " + channel.size() + " of " + expected + " bytes");
+            }
+            return new BlueprintTable(buffer, stages, histories, potOddsBuckets, handBuckets, created);
+        }
+    }
+
+    /**
+     * Action drawn from the cell's distribution, or null if the blueprint has no data for it
+     */
+    public BettingAction sample(RoundStage stage, int history, int potOddsBucket, int handBucket, Random random) {
+        long cell = cell(stage, history, potOddsBucket, handBucket);
+        if (cell == 0) return null;
+        int pick = random.nextInt(255);
+        for (int a = 0; a < ACTIONS; a++) {
+            if (pick < (int) ((cell >>> (8 * a)) & 0xFF)) return BettingAction.values()[a];
+        }
+        return null;
+    }
+
+    /**
+     * Probability of each BettingAction (by ordinal) in a cell; all zero if there is no data
+     */
+    public double[] probabilities(RoundStage stage, int history, int potOddsBucket, int handBucket) {
+        long cell = cell(stage, history, potOddsBucket, handBucket);
+        double[] probabilities = new double[ACTIONS];
+        int previous = 0;
+        for (int a = 0; a < ACTIONS && cell != 0; a++) {
+            int cumulative = (int) ((cell >>> (8 * a)) & 0xFF);
+            probabilities[a] = (cumulative - previous) / 255.0;
+            previous = cumulative;
+        }
+        return probabilities;
+    }
+
+    private long cell(RoundStage stage, int history, int potOddsBucket, int handBucket) {
+        if (stage.ordinal() >= stages) return 0;
+        int index = ((stage.ordinal() * histories + history) * potOddsBuckets + potOddsBucket) * handBuckets + handBucket;
+        return cells.getLong(HEADER_SIZE + 8 * index);
+    }
+
+    /**
+     * History index of a street: bets, raises and all-ins so far, capped at the last index
+     */
+    public int historyOf(List<BettingAction> streetActions) {
+        return historyIndex(streetActions.stream()
+                .filter(action -> action == BettingAction.BET || action == BettingAction.RAISE
+                        || action == BettingAction.ALL_IN)
+                .count(), histories);
+    }
+
+    static int historyIndex(long aggressiveActions, int histories) {
+        return (int) Math.min(aggressiveActions, histories - 1);
+    }
+
+    /**
+     * Bucket 0 is "no bet to call"; the others split the price of a call up to MAX_POT_ODDS
+     */
+    public int potOddsBucket(int currentBet, int pot) {
+        return potOddsIndex(currentBet, pot, potOddsBuckets);
+    }
+
+    static int potOddsIndex(int toCall, int pot, int potOddsBuckets) {
+        if (toCall <= 0) return 0;
+        double odds = (double) toCall / (pot + toCall);
+        return 1 + Math.min(potOddsBuckets - 2, (int) (odds / MAX_POT_ODDS * (potOddsBuckets - 1)));
+    }
+
+    public int handBucketOf(double equity) {
+        return Math.max(0, Math.min(handBuckets - 1, (int) (equity * handBuckets)));
+    }
+
+    public int getHistories() {
+        return histories;
+    }
+
+    public int getPotOddsBuckets() {
+        return potOddsBuckets;
+    }
+
+    public int getHandBuckets() {
+        return handBuckets;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+}
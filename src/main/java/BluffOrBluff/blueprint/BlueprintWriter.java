@@ -0,0 +1,126 @@
+package BluffOrBluff.blueprint;
+
+import BluffOrBluff.logic.RoundStage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Collects strategies into blueprint cells and writes a BlueprintTable file. Several
+ * strategies landing in one cell are averaged. Cells nobody filled borrow the nearest
+ * filled pot-odds bucket of the same stage, history and hand bucket; "no bet" cells never
+ * borrow from "facing a bet" cells or the other way round.
+ */
+public class BlueprintWriter {
+    private final int stages = RoundStage.values().length;
+    private final int histories;
+    private final int potOddsBuckets;
+    private final int handBuckets;
+    private final double[][] sums;
+
+    public BlueprintWriter(int histories, int potOddsBuckets, int handBuckets) {
+        if (histories < 1 || potOddsBuckets < 2 || handBuckets < 1) {
+            throw new IllegalArgumentException("Invalid blueprint dimensions");
+        }
+        this.histories = histories;
+        this.potOddsBuckets = potOddsBuckets;
+        this.handBuckets = handBuckets;
+        this.sums = new double[stages * histories * potOddsBuckets * handBuckets][];
+    }
+
+    /**
+     * Adds a strategy to a cell; probabilities are indexed by BettingAction ordinal
+     */
+    public void add(RoundStage stage, long aggressiveActions, int toCall, int pot, int handBucket, double[] probabilities) {
+        int history = BlueprintTable.historyIndex(aggressiveActions, histories);
+        int potOdds = BlueprintTable.potOddsIndex(toCall, pot, potOddsBuckets);
+        int index = index(stage.ordinal(), history, potOdds, handBucket);
+        if (sums[index] == null) sums[index] = new double[BlueprintTable.ACTIONS];
+        for (int a = 0; a < BlueprintTable.ACTIONS; a++) {
+            sums[index][a] += probabilities[a];
+        }
+    }
+
+    public int getHandBuckets() {
+        return handBuckets;
+    }
+
+    public void write(Path file) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(BlueprintTable.HEADER_SIZE);
+            header.putInt(BlueprintTable.MAGIC);
+            header.putShort(BlueprintTable.VERSION);
+            header.putShort((short) 0);
+            header.putInt(stages);
+            header.putInt(histories);
+            header.putInt(potOddsBuckets);
+            header.putInt(handBuckets);
+            header.putLong(System.currentTimeMillis());
+            header.clear();
+            channel.write(header);
+
+            ByteBuffer body = ByteBuffer.allocate(8 * sums.length);
+            for (int stage = 0; stage < stages; stage++) {
+                for (int history = 0; history < histories; history++) {
+                    for (int potOdds = 0; potOdds < potOddsBuckets; potOdds++) {
+                        for (int hand = 0; hand < handBuckets; hand++) {
+                            body.putLong(pack(filled(stage, history, potOdds, hand)));
+                        }
+                    }
+                }
+            }
+            body.flip();
+            while (body.hasRemaining()) channel.write(body);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private double[] filled(int stage, int history, int potOdds, int hand) {
+        double[] own = sums[index(stage, history, potOdds, hand)];
+        if (own != null || potOdds == 0) return own;
+        for (int distance = 1; distance < potOddsBuckets; distance++) {
+            for (int candidate : new int[] {potOdds - distance, potOdds + distance}) {
+                if (candidate < 1 || candidate >= potOddsBuckets) continue;
+                double[] near = sums[index(stage, history, candidate, hand)];
+                if (near != null) return near;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Cumulative probabilities, one byte per action; the last non-zero action always reaches 255
+     */
+    private static long pack(double[] sum) {
+        if (sum == null) return 0;
+        double total = 0;
+        for (double value : sum) total += value;
+        if (total <= 0) return 0;
+
+        long cell = 0;
+        double cumulative = 0;
+        int last = 0;
+        for (int a = 0; a < BlueprintTable.ACTIONS; a++) {
+            cumulative += sum[a] / total;
+            int threshold = (int) Math.round(cumulative * 255);
+            if (sum[a] > 0) last = a;
+            cell |= (long) threshold << (8 * a);
+        }
+        // Rounding must not leave the top of the range unassigned
+        for (int a = last; a < BlueprintTable.ACTIONS; a++) {
+            cell |= 0xFFL << (8 * a);
+        }
+        return cell;
+    }
+
+    private int index(int stage, int history, int potOdds, int hand) {
+        return ((stage * histories + history) * potOddsBuckets + potOdds) * handBuckets + hand;
+    }
+}
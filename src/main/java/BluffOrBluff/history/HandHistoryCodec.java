@@ -0,0 +1,171 @@
+package BluffOrBluff.history;
+
+import BluffOrBluff.logic.RoundStage;
+import BluffOrBluff.model.BettingAction;
+import BluffOrBluff.model.Card;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Binary format for hand records. Numbers are LEB128 varints, hand numbers and timestamps
+ * are deltas from the previous record, and player names are only written when they change,
+ * so a typical hand takes 30-40 bytes. The codec is stateful: one instance per segment,
+ * reset at the start of every segment, and records must be decoded in the order written.
+ *
+ * Record layout (after the varint length prefix written by SegmentWriter):
+ *   zigzag handNumberDelta, zigzag timestampDelta, flags, [name0, name1],
+ *   difficulty, stack0, stack1, 4 hole card bytes, boardCount + board bytes,
+ *   actionCount + (stage:4|seat:1|action:3 byte, amount varint)*, pot, winner + 1
+ */
+public class HandHistoryCodec {
+    private static final int FLAG_SHOWDOWN = 1;
+    private static final int FLAG_NAMES = 2;
+
+    private long previousHandNumber;
+    private long previousTimestamp;
+    private final String[] previousNames = new String[2];
+
+    public void reset() {
+        previousHandNumber = 0;
+        previousTimestamp = 0;
+        previousNames[0] = null;
+        previousNames[1] = null;
+    }
+
+    public void encode(HandRecord record, ByteBuffer out) {
+        writeVarint(out, zigzag(record.getHandNumber() - previousHandNumber));
+        writeVarint(out, zigzag(record.getTimestamp() - previousTimestamp));
+        previousHandNumber = record.getHandNumber();
+        previousTimestamp = record.getTimestamp();
+
+        boolean namesChanged = !Objects.equals(record.getName(0), previousNames[0])
+                || !Objects.equals(record.getName(1), previousNames[1]);
+        int flags = (record.isShowdown() ? FLAG_SHOWDOWN : 0) | (namesChanged ? FLAG_NAMES : 0);
+        out.put((byte) flags);
+        if (namesChanged) {
+            for (int seat = 0; seat < 2; seat++) {
+                byte[] name = record.getName(seat).getBytes(StandardCharsets.UTF_8);
+                writeVarint(out, name.length);
+                out.put(name);
+                previousNames[seat] = record.getName(seat);
+            }
+        }
+
+        out.put((byte) record.getDifficulty());
+        writeVarint(out, record.getStartingStack(0));
+        writeVarint(out, record.getStartingStack(1));
+        for (int seat = 0; seat < 2; seat++) {
+            out.put(toByte(record.getHoleCard(seat, 0)));
+            out.put(toByte(record.getHoleCard(seat, 1)));
+        }
+        out.put((byte) record.getBoard().size());
+        for (Card card : record.getBoard()) {
+            out.put(toByte(card));
+        }
+
+        writeVarint(out, record.getActionCount());
+        for (int i = 0; i < record.getActionCount(); i++) {
+            int packed = record.getActionStage(i).ordinal() << 4
+                    | record.getActionSeat(i) << 3
+                    | record.getAction(i).ordinal();
+            out.put((byte) packed);
+            writeVarint(out, record.getActionAmount(i));
+        }
+        writeVarint(out, record.getPot());
+        out.put((byte) (record.getWinner() + 1));
+    }
+
+    public HandRecord decode(ByteBuffer in) {
+        try {
+            HandRecord record = new HandRecord();
+            long handNumber = previousHandNumber + unzigzag(readVarint(in));
+            long timestamp = previousTimestamp + unzigzag(readVarint(in));
+            previousHandNumber = handNumber;
+            previousTimestamp = timestamp;
+
+            int flags = in.get();
+            if ((flags & FLAG_NAMES) != 0) {
+                for (int seat = 0; seat < 2; seat++) {
+                    byte[] name = new byte[(int) readVarint(in)];
+                    in.get(name);
+                    previousNames[seat] = new String(name, StandardCharsets.UTF_8);
+                }
+            }
+
+            int difficulty = in.get();
+            record.setHand(handNumber, timestamp, difficulty);
+            int stack0 = (int) readVarint(in);
+            int stack1 = (int) readVarint(in);
+            Card[] hole = new Card[4];
+            for (int i = 0; i < 4; i++) {
+                hole[i] = fromByte(in.get());
+            }
+            record.setSeat(0, previousNames[0], stack0, hole[0], hole[1]);
+            record.setSeat(1, previousNames[1], stack1, hole[2], hole[3]);
+
+            int boardCount = in.get();
+            List<Card> board = new ArrayList<>(boardCount);
+            for (int i = 0; i < boardCount; i++) {
+                board.add(fromByte(in.get()));
+            }
+            record.setBoard(board);
+
+            int actionCount = (int) readVarint(in);
+            RoundStage[] stages = RoundStage.values();
+            BettingAction[] actions = BettingAction.values();
+            for (int i = 0; i < actionCount; i++) {
+                int packed = in.get() & 0xFF;
+                int amount = (int) readVarint(in);
+                record.addAction(stages[packed >>> 4], (packed >>> 3) & 1, actions[packed & 7], amount);
+            }
+            int pot = (int) readVarint(in);
+            int winner = in.get() - 1;
+            record.setResult(winner, pot, (flags & FLAG_SHOWDOWN) != 0);
+            return record;
+        } catch (BufferUnderflowException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalStateException("Corrupt hand history record", e);
+        }
+    }
+
+    /**
+     * Card as a single byte: suit * 13 + rank
+     */
+    public static byte toByte(Card card) {
+        return (byte) (card.getSuit().ordinal() * 13 + card.getRank().ordinal());
+    }
+
+    public static Card fromByte(byte code) {
+        return new Card(Card.Rank.values()[code % 13], Card.Suit.values()[code / 13]);
+    }
+
+    static void writeVarint(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    static long readVarint(ByteBuffer in) {
+        long result = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return result;
+        }
+        throw new IllegalStateException("Malformed varint");
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
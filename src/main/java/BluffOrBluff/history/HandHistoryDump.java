@@ -0,0 +1,44 @@
+package BluffOrBluff.history;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Prints hand history segments as text.
+ * Usage: HandHistoryDump <segment file or directory>...
+ */
+public class HandHistoryDump {
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.out.println("Usage: HandHistoryDump <segment file or directory>...");
+            return;
+        }
+        try {
+            List<Path> segments = new ArrayList<>();
+            for (String arg : args) {
+                Path path = Paths.get(arg);
+                if (Files.isDirectory(path)) segments.addAll(SegmentReader.listSegments(path));
+                else segments.add(path);
+            }
+
+            long hands = 0;
+            for (Path path : segments) {
+                System.out.println("=== " + path.getFileName() + " ===");
+                try (SegmentReader reader = new SegmentReader(path)) {
+                    HandRecord record;
+                    while ((record = reader.next()) != null) {
+                        System.out.println(record);
+                        hands++;
+                    }
+                }
+            }
+            System.out.println(hands + " hands in " + segments.size() + " segment(s)");
+        } catch (IOException | IllegalStateException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package BluffOrBluff.history;
+
+import BluffOrBluff.logic.RoundListener;
+import BluffOrBluff.logic.RoundStage;
+import BluffOrBluff.model.BettingAction;
+import BluffOrBluff.model.Card;
+import BluffOrBluff.model.Player;
+
+import java.util.List;
+
+/**
+ * Builds a HandRecord from one table's RoundManager events and passes it to the
+ * writer when the hand ends. Only cheap in-memory work happens on the game thread.
+ */
+public class HandHistoryRecorder implements RoundListener {
+    private final HandHistoryWriter writer;
+    private HandRecord current;
+
+    public HandHistoryRecorder(HandHistoryWriter writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public void onHandStart(long handNumber, int difficulty, Player human, Player ai) {
+        current = new HandRecord();
+        current.setHand(handNumber, System.currentTimeMillis(), difficulty);
+        addSeat(HUMAN_SEAT, human);
+        addSeat(AI_SEAT, ai);
+    }
+
+    private void addSeat(int seat, Player player) {
+        List<Card> cards = player.getHand().getCards();
+        current.setSeat(seat, player.getName(), player.getChips(), cards.get(0), cards.get(1));
+    }
+
+    @Override
+    public void onCommunityCards(RoundStage stage, List<Card> communityCards) {
+        if (current != null) current.setBoard(communityCards);
+    }
+
+    @Override
+    public void onAction(RoundStage stage, int seat, BettingAction action, int amount, int pot) {
+        if (current != null) current.addAction(stage, seat, action, amount);
+    }
+
+    @Override
+    public void onHandEnd(int winnerSeat, int pot, boolean showdown) {
+        if (current == null) return;
+        current.setResult(winnerSeat, pot, showdown);
+        writer.submit(current);
+        current = null;
+    }
+}
@@ -0,0 +1,88 @@
+package BluffOrBluff.history;
+
+import BluffOrBluff.metrics.Counter;
+import BluffOrBluff.metrics.Metrics;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moves finished hand records off the game thread. submit() only offers the record to a
+ * bounded queue; a daemon thread drains it into the segment files. If the disk falls so
+ * far behind that the queue fills up, records are dropped and counted rather than
+ * stalling the game. After a write error the writer stops, and every later record is dropped.
+ */
+public class HandHistoryWriter implements Closeable {
+    private static final int QUEUE_CAPACITY = 4096;
+    private static final Counter WRITTEN = Metrics.counter("history.written");
+    private static final Counter DROPPED = Metrics.counter("history.dropped");
+
+    private final SegmentWriter segments;
+    private final BlockingQueue<HandRecord> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Thread writerThread;
+    private volatile boolean running = true;
+    private long dropped;
+
+    public HandHistoryWriter(Path directory) throws IOException {
+        this(directory, SegmentWriter.DEFAULT_SEGMENT_SIZE);
+    }
+
+    public HandHistoryWriter(Path directory, int segmentSize) throws IOException {
+        this.segments = new SegmentWriter(directory, segmentSize);
+        this.writerThread = new Thread(this::drain, "hand-history-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Never blocks; returns false if the record had to be dropped
+     */
+    public boolean submit(HandRecord record) {
+        if (running && queue.offer(record)) return true;
+        synchronized (this) {
+            dropped++;
+        }
+        if (Metrics.ENABLED) DROPPED.increment();
+        return false;
+    }
+
+    public synchronized long getDroppedCount() {
+        return dropped;
+    }
+
+    private void drain() {
+        try {
+            while (running || !queue.isEmpty()) {
+                HandRecord record = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (record == null) continue;
+                segments.append(record);
+                if (Metrics.ENABLED) WRITTEN.increment();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            // A mapped segment throws unchecked exceptions too; either way stop rather than die silently
+            System.err.println("Hand history disabled after write error: " + e);
+            running = false;
+            queue.clear();
+        }
+    }
+
+    /**
+     * Writes whatever is still queued, then closes the current segment
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        segments.close();
+    }
+}
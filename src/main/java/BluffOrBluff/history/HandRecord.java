@@ -0,0 +1,164 @@
+package BluffOrBluff.history;
+
+import BluffOrBluff.logic.RoundListener;
+import BluffOrBluff.logic.RoundStage;
+import BluffOrBluff.model.BettingAction;
+import BluffOrBluff.model.Card;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Everything that happened in one hand: seats, hole cards, board, every action and the result.
+ * Actions are kept in parallel primitive arrays so a record costs a handful of objects.
+ */
+public class HandRecord {
+    private static final int INITIAL_ACTIONS = 8;
+
+    private long handNumber;
+    private long timestamp;
+    private int difficulty;
+    private final String[] names = new String[2];
+    private final int[] startingStacks = new int[2];
+    private final Card[] holeCards = new Card[4]; // seat 0 in slots 0-1, seat 1 in slots 2-3
+    private final List<Card> board = new ArrayList<>(5);
+
+    private byte[] actionStages = new byte[INITIAL_ACTIONS];
+    private byte[] actionSeats = new byte[INITIAL_ACTIONS];
+    private byte[] actionTypes = new byte[INITIAL_ACTIONS];
+    private int[] actionAmounts = new int[INITIAL_ACTIONS];
+    private int actionCount;
+
+    private int pot;
+    private int winner = RoundListener.SPLIT_POT;
+    private boolean showdown;
+
+    public void setHand(long handNumber, long timestamp, int difficulty) {
+        this.handNumber = handNumber;
+        this.timestamp = timestamp;
+        this.difficulty = difficulty;
+    }
+
+    public void setSeat(int seat, String name, int stack, Card first, Card second) {
+        names[seat] = name;
+        startingStacks[seat] = stack;
+        holeCards[seat * 2] = first;
+        holeCards[seat * 2 + 1] = second;
+    }
+
+    public void setBoard(List<Card> cards) {
+        board.clear();
+        board.addAll(cards);
+    }
+
+    public void addAction(RoundStage stage, int seat, BettingAction action, int amount) {
+        if (actionCount == actionTypes.length) {
+            int size = actionCount * 2;
+            actionStages = Arrays.copyOf(actionStages, size);
+            actionSeats = Arrays.copyOf(actionSeats, size);
+            actionTypes = Arrays.copyOf(actionTypes, size);
+            actionAmounts = Arrays.copyOf(actionAmounts, size);
+        }
+        actionStages[actionCount] = (byte) stage.ordinal();
+        actionSeats[actionCount] = (byte) seat;
+        actionTypes[actionCount] = (byte) action.ordinal();
+        actionAmounts[actionCount] = amount;
+        actionCount++;
+    }
+
+    public void setResult(int winner, int pot, boolean showdown) {
+        this.winner = winner;
+        this.pot = pot;
+        this.showdown = showdown;
+    }
+
+    public long getHandNumber() {
+        return handNumber;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public int getDifficulty() {
+        return difficulty;
+    }
+
+    public String getName(int seat) {
+        return names[seat];
+    }
+
+    public int getStartingStack(int seat) {
+        return startingStacks[seat];
+    }
+
+    public Card getHoleCard(int seat, int index) {
+        return holeCards[seat * 2 + index];
+    }
+
+    public List<Card> getBoard() {
+        return board;
+    }
+
+    public int getActionCount() {
+        return actionCount;
+    }
+
+    public RoundStage getActionStage(int index) {
+        return RoundStage.values()[actionStages[index]];
+    }
+
+    public int getActionSeat(int index) {
+        return actionSeats[index];
+    }
+
+    public BettingAction getAction(int index) {
+        return BettingAction.values()[actionTypes[index]];
+    }
+
+    public int getActionAmount(int index) {
+        return actionAmounts[index];
+    }
+
+    public int getPot() {
+        return pot;
+    }
+
+    /**
+     * Seat that won the pot, or RoundListener.SPLIT_POT
+     */
+    public int getWinner() {
+        return winner;
+    }
+
+    public boolean isShowdown() {
+        return showdown;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Hand #").append(handNumber).append("  ").append(Instant.ofEpochMilli(timestamp))
+          .append("  difficulty ").append(difficulty).append("\n");
+        for (int seat = 0; seat < 2; seat++) {
+            sb.append("  Seat ").append(seat).append(": ").append(names[seat])
+              .append(" (").append(startingStacks[seat]).append(" chips) [")
+              .append(holeCards[seat * 2]).append(", ").append(holeCards[seat * 2 + 1]).append("]\n");
+        }
+        sb.append("  Board: ").append(board).append("\n");
+        int runningPot = 0;
+        for (int i = 0; i < actionCount; i++) {
+            runningPot += actionAmounts[i];
+            sb.append("  ").append(getActionStage(i)).append(": ").append(names[actionSeats[i]])
+              .append(" ").append(getAction(i));
+            if (actionAmounts[i] > 0) sb.append(" ").append(actionAmounts[i]);
+            sb.append(" (pot ").append(runningPot).append(")\n");
+        }
+        sb.append("  Result: ")
+          .append(winner == RoundListener.SPLIT_POT ? "split pot" : names[winner] + " wins")
+          .append(" ").append(pot).append(showdown ? " at showdown" : "").append("\n");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,70 @@
+package BluffOrBluff.history;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Reads the records of one segment file in order, straight from a read-only mapping
+ */
+public class SegmentReader implements Closeable {
+    private final FileChannel channel;
+    private final ByteBuffer segment;
+    private final HandHistoryCodec codec = new HandHistoryCodec();
+    private final int segmentIndex;
+
+    public SegmentReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        if (segment.remaining() < SegmentWriter.HEADER_SIZE || segment.getInt() != SegmentWriter.MAGIC) {
+            channel.close();
+            throw new IOException("Not a hand history segment: " + path);
+        }
+        short version = segment.getShort();
+        if (version != SegmentWriter.VERSION) {
+            channel.close();
+            throw new IOException("Unsupported hand history version " + version + " in " + path);
+        }
+        segment.getShort();
+        this.segmentIndex = segment.getInt();
+        segment.position(SegmentWriter.HEADER_SIZE);
+    }
+
+    public int getSegmentIndex() {
+        return segmentIndex;
+    }
+
+    /**
+     * Next record, or null at the end of the written data
+     */
+    public HandRecord next() {
+        if (!segment.hasRemaining()) return null;
+        int length = (int) HandHistoryCodec.readVarint(segment);
+        if (length == 0) return null;
+
+        ByteBuffer record = segment.slice(segment.position(), length);
+        segment.position(segment.position() + length);
+        return codec.decode(record);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Segment files in a directory in the order they were written
+     */
+    public static List<Path> listSegments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return new ArrayList<>(files.filter(SegmentWriter::isSegment).sorted().toList());
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package BluffOrBluff.history;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+
+/**
+ * Appends encoded hand records to fixed-size memory-mapped segment files
+ * (hands-000001.seg, hands-000002.seg, ...), starting a new segment when one fills up.
+ *
+ * A segment is a 32-byte header followed by length-prefixed records. The mapped file is
+ * zero-filled, so a zero length marks the end of the data and nothing needs truncating.
+ * Not thread-safe; HandHistoryWriter calls it from its single writer thread.
+ */
+public class SegmentWriter implements Closeable {
+    static final int MAGIC = 0x424F4248; // "BOBH"
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 32;
+    static final String PREFIX = "hands-";
+    static final String SUFFIX = ".seg";
+    public static final int DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+
+    private static final int MAX_RECORD_SIZE = 64 * 1024;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final HandHistoryCodec codec = new HandHistoryCodec();
+    private final ByteBuffer scratch = ByteBuffer.allocate(MAX_RECORD_SIZE);
+
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+    private int segmentIndex;
+
+    public SegmentWriter(Path directory, int segmentSize) throws IOException {
+        if (segmentSize < HEADER_SIZE + MAX_RECORD_SIZE) {
+            throw new IllegalArgumentException("Segment size too small: " + segmentSize);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        Files.createDirectories(directory);
+        // Never reopen an old segment; continue numbering after the newest one
+        this.segmentIndex = lastSegmentIndex(directory);
+        openNextSegment();
+    }
+
+    public void append(HandRecord record) throws IOException {
+        scratch.clear();
+        codec.encode(record, scratch);
+        scratch.flip();
+
+        int length = scratch.remaining();
+        // Room for the length prefix and for the zero terminator that must follow
+        if (segment.remaining() < length + 6) {
+            openNextSegment();
+            scratch.clear();
+            codec.encode(record, scratch); // first record of a segment has no delta base
+            scratch.flip();
+            length = scratch.remaining();
+        }
+        HandHistoryCodec.writeVarint(segment, length);
+        segment.put(scratch);
+    }
+
+    /**
+     * Forces the mapped pages to disk; appends alone survive a process crash but not a power loss
+     */
+    public void flush() {
+        if (segment != null) segment.force();
+    }
+
+    private void openNextSegment() throws IOException {
+        closeSegment();
+        segmentIndex++;
+        Path path = directory.resolve(segmentName(segmentIndex));
+        channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        segment.putInt(MAGIC);
+        segment.putShort(VERSION);
+        segment.putShort((short) 0);
+        segment.putInt(segmentIndex);
+        segment.putLong(System.currentTimeMillis());
+        segment.position(HEADER_SIZE);
+        codec.reset();
+    }
+
+    private void closeSegment() throws IOException {
+        if (segment != null) {
+            segment.force();
+            segment = null;
+        }
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closeSegment();
+    }
+
+    static String segmentName(int index) {
+        return String.format("%s%06d%s", PREFIX, index, SUFFIX);
+    }
+
+    static boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+    }
+
+    private static int lastSegmentIndex(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(SegmentWriter::isSegment)
+                    .map(path -> path.getFileName().toString())
+                    .mapToInt(name -> Integer.parseInt(name.substring(PREFIX.length(), name.length() - SUFFIX.length())))
+                    .max()
+                    .orElse(0);
+        } catch (UncheckedIOException | NumberFormatException e) {
+            throw new IOException("Unreadable hand history directory " + directory, e);
+        }
+    }
+}
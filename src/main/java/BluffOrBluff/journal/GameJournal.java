@@ -0,0 +1,371 @@
+package BluffOrBluff.journal;
+
+import BluffOrBluff.logic.RoundListener;
+import BluffOrBluff.logic.RoundStage;
+import BluffOrBluff.metrics.Counter;
+import BluffOrBluff.metrics.Metrics;
+import BluffOrBluff.model.BettingAction;
+import BluffOrBluff.model.Card;
+import BluffOrBluff.model.Player;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Crash recovery for running tables: every deal, action, board and pot award goes to an
+ * append-only journal, and every snapshotInterval entries the journal writes a snapshot of
+ * all tables and starts a new journal file. Opening a journal directory recovers it: the
+ * newest snapshot is loaded and only the journal written after it is replayed, so recovery
+ * reads at most one snapshot interval of entries however long the games have run.
+ *
+ * The game thread only builds an entry and offers it to a bounded queue; a daemon thread
+ * writes whatever has queued up in one go and takes the snapshots from its own copy of the
+ * tables, so the game never waits for the disk or for a snapshot. If the disk falls so far
+ * behind that the queue fills up the game thread waits for room rather than losing state,
+ * and counts a stall.
+ *
+ * Files: snapshot-N.snap holds every open table as of the start of journal-N.log. Each
+ * journal record is a length int, the entry and a CRC32 of it, so a record torn by the crash
+ * ends the replay. Writes reach the OS when each batch is written, which survives the
+ * process dying but not the machine; entries still queued when the process dies are lost
+ * with it, and their tables come back as of their last written hand.
+ */
+public class GameJournal implements Closeable {
+    public static final int DEFAULT_SNAPSHOT_INTERVAL = 10_000;
+    private static final int QUEUE_CAPACITY = 65_536;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_ENTRY_SIZE = 2 * 1024;
+    private static final int SNAPSHOT_MAGIC = 0x424F424A; // "BOBJ"
+    private static final String JOURNAL_PREFIX = "journal-";
+    private static final String JOURNAL_SUFFIX = ".log";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+
+    private static final Counter WRITTEN = Metrics.counter("journal.written");
+    private static final Counter STALLS = Metrics.counter("journal.stalls");
+    private static final Counter SNAPSHOTS = Metrics.counter("journal.snapshots");
+
+    private final Path directory;
+    private final int snapshotInterval;
+    // Owned by the writer thread once the constructor returns
+    private final Map<Integer, TableImage> images = new HashMap<>();
+    private final List<TableImage> recovered = new ArrayList<>();
+    private final BlockingQueue<JournalEntry> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final CRC32 crc = new CRC32();
+    private final Thread writerThread;
+    private volatile boolean running = true;
+
+    private FileChannel journal;
+    private int journalIndex;
+    private int sinceSnapshot;
+    private int replayedEntries;
+    private long recoveryNanos;
+    private long stalls;
+
+    public GameJournal(Path directory) throws IOException {
+        this(directory, DEFAULT_SNAPSHOT_INTERVAL);
+    }
+
+    /**
+     * Recovers the tables saved in directory, then starts journaling after them
+     */
+    public GameJournal(Path directory, int snapshotInterval) throws IOException {
+        if (snapshotInterval < 1) throw new IllegalArgumentException("Snapshot interval must be positive");
+        this.directory = directory;
+        this.snapshotInterval = snapshotInterval;
+        Files.createDirectories(directory);
+
+        long start = System.nanoTime();
+        recover();
+        for (TableImage image : images.values()) {
+            image.voidUnfinishedHand();
+            recovered.add(image.copy());
+        }
+        recovered.sort((a, b) -> Integer.compare(a.getId(), b.getId()));
+        // Fold the replayed tail into a fresh snapshot so the next recovery starts from here
+        snapshot();
+        recoveryNanos = System.nanoTime() - start;
+
+        this.writerThread = new Thread(this::drain, "game-journal-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    /**
+     * Tables that were open when the journal was last written, with any unfinished hand voided
+     */
+    public List<TableImage> getRecoveredTables() {
+        return recovered;
+    }
+
+    /**
+     * Journal entries replayed on top of the snapshot during recovery
+     */
+    public int getReplayedEntries() {
+        return replayedEntries;
+    }
+
+    public long getRecoveryNanos() {
+        return recoveryNanos;
+    }
+
+    public synchronized long getStallCount() {
+        return stalls;
+    }
+
+    /**
+     * Starts journaling a table; chips are its stacks before the first hand it plays
+     * @return the listener to add to the table's RoundManager
+     */
+    public RoundListener openTable(int tableId, String name, int difficulty, int humanChips, int aiChips) {
+        submit(JournalEntry.table(tableId, name, difficulty, humanChips, aiChips));
+        return new TableListener(tableId);
+    }
+
+    /**
+     * The table's game is over; it won't be recovered
+     */
+    public void closeTable(int tableId) {
+        submit(JournalEntry.closed(tableId));
+    }
+
+    private void submit(JournalEntry entry) {
+        if (queue.offer(entry)) return;
+        synchronized (this) {
+            stalls++;
+        }
+        if (Metrics.ENABLED) STALLS.increment();
+        try {
+            while (running && !queue.offer(entry, 100, TimeUnit.MILLISECONDS)) {
+                // Waiting for the writer; give up only once it has stopped
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Journals one table's hands as RoundManager plays them
+     */
+    private final class TableListener implements RoundListener {
+        private final int tableId;
+        private Player human;
+        private Player ai;
+
+        TableListener(int tableId) {
+            this.tableId = tableId;
+        }
+
+        @Override
+        public void onHandStart(long handNumber, int difficulty, Player human, Player ai) {
+            this.human = human;
+            this.ai = ai;
+            submit(JournalEntry.handStart(tableId, handNumber, difficulty, human.getChips(), ai.getChips(),
+                    human.getHand().getCards(), ai.getHand().getCards()));
+        }
+
+        @Override
+        public void onCommunityCards(RoundStage stage, List<Card> communityCards) {
+            submit(JournalEntry.board(tableId, stage, communityCards));
+        }
+
+        @Override
+        public void onAction(RoundStage stage, int seat, BettingAction action, int amount, int pot) {
+            submit(JournalEntry.action(tableId, stage, seat, action, amount, pot));
+        }
+
+        @Override
+        public void onHandEnd(int winnerSeat, int pot, boolean showdown) {
+            // RoundManager pays the pot before notifying, so these are the new stacks
+            submit(JournalEntry.handEnd(tableId, winnerSeat, pot, showdown, human.getChips(), ai.getChips()));
+        }
+    }
+
+    private void drain() {
+        try {
+            while (running || !queue.isEmpty()) {
+                JournalEntry entry = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (entry == null) continue;
+                // Everything that queued up while the last batch was written goes out together
+                do {
+                    append(entry);
+                } while ((entry = queue.poll()) != null);
+                writeBuffer();
+                if (sinceSnapshot >= snapshotInterval) snapshot();
+            }
+            snapshot();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | UncheckedIOException e) {
+            System.err.println("Game journal disabled after write error: " + e.getMessage());
+            running = false;
+            queue.clear();
+        }
+    }
+
+    private void append(JournalEntry entry) throws IOException {
+        if (buffer.remaining() < MAX_ENTRY_SIZE) writeBuffer();
+        int start = buffer.position();
+        buffer.position(start + 4);
+        entry.encode(buffer);
+        int length = buffer.position() - start - 4;
+        buffer.putInt(start, length);
+        crc.reset();
+        crc.update(buffer.array(), start + 4, length);
+        buffer.putInt((int) crc.getValue());
+
+        images.computeIfAbsent(entry.table, TableImage::new).apply(entry);
+        if (entry.type == JournalEntry.CLOSED) images.remove(entry.table);
+        sinceSnapshot++;
+        if (Metrics.ENABLED) WRITTEN.increment();
+    }
+
+    private void writeBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) journal.write(buffer);
+        buffer.clear();
+    }
+
+    /**
+     * Writes every open table to the next snapshot, starts the journal file that follows it
+     * and deletes the files it replaces
+     */
+    private void snapshot() throws IOException {
+        int index = journalIndex + 1;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(index);
+            out.writeInt(images.size());
+            for (TableImage image : images.values()) image.write(out);
+        }
+        Path temporary = directory.resolve(SNAPSHOT_PREFIX + "new" + SNAPSHOT_SUFFIX);
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer data = ByteBuffer.wrap(bytes.toByteArray());
+            while (data.hasRemaining()) channel.write(data);
+            channel.force(true);
+        }
+        Files.move(temporary, directory.resolve(fileName(SNAPSHOT_PREFIX, index, SNAPSHOT_SUFFIX)),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        if (journal != null) journal.close();
+        journalIndex = index;
+        journal = FileChannel.open(directory.resolve(fileName(JOURNAL_PREFIX, index, JOURNAL_SUFFIX)),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        sinceSnapshot = 0;
+        if (Metrics.ENABLED) SNAPSHOTS.increment();
+
+        for (Path path : list(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+            if (index(path, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX) < index) Files.deleteIfExists(path);
+        }
+        for (Path path : list(JOURNAL_PREFIX, JOURNAL_SUFFIX)) {
+            if (index(path, JOURNAL_PREFIX, JOURNAL_SUFFIX) < index) Files.deleteIfExists(path);
+        }
+    }
+
+    /**
+     * Loads the newest snapshot into images and replays the journal files written after it
+     */
+    private void recover() throws IOException {
+        int snapshotIndex = 0;
+        for (Path path : list(SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+            snapshotIndex = Math.max(snapshotIndex, index(path, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX));
+        }
+        journalIndex = snapshotIndex;
+        if (snapshotIndex > 0) {
+            Path path = directory.resolve(fileName(SNAPSHOT_PREFIX, snapshotIndex, SNAPSHOT_SUFFIX));
+            try (DataInputStream in = new DataInputStream(Files.newInputStream(path))) {
+                if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != snapshotIndex) {
+                    throw new IOException("Not a game journal snapshot: " + path);
+                }
+                int tables = in.readInt();
+                for (int i = 0; i < tables; i++) {
+                    TableImage image = TableImage.read(in);
+                    images.put(image.getId(), image);
+                }
+            }
+        }
+
+        List<Path> journals = list(JOURNAL_PREFIX, JOURNAL_SUFFIX);
+        for (Path path : journals) {
+            int index = index(path, JOURNAL_PREFIX, JOURNAL_SUFFIX);
+            if (index < snapshotIndex) continue;
+            journalIndex = Math.max(journalIndex, index);
+            replay(ByteBuffer.wrap(Files.readAllBytes(path)));
+        }
+    }
+
+    private void replay(ByteBuffer in) {
+        while (in.remaining() >= 8) {
+            int length = in.getInt();
+            if (length <= 0 || length > MAX_ENTRY_SIZE || in.remaining() < length + 4) return;
+            crc.reset();
+            crc.update(in.array(), in.position(), length);
+            if (in.getInt(in.position() + length) != (int) crc.getValue()) return;
+
+            JournalEntry entry = JournalEntry.decode(in.slice(in.position(), length));
+            in.position(in.position() + length + 4);
+            images.computeIfAbsent(entry.table, TableImage::new).apply(entry);
+            if (entry.type == JournalEntry.CLOSED) images.remove(entry.table);
+            replayedEntries++;
+        }
+    }
+
+    /**
+     * Writes what is still queued, then takes a final snapshot so the next start replays nothing
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        try {
+            writerThread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (journal != null) journal.close();
+    }
+
+    private List<Path> list(String prefix, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return new ArrayList<>(files.filter(path -> index(path, prefix, suffix) > 0).sorted().toList());
+        }
+    }
+
+    private static String fileName(String prefix, int index, String suffix) {
+        return String.format("%s%06d%s", prefix, index, suffix);
+    }
+
+    /**
+     * Number in a journal or snapshot file name, 0 for any other file
+     */
+    private static int index(Path path, String prefix, String suffix) {
+        String name = path.getFileName().toString();
+        if (!name.startsWith(prefix) || !name.endsWith(suffix)) return 0;
+        try {
+            return Integer.parseInt(name.substring(prefix.length(), name.length() - suffix.length()));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package BluffOrBluff.journal;
+
+import BluffOrBluff.logic.RoundStage;
+import BluffOrBluff.model.BettingAction;
+import BluffOrBluff.model.Card;
+import BluffOrBluff.model.FastHandEvaluator;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * One state transition of one table. Built on the game thread, encoded by the journal's
+ * writer thread, and decoded again on recovery.
+ *
+ * Encoding: type byte, table int, then per type
+ *   TABLE       difficulty, human chips int, AI chips int, name length short + UTF-8
+ *   HAND_START  hand number long, difficulty, human chips int, AI chips int, 4 hole card codes
+ *   BOARD       stage, card count, card codes
+ *   ACTION      stage, seat, action, amount int, pot int
+ *   HAND_END    winner seat, showdown, pot int, human chips int, AI chips int
+ *   CLOSED      nothing
+ */
+final class JournalEntry {
+    static final byte TABLE = 1;
+    static final byte HAND_START = 2;
+    static final byte BOARD = 3;
+    static final byte ACTION = 4;
+    static final byte HAND_END = 5;
+    static final byte CLOSED = 6;
+
+    // Keeps every entry far below the writer's buffer size
+    private static final int MAX_NAME_BYTES = 1024;
+
+    final byte type;
+    final int table;
+    String name;
+    int difficulty;
+    long handNumber;
+    int stage;
+    int seat;
+    int action;
+    int amount;
+    int pot;
+    int humanChips;
+    int aiChips;
+    boolean showdown;
+    byte[] cards;
+
+    private JournalEntry(byte type, int table) {
+        this.type = type;
+        this.table = table;
+    }
+
+    static JournalEntry table(int table, String name, int difficulty, int humanChips, int aiChips) {
+        JournalEntry entry = new JournalEntry(TABLE, table);
+        entry.name = name;
+        entry.difficulty = difficulty;
+        entry.humanChips = humanChips;
+        entry.aiChips = aiChips;
+        return entry;
+    }
+
+    static JournalEntry handStart(int table, long handNumber, int difficulty, int humanChips, int aiChips,
+                                  List<Card> humanHole, List<Card> aiHole) {
+        JournalEntry entry = new JournalEntry(HAND_START, table);
+        entry.handNumber = handNumber;
+        entry.difficulty = difficulty;
+        entry.humanChips = humanChips;
+        entry.aiChips = aiChips;
+        entry.cards = new byte[4];
+        for (int i = 0; i < 2; i++) {
+            entry.cards[i] = (byte) FastHandEvaluator.code(humanHole.get(i));
+            entry.cards[2 + i] = (byte) FastHandEvaluator.code(aiHole.get(i));
+        }
+        return entry;
+    }
+
+    static JournalEntry board(int table, RoundStage stage, List<Card> communityCards) {
+        JournalEntry entry = new JournalEntry(BOARD, table);
+        entry.stage = stage.ordinal();
+        entry.cards = new byte[communityCards.size()];
+        for (int i = 0; i < entry.cards.length; i++) {
+            entry.cards[i] = (byte) FastHandEvaluator.code(communityCards.get(i));
+        }
+        return entry;
+    }
+
+    static JournalEntry action(int table, RoundStage stage, int seat, BettingAction action, int amount, int pot) {
+        JournalEntry entry = new JournalEntry(ACTION, table);
+        entry.stage = stage.ordinal();
+        entry.seat = seat;
+        entry.action = action.ordinal();
+        entry.amount = amount;
+        entry.pot = pot;
+        return entry;
+    }
+
+    static JournalEntry handEnd(int table, int winnerSeat, int pot, boolean showdown, int humanChips, int aiChips) {
+        JournalEntry entry = new JournalEntry(HAND_END, table);
+        entry.seat = winnerSeat;
+        entry.pot = pot;
+        entry.showdown = showdown;
+        entry.humanChips = humanChips;
+        entry.aiChips = aiChips;
+        return entry;
+    }
+
+    static JournalEntry closed(int table) {
+        return new JournalEntry(CLOSED, table);
+    }
+
+    void encode(ByteBuffer out) {
+        out.put(type);
+        out.putInt(table);
+        switch (type) {
+            case TABLE -> {
+                byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+                int length = Math.min(bytes.length, MAX_NAME_BYTES);
+                out.put((byte) difficulty);
+                out.putInt(humanChips);
+                out.putInt(aiChips);
+                out.putShort((short) length);
+                out.put(bytes, 0, length);
+            }
+            case HAND_START -> {
+                out.putLong(handNumber);
+                out.put((byte) difficulty);
+                out.putInt(humanChips);
+                out.putInt(aiChips);
+                out.put(cards);
+            }
+            case BOARD -> {
+                out.put((byte) stage);
+                out.put((byte) cards.length);
+                out.put(cards);
+            }
+            case ACTION -> {
+                out.put((byte) stage);
+                out.put((byte) seat);
+                out.put((byte) action);
+                out.putInt(amount);
+                out.putInt(pot);
+            }
+            case HAND_END -> {
+                out.put((byte) seat);
+                out.put((byte) (showdown ? 1 : 0));
+                out.putInt(pot);
+                out.putInt(humanChips);
+                out.putInt(aiChips);
+            }
+            case CLOSED -> {
+            }
+            default -> throw new IllegalStateException("Unknown journal entry type " + type);
+        }
+    }
+
+    static JournalEntry decode(ByteBuffer in) {
+        JournalEntry entry = new JournalEntry(in.get(), in.getInt());
+        switch (entry.type) {
+            case TABLE -> {
+                entry.difficulty = in.get();
+                entry.humanChips = in.getInt();
+                entry.aiChips = in.getInt();
+                byte[] bytes = new byte[in.getShort()];
+                in.get(bytes);
+                entry.name = new String(bytes, StandardCharsets.UTF_8);
+            }
+            case HAND_START -> {
+                entry.handNumber = in.getLong();
+                entry.difficulty = in.get();
+                entry.humanChips = in.getInt();
+                entry.aiChips = in.getInt();
+                entry.cards = new byte[4];
+                in.get(entry.cards);
+            }
+            case BOARD -> {
+                entry.stage = in.get();
+                entry.cards = new byte[in.get()];
+                in.get(entry.cards);
+            }
+            case ACTION -> {
+                entry.stage = in.get();
+                entry.seat = in.get();
+                entry.action = in.get();
+                entry.amount = in.getInt();
+                entry.pot = in.getInt();
+            }
+            case HAND_END -> {
+                entry.seat = in.get();
+                entry.showdown = in.get() != 0;
+                entry.pot = in.getInt();
+                entry.humanChips = in.getInt();
+                entry.aiChips = in.getInt();
+            }
+            case CLOSED -> {
+            }
+            default -> throw new IllegalArgumentException("Unknown journal entry type " + entry.type);
+        }
+        return entry;
+    }
+}
@@ -0,0 +1,151 @@
+package BluffOrBluff.journal;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * What the journal knows about one table: who plays at it and the stacks as of the last
+ * finished hand. A hand that was still being played when the process died never happened:
+ * its table comes back with the stacks from before it, and isHandVoided() says so.
+ */
+public class TableImage {
+    private final int id;
+    private String name;
+    private int difficulty;
+    private int humanChips;
+    private int aiChips;
+    private long handNumber;
+    private boolean handInProgress;
+    private int inProgressPot;
+    private boolean handVoided;
+    private int voidedPot;
+    private boolean closed;
+
+    TableImage(int id) {
+        this.id = id;
+    }
+
+    void apply(JournalEntry entry) {
+        switch (entry.type) {
+            case JournalEntry.TABLE -> {
+                name = entry.name;
+                difficulty = entry.difficulty;
+                humanChips = entry.humanChips;
+                aiChips = entry.aiChips;
+                closed = false;
+            }
+            case JournalEntry.HAND_START -> {
+                handNumber = entry.handNumber;
+                difficulty = entry.difficulty;
+                humanChips = entry.humanChips;
+                aiChips = entry.aiChips;
+                handInProgress = true;
+                inProgressPot = 0;
+            }
+            case JournalEntry.ACTION -> inProgressPot = entry.pot;
+            case JournalEntry.HAND_END -> {
+                humanChips = entry.humanChips;
+                aiChips = entry.aiChips;
+                handInProgress = false;
+            }
+            case JournalEntry.CLOSED -> closed = true;
+            default -> {
+                // Board cards don't change what a recovered table starts with
+            }
+        }
+    }
+
+    /**
+     * Called once replay is over: an unfinished hand is void, and its chips are back in the stacks
+     */
+    void voidUnfinishedHand() {
+        if (!handInProgress) return;
+        handInProgress = false;
+        handVoided = true;
+        voidedPot = inProgressPot;
+    }
+
+    TableImage copy() {
+        TableImage copy = new TableImage(id);
+        copy.name = name;
+        copy.difficulty = difficulty;
+        copy.humanChips = humanChips;
+        copy.aiChips = aiChips;
+        copy.handNumber = handNumber;
+        copy.handInProgress = handInProgress;
+        copy.inProgressPot = inProgressPot;
+        copy.handVoided = handVoided;
+        copy.voidedPot = voidedPot;
+        copy.closed = closed;
+        return copy;
+    }
+
+    /**
+     * Snapshot form; a hand in progress is kept so the journal tail can still finish it
+     */
+    void write(DataOutput out) throws IOException {
+        out.writeInt(id);
+        out.writeUTF(name == null ? "" : name);
+        out.writeByte(difficulty);
+        out.writeInt(humanChips);
+        out.writeInt(aiChips);
+        out.writeLong(handNumber);
+        out.writeBoolean(handInProgress);
+        out.writeInt(inProgressPot);
+    }
+
+    static TableImage read(DataInput in) throws IOException {
+        TableImage image = new TableImage(in.readInt());
+        image.name = in.readUTF();
+        image.difficulty = in.readByte();
+        image.humanChips = in.readInt();
+        image.aiChips = in.readInt();
+        image.handNumber = in.readLong();
+        image.handInProgress = in.readBoolean();
+        image.inProgressPot = in.readInt();
+        return image;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getDifficulty() {
+        return difficulty;
+    }
+
+    public int getHumanChips() {
+        return humanChips;
+    }
+
+    public int getAIChips() {
+        return aiChips;
+    }
+
+    /**
+     * The last hand started at this table, finished or voided
+     */
+    public long getHandNumber() {
+        return handNumber;
+    }
+
+    public boolean isHandVoided() {
+        return handVoided;
+    }
+
+    /**
+     * Chips that were in the voided hand's pot and went back to the players
+     */
+    public int getVoidedPot() {
+        return voidedPot;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+}
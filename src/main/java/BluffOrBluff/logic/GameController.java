@@ -1,9 +1,22 @@
 package BluffOrBluff.logic;
 
+import BluffOrBluff.ai.OpponentModel;
+import BluffOrBluff.history.HandHistoryRecorder;
+import BluffOrBluff.history.HandHistoryWriter;
+import BluffOrBluff.journal.GameJournal;
+import BluffOrBluff.journal.TableImage;
 import BluffOrBluff.model.*;
 import BluffOrBluff.menu.GameMenu;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
 public class GameController {
+    private static final int STARTING_CHIPS = 1000;
+    // The console game is the journal's only table
+    private static final int TABLE_ID = 1;
+
     private final Player human;
     private final Player ai;
     private final Deck deck;
@@ -11,13 +24,120 @@ public class GameController {
     private int difficulty;
 
     public GameController(String playerName, int difficulty) {
-        this.human = new Player(playerName, 1000); // Default starting chips //TODO: ask player how much money they want to start with
-        this.ai = new Player("AI", 1000);
+        GameJournal journal = openJournal();
+        TableImage saved = journal == null ? null : savedGame(journal, playerName);
+        int humanChips = saved == null ? STARTING_CHIPS : saved.getHumanChips();
+        int aiChips = saved == null ? STARTING_CHIPS : saved.getAIChips();
+        this.human = new Player(playerName, humanChips); //TODO: ask player how much money they want to start with
+        this.ai = new Player("AI", aiChips);
         this.difficulty = difficulty;
 
         this.deck = new Deck();
         deck.shuffle();
         this.roundManager = new RoundManager(deck, human, ai, difficulty);
+        if (saved != null) {
+            roundManager.resumeAfter(saved.getHandNumber());
+            System.out.println("Welcome back, " + playerName + ": picking up your game after hand "
+                    + saved.getHandNumber() + ".");
+            if (saved.isHandVoided()) {
+                System.out.println("Hand " + saved.getHandNumber() + " was cut short and doesn't count; its "
+                        + saved.getVoidedPot() + " chip pot went back to the players.");
+            }
+        }
+        attachHandHistory();
+        attachOpponentModel();
+        if (journal != null) {
+            roundManager.addRoundListener(journal.openTable(TABLE_ID, playerName, difficulty, humanChips, aiChips));
+        }
+    }
+
+    /**
+     * Opens the crash-recovery journal in -Dbluff.journal.dir when that property is set
+     */
+    private static GameJournal openJournal() {
+        String directory = System.getProperty("bluff.journal.dir");
+        if (directory == null || directory.isBlank()) return null;
+        try {
+            GameJournal journal = new GameJournal(Paths.get(directory));
+            // GameMenu.exitGame() calls System.exit, so close (and snapshot) from a shutdown hook
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    journal.close();
+                } catch (IOException e) {
+                    System.err.println("Could not close game journal: " + e.getMessage());
+                }
+            }, "game-journal-shutdown"));
+            return journal;
+        } catch (IOException e) {
+            System.out.println("Game journal disabled: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * The journaled game of the same player, if it can still be played
+     */
+    private static TableImage savedGame(GameJournal journal, String playerName) {
+        for (TableImage table : journal.getRecoveredTables()) {
+            if (table.getId() == TABLE_ID && playerName.equals(table.getName())
+                    && table.getHumanChips() > 0 && table.getAIChips() > 0) {
+                return table;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Profiles the player during this game. With -Dbluff.opponents.file set they are also
+     * loaded from that file and saved back to it when the game exits; without it nothing is
+     * read or written.
+     */
+    private void attachOpponentModel() {
+        String fileName = System.getProperty("bluff.opponents.file");
+        if (fileName == null || fileName.isBlank()) {
+            roundManager.setOpponentModel(new OpponentModel());
+            return;
+        }
+        Path file = Paths.get(fileName);
+        OpponentModel model;
+        try {
+            model = OpponentModel.load(file);
+        } catch (IOException e) {
+            System.out.println("Starting with fresh opponent profiles: " + e.getMessage());
+            model = new OpponentModel();
+        }
+        roundManager.setOpponentModel(model);
+
+        OpponentModel toSave = model;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                toSave.save(file);
+            } catch (IOException e) {
+                System.err.println("Could not save opponent profiles: " + e.getMessage());
+            }
+        }, "opponent-model-shutdown"));
+    }
+
+    /**
+     * Records every hand to -Dbluff.history.dir when that property is set
+     */
+    private void attachHandHistory() {
+        String directory = System.getProperty("bluff.history.dir");
+        if (directory == null || directory.isBlank()) return;
+        try {
+            HandHistoryWriter writer = new HandHistoryWriter(Paths.get(directory));
+            roundManager.addRoundListener(new HandHistoryRecorder(writer));
+            // GameMenu.exitGame() calls System.exit, so flush the queue from a shutdown hook
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                    System.err.println("Could not close hand history: " + e.getMessage());
+                }
+            }, "hand-history-shutdown"));
+        } catch (IOException e) {
+            System.out.println("Hand history disabled: " + e.getMessage());
+        }
     }
 
     public void startGame() {
@@ -56,6 +176,6 @@ public class GameController {
 
     private void changeDifficulty() {
         difficulty = GameMenu.getDifficultySelection();
-        System.out.println("Difficulty set to " + (difficulty == 1 ? "Beginner" : difficulty == 2 ? "Normal" : "Expert"));
+        System.out.println("Difficulty set to " + (difficulty == 1 ? "Beginner" : difficulty == 2 ? "Normal" : difficulty == 3 ? "Expert" : "Expert+"));
     }
 }
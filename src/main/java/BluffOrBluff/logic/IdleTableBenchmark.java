@@ -0,0 +1,70 @@
+package BluffOrBluff.logic;
+
+import BluffOrBluff.model.Deck;
+import BluffOrBluff.model.Player;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+
+/**
+ * Measures the memory an idle table takes as a live RoundManager and parked in a TableStore.
+ * Every table is set up as the game server sets one up and plays a hand (the human checks
+ * and calls) before it goes idle, then all of them are parked and brought back to check that
+ * the chips and hand counts survive the round trip.
+ * Usage: IdleTableBenchmark [tables] [difficulty]
+ */
+public class IdleTableBenchmark {
+    public static void main(String[] args) {
+        int tables = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int difficulty = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        PrintStream silent = new PrintStream(OutputStream.nullOutputStream());
+
+        long baseline = usedHeap();
+        RoundManager[] live = new RoundManager[tables];
+        for (int t = 0; t < tables; t++) {
+            Deck deck = new Deck();
+            deck.shuffle();
+            RoundManager manager = new RoundManager(deck, new Player("Player " + t, 1000), new Player("AI", 1000),
+                    difficulty);
+            manager.setInputSource((prompt, min, max) -> min);
+            manager.setOutput(silent);
+            manager.setDelaysEnabled(false);
+            manager.playRound();
+            live[t] = manager;
+        }
+        long liveBytes = usedHeap() - baseline;
+
+        int[] chips = new int[tables];
+        long[] handNumbers = new long[tables];
+        TableStore store = new TableStore(tables);
+        int[] slots = new int[tables];
+        for (int t = 0; t < tables; t++) {
+            chips[t] = live[t].getHuman().getChips();
+            handNumbers[t] = live[t].getHandNumber();
+            slots[t] = store.park(live[t]);
+        }
+        live = null;
+        // The check arrays aren't part of a parked table
+        long parkedHeap = usedHeap() - baseline - 16L * tables;
+        long parkedBytes = parkedHeap + store.getOffHeapBytes();
+
+        for (int t = 0; t < tables; t++) {
+            RoundManager manager = store.unpark(slots[t]);
+            if (manager.getHuman().getChips() != chips[t] || manager.getHandNumber() != handNumbers[t]) {
+                throw new IllegalStateException("Table " + t + " changed while parked");
+            }
+        }
+
+        System.out.printf("%d idle tables at difficulty %d%n", tables, difficulty);
+        System.out.printf("live:   %7.0f bytes/table on the heap%n", (double) liveBytes / tables);
+        System.out.printf("parked: %7.0f bytes/table (%.0f heap + %.0f off-heap), %.1fx smaller%n",
+                (double) parkedBytes / tables, (double) parkedHeap / tables, (double) store.getOffHeapBytes() / tables,
+                (double) liveBytes / parkedBytes);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,41 @@
+package BluffOrBluff.logic;
+
+import BluffOrBluff.model.BettingAction;
+import BluffOrBluff.model.Card;
+import BluffOrBluff.model.Player;
+
+import java.util.List;
+
+/**
+ * Receives the state transitions of a hand as RoundManager plays it.
+ * Callbacks run on the game thread, so anything slow (I/O) must be handed off.
+ */
+public interface RoundListener {
+    int HUMAN_SEAT = 0;
+    int AI_SEAT = 1;
+    int SPLIT_POT = -1;
+
+    /**
+     * Hole cards have been dealt; stacks are still untouched for this hand
+     */
+    default void onHandStart(long handNumber, int difficulty, Player human, Player ai) {
+    }
+
+    /**
+     * New community cards were dealt; the list is the whole board so far
+     */
+    default void onCommunityCards(RoundStage stage, List<Card> communityCards) {
+    }
+
+    /**
+     * A seat acted; amount is the number of chips it put in with this action
+     */
+    default void onAction(RoundStage stage, int seat, BettingAction action, int amount, int pot) {
+    }
+
+    /**
+     * The pot was awarded; winnerSeat is SPLIT_POT on a tie
+     */
+    default void onHandEnd(int winnerSeat, int pot, boolean showdown) {
+    }
+}
@@ -2,18 +2,38 @@ package BluffOrBluff.logic;
 
 import BluffOrBluff.model.*;
 import BluffOrBluff.exception.GameException;
-import BluffOrBluff.util.InputHandler;
+import BluffOrBluff.util.ConsoleInputSource;
+import BluffOrBluff.util.InputSource;
+import BluffOrBluff.ai.OpponentModel;
 import BluffOrBluff.ai.PokerAI;
+import BluffOrBluff.metrics.LatencyHistogram;
+import BluffOrBluff.metrics.Metrics;
+import BluffOrBluff.metrics.RoundStageEvent;
+import BluffOrBluff.simulation.OutsAnalyzer;
 
+import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.List;
 
 public class RoundManager {
     // Constants for better maintainability
-    private static final int MIN_BET = 50;
-    private static final int MIN_RAISE = 50;
+    public static final int MIN_BET = 50;
+    public static final int MIN_RAISE = 50;
     private static final int MAX_COMMUNITY_CARDS = 5;
     private static final int HOLE_CARDS_COUNT = 2;
+    // -Dbluff.hints=true shows the player's outs on the flop and turn
+    private static final boolean SHOW_HINTS = Boolean.getBoolean("bluff.hints");
+
+    // Instrumentation (only touched when Metrics.ENABLED)
+    private static final LatencyHistogram ROUND_LATENCY = Metrics.latency("round.total");
+    // round.phase.<stage>, by stage ordinal, looked up once
+    private static final LatencyHistogram[] PHASE_LATENCY = new LatencyHistogram[RoundStage.values().length];
+
+    static {
+        for (RoundStage stage : RoundStage.values()) {
+            PHASE_LATENCY[stage.ordinal()] = Metrics.latency("round.phase." + stage);
+        }
+    }
     
     // Core game components
     private final PokerAI pokerAI;
@@ -29,6 +49,14 @@ public class RoundManager {
     private int roundCounter = 0;
     private boolean playerAllIn;
     private boolean aiAllIn;
+    private long handNumber = 0;
+
+    private final List<RoundListener> listeners = new ArrayList<>();
+
+    // Where the human's choices come from and where the table talk goes
+    private InputSource input = new ConsoleInputSource();
+    private PrintStream out = System.out;
+    private boolean delaysEnabled = true;
 
     public RoundManager(Deck deck, Player human, Player ai, int difficulty) {
         this.deck = deck;
@@ -40,21 +68,134 @@ public class RoundManager {
         this.pokerAI = new PokerAI(ai, difficulty);
         this.playerAllIn = false;
         this.aiAllIn = false;
+        listeners.add(pokerAI); // Expert+ follows the betting on each street
     }
 
     public void setDifficulty(int difficulty) {
         this.difficulty = difficulty;
     }
 
+    /**
+     * Takes the human seat's choices from source instead of the console
+     */
+    public void setInputSource(InputSource input) {
+        this.input = input;
+    }
+
+    /**
+     * Sends the table's text output to out instead of System.out
+     */
+    public void setOutput(PrintStream out) {
+        this.out = out;
+    }
+
+    /**
+     * The dramatic pauses between streets are for people watching; servers and test
+     * harnesses turn them off
+     */
+    public void setDelaysEnabled(boolean delaysEnabled) {
+        this.delaysEnabled = delaysEnabled;
+    }
+
+    /**
+     * Numbers hands on from handNumber, for a table picked up again after a restart
+     */
+    public void resumeAfter(long handNumber) {
+        this.handNumber = handNumber;
+    }
+
+    public PokerAI getPokerAI() {
+        return pokerAI;
+    }
+
+    public Player getHuman() {
+        return human;
+    }
+
+    public Player getAI() {
+        return ai;
+    }
+
+    public int getDifficulty() {
+        return difficulty;
+    }
+
+    // Table state read and restored by TableStateCodec
+    Deck getDeck() {
+        return deck;
+    }
+
+    int getPot() {
+        return pot;
+    }
+
+    RoundStage getCurrentStage() {
+        return currentStage;
+    }
+
+    int getRoundCounter() {
+        return roundCounter;
+    }
+
+    long getHandNumber() {
+        return handNumber;
+    }
+
+    boolean isPlayerAllIn() {
+        return playerAllIn;
+    }
+
+    boolean isAIAllIn() {
+        return aiAllIn;
+    }
+
+    List<Card> getCommunityCards() {
+        return communityCards;
+    }
+
+    void restore(int pot, RoundStage stage, int roundCounter, long handNumber, boolean playerAllIn, boolean aiAllIn,
+                 List<Card> communityCards) {
+        this.pot = pot;
+        this.currentStage = stage;
+        this.roundCounter = roundCounter;
+        this.handNumber = handNumber;
+        this.playerAllIn = playerAllIn;
+        this.aiAllIn = aiAllIn;
+        this.communityCards.clear();
+        this.communityCards.addAll(communityCards);
+    }
+
+    public void addRoundListener(RoundListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Feeds the human's actions into the model and lets the AI use what it learns
+     */
+    public void setOpponentModel(OpponentModel opponentModel) {
+        addRoundListener(opponentModel);
+        pokerAI.setOpponentModel(opponentModel);
+    }
+
     public void playRound() {
-        System.out.println("\n--- New Round ---");
+        long start = Metrics.start();
+        playHand();
+        if (Metrics.ENABLED) ROUND_LATENCY.recordSince(start);
+    }
+
+    private void playHand() {
+        out.println("\n--- New Round ---");
         resetRound();
         try {
             dealHoleCards();
         } catch (GameException e) {
-            System.out.println("Error: " + e.getMessage());
+            out.println("Error: " + e.getMessage());
             return;
         }
+        handNumber++;
+        for (RoundListener listener : listeners) {
+            listener.onHandStart(handNumber, difficulty, human, ai);
+        }
 
         // PRE-FLOP: No community cards yet
         currentStage = RoundStage.PRE_FLOP;
@@ -64,7 +205,7 @@ public class RoundManager {
 
         // FLOP: Deal 3 community cards BEFORE betting
         currentStage = RoundStage.FLOP;
-        System.out.println("\n🃏 Dealing the FLOP...");
+        out.println("\n🃏 Dealing the FLOP...");
         addGameDelay(800); // Short pause for drama
         dealCommunityCards(3);
         if (!bettingPhase()) return;
@@ -73,7 +214,7 @@ public class RoundManager {
 
         // TURN: Deal 1 more community card BEFORE betting  
         currentStage = RoundStage.TURN;
-        System.out.println("\n🃏 Dealing the TURN...");
+        out.println("\n🃏 Dealing the TURN...");
         addGameDelay(800); // Short pause for drama
         dealCommunityCards(1);
         if (!bettingPhase()) return;
@@ -82,7 +223,7 @@ public class RoundManager {
 
         // RIVER: Deal final community card BEFORE betting
         currentStage = RoundStage.RIVER;
-        System.out.println("\n🃏 Dealing the RIVER...");
+        out.println("\n🃏 Dealing the RIVER...");
         addGameDelay(800); // Short pause for drama
         dealCommunityCards(1);
         if (!bettingPhase()) return;
@@ -90,7 +231,10 @@ public class RoundManager {
         // SHOWDOWN
         currentStage = RoundStage.SHOWDOWN;
         addGameDelay(500); // Short delay before showdown
+        RoundStageEvent showdownEvent = new RoundStageEvent();
+        showdownEvent.begin();
         determineRoundWinner();
+        commitStageEvent(showdownEvent, false);
 
         roundCounter++;  // Move to the next round after a full hand is completed
     }
@@ -106,6 +250,7 @@ public class RoundManager {
         // Reset game state
         human.resetHand();
         ai.resetHand();
+        pokerAI.resetContext();
         communityCards.clear();
         pot = 0;
         currentStage = RoundStage.PRE_FLOP;
@@ -124,8 +269,8 @@ public class RoundManager {
             ai.receiveCard(deck.dealCard());
             ai.receiveCard(deck.dealCard());
             
-            human.showCards();
-            System.out.println("AI's hole cards: " + ai.getHand());
+            showHoleCards(human);
+            out.println("AI's hole cards: " + ai.getHand());
         } catch (GameException e) {
             throw new GameException("Error dealing hole cards: " + e.getMessage());
         }
@@ -143,6 +288,9 @@ public class RoundManager {
         for (int i = 0; i < numCards; i++) {
             communityCards.add(deck.dealCard());
         }
+        for (RoundListener listener : listeners) {
+            listener.onCommunityCards(currentStage, communityCards);
+        }
         // Cards will be displayed in the betting phase, not here
     }
 
@@ -150,30 +298,50 @@ public class RoundManager {
         StringBuilder sb = new StringBuilder("\nChip Counts:\n");
         sb.append(human.getName()).append(" Chips: ").append(human.getChips()).append("\n");
         sb.append("AI Chips: ").append(ai.getChips());
-        System.out.println(sb.toString());
+        out.println(sb.toString());
+    }
+
+    private void showHoleCards(Player player) {
+        out.println(player.getName() + "'s hole cards: " + player.getHand());
     }
 
     private void printGameState(int currentBet) {
-        System.out.println("Total pot: " + pot + " chips" + 
+        out.println("Total pot: " + pot + " chips" + 
                           (currentBet > 0 ? " (Current Bet: " + currentBet + ")" : ""));
     }
 
     private void printLines(){
-        System.out.println("\n".repeat(3));
+        out.println("\n".repeat(3));
     }
 
     private int processBettingTurn(Player player, boolean isAI, int currentBet) {
         BettingAction action = getBettingAction(player, isAI, currentBet);
-        return executeBettingAction(player, isAI, action, currentBet);
+        int chipsBefore = player.getChips();
+        int result = executeBettingAction(player, isAI, action, currentBet);
+        notifyAction(isAI, action, chipsBefore - player.getChips());
+        return result;
+    }
+
+    private void notifyAction(boolean isAI, BettingAction action, int amount) {
+        int seat = isAI ? RoundListener.AI_SEAT : RoundListener.HUMAN_SEAT;
+        for (RoundListener listener : listeners) {
+            listener.onAction(currentStage, seat, action, amount, pot);
+        }
+    }
+
+    private void notifyHandEnd(int winnerSeat, boolean showdown) {
+        for (RoundListener listener : listeners) {
+            listener.onHandEnd(winnerSeat, pot, showdown);
+        }
     }
     
     private BettingAction getBettingAction(Player player, boolean isAI, int currentBet) {
         if (isAI) {
-            HandRank aiHandRank = HandEvaluator.evaluateHand(ai.getFullHand(communityCards));
+            HandRank aiHandRank = aiHandRank();
             return pokerAI.getAIDecision(aiHandRank, currentBet, pot, currentStage, communityCards);
         } else {
             BettingAction action = getPlayerDecision(currentBet, player.getChips());
-            System.out.println(player.getName() + " chooses: " + action);
+            out.println(player.getName() + " chooses: " + action);
             return action;
         }
     }
@@ -199,19 +367,19 @@ public class RoundManager {
                 return handleBetAction(player, isAI);
                 
             default:
-                System.out.println("Invalid action by " + player.getName() + ".");
+                out.println("Invalid action by " + player.getName() + ".");
                 return currentBet;
         }
     }
     
     private int handleFoldAction(Player player) {
-        System.out.println(player.getName() + " folded.");
+        out.println(player.getName() + " folded.");
         return -1;
     }
     
     private int handleAllInAction(Player player, boolean isAI) {
         int allInAmount = player.getChips();
-        System.out.println(player.getName() + " goes ALL-IN with " + allInAmount + " chips!");
+        out.println(player.getName() + " goes ALL-IN with " + allInAmount + " chips!");
         
         if (isAI) aiAllIn = true;
         else playerAllIn = true;
@@ -220,7 +388,7 @@ public class RoundManager {
             pot += allInAmount;
             return allInAmount;
         } else {
-            System.out.println("Error: " + player.getName() + " couldn't place all-in bet!");
+            out.println("Error: " + player.getName() + " couldn't place all-in bet!");
             return -1;
         }
     }
@@ -233,14 +401,19 @@ public class RoundManager {
             printRaiseMessage(player, raiseAmount, currentBet);
             return raiseAmount;
         } else {
-            System.out.println("Error: " + player.getName() + " couldn't place raise bet!");
+            out.println("Error: " + player.getName() + " couldn't place raise bet!");
             return -1;
         }
     }
     
     private int calculateRaiseAmount(Player player, boolean isAI, int currentBet) {
         if (isAI) {
-            int baseRaise = MIN_RAISE + (difficulty * 25);
+            int minimum = minimumRaise(currentBet);
+            int sized = pokerAI.chooseBetSize(currentBet, pot, minimum, human.getChips(), currentStage, communityCards);
+            if (sized > 0) {
+                return Math.min(sized, player.getChips());
+            }
+            int baseRaise = aiRaiseIncrement(difficulty);
             if (currentBet > 0) {
                 return Math.min(currentBet + baseRaise, player.getChips());
             } else {
@@ -253,51 +426,83 @@ public class RoundManager {
     
     private void printRaiseMessage(Player player, int raiseAmount, int currentBet) {
         if (currentBet > 0) {
-            System.out.println(player.getName() + " raises to " + raiseAmount + 
+            out.println(player.getName() + " raises to " + raiseAmount + 
                              " chips (+" + (raiseAmount - currentBet) + " raise)!");
         } else {
-            System.out.println(player.getName() + " raises by " + raiseAmount + " chips!");
+            out.println(player.getName() + " raises by " + raiseAmount + " chips!");
         }
     }
     
     private int handleCallAction(Player player, int currentBet) {
-        int callAmount = Math.min(currentBet, player.getChips());
+        int callAmount = callAmount(currentBet, player.getChips());
         if (player.placeBet(callAmount)) {
             pot += callAmount;
-            System.out.println(player.getName() + " calls the bet of " + callAmount + " chips.");
+            out.println(player.getName() + " calls the bet of " + callAmount + " chips.");
             return currentBet;
         } else {
-            System.out.println(player.getName() + " doesn't have enough chips to call!");
+            out.println(player.getName() + " doesn't have enough chips to call!");
             return -1;
         }
     }
     
+    /**
+     * Smallest bet or raise against currentBet: MIN_BET to open, MIN_RAISE more than the bet otherwise
+     */
+    public static int minimumRaise(int currentBet) {
+        return currentBet > 0 ? currentBet + MIN_RAISE : MIN_BET;
+    }
+
+    /**
+     * Chips a call puts in: what is owed, or the rest of the stack
+     */
+    public static int callAmount(int owed, int chips) {
+        return Math.min(owed, chips);
+    }
+
+    /**
+     * What the AI adds to the bet it faces when its bet sizing has no answer
+     */
+    public static int aiRaiseIncrement(int difficulty) {
+        return MIN_RAISE + difficulty * 25;
+    }
+
     private int handleCheckAction(Player player, int currentBet) {
-        System.out.println(player.getName() + " checks.");
+        out.println(player.getName() + " checks.");
         return currentBet;
     }
     
     private int handleBetAction(Player player, boolean isAI) {
         int betAmount = isAI ? 
-            Math.min(MIN_BET + (difficulty * 25), player.getChips()) :
+            aiBetAmount(player) :
             getRaiseAmount(player.getChips(), 0);
             
         if (player.placeBet(betAmount)) {
             pot += betAmount;
-            System.out.println(player.getName() + " bets " + betAmount + " chips!");
+            out.println(player.getName() + " bets " + betAmount + " chips!");
             return betAmount;
         } else {
-            System.out.println("Error: " + player.getName() + " couldn't place bet!");
+            out.println("Error: " + player.getName() + " couldn't place bet!");
             return -1;
         }
     }
 
+    private int aiBetAmount(Player player) {
+        int sized = pokerAI.chooseBetSize(0, pot, MIN_BET, human.getChips(), currentStage, communityCards);
+        if (sized > 0) {
+            return Math.min(sized, player.getChips());
+        }
+        return Math.min(MIN_BET + (difficulty * 25), player.getChips());
+    }
+
     private BettingAction getPlayerDecision(int currentBet, int playerChips) {
-        human.showCards();
+        showHoleCards(human);
+        if (SHOW_HINTS && (communityCards.size() == 3 || communityCards.size() == 4)) {
+            out.println("Hint: " + OutsAnalyzer.analyze(human.getHand().getCards(), communityCards).describe());
+        }
 
         if (currentBet == 0) { // No active bet → Allow Check, Raise, All-In
-            System.out.println("[1] Check  [2] Bet  [3] All-In  [4] Fold");
-            int choice = InputHandler.getValidInt(1, 4);
+            out.println("[1] Check  [2] Bet  [3] All-In  [4] Fold");
+            int choice = input.choose(InputSource.Prompt.OPEN, 1, 4);
             return switch (choice) {
                 case 1 -> BettingAction.CHECK;
                 case 2 -> BettingAction.RAISE;
@@ -308,8 +513,8 @@ public class RoundManager {
         }
 
         else if (playerAllIn || aiAllIn) {
-            System.out.println("[1] Call  [2] Fold");
-            int choice = InputHandler.getValidInt(1, 2);
+            out.println("[1] Call  [2] Fold");
+            int choice = input.choose(InputSource.Prompt.CALL_OR_FOLD, 1, 2);
             return switch (choice) {
                 case 1 -> BettingAction.CALL;
                 case 2 -> BettingAction.FOLD;
@@ -318,8 +523,8 @@ public class RoundManager {
         }
 
         else { // Active bet → Player must Call, Raise, Fold, or All-In
-            System.out.println("[1] Call  [2] Raise  [3] All-In  [4] Fold");
-            int choice = InputHandler.getValidInt(1, 4);
+            out.println("[1] Call  [2] Raise  [3] All-In  [4] Fold");
+            int choice = input.choose(InputSource.Prompt.FACING_BET, 1, 4);
             return switch (choice) {
                 case 1 -> BettingAction.CALL;
                 case 2 -> BettingAction.RAISE;
@@ -331,19 +536,43 @@ public class RoundManager {
     }
 
     private boolean bettingPhase() {
-        System.out.println("\n=== " + currentStage + " BETTING PHASE ===");
+        RoundStageEvent event = new RoundStageEvent();
+        event.begin();
+        long start = Metrics.start();
+
+        boolean handContinues = playBettingPhase();
+
+        if (Metrics.ENABLED) {
+            PHASE_LATENCY[currentStage.ordinal()].recordSince(start);
+        }
+        commitStageEvent(event, handContinues);
+        return handContinues;
+    }
+
+    private void commitStageEvent(RoundStageEvent event, boolean handContinues) {
+        if (event.shouldCommit()) {
+            event.round = roundCounter;
+            event.stage = currentStage.name();
+            event.pot = pot;
+            event.handContinues = handContinues;
+            event.commit();
+        }
+    }
+
+    private boolean playBettingPhase() {
+        out.println("\n=== " + currentStage + " BETTING PHASE ===");
         
         // Show community cards prominently if any exist
         if (!communityCards.isEmpty()) {
-            System.out.println("🃏 COMMUNITY CARDS: " + communityCards);
-            System.out.println(); // Extra line for spacing
+            out.println("🃏 COMMUNITY CARDS: " + communityCards);
+            out.println(); // Extra line for spacing
         }
         
         printChipCounts();
-        human.showCards();
+        showHoleCards(human);
 
         int currentBet = 0;
-        System.out.println("\n[Your Turn] Choose your action:");
+        out.println("\n[Your Turn] Choose your action:");
 
         // **Human makes the first move**
         currentBet = processBettingTurn(human, false, currentBet);
@@ -351,7 +580,7 @@ public class RoundManager {
         if (playerAllIn) return askForAllInDecision(ai, true, currentBet); // If human is all-in, AI must react
 
         // **AI responds** 
-        System.out.println("\n[AI Turn]");
+        out.println("\n[AI Turn]");
         addGameDelay(500); // Brief pause for AI to "think"
         int aiBet = processBettingTurn(ai, true, currentBet);
         if (aiBet == -1) return handleFold(human); // AI folded
@@ -359,12 +588,12 @@ public class RoundManager {
 
         // **Loop continues only if AI raises**
         while (aiBet > currentBet) {
-            System.out.println("\n[Your Turn] AI raised - your response:");
+            out.println("\n[Your Turn] AI raised - your response:");
             currentBet = processBettingTurn(human, false, aiBet);
             if (currentBet == -1) return handleFold(ai);
             if (playerAllIn) return askForAllInDecision(ai, true, currentBet);
 
-            System.out.println("\n[AI Turn]");
+            out.println("\n[AI Turn]");
             addGameDelay(500); // Brief pause for AI to "think"
             aiBet = processBettingTurn(ai, true, currentBet);
             if (aiBet == -1) return handleFold(human);
@@ -376,25 +605,28 @@ public class RoundManager {
     }
 
     private boolean askForAllInDecision(Player opponent, boolean isOpponentAI, int currentBet) {
-        System.out.println(opponent.getName() + ", your opponent is ALL-IN!");
-        System.out.println("[1] Call  [2] Fold");
+        out.println(opponent.getName() + ", your opponent is ALL-IN!");
+        out.println("[1] Call  [2] Fold");
 
         int choice;
         if (isOpponentAI) {
-            HandRank aiHandRank = HandEvaluator.evaluateHand(ai.getFullHand(communityCards));
+            HandRank aiHandRank = aiHandRank();
             choice = pokerAI.decideAllInCall(currentBet, pot, aiHandRank, difficulty);
         } else {
-            choice = InputHandler.getValidInt(1, 2);
+            choice = input.choose(InputSource.Prompt.CALL_OR_FOLD, 1, 2);
         }
 
         if (choice == 2) { // Opponent folds
-            System.out.println(opponent.getName() + " folded. The All-In player wins the round!");
+            out.println(opponent.getName() + " folded. The All-In player wins the round!");
+            notifyAction(isOpponentAI, BettingAction.FOLD, 0);
             if (playerAllIn) human.addChips(pot);
             else ai.addChips(pot);
+            notifyHandEnd(playerAllIn ? RoundListener.HUMAN_SEAT : RoundListener.AI_SEAT, false);
             return false;
         }
 
-        System.out.println(opponent.getName() + " calls!");
+        out.println(opponent.getName() + " calls!");
+        notifyAction(isOpponentAI, BettingAction.CALL, 0);
         dealRemainingCommunityCards();
         determineRoundWinner();
         return false;
@@ -408,32 +640,33 @@ public class RoundManager {
     }
 
     private int getRaiseAmount(int playerChips, int currentBet) {
-        int minRaise = currentBet == 0 ? MIN_RAISE : currentBet + MIN_RAISE;
-        System.out.println("Enter raise amount (Minimum: " + minRaise + 
+        int minRaise = minimumRaise(currentBet);
+        out.println("Enter raise amount (Minimum: " + minRaise + 
                           " chips, Maximum: " + playerChips + " chips):");
-        return InputHandler.getValidInt(minRaise, playerChips);
+        return input.choose(InputSource.Prompt.AMOUNT, minRaise, playerChips);
     }
 
     private boolean handleFold(Player winner) {
-        System.out.println(winner.getName() + " wins the round.");
+        out.println(winner.getName() + " wins the round.");
         winner.addChips(pot);
+        notifyHandEnd(winner == ai ? RoundListener.AI_SEAT : RoundListener.HUMAN_SEAT, false);
         return false;
     }
 
     private void determineRoundWinner() {
         printLines();
-        System.out.println("\n--- SHOWDOWN ---");
-        System.out.println("AI's hole cards: " + ai.getHand());
+        out.println("\n--- SHOWDOWN ---");
+        out.println("AI's hole cards: " + ai.getHand());
 
         HandRank humanHandRank = HandEvaluator.evaluateHand(human.getFullHand(communityCards));
         HandRank aiHandRank = HandEvaluator.evaluateHand(ai.getFullHand(communityCards));
 
-        System.out.println(human.getName() + "'s best hand: " + humanHandRank);
-        System.out.println("AI's best hand: " + aiHandRank);
+        out.println(human.getName() + "'s best hand: " + humanHandRank);
+        out.println("AI's best hand: " + aiHandRank);
 
         // Determine winner and distribute chips
         String winner = determineWinnerAndDistributeChips(humanHandRank, aiHandRank);
-        System.out.println(winner);
+        out.println(winner);
 
         // Reset all-in flags for next round
         resetAllInFlags();
@@ -447,14 +680,17 @@ public class RoundManager {
         
         if (comparison > 0) {
             human.addChips(pot);
+            notifyHandEnd(RoundListener.HUMAN_SEAT, true);
             return human.getName() + " wins with " + humanHandRank;
         } else if (comparison < 0) {
             ai.addChips(pot);
+            notifyHandEnd(RoundListener.AI_SEAT, true);
             return "AI wins with " + aiHandRank;
         } else {
             int halfPot = pot / 2;
             human.addChips(halfPot);
             ai.addChips(halfPot);
+            notifyHandEnd(RoundListener.SPLIT_POT, true);
             return "It's a tie! Both have " + humanHandRank;
         }
     }
@@ -468,13 +704,21 @@ public class RoundManager {
         StringBuilder sb = new StringBuilder();
         sb.append("AI chips: ").append(ai.getChips()).append("\n");
         sb.append(human.getName()).append(" chips: ").append(human.getChips());
-        System.out.println(sb.toString());
+        out.println(sb.toString());
     }
     
+    /**
+     * AI hand rank for the current street, evaluated once and shared by every AI decision on it
+     */
+    private HandRank aiHandRank() {
+        return pokerAI.contextFor(currentStage, communityCards).getHandRank();
+    }
+
     /**
      * Adds a brief delay to make the game flow feel more natural
      */
     private void addGameDelay(int milliseconds) {
+        if (!delaysEnabled) return;
         try {
             Thread.sleep(milliseconds);
         } catch (InterruptedException e) {
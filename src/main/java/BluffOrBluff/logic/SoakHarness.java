@@ -0,0 +1,271 @@
+package BluffOrBluff.logic;
+
+import BluffOrBluff.metrics.LatencyHistogram;
+import BluffOrBluff.metrics.Metrics;
+import BluffOrBluff.model.BettingAction;
+import BluffOrBluff.model.Card;
+import BluffOrBluff.model.Deck;
+import BluffOrBluff.model.Player;
+import BluffOrBluff.simulation.DecisionScheduler;
+import BluffOrBluff.util.SyntheticHumanInputSource;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs the real game loop for as long as you like. Each table runs on its own thread, as a
+ * GameServer table does, and plays RoundManager hands against a SyntheticHumanInputSource.
+ * A table where someone runs out of chips starts over. Every reporting interval it prints:
+ *   hands per second
+ *   AI decision latency p50/p99, from the event before the AI's action to that action
+ *   whole-hand latency p50/p99
+ *   heap in use after the last GC
+ *   allocation rate of all threads, the equity workers included
+ * Latency percentiles cover everything since the warm-up. At the end it reports the totals and
+ * the heap's trend after the warm-up.
+ *
+ * Usage: SoakHarness [--tables 8] [--seconds 60] [--difficulty 2] [--think-ms 0] [--seed 1]
+ *                    [--report-seconds 10] [--warmup-seconds 10] [--scheduler shared|inline]
+ * Long runs: --seconds 14400 for four hours. With --scheduler shared (the default) the AIs'
+ * equity work queues on the shared DecisionScheduler, as it does in GameServer.
+ */
+public class SoakHarness {
+    private final int difficulty;
+    private final long thinkMillis;
+    private final long seed;
+    private final boolean sharedScheduler;
+    private final LatencyHistogram decisions = Metrics.unregistered("soak.decision");
+    private final LatencyHistogram rounds = Metrics.unregistered("soak.round");
+    private final LongAdder hands = new LongAdder();
+    private final LongAdder restarts = new LongAdder();
+    private volatile boolean running = true;
+
+    SoakHarness(int difficulty, long thinkMillis, long seed, boolean sharedScheduler) {
+        this.difficulty = difficulty;
+        this.thinkMillis = thinkMillis;
+        this.seed = seed;
+        this.sharedScheduler = sharedScheduler;
+    }
+
+    /**
+     * Times the AI's decisions at one table
+     */
+    private final class DecisionTimer implements RoundListener {
+        private long lastEvent;
+
+        @Override
+        public void onHandStart(long handNumber, int difficulty, Player human, Player ai) {
+            lastEvent = System.nanoTime();
+        }
+
+        @Override
+        public void onCommunityCards(RoundStage stage, List<Card> communityCards) {
+            lastEvent = System.nanoTime();
+        }
+
+        @Override
+        public void onAction(RoundStage stage, int seat, BettingAction action, int amount, int pot) {
+            long now = System.nanoTime();
+            if (seat == AI_SEAT) decisions.record(now - lastEvent);
+            lastEvent = now;
+        }
+    }
+
+    private void playTable(int table) {
+        PrintStream silent = new PrintStream(OutputStream.nullOutputStream());
+        long tableSeed = seed * 1_000_003L + table;
+        while (running) {
+            Player human = new Player("Synthetic " + table, 1000);
+            Player ai = new Player("AI", 1000);
+            Deck deck = new Deck();
+            deck.shuffle();
+            RoundManager manager = new RoundManager(deck, human, ai, difficulty);
+            manager.setInputSource(new SyntheticHumanInputSource(tableSeed++, 0.2, 0.1, 0.01, thinkMillis));
+            manager.setOutput(silent);
+            manager.setDelaysEnabled(false);
+            manager.addRoundListener(new DecisionTimer());
+            if (sharedScheduler) manager.getPokerAI().setDecisionScheduler(DecisionScheduler.shared());
+
+            while (running && human.getChips() > 0 && ai.getChips() > 0) {
+                long start = System.nanoTime();
+                manager.playRound();
+                rounds.recordSince(start);
+                hands.increment();
+            }
+            restarts.increment();
+        }
+    }
+
+    /**
+     * Heap in use right after the most recent collection, or now if there hasn't been one
+     */
+    private static long heapAfterGC() {
+        com.sun.management.GcInfo last = null;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (!(collector instanceof com.sun.management.GarbageCollectorMXBean gc)) continue;
+            com.sun.management.GcInfo info = gc.getLastGcInfo();
+            if (info != null && (last == null || info.getEndTime() > last.getEndTime())) last = info;
+        }
+        if (last == null) return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            MemoryUsage usage = last.getMemoryUsageAfterGc().get(pool.getName());
+            if (pool.getType() == MemoryType.HEAP && usage != null) used += usage.getUsed();
+        }
+        return used;
+    }
+
+    /**
+     * Bytes allocated by all threads, counted per thread so a thread that ends (an idle
+     * equity worker, say) only loses what it allocated since the last reading
+     */
+    private static final class AllocationMeter {
+        private final com.sun.management.ThreadMXBean threads;
+        private Map<Long, Long> last = new HashMap<>();
+
+        AllocationMeter() {
+            java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            this.threads = bean instanceof com.sun.management.ThreadMXBean sun && sun.isThreadAllocatedMemoryEnabled()
+                    ? sun : null;
+            if (threads != null) bytesSinceLast();
+        }
+
+        boolean isAvailable() {
+            return threads != null;
+        }
+
+        long bytesSinceLast() {
+            long[] ids = threads.getAllThreadIds();
+            long[] bytes = threads.getThreadAllocatedBytes(ids);
+            Map<Long, Long> current = new HashMap<>();
+            long total = 0;
+            for (int i = 0; i < ids.length; i++) {
+                if (bytes[i] < 0) continue;
+                current.put(ids[i], bytes[i]);
+                total += bytes[i] - last.getOrDefault(ids[i], 0L);
+            }
+            last = current;
+            return total;
+        }
+    }
+
+    private static String micros(LatencyHistogram histogram) {
+        return String.format("%7.0f/%-7.0f", histogram.getP50() / 1e3, histogram.getP99() / 1e3);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int tables = 8;
+        long seconds = 60;
+        int difficulty = 2;
+        long thinkMillis = 0;
+        long seed = 1;
+        long reportSeconds = 10;
+        long warmupSeconds = 10;
+        boolean sharedScheduler = true;
+        try {
+            for (int i = 0; i + 1 < args.length; i += 2) {
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--tables" -> tables = Integer.parseInt(value);
+                    case "--seconds" -> seconds = Long.parseLong(value);
+                    case "--difficulty" -> difficulty = Integer.parseInt(value);
+                    case "--think-ms" -> thinkMillis = Long.parseLong(value);
+                    case "--seed" -> seed = Long.parseLong(value);
+                    case "--report-seconds" -> reportSeconds = Long.parseLong(value);
+                    case "--warmup-seconds" -> warmupSeconds = Long.parseLong(value);
+                    case "--scheduler" -> sharedScheduler = switch (value) {
+                        case "shared" -> true;
+                        case "inline" -> false;
+                        default -> throw new IllegalArgumentException("Scheduler must be shared or inline");
+                    };
+                    default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+            if (tables < 1) throw new IllegalArgumentException("Need at least one table");
+            if (difficulty < 1 || difficulty > 4) throw new IllegalArgumentException("Difficulty must be 1-4");
+            if (reportSeconds < 1) throw new IllegalArgumentException("Report interval must be at least a second");
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+            return;
+        }
+
+        SoakHarness harness = new SoakHarness(difficulty, thinkMillis, seed, sharedScheduler);
+        System.out.printf("%d table(s) at difficulty %d for %d s (%d s warm-up), think time %d ms, %d core(s)%n",
+                tables, difficulty, seconds, warmupSeconds, thinkMillis, Runtime.getRuntime().availableProcessors());
+        Thread[] threads = new Thread[tables];
+        for (int t = 0; t < tables; t++) {
+            int table = t;
+            threads[t] = new Thread(() -> harness.playTable(table), "soak-table-" + t);
+            threads[t].setDaemon(true);
+            threads[t].start();
+        }
+
+        Thread.sleep(TimeUnit.SECONDS.toMillis(Math.min(warmupSeconds, seconds)));
+        harness.decisions.reset();
+        harness.rounds.reset();
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(Math.max(0, seconds - warmupSeconds));
+        long startHands = harness.hands.sum();
+        long startHeap = heapAfterGC();
+        AllocationMeter allocation = new AllocationMeter();
+        long allocatedTotal = 0;
+        // Least-squares line through the heap samples: one pair of samples is mostly GC timing
+        double samples = 0, sumT = 0, sumH = 0, sumTT = 0, sumTH = 0;
+
+        System.out.println("    time   hands/s  decision p50/p99 us  hand p50/p99 us   heap MB  alloc MB/s");
+        long lastTime = start;
+        long lastHands = startHands;
+        while (System.nanoTime() < end) {
+            long remaining = end - System.nanoTime();
+            Thread.sleep(Math.max(1, Math.min(TimeUnit.SECONDS.toMillis(reportSeconds),
+                    TimeUnit.NANOSECONDS.toMillis(remaining))));
+            long now = System.nanoTime();
+            long handCount = harness.hands.sum();
+            long allocated = allocation.isAvailable() ? allocation.bytesSinceLast() : 0;
+            allocatedTotal += allocated;
+            long heap = heapAfterGC();
+            double interval = (now - lastTime) / 1e9;
+            double hours = (now - start) / 3.6e12;
+            samples++;
+            sumT += hours;
+            sumH += heap / 1e6;
+            sumTT += hours * hours;
+            sumTH += hours * heap / 1e6;
+            System.out.printf("%7.0fs %9.1f  %s      %s  %8.1f  %10.1f%n", (now - start) / 1e9,
+                    (handCount - lastHands) / interval, micros(harness.decisions), micros(harness.rounds),
+                    heap / 1e6, allocation.isAvailable() ? allocated / 1e6 / interval : Double.NaN);
+            lastTime = now;
+            lastHands = handCount;
+        }
+        harness.running = false;
+
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        long measuredHands = harness.hands.sum() - startHands;
+        long endHeap = heapAfterGC();
+        System.out.printf("%d hands in %.0f s (%.1f hands/s), %d table restart(s)%n", measuredHands, elapsed,
+                measuredHands / elapsed, harness.restarts.sum());
+        System.out.printf("decision: p50 %.0f us, p99 %.0f us, max %.0f us over %d decisions%n",
+                harness.decisions.getP50() / 1e3, harness.decisions.getP99() / 1e3,
+                harness.decisions.getMax() / 1e3, harness.decisions.getCount());
+        System.out.printf("hand:     p50 %.0f us, p99 %.0f us, max %.0f us%n", harness.rounds.getP50() / 1e3,
+                harness.rounds.getP99() / 1e3, harness.rounds.getMax() / 1e3);
+        double slope = samples < 2 ? Double.NaN : (samples * sumTH - sumT * sumH) / (samples * sumTT - sumT * sumT);
+        System.out.printf("heap after GC: %.1f MB -> %.1f MB, trend %+.1f MB/hour over %.0f samples%n",
+                startHeap / 1e6, endHeap / 1e6, slope, samples);
+        if (allocation.isAvailable()) {
+            System.out.printf("allocation: %.1f MB/s, %.0f KB/hand%n", allocatedTotal / 1e6 / elapsed,
+                    measuredHands == 0 ? Double.NaN : allocatedTotal / 1e3 / measuredHands);
+        }
+        for (Thread thread : threads) thread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+}
@@ -0,0 +1,101 @@
+package BluffOrBluff.logic;
+
+import BluffOrBluff.exception.GameException;
+import BluffOrBluff.model.Card;
+import BluffOrBluff.model.Deck;
+import BluffOrBluff.model.FastHandEvaluator;
+import BluffOrBluff.model.Player;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Packs a table's game state into a fixed RECORD_BYTES record, so an idle table can be kept
+ * as a few dozen bytes instead of a RoundManager graph. Cards are FastHandEvaluator codes,
+ * one byte each, with NO_CARD for an empty place.
+ *
+ * Record layout (absolute offsets, big-endian):
+ *   0 format, 1 flags (1 player all-in, 2 AI all-in), 2 difficulty, 3 stage ordinal,
+ *   4 human chips, 8 AI chips, 12 pot, 16 round counter, 20 hand number (long),
+ *   28 human hole cards, 30 AI hole cards, 32 board (5), 37 padding, 40 undealt cards mask
+ *
+ * The undealt cards are kept as a set: RoundManager only plays whole hands and shuffles the
+ * deck before each one, so a table parked between hands loses nothing by it. The human's
+ * name, listeners, input and output belong to whoever hosts the table and are attached
+ * again after decoding.
+ */
+public final class TableStateCodec {
+    public static final int RECORD_BYTES = 48;
+    private static final int FORMAT = 1;
+    private static final int NO_CARD = 0xFF;
+    private static final int FLAG_PLAYER_ALL_IN = 1;
+    private static final int FLAG_AI_ALL_IN = 2;
+    private static final int MAX_BOARD = 5;
+
+    private TableStateCodec() {
+    }
+
+    /**
+     * Writes manager's state at offset without moving out's position
+     */
+    public static void encode(RoundManager manager, ByteBuffer out, int offset) {
+        int flags = (manager.isPlayerAllIn() ? FLAG_PLAYER_ALL_IN : 0) | (manager.isAIAllIn() ? FLAG_AI_ALL_IN : 0);
+        out.put(offset, (byte) FORMAT);
+        out.put(offset + 1, (byte) flags);
+        out.put(offset + 2, (byte) manager.getDifficulty());
+        out.put(offset + 3, (byte) manager.getCurrentStage().ordinal());
+        out.putInt(offset + 4, manager.getHuman().getChips());
+        out.putInt(offset + 8, manager.getAI().getChips());
+        out.putInt(offset + 12, manager.getPot());
+        out.putInt(offset + 16, manager.getRoundCounter());
+        out.putLong(offset + 20, manager.getHandNumber());
+        putCards(out, offset + 28, manager.getHuman().getHand().getCards(), 2);
+        putCards(out, offset + 30, manager.getAI().getHand().getCards(), 2);
+        putCards(out, offset + 32, manager.getCommunityCards(), MAX_BOARD);
+        out.put(offset + 37, (byte) 0);
+        out.putShort(offset + 38, (short) 0);
+        out.putLong(offset + 40, manager.getDeck().remainingMask());
+    }
+
+    /**
+     * A new RoundManager, with a new PokerAI, in the state written at offset
+     */
+    public static RoundManager decode(ByteBuffer in, int offset, String humanName) {
+        int format = in.get(offset) & 0xFF;
+        if (format != FORMAT) throw new IllegalArgumentException("Unknown table state format " + format);
+        int flags = in.get(offset + 1);
+        int difficulty = in.get(offset + 2);
+        RoundStage stage = RoundStage.values()[in.get(offset + 3)];
+
+        Player human = new Player(humanName, in.getInt(offset + 4));
+        Player ai = new Player("AI", in.getInt(offset + 8));
+        try {
+            for (Card card : getCards(in, offset + 28, 2)) human.receiveCard(card);
+            for (Card card : getCards(in, offset + 30, 2)) ai.receiveCard(card);
+        } catch (GameException e) {
+            throw new IllegalArgumentException("Bad hole cards in table state", e);
+        }
+        RoundManager manager = new RoundManager(Deck.fromMask(in.getLong(offset + 40)), human, ai, difficulty);
+        manager.restore(in.getInt(offset + 12), stage, in.getInt(offset + 16), in.getLong(offset + 20),
+                (flags & FLAG_PLAYER_ALL_IN) != 0, (flags & FLAG_AI_ALL_IN) != 0, getCards(in, offset + 32, MAX_BOARD));
+        return manager;
+    }
+
+    private static void putCards(ByteBuffer out, int offset, List<Card> cards, int places) {
+        for (int i = 0; i < places; i++) {
+            out.put(offset + i, (byte) (i < cards.size() ? FastHandEvaluator.code(cards.get(i)) : NO_CARD));
+        }
+    }
+
+    private static List<Card> getCards(ByteBuffer in, int offset, int places) {
+        List<Card> cards = new ArrayList<>(places);
+        for (int i = 0; i < places; i++) {
+            int code = in.get(offset + i) & 0xFF;
+            if (code == NO_CARD) break;
+            if (code >= 52) throw new IllegalArgumentException("Bad card code " + code + " in table state");
+            cards.add(FastHandEvaluator.card(code));
+        }
+        return cards;
+    }
+}
@@ -0,0 +1,80 @@
+package BluffOrBluff.logic;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Idle tables kept off the heap: each parked table is one TableStateCodec record in a direct
+ * buffer slab, plus its human's name. park() hands back a slot for the table, and unpark()
+ * turns the slot back into a live RoundManager when the table has to act again. Freed slots
+ * are reused, and the slab doubles when it is full.
+ */
+public class TableStore {
+    private static final int RECORD = TableStateCodec.RECORD_BYTES;
+
+    private ByteBuffer slab;
+    private String[] names;
+    private int[] freeSlots;
+    private int freeCount;
+    private int used;
+    private int parked;
+
+    public TableStore(int initialCapacity) {
+        int capacity = Math.max(1, initialCapacity);
+        this.slab = ByteBuffer.allocateDirect(capacity * RECORD);
+        this.names = new String[capacity];
+        this.freeSlots = new int[capacity];
+    }
+
+    /**
+     * Stores manager's state; the manager itself can then be dropped
+     * @return the slot to unpark it from
+     */
+    public synchronized int park(RoundManager manager) {
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (used == names.length) grow();
+            slot = used++;
+        }
+        TableStateCodec.encode(manager, slab, slot * RECORD);
+        names[slot] = manager.getHuman().getName();
+        parked++;
+        return slot;
+    }
+
+    /**
+     * A live table in the state slot was parked in, which frees the slot
+     */
+    public synchronized RoundManager unpark(int slot) {
+        if (slot < 0 || slot >= used || names[slot] == null) {
+            throw new IllegalArgumentException("No table parked in slot " + slot);
+        }
+        RoundManager manager = TableStateCodec.decode(slab, slot * RECORD, names[slot]);
+        names[slot] = null;
+        freeSlots[freeCount++] = slot;
+        parked--;
+        return manager;
+    }
+
+    public synchronized int getParked() {
+        return parked;
+    }
+
+    /**
+     * Size of the slab, which is outside the heap
+     */
+    public synchronized long getOffHeapBytes() {
+        return slab.capacity();
+    }
+
+    private void grow() {
+        int capacity = names.length * 2;
+        ByteBuffer bigger = ByteBuffer.allocateDirect(capacity * RECORD);
+        bigger.put(0, slab, 0, used * RECORD);
+        slab = bigger;
+        names = Arrays.copyOf(names, capacity);
+        freeSlots = Arrays.copyOf(freeSlots, capacity);
+    }
+}
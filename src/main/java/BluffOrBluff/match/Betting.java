@@ -0,0 +1,197 @@
+package BluffOrBluff.match;
+
+import BluffOrBluff.logic.RoundManager;
+
+/**
+ * The betting of one match hand, applied one action at a time. The Dealer makes each bot's
+ * reply legal and applies it; MatchState replays a betting string through it to rebuild the
+ * position a bot is in.
+ *
+ * The rules are RoundManager's, and the sizes come from its minimumRaise and callAmount: no
+ * blinds, seat 0 acts first on every street, a bet or raise is at least RoundManager's minimum
+ * (or the rest of the stack), and a seat that is all-in can only be called or folded to. Unlike
+ * RoundManager a call is owed only the difference to the other seat's chips on the street, and
+ * a street has at most MAX_RAISES bets and raises so two aggressive bots can't raise each
+ * other forever.
+ */
+final class Betting {
+    static final int MAX_RAISES = 4;
+    static final int RIVER = 3;
+
+    private final int stack;
+    private final int[] invested = new int[2]; // whole hand
+    private final int[] spent = new int[2];    // this street
+    private final StringBuilder text = new StringBuilder(32);
+    private int street;
+    private int actor;
+    private int raises;
+    private int folded = -1;
+
+    Betting(int stack) {
+        this.stack = stack;
+    }
+
+    /**
+     * 0 pre-flop, 1 flop, 2 turn, 3 river
+     */
+    int street() {
+        return street;
+    }
+
+    /**
+     * Seat to act, -1 once the betting is over
+     */
+    int actor() {
+        return actor;
+    }
+
+    boolean isOver() {
+        return actor < 0;
+    }
+
+    /**
+     * The betting is over and nobody folded
+     */
+    boolean isShowdown() {
+        return actor < 0 && folded < 0;
+    }
+
+    /**
+     * Seat that folded, or -1
+     */
+    int folded() {
+        return folded;
+    }
+
+    int pot() {
+        return invested[0] + invested[1];
+    }
+
+    int invested(int seat) {
+        return invested[seat];
+    }
+
+    int spent(int seat) {
+        return spent[seat];
+    }
+
+    int chipsLeft(int seat) {
+        return stack - invested[seat];
+    }
+
+    /**
+     * Chips the seat to act needs to match the other seat on this street
+     */
+    int toCall() {
+        return actor < 0 ? 0 : spent[1 - actor] - spent[actor];
+    }
+
+    /**
+     * Street total of the largest bet or raise the seat to act can make
+     */
+    int maxRaiseTo() {
+        return spent[actor] + chipsLeft(actor);
+    }
+
+    int minRaiseTo() {
+        return Math.min(RoundManager.minimumRaise(spent[1 - actor]), maxRaiseTo());
+    }
+
+    boolean canRaise() {
+        return raises < MAX_RAISES && chipsLeft(actor) > toCall() && chipsLeft(1 - actor) > 0;
+    }
+
+    /**
+     * The betting so far: each street's actions, streets separated by '/'
+     */
+    String text() {
+        return text.toString();
+    }
+
+    /**
+     * Turns any reply into a legal action. Unreadable replies fold, a fold with nothing to
+     * call checks, and raises are clamped to the legal sizes or become calls when no raise is
+     * allowed.
+     */
+    String legalize(String reply) {
+        if (reply == null || reply.isEmpty()) return toCall() == 0 ? "c" : "f";
+        switch (reply.charAt(0)) {
+            case 'c':
+                return "c";
+            case 'r':
+                if (!canRaise()) return "c";
+                int to;
+                try {
+                    to = Integer.parseInt(reply.substring(1));
+                } catch (NumberFormatException e) {
+                    to = minRaiseTo();
+                }
+                return "r" + Math.max(minRaiseTo(), Math.min(to, maxRaiseTo()));
+            default:
+                return toCall() == 0 ? "c" : "f";
+        }
+    }
+
+    /**
+     * Applies a legal action: "f", "c" or "r" and the street total raised to
+     * @throws IllegalArgumentException when the action can't be played here
+     */
+    void apply(String action) {
+        if (actor < 0) throw new IllegalArgumentException("Hand is over");
+        switch (action.charAt(0)) {
+            case 'f' -> {
+                text.append('f');
+                folded = actor;
+                actor = -1;
+            }
+            case 'c' -> call();
+            case 'r' -> raiseTo(Integer.parseInt(action.substring(1)));
+            default -> throw new IllegalArgumentException("Bad action: " + action);
+        }
+    }
+
+    private void call() {
+        int owed = toCall();
+        put(actor, RoundManager.callAmount(owed, chipsLeft(actor)));
+        text.append('c');
+        // A check by seat 0 leaves seat 1 to act; anything else closes the street
+        if (owed == 0 && actor == 0) {
+            actor = 1;
+        } else {
+            endStreet();
+        }
+    }
+
+    private void raiseTo(int to) {
+        if (to <= spent[1 - actor] || to > maxRaiseTo()) {
+            throw new IllegalArgumentException("Bad raise: r" + to);
+        }
+        put(actor, to - spent[actor]);
+        text.append('r').append(to);
+        raises++;
+        actor = 1 - actor;
+    }
+
+    private void put(int seat, int chips) {
+        spent[seat] += chips;
+        invested[seat] += chips;
+    }
+
+    private void endStreet() {
+        if (street == RIVER || chipsLeft(0) == 0 || chipsLeft(1) == 0) {
+            // Nothing left to bet: run the board out to the river
+            while (street < RIVER) {
+                street++;
+                text.append('/');
+            }
+            actor = -1;
+            return;
+        }
+        street++;
+        text.append('/');
+        spent[0] = 0;
+        spent[1] = 0;
+        raises = 0;
+        actor = 0;
+    }
+}
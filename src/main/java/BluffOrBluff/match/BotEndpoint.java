@@ -0,0 +1,26 @@
+package BluffOrBluff.match;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * One bot in a Dealer match. It is shown every state its seat sees (see MatchState) and
+ * answers the ones where it is to act.
+ */
+public interface BotEndpoint extends Closeable {
+    /**
+     * Name written to the match results
+     */
+    String getName();
+
+    /**
+     * @param matchState this seat's view of the hand after the last action
+     * @param toAct      whether this seat has to act now
+     * @return the action ("f", "c" or "r<n>") when toAct, otherwise ignored and may be null
+     */
+    String onState(String matchState, boolean toAct) throws IOException;
+
+    @Override
+    default void close() throws IOException {
+    }
+}
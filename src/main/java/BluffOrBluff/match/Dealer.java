@@ -0,0 +1,314 @@
+package BluffOrBluff.match;
+
+import BluffOrBluff.model.FastHandEvaluator;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Plays a match between two bots with duplicate hands: every deal is played twice with the
+ * bots in swapped seats, so each bot gets the other's cards and the luck of the deal cancels
+ * out of their difference. Stacks start every hand at the same size.
+ *
+ * Each bot sees a MatchState line after every action. Each finished hand is written to the
+ * results stream in ACPC log form as soon as it ends:
+ *
+ *   STATE:<hand>:<betting>:<both hole cards and board>:<seat 0 net>|<seat 1 net>:<seat 0>|<seat 1>
+ *
+ * Usage: Dealer [--a ai:2] [--b ai:2] [--pairs N] [--seed S] [--stack 1000] [--log file|-]
+ *               [--tables T]
+ * A bot is ai:<difficulty> for an in-process PokerAI or "cmd:<command line>" for a child
+ * process, e.g. "cmd:java -cp target/classes BluffOrBluff.match.PipeBot --difficulty 3".
+ * With --tables the pairs are split over T independent matches on their own threads, each
+ * with its own pair of bots and seed + table as its seed.
+ */
+public class Dealer {
+    public static final int DEFAULT_STACK = 1000;
+
+    private final BotEndpoint a;
+    private final BotEndpoint b;
+    private final int stack;
+    private final PrintStream results;
+    private final SplittableRandom random;
+    private final int[] deck = new int[52];
+    private final int[] holes = new int[4];
+    private final int[] board = new int[5];
+
+    private long nextHand;
+    private long hands;
+    private long pairs;
+    // Bot A's net chips per hand and per duplicate pair, for the means and their errors
+    private double handSum, handSquares;
+    private double pairSum, pairSquares;
+
+    /**
+     * @param results where finished hands are written, null for nowhere
+     */
+    public Dealer(BotEndpoint a, BotEndpoint b, int stack, long seed, PrintStream results) {
+        this(a, b, stack, seed, results, 0);
+    }
+
+    /**
+     * @param firstHand number of the first hand, to keep numbers unique across tables
+     */
+    public Dealer(BotEndpoint a, BotEndpoint b, int stack, long seed, PrintStream results, long firstHand) {
+        this.a = a;
+        this.b = b;
+        this.stack = stack;
+        this.results = results;
+        this.random = new SplittableRandom(seed);
+        this.nextHand = firstHand;
+        for (int i = 0; i < deck.length; i++) deck[i] = i;
+    }
+
+    /**
+     * Deals pairs new hands and plays each of them once from both seats
+     */
+    public void play(int pairs) throws IOException {
+        for (int i = 0; i < pairs; i++) {
+            deal();
+            int first = playHand(a, b);
+            int second = -playHand(b, a);
+            record(first);
+            record(second);
+            int pair = first + second;
+            pairSum += pair;
+            pairSquares += (double) pair * pair;
+            this.pairs++;
+        }
+    }
+
+    private void record(int net) {
+        handSum += net;
+        handSquares += (double) net * net;
+    }
+
+    private void deal() {
+        // Partial Fisher-Yates: the first nine cards are both hands and the board
+        for (int i = 0; i < 9; i++) {
+            int j = i + random.nextInt(deck.length - i);
+            int card = deck[j];
+            deck[j] = deck[i];
+            deck[i] = card;
+        }
+        System.arraycopy(deck, 0, holes, 0, 4);
+        System.arraycopy(deck, 4, board, 0, 5);
+    }
+
+    /**
+     * Plays the current deal with the given bots in seats 0 and 1
+     * @return seat 0's net chips
+     */
+    private int playHand(BotEndpoint seat0, BotEndpoint seat1) throws IOException {
+        long number = nextHand++;
+        hands++;
+        Betting betting = new Betting(stack);
+        while (true) {
+            int actor = betting.actor();
+            String reply0 = seat0.onState(MatchState.format(0, number, betting, holes, board), actor == 0);
+            String reply1 = seat1.onState(MatchState.format(1, number, betting, holes, board), actor == 1);
+            if (actor < 0) break;
+            betting.apply(betting.legalize(actor == 0 ? reply0 : reply1));
+        }
+
+        int net = net(betting);
+        if (results != null) {
+            String state = MatchState.format(0, number, betting, holes, board);
+            // Log lines show both hands even when nobody had to show them
+            String cards = state.substring(state.lastIndexOf(':') + 1);
+            if (!betting.isShowdown()) {
+                cards = FastHandEvaluator.text(holes[0]) + FastHandEvaluator.text(holes[1]) + "|"
+                        + FastHandEvaluator.text(holes[2]) + FastHandEvaluator.text(holes[3])
+                        + cards.substring(cards.indexOf('|') + 1);
+            }
+            results.println("STATE:" + number + ":" + betting.text() + ":" + cards + ":" + net + "|" + -net
+                    + ":" + seat0.getName() + "|" + seat1.getName());
+        }
+        return net;
+    }
+
+    private int net(Betting betting) {
+        int folded = betting.folded();
+        if (folded >= 0) {
+            int lost = betting.invested(folded);
+            return folded == 0 ? -lost : lost;
+        }
+        long[] masks = new long[2];
+        for (int i = 0; i < 4; i++) masks[i / 2] |= FastHandEvaluator.bit(holes[i]);
+        for (int card : board) {
+            masks[0] |= FastHandEvaluator.bit(card);
+            masks[1] |= FastHandEvaluator.bit(card);
+        }
+        // The evaluator behind HandEvaluator, so a match showdown goes the way a game's does
+        int value0 = FastHandEvaluator.evaluate(masks[0]);
+        int value1 = FastHandEvaluator.evaluate(masks[1]);
+        // Chips one seat put in beyond what the other could match go back to it
+        int matched = Math.min(betting.invested(0), betting.invested(1));
+        return Integer.compare(value0, value1) * matched;
+    }
+
+    public long getHands() {
+        return hands;
+    }
+
+    /**
+     * Bot A's mean net chips per hand
+     */
+    public double getMeanNet() {
+        return hands == 0 ? 0 : handSum / hands;
+    }
+
+    /**
+     * Standard error of getMeanNet() from the spread of duplicate pairs
+     */
+    public double getDuplicateError() {
+        return standardError(pairSum, pairSquares, pairs) / 2;
+    }
+
+    /**
+     * Standard error of getMeanNet() as if every hand had been dealt independently
+     */
+    public double getSingleError() {
+        return standardError(handSum, handSquares, hands);
+    }
+
+    /**
+     * Adds another table's hands into this one's means and errors
+     */
+    void addTotals(Dealer other) {
+        hands += other.hands;
+        pairs += other.pairs;
+        handSum += other.handSum;
+        handSquares += other.handSquares;
+        pairSum += other.pairSum;
+        pairSquares += other.pairSquares;
+    }
+
+    private static double standardError(double sum, double squares, long n) {
+        if (n < 2) return Double.NaN;
+        double mean = sum / n;
+        double variance = (squares - n * mean * mean) / (n - 1);
+        return Math.sqrt(Math.max(0, variance) / n);
+    }
+
+    /**
+     * Builds an endpoint from "ai:<difficulty>" or "cmd:<command line>"
+     */
+    static BotEndpoint endpoint(String spec, String name, int stack) throws IOException {
+        if (spec.startsWith("ai:")) {
+            int difficulty = Integer.parseInt(spec.substring(3));
+            if (difficulty < 1 || difficulty > 4) throw new IllegalArgumentException("Difficulty must be 1-4");
+            return new PokerAIEndpoint(name + "-ai" + difficulty, difficulty, stack);
+        }
+        if (spec.startsWith("cmd:")) {
+            List<String> command = Arrays.asList(spec.substring(4).trim().split("\\s+"));
+            return new ProcessEndpoint(name + "-cmd", command);
+        }
+        throw new IllegalArgumentException("Bot must be ai:<difficulty> or cmd:<command>: " + spec);
+    }
+
+    public static void main(String[] args) {
+        String specA = "ai:2";
+        String specB = "ai:2";
+        int pairs = 1000;
+        long seed = 1;
+        int stack = DEFAULT_STACK;
+        String log = null;
+        int tables = 1;
+        try {
+            for (int i = 0; i + 1 < args.length; i += 2) {
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--a" -> specA = value;
+                    case "--b" -> specB = value;
+                    case "--pairs" -> pairs = Integer.parseInt(value);
+                    case "--seed" -> seed = Long.parseLong(value);
+                    case "--stack" -> stack = Integer.parseInt(value);
+                    case "--log" -> log = value;
+                    case "--tables" -> tables = Integer.parseInt(value);
+                    default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+            if (tables < 1) throw new IllegalArgumentException("Need at least one table");
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+            return;
+        }
+
+        List<BotEndpoint> endpoints = new ArrayList<>();
+        OutputStream logStream = null;
+        try {
+            PrintStream results = null;
+            if ("-".equals(log)) {
+                results = System.out;
+            } else if (log != null) {
+                logStream = new FileOutputStream(log);
+                results = new PrintStream(logStream, false);
+            }
+            Dealer[] dealers = new Dealer[tables];
+            int[] tablePairs = new int[tables];
+            for (int t = 0; t < tables; t++) {
+                BotEndpoint a = endpoint(specA, "A", stack);
+                endpoints.add(a);
+                BotEndpoint b = endpoint(specB, "B", stack);
+                endpoints.add(b);
+                tablePairs[t] = pairs / tables + (t < pairs % tables ? 1 : 0);
+                dealers[t] = new Dealer(a, b, stack, seed + t, results, 2L * t * (pairs / tables + 1));
+            }
+
+            long start = System.nanoTime();
+            Thread[] threads = new Thread[tables];
+            IOException[] failures = new IOException[tables];
+            for (int t = 0; t < tables; t++) {
+                int table = t;
+                threads[t] = new Thread(() -> {
+                    try {
+                        dealers[table].play(tablePairs[table]);
+                    } catch (IOException e) {
+                        failures[table] = e;
+                    }
+                }, "dealer-" + t);
+                threads[t].start();
+            }
+            for (Thread thread : threads) thread.join();
+            double elapsed = (System.nanoTime() - start) / 1e9;
+            if (results != null) results.flush();
+            for (IOException failure : failures) {
+                if (failure != null) throw failure;
+            }
+
+            Dealer total = dealers[0];
+            for (int t = 1; t < tables; t++) total.addTotals(dealers[t]);
+            System.out.printf("%d hands (%d duplicate pairs) on %d table(s) in %.2f s: %.0f hands/s%n",
+                    total.getHands(), pairs, tables, elapsed, total.getHands() / elapsed);
+            System.out.printf("%s vs %s: %+.2f chips/hand, standard error %.2f duplicate (%.2f without)%n",
+                    endpoints.get(0).getName(), endpoints.get(1).getName(), total.getMeanNet(),
+                    total.getDuplicateError(), total.getSingleError());
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            for (BotEndpoint endpoint : endpoints) {
+                try {
+                    endpoint.close();
+                } catch (IOException e) {
+                    // Closing the rest anyway
+                }
+            }
+            if (logStream != null) {
+                try {
+                    logStream.close();
+                } catch (IOException e) {
+                    // Results are flushed already
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package BluffOrBluff.match;
+
+import BluffOrBluff.model.Card;
+import BluffOrBluff.model.FastHandEvaluator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One seat's view of a match hand, in the ACPC match-state format:
+ *
+ *   MATCHSTATE:<seat>:<hand>:<betting>:<cards>
+ *
+ * betting lists each street's actions with the streets separated by '/': "f" fold, "c" check
+ * or call, "r<n>" bet or raise to n chips on the street. cards are "<seat 0 hole>|<seat 1 hole>"
+ * and then "/<flop>", "/<turn>" and "/<river>" as they are dealt, written like "As" and "Td";
+ * the other seat's hole cards only show after a showdown. Seat 1 on the turn, for example:
+ *
+ *   MATCHSTATE:1:17:cc/r100c/c:|9s8h/Ts7c2d/Jh
+ *
+ * A bot answers the state it has to act in by echoing it with ":<action>" appended. The rules
+ * (and the stack every hand starts with, which is not part of the string) are in Betting.
+ */
+public final class MatchState {
+    public static final String PREFIX = "MATCHSTATE";
+    private static final int[] BOARD_CARDS = {0, 3, 4, 5};
+
+    private final int seat;
+    private final long hand;
+    private final Betting betting;
+    private final List<String> actions;
+    private final int[] holes;
+    private final int[] board;
+
+    private MatchState(int seat, long hand, Betting betting, List<String> actions, int[] holes, int[] board) {
+        this.seat = seat;
+        this.hand = hand;
+        this.betting = betting;
+        this.actions = actions;
+        this.holes = holes;
+        this.board = board;
+    }
+
+    /**
+     * Reads a match-state line (an answer with an action appended is accepted too)
+     * @throws IllegalArgumentException when the line is not a valid state
+     */
+    public static MatchState parse(String line, int stack) {
+        String[] fields = line.split(":", -1);
+        if (fields.length < 5 || !fields[0].equals(PREFIX)) {
+            throw new IllegalArgumentException("Not a match state: " + line);
+        }
+        int seat = Integer.parseInt(fields[1]);
+        if (seat != 0 && seat != 1) throw new IllegalArgumentException("Bad seat: " + line);
+        long hand = Long.parseLong(fields[2]);
+
+        Betting betting = new Betting(stack);
+        List<String> actions = new ArrayList<>();
+        String text = fields[3];
+        for (int i = 0; i < text.length(); ) {
+            char c = text.charAt(i);
+            int end = i + 1;
+            if (c == 'r') {
+                while (end < text.length() && Character.isDigit(text.charAt(end))) end++;
+            }
+            if (c != '/') {
+                String action = text.substring(i, end);
+                betting.apply(action);
+                actions.add(action);
+            }
+            i = end;
+        }
+
+        int[] holes = {-1, -1, -1, -1};
+        int[] board = new int[5];
+        String cards = fields[4];
+        int bar = cards.indexOf('|');
+        if (bar < 0) throw new IllegalArgumentException("Bad cards: " + line);
+        readCards(cards, 0, bar, holes, 0);
+        int slash = cards.indexOf('/', bar);
+        readCards(cards, bar + 1, slash < 0 ? cards.length() : slash, holes, 2);
+        int dealt = 0;
+        for (int i = slash; i >= 0 && i < cards.length(); ) {
+            if (cards.charAt(i) == '/') {
+                i++;
+                continue;
+            }
+            if (dealt == board.length) throw new IllegalArgumentException("Bad cards: " + line);
+            board[dealt++] = code(cards, i);
+            i += 2;
+        }
+        if (dealt < BOARD_CARDS[betting.street()]) throw new IllegalArgumentException("Missing board cards: " + line);
+        return new MatchState(seat, hand, betting, actions, holes, board);
+    }
+
+    private static void readCards(String cards, int from, int to, int[] into, int offset) {
+        if (from == to) return;
+        if (to - from != 4) throw new IllegalArgumentException("Bad hole cards: " + cards);
+        into[offset] = code(cards, from);
+        into[offset + 1] = code(cards, from + 2);
+    }
+
+    private static int code(String cards, int offset) {
+        int code = FastHandEvaluator.parseCode(cards, offset);
+        if (code < 0) throw new IllegalArgumentException("Bad card in " + cards);
+        return code;
+    }
+
+    /**
+     * The state as seat sees it; the other hole cards show only after a showdown
+     * @param holes seat 0's two hole card codes, then seat 1's
+     * @param board all five board card codes; only the dealt ones are written
+     */
+    static String format(int seat, long hand, Betting betting, int[] holes, int[] board) {
+        StringBuilder sb = new StringBuilder(64);
+        sb.append(PREFIX).append(':').append(seat).append(':').append(hand).append(':')
+                .append(betting.text()).append(':');
+        boolean showdown = betting.isShowdown();
+        if (seat == 0 || showdown) appendCards(sb, holes, 0, 2);
+        sb.append('|');
+        if (seat == 1 || showdown) appendCards(sb, holes, 2, 2);
+        int dealt = BOARD_CARDS[betting.street()];
+        for (int i = 0; i < dealt; i++) {
+            if (i == 0 || i >= 3) sb.append('/');
+            sb.append(FastHandEvaluator.text(board[i]));
+        }
+        return sb.toString();
+    }
+
+    private static void appendCards(StringBuilder sb, int[] codes, int from, int count) {
+        for (int i = from; i < from + count; i++) {
+            sb.append(FastHandEvaluator.text(codes[i]));
+        }
+    }
+
+    public int getSeat() {
+        return seat;
+    }
+
+    public long getHand() {
+        return hand;
+    }
+
+    /**
+     * 0 pre-flop, 1 flop, 2 turn, 3 river
+     */
+    public int getStreet() {
+        return betting.street();
+    }
+
+    /**
+     * This seat has to answer this state
+     */
+    public boolean isMyTurn() {
+        return betting.actor() == seat;
+    }
+
+    public boolean isOver() {
+        return betting.isOver();
+    }
+
+    /**
+     * Every action so far, in order, without street separators
+     */
+    public List<String> getActions() {
+        return actions;
+    }
+
+    public int getPot() {
+        return betting.pot();
+    }
+
+    public int getChipsLeft(int seat) {
+        return betting.chipsLeft(seat);
+    }
+
+    /**
+     * Chips the seat has put in on the current street
+     */
+    public int getSpent(int seat) {
+        return betting.spent(seat);
+    }
+
+    /**
+     * Chips the seat to act needs to call
+     */
+    public int getToCall() {
+        return betting.toCall();
+    }
+
+    public boolean canRaise() {
+        return !betting.isOver() && betting.canRaise();
+    }
+
+    public int getMinRaiseTo() {
+        return betting.minRaiseTo();
+    }
+
+    public int getMaxRaiseTo() {
+        return betting.maxRaiseTo();
+    }
+
+    /**
+     * A seat's hole cards, empty when this seat can't see them
+     */
+    public List<Card> getHoleCards(int seat) {
+        if (holes[seat * 2] < 0) return List.of();
+        return List.of(FastHandEvaluator.card(holes[seat * 2]), FastHandEvaluator.card(holes[seat * 2 + 1]));
+    }
+
+    /**
+     * The community cards dealt so far
+     */
+    public List<Card> getBoard() {
+        int dealt = BOARD_CARDS[betting.street()];
+        List<Card> cards = new ArrayList<>(dealt);
+        for (int i = 0; i < dealt; i++) cards.add(FastHandEvaluator.card(board[i]));
+        return cards;
+    }
+}
@@ -0,0 +1,53 @@
+package BluffOrBluff.match;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Runs a PokerAI as a match bot over stdin and stdout, for a Dealer's ProcessEndpoint or any
+ * dealer that speaks the MatchState format: reads one state per line and answers the states
+ * it has to act in with the state and ":<action>".
+ *
+ * Usage: PipeBot [--difficulty 1-4] [--stack 1000]
+ */
+public class PipeBot {
+    public static void main(String[] args) {
+        int difficulty = 2;
+        int stack = Dealer.DEFAULT_STACK;
+        try {
+            for (int i = 0; i + 1 < args.length; i += 2) {
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--difficulty" -> difficulty = Integer.parseInt(value);
+                    case "--stack" -> stack = Integer.parseInt(value);
+                    default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            return;
+        }
+
+        // Keep stdout for answers only
+        PrintStream answers = System.out;
+        System.setOut(System.err);
+        PokerAIEndpoint bot = new PokerAIEndpoint("PipeBot", difficulty, stack);
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.US_ASCII))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!line.startsWith(MatchState.PREFIX)) continue;
+                boolean toAct = MatchState.parse(line, stack).isMyTurn();
+                String action = bot.onState(line, toAct);
+                if (toAct) {
+                    answers.print(line + ":" + action + "\n");
+                    answers.flush();
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+        }
+    }
+}
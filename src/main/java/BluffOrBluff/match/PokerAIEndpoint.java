@@ -0,0 +1,132 @@
+package BluffOrBluff.match;
+
+import BluffOrBluff.ai.PokerAI;
+import BluffOrBluff.exception.GameException;
+import BluffOrBluff.logic.RoundListener;
+import BluffOrBluff.logic.RoundManager;
+import BluffOrBluff.logic.RoundStage;
+import BluffOrBluff.model.BettingAction;
+import BluffOrBluff.model.Card;
+import BluffOrBluff.model.HandRank;
+import BluffOrBluff.model.Player;
+
+import java.util.List;
+
+/**
+ * Plays a PokerAI in a match, in-process. The AI sees each hand the way RoundManager shows it
+ * one: its own seat is AI_SEAT, the other seat is HUMAN_SEAT, and bets are sized as
+ * RoundManager sizes the AI's.
+ */
+public class PokerAIEndpoint implements BotEndpoint {
+    private static final RoundStage[] STAGES = {RoundStage.PRE_FLOP, RoundStage.FLOP, RoundStage.TURN, RoundStage.RIVER};
+
+    private final String name;
+    private final int difficulty;
+    private final int stack;
+    private final Player self = new Player("AI", 0);
+    private final Player opponent = new Player("Opponent", 0);
+    private final PokerAI pokerAI;
+
+    private long hand = -1;
+    // Actions of the current hand already passed to the AI, replayed here to know who did what
+    private Betting replay;
+    private int seen;
+
+    public PokerAIEndpoint(String name, int difficulty, int stack) {
+        this.name = name;
+        this.difficulty = difficulty;
+        this.stack = stack;
+        this.pokerAI = new PokerAI(self, difficulty);
+    }
+
+    public PokerAI getPokerAI() {
+        return pokerAI;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String onState(String matchState, boolean toAct) {
+        MatchState state = MatchState.parse(matchState, stack);
+        if (state.getHand() != hand) startHand(state);
+        passActions(state);
+        return toAct ? decide(state) : null;
+    }
+
+    private void startHand(MatchState state) {
+        hand = state.getHand();
+        replay = new Betting(stack);
+        seen = 0;
+        self.resetHand();
+        try {
+            for (Card card : state.getHoleCards(state.getSeat())) self.receiveCard(card);
+        } catch (GameException e) {
+            throw new IllegalStateException(e);
+        }
+        setChips(self, stack);
+        setChips(opponent, stack);
+        pokerAI.resetContext();
+        pokerAI.onHandStart(hand, difficulty, opponent, self);
+    }
+
+    private void passActions(MatchState state) {
+        List<String> actions = state.getActions();
+        for (; seen < actions.size(); seen++) {
+            String action = actions.get(seen);
+            int seat = replay.actor();
+            RoundStage stage = STAGES[replay.street()];
+            int toCall = replay.toCall();
+            int before = replay.chipsLeft(seat);
+            replay.apply(action);
+            int amount = before - replay.chipsLeft(seat);
+            BettingAction kind = switch (action.charAt(0)) {
+                case 'f' -> BettingAction.FOLD;
+                case 'c' -> toCall == 0 ? BettingAction.CHECK : BettingAction.CALL;
+                default -> replay.chipsLeft(seat) == 0 ? BettingAction.ALL_IN
+                        : toCall == 0 ? BettingAction.BET : BettingAction.RAISE;
+            };
+            int roundSeat = seat == state.getSeat() ? RoundListener.AI_SEAT : RoundListener.HUMAN_SEAT;
+            pokerAI.onAction(stage, roundSeat, kind, amount, replay.pot());
+        }
+    }
+
+    private String decide(MatchState state) {
+        int seat = state.getSeat();
+        setChips(self, state.getChipsLeft(seat));
+        setChips(opponent, state.getChipsLeft(1 - seat));
+        RoundStage stage = STAGES[state.getStreet()];
+        List<Card> board = state.getBoard();
+        int toCall = state.getToCall();
+        int pot = state.getPot();
+        HandRank handRank = pokerAI.contextFor(stage, board).getHandRank();
+
+        if (opponent.getChips() == 0) {
+            // Facing an all-in: RoundManager only offers call or fold
+            return pokerAI.decideAllInCall(toCall, pot, handRank, difficulty) == 1 ? "c" : "f";
+        }
+        BettingAction action = pokerAI.getAIDecision(handRank, toCall, pot, stage, board);
+        return switch (action) {
+            case FOLD -> "f";
+            case CHECK, CALL -> "c";
+            case ALL_IN -> "r" + state.getMaxRaiseTo();
+            case BET, RAISE -> "r" + (state.getSpent(seat) + raiseAmount(toCall, pot, stage, board));
+        };
+    }
+
+    /**
+     * Chips the AI puts in with a bet or raise, as in RoundManager.calculateRaiseAmount
+     */
+    private int raiseAmount(int toCall, int pot, RoundStage stage, List<Card> board) {
+        int minimum = RoundManager.minimumRaise(toCall);
+        int sized = pokerAI.chooseBetSize(toCall, pot, minimum, opponent.getChips(), stage, board);
+        if (sized > 0) return Math.min(sized, self.getChips());
+        return Math.min(toCall + RoundManager.aiRaiseIncrement(difficulty), self.getChips());
+    }
+
+    private static void setChips(Player player, int chips) {
+        player.addChips(chips - player.getChips());
+    }
+}
@@ -0,0 +1,64 @@
+package BluffOrBluff.match;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A bot running as a child process: every state goes to its stdin as one line, and for the
+ * states it has to act in it answers with one line on stdout, either the state with
+ * ":<action>" appended (the ACPC form) or just the action. Its stderr is passed through.
+ */
+public class ProcessEndpoint implements BotEndpoint {
+    private final String name;
+    private final Process process;
+    private final BufferedWriter toBot;
+    private final BufferedReader fromBot;
+
+    public ProcessEndpoint(String name, List<String> command) throws IOException {
+        this.name = name;
+        this.process = new ProcessBuilder(command)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        this.toBot = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.US_ASCII));
+        this.fromBot = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.US_ASCII));
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String onState(String matchState, boolean toAct) throws IOException {
+        toBot.write(matchState);
+        toBot.newLine();
+        toBot.flush();
+        if (!toAct) return null;
+        String reply = fromBot.readLine();
+        if (reply == null) throw new IOException(name + " exited");
+        if (reply.startsWith(matchState)) {
+            return reply.length() > matchState.length() + 1 ? reply.substring(matchState.length() + 1) : "";
+        }
+        return reply.trim();
+    }
+
+    /**
+     * Closes the bot's stdin and gives it a second to exit before killing it
+     */
+    @Override
+    public void close() throws IOException {
+        toBot.close();
+        try {
+            if (!process.waitFor(1, TimeUnit.SECONDS)) process.destroyForcibly();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            process.destroyForcibly();
+        }
+    }
+}
@@ -62,6 +62,7 @@ public class GameMenu {
         System.out.println("[1] Beginner");
         System.out.println("[2] Normal");
         System.out.println("[3] Expert");
-        return InputHandler.getValidInt(1, 3);
+        System.out.println("[4] Expert+ (solved strategy)");
+        return InputHandler.getValidInt(1, 4);
     }
 }
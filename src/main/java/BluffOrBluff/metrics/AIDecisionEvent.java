@@ -0,0 +1,31 @@
+package BluffOrBluff.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One call to PokerAI.getAIDecision; the event's duration is the decision latency
+ */
+@Name("BluffOrBluff.AIDecision")
+@Label("AI Decision")
+@Category({"BluffOrBluff", "AI"})
+@Description("Betting decision made by PokerAI")
+public class AIDecisionEvent extends Event {
+    @Label("Difficulty")
+    public int difficulty;
+
+    @Label("Stage")
+    public String stage;
+
+    @Label("Action")
+    public String action;
+
+    @Label("Current Bet")
+    public int currentBet;
+
+    @Label("Pot")
+    public int pot;
+}
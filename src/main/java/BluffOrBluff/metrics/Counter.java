@@ -0,0 +1,39 @@
+package BluffOrBluff.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monotonic counter backed by a LongAdder, so concurrent simulator threads update
+ * separate cells instead of fighting over one cache line.
+ */
+public final class Counter implements CounterMXBean {
+    private final String name;
+    private final LongAdder value = new LongAdder();
+
+    Counter(String name) {
+        this.name = name;
+    }
+
+    public void increment() {
+        value.increment();
+    }
+
+    public void add(long amount) {
+        value.add(amount);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getValue() {
+        return value.sum();
+    }
+
+    @Override
+    public void reset() {
+        value.reset();
+    }
+}
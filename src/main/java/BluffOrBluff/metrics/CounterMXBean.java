@@ -0,0 +1,9 @@
+package BluffOrBluff.metrics;
+
+public interface CounterMXBean {
+    String getName();
+
+    long getValue();
+
+    void reset();
+}
@@ -0,0 +1,35 @@
+package BluffOrBluff.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One equity estimate, from MonteCarloSimulator, SimulationBudgeter, DecisionScheduler or
+ * BatchEquity. The event's duration is the time spent producing the estimate; cache hits show
+ * up with zero samples, and the spots of one batch share the batch's duration.
+ */
+@Name("BluffOrBluff.EquityEstimate")
+@Label("Equity Estimate")
+@Category({"BluffOrBluff", "Simulation"})
+@Description("Monte Carlo win probability estimate")
+public class EquityEstimateEvent extends Event {
+    @Label("Mode")
+    @Description("parallel, single-threaded, confidence, streaming, pipelined, exact, cache, inline, scheduler"
+            + " or batch")
+    public String mode;
+
+    @Label("Samples")
+    public int samples;
+
+    @Label("Community Cards")
+    public int communityCards;
+
+    @Label("Cache Hit")
+    public boolean cacheHit;
+
+    @Label("Equity")
+    public double equity;
+}
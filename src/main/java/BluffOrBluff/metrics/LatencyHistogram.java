@@ -0,0 +1,158 @@
+package BluffOrBluff.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Log-linear histogram in the style of HdrHistogram: every power of two is split into
+ * 16 linear sub-buckets, so any recorded value is reported within ~6% using a fixed
+ * array of ~1000 counters and no allocation on record().
+ */
+public final class LatencyHistogram implements LatencyHistogramMXBean {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final String name;
+    private final boolean nanos;
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKET_COUNT);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * @param nanos true when values are durations in nanoseconds (affects formatting only)
+     */
+    LatencyHistogram(String name, boolean nanos) {
+        this.name = name;
+        this.nanos = nanos;
+    }
+
+    public void record(long value) {
+        if (value < 0) value = 0;
+        buckets.incrementAndGet(indexOf(value));
+        count.increment();
+        sum.add(value);
+        long currentMax;
+        while (value > (currentMax = max.get()) && !max.compareAndSet(currentMax, value)) {
+            // Lost a race with another recorder; re-read and retry
+        }
+    }
+
+    /**
+     * Records the time elapsed since a value returned by Metrics.start()
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) ((value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1));
+        return ((exponent - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS) + subBucket;
+    }
+
+    static long lowerBoundOf(int index) {
+        if (index < SUB_BUCKETS) return index;
+        int exponent = (index >> SUB_BUCKET_BITS) + SUB_BUCKET_BITS - 1;
+        long subBucket = index & (SUB_BUCKETS - 1);
+        return (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+    }
+
+    private static long midpointOf(int index) {
+        if (index < SUB_BUCKETS) return index;
+        long lower = lowerBoundOf(index);
+        long width = 1L << ((index >> SUB_BUCKET_BITS) - 1);
+        return lower + width / 2;
+    }
+
+    /**
+     * Value at the given quantile (0.0 - 1.0), accurate to the bucket resolution
+     */
+    public long valueAtQuantile(double quantile) {
+        long total = 0;
+        long[] snapshot = new long[BUCKET_COUNT];
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = buckets.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) return 0;
+
+        long target = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += snapshot[i];
+            if (seen >= target) return Math.min(midpointOf(i), max.get());
+        }
+        return max.get();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getCount() {
+        return count.sum();
+    }
+
+    public long getSum() {
+        return sum.sum();
+    }
+
+    @Override
+    public double getMean() {
+        long n = count.sum();
+        return n == 0 ? 0 : (double) sum.sum() / n;
+    }
+
+    @Override
+    public long getMax() {
+        return max.get();
+    }
+
+    @Override
+    public long getP50() {
+        return valueAtQuantile(0.50);
+    }
+
+    @Override
+    public long getP90() {
+        return valueAtQuantile(0.90);
+    }
+
+    @Override
+    public long getP99() {
+        return valueAtQuantile(0.99);
+    }
+
+    @Override
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets.set(i, 0);
+        }
+        count.reset();
+        sum.reset();
+        max.set(0);
+    }
+
+    /**
+     * One-line summary used by the text dump and the aggregate MBean
+     */
+    public String summary() {
+        return String.format("count=%d mean=%s p50=%s p90=%s p99=%s max=%s",
+                getCount(), format((long) getMean()), format(getP50()),
+                format(getP90()), format(getP99()), format(getMax()));
+    }
+
+    private String format(long value) {
+        if (!nanos) return Long.toString(value);
+        if (value >= TimeUnit.MILLISECONDS.toNanos(10)) return value / 1_000_000 + "ms";
+        if (value >= TimeUnit.MICROSECONDS.toNanos(10)) return value / 1_000 + "us";
+        return value + "ns";
+    }
+}
@@ -0,0 +1,19 @@
+package BluffOrBluff.metrics;
+
+public interface LatencyHistogramMXBean {
+    String getName();
+
+    long getCount();
+
+    double getMean();
+
+    long getMax();
+
+    long getP50();
+
+    long getP90();
+
+    long getP99();
+
+    void reset();
+}
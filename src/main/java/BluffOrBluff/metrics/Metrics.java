@@ -0,0 +1,157 @@
+package BluffOrBluff.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Process-wide registry for hot-path counters and histograms.
+ *
+ * Instrumentation is off unless the JVM is started with -Dbluff.metrics=true. Call sites
+ * guard their work with {@code if (Metrics.ENABLED)}, which the JIT folds away when the
+ * flag is false, so a disabled build pays nothing beyond the constant check. When it is off
+ * the lookups below hand out one shared inert counter and histogram instead of building and
+ * registering one per name; tools that report their own numbers use unregistered().
+ * With -Dbluff.metrics.dumpSeconds=N a text report is also printed every N seconds.
+ */
+public final class Metrics {
+    public static final boolean ENABLED = Boolean.getBoolean("bluff.metrics");
+
+    private static final String JMX_DOMAIN = "BluffOrBluff";
+    private static final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private static final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    // Handed out for every name when metrics are off; guarded call sites never touch them
+    private static final Counter DISABLED_COUNTER = new Counter("disabled");
+    private static final LatencyHistogram DISABLED_HISTOGRAM = new LatencyHistogram("disabled", true);
+
+    static {
+        if (ENABLED) {
+            register("type=Metrics", new MetricsView());
+            long dumpSeconds = Long.getLong("bluff.metrics.dumpSeconds", 0L);
+            if (dumpSeconds > 0) {
+                MetricsReporter.start(dumpSeconds);
+            }
+        }
+    }
+
+    private Metrics() {
+    }
+
+    /**
+     * Timestamp to pass to LatencyHistogram.recordSince; returns 0 when metrics are off
+     */
+    public static long start() {
+        return ENABLED ? System.nanoTime() : 0L;
+    }
+
+    public static Counter counter(String name) {
+        if (!ENABLED) return DISABLED_COUNTER;
+        return counters.computeIfAbsent(name, key -> {
+            Counter counter = new Counter(key);
+            register("type=Counter,name=" + key, counter);
+            return counter;
+        });
+    }
+
+    /**
+     * Histogram of durations in nanoseconds
+     */
+    public static LatencyHistogram latency(String name) {
+        return histogram(name, true);
+    }
+
+    /**
+     * Histogram of plain values such as samples per second
+     */
+    public static LatencyHistogram values(String name) {
+        return histogram(name, false);
+    }
+
+    /**
+     * Histogram of durations that records whether or not metrics are on and is never registered,
+     * for tools such as SoakHarness that print their own report
+     */
+    public static LatencyHistogram unregistered(String name) {
+        return new LatencyHistogram(name, true);
+    }
+
+    private static LatencyHistogram histogram(String name, boolean nanos) {
+        if (!ENABLED) return DISABLED_HISTOGRAM;
+        return histograms.computeIfAbsent(name, key -> {
+            LatencyHistogram histogram = new LatencyHistogram(key, nanos);
+            register("type=Histogram,name=" + key, histogram);
+            return histogram;
+        });
+    }
+
+    /**
+     * Text report of every registered metric, sorted by name
+     */
+    public static String dump() {
+        StringBuilder sb = new StringBuilder("=== Metrics ===\n");
+        new TreeMap<>(counters).forEach((name, counter) ->
+                sb.append(name).append(" = ").append(counter.getValue()).append("\n"));
+        new TreeMap<>(histograms).forEach((name, histogram) ->
+                sb.append(name).append(": ").append(histogram.summary()).append("\n"));
+        long hits = counterValue("simulation.cache.hit");
+        long misses = counterValue("simulation.cache.miss");
+        if (hits + misses > 0) {
+            sb.append(String.format("simulation.cache.hitRatio = %.3f%n", (double) hits / (hits + misses)));
+        }
+        return sb.toString();
+    }
+
+    public static void resetAll() {
+        counters.values().forEach(Counter::reset);
+        histograms.values().forEach(LatencyHistogram::reset);
+    }
+
+    private static long counterValue(String name) {
+        Counter counter = counters.get(name);
+        return counter == null ? 0 : counter.getValue();
+    }
+
+    private static void register(String properties, Object mbean) {
+        if (!ENABLED) return;
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(JMX_DOMAIN + ":" + properties);
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(mbean, objectName);
+            }
+        } catch (JMException e) {
+            // Metrics must never take the game down; the value is still in the text dump
+            System.err.println("Could not register MBean " + properties + ": " + e.getMessage());
+        }
+    }
+
+    private static final class MetricsView implements MetricsMXBean {
+        @Override
+        public Map<String, Long> getCounters() {
+            Map<String, Long> result = new TreeMap<>();
+            counters.forEach((name, counter) -> result.put(name, counter.getValue()));
+            return result;
+        }
+
+        @Override
+        public Map<String, String> getHistograms() {
+            Map<String, String> result = new TreeMap<>();
+            histograms.forEach((name, histogram) -> result.put(name, histogram.summary()));
+            return result;
+        }
+
+        @Override
+        public String dump() {
+            return Metrics.dump();
+        }
+
+        @Override
+        public void resetAll() {
+            Metrics.resetAll();
+        }
+    }
+}
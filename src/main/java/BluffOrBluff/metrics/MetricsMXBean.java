@@ -0,0 +1,13 @@
+package BluffOrBluff.metrics;
+
+import java.util.Map;
+
+public interface MetricsMXBean {
+    Map<String, Long> getCounters();
+
+    Map<String, String> getHistograms();
+
+    String dump();
+
+    void resetAll();
+}
@@ -0,0 +1,38 @@
+package BluffOrBluff.metrics;
+
+import java.io.PrintStream;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Prints Metrics.dump() on a daemon thread so it never keeps the game process alive
+ */
+public final class MetricsReporter {
+    private static ScheduledExecutorService scheduler;
+
+    private MetricsReporter() {
+    }
+
+    public static synchronized void start(long periodSeconds) {
+        start(periodSeconds, System.err);
+    }
+
+    public static synchronized void start(long periodSeconds, PrintStream out) {
+        if (scheduler != null) return;
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleAtFixedRate(() -> out.print(Metrics.dump()),
+                periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    public static synchronized void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            scheduler = null;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package BluffOrBluff.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * One stage of a hand in RoundManager, from entering the stage until the next transition
+ */
+@Name("BluffOrBluff.RoundStage")
+@Label("Round Stage")
+@Category({"BluffOrBluff", "Round"})
+@Description("Time spent in a round stage, including player think time")
+public class RoundStageEvent extends Event {
+    @Label("Round")
+    public int round;
+
+    @Label("Stage")
+    public String stage;
+
+    @Label("Pot")
+    @Description("Pot size when the stage ended")
+    public int pot;
+
+    @Label("Hand Continues")
+    @Description("False when the hand ended in this stage (fold, all-in showdown or showdown)")
+    public boolean handContinues;
+}
@@ -0,0 +1,51 @@
+package BluffOrBluff.model;
+
+/**
+ * Evaluates many card masks (FastHandEvaluator layout) in one call, with exactly the values
+ * FastHandEvaluator.evaluate would give. create() returns the Vector API implementation when
+ * it was built (mvn -Pvector) and the JVM was started with --add-modules jdk.incubator.vector,
+ * and a scalar loop otherwise (or with -Dbluff.vector=false).
+ *
+ * Implementations may keep scratch buffers, so use one instance per thread.
+ */
+public interface BatchHandEvaluator {
+    /**
+     * Hands the callers typically put in one batch
+     */
+    int BATCH_SIZE = 256;
+
+    /**
+     * values[i] = FastHandEvaluator.evaluate(masks[i]) for i < count
+     */
+    void evaluate(long[] masks, int[] values, int count);
+
+    String name();
+
+    static BatchHandEvaluator create() {
+        if (!"false".equals(System.getProperty("bluff.vector"))
+                && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                // Loaded by name so nothing links against the incubator module unless it is there
+                return (BatchHandEvaluator) Class.forName("BluffOrBluff.model.VectorHandEvaluator")
+                        .getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                // Fall through to the scalar loop
+            }
+        }
+        return new Scalar();
+    }
+
+    final class Scalar implements BatchHandEvaluator {
+        @Override
+        public void evaluate(long[] masks, int[] values, int count) {
+            for (int i = 0; i < count; i++) {
+                values[i] = FastHandEvaluator.evaluate(masks[i]);
+            }
+        }
+
+        @Override
+        public String name() {
+            return "scalar";
+        }
+    }
+}
@@ -23,6 +23,19 @@ public class Card {
         return rank;
     }
 
+    // Cards are values: a fresh Deck must recognise the cards already dealt from another one
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Card other)) return false;
+        return rank == other.rank && suit == other.suit;
+    }
+
+    @Override
+    public int hashCode() {
+        return suit.ordinal() * 13 + rank.ordinal();
+    }
+
     @Override
     public String toString() {
         String suitSymbol = switch (suit) {
@@ -17,6 +17,23 @@ public class Deck {
         shuffle();
     }
 
+    private Deck(List<Card> cards) {
+        this.cards = cards;
+    }
+
+    /**
+     * A shuffled deck of just the cards in mask, as written by remainingMask()
+     */
+    public static Deck fromMask(long mask) {
+        List<Card> cards = new ArrayList<>(Long.bitCount(mask));
+        for (long rest = mask; rest != 0; rest &= rest - 1) {
+            cards.add(FastHandEvaluator.card(FastHandEvaluator.codeOfBit(Long.lowestOneBit(rest))));
+        }
+        Deck deck = new Deck(cards);
+        deck.shuffle();
+        return deck;
+    }
+
     public void shuffle() {
         Collections.shuffle(cards);
     }
@@ -36,6 +53,13 @@ public class Deck {
         return cards.size();
     }
 
+    /**
+     * The cards not dealt yet as a FastHandEvaluator mask; their order is not kept
+     */
+    public long remainingMask() {
+        return FastHandEvaluator.mask(cards);
+    }
+
     public void printDeck() {
         for (Card card : cards) {
             System.out.print(card + " ");
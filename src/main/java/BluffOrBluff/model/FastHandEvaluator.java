@@ -0,0 +1,193 @@
+package BluffOrBluff.model;
+
+import java.util.List;
+
+/**
+ * Allocation-free hand evaluator for hot loops (simulations, abstractions, solvers).
+ *
+ * Cards are codes 0-51 (suit * 13 + rank, the same as the hand-history format) and a set of
+ * cards is a long mask with 16 bits per suit: bit (suit * 16 + rank). evaluate() returns an
+ * int that orders hands like poker does - higher is better, equal means a split pot - with
+ * the category (1 = high card ... 9 = straight flush, 10 = royal flush, as in
+ * HandEvaluator.getHandRankValue) in the top bits and five 4-bit kickers below.
+ * HandEvaluator is built on it, so the game and the simulations always agree on who won.
+ */
+public final class FastHandEvaluator {
+    public static final int HIGH_CARD = 1;
+    public static final int ONE_PAIR = 2;
+    public static final int TWO_PAIR = 3;
+    public static final int THREE_OF_A_KIND = 4;
+    public static final int STRAIGHT = 5;
+    public static final int FLUSH = 6;
+    public static final int FULL_HOUSE = 7;
+    public static final int FOUR_OF_A_KIND = 8;
+    public static final int STRAIGHT_FLUSH = 9;
+    public static final int ROYAL_FLUSH = 10;
+
+    private static final String[] CATEGORY_NAMES = {
+            "", "High Card", "One Pair", "Two Pair", "Three of a Kind", "Straight",
+            "Flush", "Full House", "Four of a Kind", "Straight Flush", "Royal Flush"
+    };
+    private static final String RANK_LETTERS = "23456789TJQKA";
+    private static final String SUIT_LETTERS = "hdcs"; // Card.Suit order
+    private static final int RANK_MASK = 0x1FFF;
+    private static final int ACE = 12;
+
+    private FastHandEvaluator() {
+    }
+
+    public static int code(Card card) {
+        return card.getSuit().ordinal() * 13 + card.getRank().ordinal();
+    }
+
+    public static Card card(int code) {
+        return new Card(Card.Rank.values()[code % 13], Card.Suit.values()[code / 13]);
+    }
+
+    public static long bit(int code) {
+        return 1L << ((code / 13) * 16 + code % 13);
+    }
+
+    public static long mask(List<Card> cards) {
+        long mask = 0;
+        for (int i = 0; i < cards.size(); i++) {
+            mask |= bit(code(cards.get(i)));
+        }
+        return mask;
+    }
+
+    /**
+     * Code of the card behind a single mask bit
+     */
+    public static int codeOfBit(long bit) {
+        int index = Long.numberOfTrailingZeros(bit);
+        return (index >>> 4) * 13 + (index & 15);
+    }
+
+    /**
+     * Rank and suit letters of a card code, e.g. "As" or "Td"
+     */
+    public static String text(int code) {
+        return "" + RANK_LETTERS.charAt(code % 13) + SUIT_LETTERS.charAt(code / 13);
+    }
+
+    /**
+     * Card code of the two letters at offset, or -1 when they are not a card
+     */
+    public static int parseCode(CharSequence text, int offset) {
+        if (offset + 2 > text.length()) return -1;
+        int rank = RANK_LETTERS.indexOf(Character.toUpperCase(text.charAt(offset)));
+        int suit = SUIT_LETTERS.indexOf(Character.toLowerCase(text.charAt(offset + 1)));
+        return rank < 0 || suit < 0 ? -1 : suit * 13 + rank;
+    }
+
+    public static int evaluate(List<Card> cards) {
+        return evaluate(mask(cards));
+    }
+
+    /**
+     * Value of the best five-card hand in a mask of up to seven cards; with fewer than five,
+     * the missing kickers count as zero
+     */
+    public static int evaluate(long mask) {
+        // One 16-bit lane per suit in Card.Suit order
+        int hearts = (int) (mask & RANK_MASK);
+        int diamonds = (int) ((mask >>> 16) & RANK_MASK);
+        int clubs = (int) ((mask >>> 32) & RANK_MASK);
+        int spades = (int) ((mask >>> 48) & RANK_MASK);
+        int ranks = clubs | diamonds | hearts | spades;
+
+        int flushSuit = Integer.bitCount(clubs) >= 5 ? clubs
+                : Integer.bitCount(diamonds) >= 5 ? diamonds
+                : Integer.bitCount(hearts) >= 5 ? hearts
+                : Integer.bitCount(spades) >= 5 ? spades : 0;
+        if (flushSuit != 0) {
+            int straightTop = straightTop(flushSuit);
+            if (straightTop >= 0) {
+                return value(straightTop == ACE ? ROYAL_FLUSH : STRAIGHT_FLUSH, straightTop, 0, 0, 0, 0);
+            }
+        }
+
+        int quads = clubs & diamonds & hearts & spades;
+        int threeOrMore = (clubs & diamonds & hearts) | (clubs & diamonds & spades)
+                | (clubs & hearts & spades) | (diamonds & hearts & spades);
+        int twoOrMore = (clubs & diamonds) | (clubs & hearts) | (clubs & spades)
+                | (diamonds & hearts) | (diamonds & spades) | (hearts & spades);
+
+        if (quads != 0) {
+            int quad = highest(quads);
+            return FOUR_OF_A_KIND << 20 | quad << 16 | kickers(ranks & ~(1 << quad), 1, 12);
+        }
+        int trips = threeOrMore;
+        int pairs = twoOrMore & ~threeOrMore;
+        if (trips != 0) {
+            int trip = highest(trips);
+            int rest = (trips & ~(1 << trip)) | pairs;
+            if (rest != 0) {
+                return value(FULL_HOUSE, trip, highest(rest), 0, 0, 0);
+            }
+        }
+        if (flushSuit != 0) {
+            return FLUSH << 20 | kickers(flushSuit, 5, 16);
+        }
+        int straightTop = straightTop(ranks);
+        if (straightTop >= 0) {
+            return value(STRAIGHT, straightTop, 0, 0, 0, 0);
+        }
+        if (trips != 0) {
+            int trip = highest(trips);
+            return THREE_OF_A_KIND << 20 | trip << 16 | kickers(ranks & ~(1 << trip), 2, 12);
+        }
+        if (Integer.bitCount(pairs) >= 2) {
+            int high = highest(pairs);
+            int low = highest(pairs & ~(1 << high));
+            return TWO_PAIR << 20 | high << 16 | low << 12 | kickers(ranks & ~(1 << high) & ~(1 << low), 1, 8);
+        }
+        if (pairs != 0) {
+            int pair = highest(pairs);
+            return ONE_PAIR << 20 | pair << 16 | kickers(ranks & ~(1 << pair), 3, 12);
+        }
+        return HIGH_CARD << 20 | kickers(ranks, 5, 16);
+    }
+
+    public static int category(int value) {
+        return value >>> 20;
+    }
+
+    public static String categoryName(int category) {
+        return CATEGORY_NAMES[category];
+    }
+
+    /**
+     * Top card of the highest straight in a rank mask (3 for the wheel), or -1
+     */
+    static int straightTop(int ranks) {
+        // Shift up one so the ace can also sit below the two
+        int bits = (ranks << 1) | ((ranks >>> ACE) & 1);
+        int runs = bits & (bits >>> 1) & (bits >>> 2) & (bits >>> 3) & (bits >>> 4);
+        if (runs == 0) return -1;
+        return 31 - Integer.numberOfLeadingZeros(runs) + 3;
+    }
+
+    private static int highest(int ranks) {
+        return 31 - Integer.numberOfLeadingZeros(ranks);
+    }
+
+    /**
+     * The top {@code count} ranks of the mask as nibbles, the first one at {@code shift}
+     */
+    private static int kickers(int ranks, int count, int shift) {
+        int value = 0;
+        for (int i = 0; i < count && ranks != 0; i++) {
+            int rank = highest(ranks);
+            value |= rank << shift;
+            ranks &= ~(1 << rank);
+            shift -= 4;
+        }
+        return value;
+    }
+
+    private static int value(int category, int k1, int k2, int k3, int k4, int k5) {
+        return category << 20 | k1 << 16 | k2 << 12 | k3 << 8 | k4 << 4 | k5;
+    }
+}
@@ -1,134 +1,48 @@
 package BluffOrBluff.model;
 
-import java.util.*;
+import BluffOrBluff.metrics.LatencyHistogram;
+import BluffOrBluff.metrics.Metrics;
 
-public class HandEvaluator {
+import java.util.List;
 
+public class HandEvaluator {
+    // Every caller is timed here: the showdown, the AI's decision context and the solver
+    private static final LatencyHistogram EVALUATE_LATENCY = Metrics.latency("evaluator.evaluateHand");
+
+    /**
+     * Best five-card hand in up to seven cards, ranked by FastHandEvaluator so the game and the
+     * simulations agree; the high cards are the ranks that decide ties within the category, only
+     * as many as the cards held can fill
+     */
     public static HandRank evaluateHand(List<Card> playerHand) {
         if (playerHand.size() > 7) {
             throw new IllegalArgumentException("A valid poker hand should have at most 7 cards.");
         }
 
-        // Count occurrences of each rank
-        Map<Card.Rank, Integer> rankCount = new HashMap<>();
-        for (Card card : playerHand) {
-            rankCount.put(card.getRank(), rankCount.getOrDefault(card.getRank(), 0) + 1);
-        }
-
-        List<Integer> highCards = getSortedRanks(playerHand);
-
-        if (isRoyalFlush(playerHand)) return new HandRank("Royal Flush", highCards);
-        if (isStraightFlush(playerHand)) return new HandRank("Straight Flush", highCards);
-        if (hasNOfAKind(rankCount, 4)) return new HandRank("Four of a Kind", getHighCardForRank(rankCount, 4));
-        if (hasFullHouse(rankCount)) return new HandRank("Full House", getFullHouseRanks(rankCount));
-        if (isFlush(playerHand)) return new HandRank("Flush", highCards);
-        if (isStraight(playerHand)) return new HandRank("Straight", highCards);
-        if (hasNOfAKind(rankCount, 3)) return new HandRank("Three of a Kind", getHighCardForRank(rankCount, 3));
-        if (hasTwoPair(rankCount)) return new HandRank("Two Pair", getTwoPairRanks(rankCount, playerHand));
-        if (hasNOfAKind(rankCount, 2)) return new HandRank("One Pair", getHighCardForRank(rankCount, 2));
-        return new HandRank("High Card", highCards);
-
+        long start = Metrics.start();
+        int value = FastHandEvaluator.evaluate(playerHand);
+        int category = FastHandEvaluator.category(value);
+        Integer[] highCards = new Integer[tieBreakers(category, playerHand.size())];
+        for (int i = 0; i < highCards.length; i++) highCards[i] = (value >>> (16 - 4 * i)) & 15;
+        HandRank handRank = new HandRank(FastHandEvaluator.categoryName(category), List.of(highCards));
+        if (Metrics.ENABLED) EVALUATE_LATENCY.recordSince(start);
+        return handRank;
     }
 
-    private static List<Integer> getSortedRanks(List<Card> hand) {
-        return hand.stream()
-                .map(c -> c.getRank().ordinal())
-                .sorted(Comparator.reverseOrder())
-                .toList();
-    }
-
-    private static List<Integer> getHighCardForRank(Map<Card.Rank, Integer> rankCount, int n) {
-        return rankCount.entrySet().stream()
-                .filter(entry -> entry.getValue() == n)
-                .map(entry -> entry.getKey().ordinal())
-                .sorted(Comparator.reverseOrder())
-                .toList();
-    }
-
-    private static List<Integer> getFullHouseRanks(Map<Card.Rank, Integer> rankCount) {
-        List<Integer> threeCards = new ArrayList<>(getHighCardForRank(rankCount, 3));
-        List<Integer> twoCards = getHighCardForRank(rankCount, 2);
-        threeCards.addAll(twoCards);
-        return threeCards;
-    }
-
-    private static List<Integer> getTwoPairRanks(Map<Card.Rank, Integer> rankCount, List<Card> playerHand) {
-        List<Integer> pairs = getHighCardForRank(rankCount, 2);
-        List<Integer> highCards = getSortedRanks(playerHand);
-
-        List<Integer> result = new ArrayList<>(pairs.subList(0, Math.min(2, pairs.size())));
-
-        for (int card : highCards) {
-            if (!result.contains(card)) {
-                result.add(card);
-                break;
-            }
-        }
-
-        return result;
-    }
-
-    private static boolean hasNOfAKind(Map<Card.Rank, Integer> rankCount, int n) {
-        return rankCount.containsValue(n);
-    }
-
-    private static boolean hasFullHouse(Map<Card.Rank, Integer> rankCount) {
-        return hasNOfAKind(rankCount, 3) && hasNOfAKind(rankCount, 2);
-    }
-
-    private static boolean hasTwoPair(Map<Card.Rank, Integer> rankCount) {
-        return getHighCardForRank(rankCount, 2).size() >= 2;
-    }
-
-    private static boolean isFlush(List<Card> hand) {
-        Map<Card.Suit, List<Integer>> suitCards = new HashMap<>();
-
-        for (Card card : hand) {
-            suitCards.putIfAbsent(card.getSuit(), new ArrayList<>());
-            suitCards.get(card.getSuit()).add(card.getRank().ordinal());
-        }
-
-        for (List<Integer> ranks : suitCards.values()) {
-            if (ranks.size() >= 5) {
-                ranks.sort(Collections.reverseOrder());
-                return true;
-            }
-        }
-        return false;
-    }
-
-    private static boolean isStraight(List<Card> hand) {
-        Set<Integer> ranks = new HashSet<>();
-        for (Card card : hand) {
-            ranks.add(card.getRank().ordinal());
-        }
-
-        if (ranks.contains(12)) {
-            ranks.add(-1);
-        }
-
-        List<Integer> sortedRanks = new ArrayList<>(ranks);
-        Collections.sort(sortedRanks);
-
-        int consecutive = 1;
-        for (int i = 1; i < sortedRanks.size(); i++) {
-            if (sortedRanks.get(i) - sortedRanks.get(i - 1) == 1) {
-                consecutive++;
-                if (consecutive >= 5) return true;
-            } else if (sortedRanks.get(i) != sortedRanks.get(i - 1)) {
-                consecutive = 1;
-            }
-        }
-        return false;
-    }
-
-    private static boolean isStraightFlush(List<Card> hand) {
-        return isFlush(hand) && isStraight(hand);
-    }
-
-    private static boolean isRoyalFlush(List<Card> hand) {
-        List<Card.Rank> royalRanks = List.of(Card.Rank.TEN, Card.Rank.JACK, Card.Rank.QUEEN, Card.Rank.KING, Card.Rank.ACE);
-        return isStraightFlush(hand) && hand.stream().allMatch(card -> royalRanks.contains(card.getRank()));
+    /**
+     * How many of FastHandEvaluator's five rank nibbles are real ranks for a hand of this many
+     * cards; the rest are zero padding, which would read as deuces
+     */
+    private static int tieBreakers(int category, int cards) {
+        return switch (category) {
+            case FastHandEvaluator.STRAIGHT, FastHandEvaluator.STRAIGHT_FLUSH, FastHandEvaluator.ROYAL_FLUSH -> 1;
+            case FastHandEvaluator.FULL_HOUSE -> 2;
+            case FastHandEvaluator.FOUR_OF_A_KIND -> 1 + Math.min(1, cards - 4);
+            case FastHandEvaluator.THREE_OF_A_KIND -> 1 + Math.min(2, cards - 3);
+            case FastHandEvaluator.TWO_PAIR -> 2 + Math.min(1, cards - 4);
+            case FastHandEvaluator.ONE_PAIR -> 1 + Math.min(3, cards - 2);
+            default -> Math.min(5, cards);
+        };
     }
 
     public static int getPreFlopHandStrength(List<Card> holeCards) {
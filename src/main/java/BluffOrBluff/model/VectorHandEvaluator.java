@@ -0,0 +1,347 @@
+package BluffOrBluff.model;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+import java.util.Arrays;
+
+/**
+ * FastHandEvaluator for a whole batch at once, on the incubating Vector API.
+ *
+ * Each hand is split into four 13-bit suit masks, and everything FastHandEvaluator finds with
+ * branches and bit scans is computed for all hands with and/or/shift arithmetic: bit counts by
+ * SWAR, the highest rank by a branch-free binary search. The work is a series of small
+ * passes over int arrays (one intermediate per array) rather than one big loop body: the
+ * vector code only compiles to SIMD instructions when C2 can inline every operation, and a
+ * single method doing the whole evaluation is far over its inlining budget.
+ *
+ * Only loaded through BatchHandEvaluator.create(), so the game runs without the incubator
+ * module.
+ */
+final class VectorHandEvaluator implements BatchHandEvaluator {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+    private static final int RANK_MASK = 0x1FFF;
+    private static final int ACE = 12;
+
+    // Intermediates, one int per hand
+    private int capacity;
+    // One 16-bit mask lane per suit, in Card.Suit order
+    private int[] hearts, diamonds, clubs, spades;
+    private int[] ranks, flushSuit, quads, threeOrMore, pairs;
+    private int[] pair, trip, quad, lowPairs, lowPair, withoutPair, scratch, scratch2;
+    private int[] values;
+
+    @Override
+    public void evaluate(long[] masks, int[] out, int count) {
+        int n = (count + SPECIES.length() - 1) / SPECIES.length() * SPECIES.length();
+        ensureCapacity(n);
+        for (int i = 0; i < count; i++) {
+            long mask = masks[i];
+            hearts[i] = (int) (mask & RANK_MASK);
+            diamonds[i] = (int) (mask >>> 16 & RANK_MASK);
+            clubs[i] = (int) (mask >>> 32 & RANK_MASK);
+            spades[i] = (int) (mask >>> 48 & RANK_MASK);
+        }
+        for (int i = count; i < n; i++) {
+            hearts[i] = diamonds[i] = clubs[i] = spades[i] = 0;
+        }
+
+        suits(n);
+        Arrays.fill(flushSuit, 0, n, 0);
+        flush(clubs, n);
+        flush(diamonds, n);
+        flush(hearts, n);
+        flush(spades, n);
+        highest(pairs, pair, n);
+        highest(threeOrMore, trip, n);
+        highest(quads, quad, n);
+        clear(pairs, pair, lowPairs, n);
+        highest(lowPairs, lowPair, n);
+        clear(ranks, pair, withoutPair, n);
+
+        // High card, then each stronger category is written over the hands it applies to
+        kickers(ranks, 5, 16, values, n);
+        set(values, FastHandEvaluator.HIGH_CARD, n);
+
+        kickers(withoutPair, 3, 12, scratch, n);
+        withTop(scratch, pair, 16, n);
+        blendIfNonZero(FastHandEvaluator.ONE_PAIR, scratch, pairs, n);
+
+        clear(withoutPair, lowPair, scratch2, n);
+        highest(scratch2, scratch, n);
+        twoPair(n);
+
+        clear(ranks, trip, scratch2, n);
+        kickers(scratch2, 2, 12, scratch, n);
+        withTop(scratch, trip, 16, n);
+        blendIfNonZero(FastHandEvaluator.THREE_OF_A_KIND, scratch, threeOrMore, n);
+
+        straightRuns(ranks, scratch2, n);
+        highest(scratch2, scratch, n);
+        straightValue(scratch, n);
+        blendIfNonZero(FastHandEvaluator.STRAIGHT, scratch, scratch2, n);
+
+        kickers(flushSuit, 5, 16, scratch, n);
+        blendIfNonZero(FastHandEvaluator.FLUSH, scratch, flushSuit, n);
+
+        fullHouse(n);
+
+        clear(ranks, quad, scratch2, n);
+        highest(scratch2, scratch, n);
+        withTop(scratch, quad, 16, 12, n);
+        blendIfNonZero(FastHandEvaluator.FOUR_OF_A_KIND, scratch, quads, n);
+
+        straightRuns(flushSuit, scratch2, n);
+        highest(scratch2, scratch, n);
+        straightFlush(n);
+
+        System.arraycopy(values, 0, out, 0, count);
+    }
+
+    private void ensureCapacity(int n) {
+        if (capacity >= n) return;
+        capacity = n;
+        clubs = new int[n];
+        diamonds = new int[n];
+        hearts = new int[n];
+        spades = new int[n];
+        ranks = new int[n];
+        flushSuit = new int[n];
+        quads = new int[n];
+        threeOrMore = new int[n];
+        pairs = new int[n];
+        pair = new int[n];
+        trip = new int[n];
+        quad = new int[n];
+        lowPairs = new int[n];
+        lowPair = new int[n];
+        withoutPair = new int[n];
+        scratch = new int[n];
+        scratch2 = new int[n];
+        values = new int[n];
+    }
+
+    /**
+     * Rank union and the ranks held four, three-or-more and exactly two times
+     */
+    private void suits(int n) {
+        for (int i = 0; i < n; i += SPECIES.length()) {
+            IntVector c = IntVector.fromArray(SPECIES, clubs, i);
+            IntVector d = IntVector.fromArray(SPECIES, diamonds, i);
+            IntVector h = IntVector.fromArray(SPECIES, hearts, i);
+            IntVector s = IntVector.fromArray(SPECIES, spades, i);
+            c.or(d).or(h).or(s).intoArray(ranks, i);
+            IntVector cd = c.and(d);
+            IntVector hs = h.and(s);
+            cd.and(hs).intoArray(quads, i);
+            IntVector three = cd.and(h.or(s)).or(hs.and(c.or(d)));
+            three.intoArray(threeOrMore, i);
+            cd.or(hs).or(c.or(d).and(h.or(s))).lanewise(VectorOperators.AND_NOT, three).intoArray(pairs, i);
+        }
+    }
+
+    /**
+     * flushSuit = suit wherever it holds five cards or more (SWAR bit count); at most one suit
+     * can hold five of seven cards
+     */
+    private void flush(int[] suit, int n) {
+        for (int i = 0; i < n; i += SPECIES.length()) {
+            IntVector bits = IntVector.fromArray(SPECIES, suit, i);
+            IntVector v = bits.sub(bits.lanewise(VectorOperators.LSHR, 1).and(0x5555));
+            v = v.and(0x3333).add(v.lanewise(VectorOperators.LSHR, 2).and(0x3333));
+            v = v.add(v.lanewise(VectorOperators.LSHR, 4)).and(0x0F0F);
+            v = v.add(v.lanewise(VectorOperators.LSHR, 8)).and(0x1F);
+            IntVector.fromArray(SPECIES, flushSuit, i).blend(bits, v.compare(VectorOperators.GE, 5))
+                    .intoArray(flushSuit, i);
+        }
+    }
+
+    /**
+     * dst = index of the highest set bit of src by binary search (0 for an empty mask;
+     * callers mask those out). Written out in every kernel that needs it: a helper method
+     * would be too big for C2 to inline, and the vectors would be boxed.
+     */
+    private static void highest(int[] src, int[] dst, int n) {
+        for (int i = 0; i < n; i += SPECIES.length()) {
+            IntVector bits = IntVector.fromArray(SPECIES, src, i);
+            VectorMask<Integer> above = bits.compare(VectorOperators.GE, 1 << 8);
+            IntVector index = IntVector.zero(SPECIES).blend(8, above);
+            bits = bits.blend(bits.lanewise(VectorOperators.LSHR, 8), above);
+            above = bits.compare(VectorOperators.GE, 1 << 4);
+            index = index.blend(index.add(4), above);
+            bits = bits.blend(bits.lanewise(VectorOperators.LSHR, 4), above);
+            above = bits.compare(VectorOperators.GE, 1 << 2);
+            index = index.blend(index.add(2), above);
+            bits = bits.blend(bits.lanewise(VectorOperators.LSHR, 2), above);
+            index = index.blend(index.add(1), bits.compare(VectorOperators.GE, 2));
+            index.intoArray(dst, i);
+        }
+    }
+
+    /**
+     * dst = src without the bit at index
+     */
+    private static void clear(int[] src, int[] index, int[] dst, int n) {
+        IntVector one = IntVector.broadcast(SPECIES, 1);
+        for (int i = 0; i < n; i += SPECIES.length()) {
+            IntVector bit = one.lanewise(VectorOperators.LSHL, IntVector.fromArray(SPECIES, index, i));
+            IntVector.fromArray(SPECIES, src, i).lanewise(VectorOperators.AND_NOT, bit).intoArray(dst, i);
+        }
+    }
+
+    /**
+     * dst = the top count ranks of src as nibbles, the first one at shift
+     */
+    private static void kickers(int[] src, int count, int shift, int[] dst, int n) {
+        IntVector one = IntVector.broadcast(SPECIES, 1);
+        for (int i = 0; i < n; i += SPECIES.length()) {
+            IntVector bits = IntVector.fromArray(SPECIES, src, i);
+            IntVector value = IntVector.zero(SPECIES);
+            for (int k = 0, at = shift; k < count; k++, at -= 4) {
+                IntVector remaining = bits;
+                VectorMask<Integer> above = bits.compare(VectorOperators.GE, 1 << 8);
+                IntVector index = IntVector.zero(SPECIES).blend(8, above);
+                bits = bits.blend(bits.lanewise(VectorOperators.LSHR, 8), above);
+                above = bits.compare(VectorOperators.GE, 1 << 4);
+                index = index.blend(index.add(4), above);
+                bits = bits.blend(bits.lanewise(VectorOperators.LSHR, 4), above);
+                above = bits.compare(VectorOperators.GE, 1 << 2);
+                index = index.blend(index.add(2), above);
+                bits = bits.blend(bits.lanewise(VectorOperators.LSHR, 2), above);
+                index = index.blend(index.add(1), bits.compare(VectorOperators.GE, 2));
+                value = value.blend(value.or(index.lanewise(VectorOperators.LSHL, at)),
+                        remaining.compare(VectorOperators.NE, 0));
+                bits = remaining.lanewise(VectorOperators.AND_NOT, one.lanewise(VectorOperators.LSHL, index));
+            }
+            value.intoArray(dst, i);
+        }
+    }
+
+    /**
+     * dst |= top << shift
+     */
+    private static void withTop(int[] dst, int[] top, int shift, int n) {
+        for (int i = 0; i < n; i += SPECIES.length()) {
+            IntVector.fromArray(SPECIES, dst, i)
+                    .or(IntVector.fromArray(SPECIES, top, i).lanewise(VectorOperators.LSHL, shift))
+                    .intoArray(dst, i);
+        }
+    }
+
+    /**
+     * dst = top << topShift | dst << kickerShift, for a single kicker in dst
+     */
+    private static void withTop(int[] dst, int[] top, int topShift, int kickerShift, int n) {
+        for (int i = 0; i < n; i += SPECIES.length()) {
+            IntVector.fromArray(SPECIES, dst, i).lanewise(VectorOperators.LSHL, kickerShift)
+                    .or(IntVector.fromArray(SPECIES, top, i).lanewise(VectorOperators.LSHL, topShift))
+                    .intoArray(dst, i);
+        }
+    }
+
+    private static void set(int[] dst, int category, int n) {
+        for (int i = 0; i < n; i += SPECIES.length()) {
+            IntVector.fromArray(SPECIES, dst, i).or(category << 20).intoArray(dst, i);
+        }
+    }
+
+    /**
+     * values = category << 20 | candidate wherever condition is non-zero
+     */
+    private void blendIfNonZero(int category, int[] candidate, int[] condition, int n) {
+        for (int i = 0; i < n; i += SPECIES.length()) {
+            IntVector.fromArray(SPECIES, values, i)
+                    .blend(IntVector.fromArray(SPECIES, candidate, i).or(category << 20),
+                            IntVector.fromArray(SPECIES, condition, i).compare(VectorOperators.NE, 0))
+                    .intoArray(values, i);
+        }
+    }
+
+    /**
+     * Two pair from pair, lowPair and the kicker in scratch, for hands with a second pair
+     */
+    private void twoPair(int n) {
+        for (int i = 0; i < n; i += SPECIES.length()) {
+            IntVector value = IntVector.fromArray(SPECIES, pair, i).lanewise(VectorOperators.LSHL, 16)
+                    .or(IntVector.fromArray(SPECIES, lowPair, i).lanewise(VectorOperators.LSHL, 12))
+                    .or(IntVector.fromArray(SPECIES, scratch, i).lanewise(VectorOperators.LSHL, 8))
+                    .or(FastHandEvaluator.TWO_PAIR << 20);
+            IntVector.fromArray(SPECIES, values, i)
+                    .blend(value, IntVector.fromArray(SPECIES, lowPairs, i).compare(VectorOperators.NE, 0))
+                    .intoArray(values, i);
+        }
+    }
+
+    /**
+     * dst = runs of five ranks, the highest bit being the top card minus 3 (the ace also
+     * counts below the two), as in FastHandEvaluator.straightTop
+     */
+    private static void straightRuns(int[] src, int[] dst, int n) {
+        for (int i = 0; i < n; i += SPECIES.length()) {
+            IntVector ranks = IntVector.fromArray(SPECIES, src, i);
+            IntVector bits = ranks.lanewise(VectorOperators.LSHL, 1)
+                    .or(ranks.lanewise(VectorOperators.LSHR, ACE).and(1));
+            bits.and(bits.lanewise(VectorOperators.LSHR, 1)).and(bits.lanewise(VectorOperators.LSHR, 2))
+                    .and(bits.lanewise(VectorOperators.LSHR, 3)).and(bits.lanewise(VectorOperators.LSHR, 4))
+                    .intoArray(dst, i);
+        }
+    }
+
+    /**
+     * top = (top + 3) << 16: the straight's high card in place
+     */
+    private static void straightValue(int[] top, int n) {
+        for (int i = 0; i < n; i += SPECIES.length()) {
+            IntVector.fromArray(SPECIES, top, i).add(3).lanewise(VectorOperators.LSHL, 16).intoArray(top, i);
+        }
+    }
+
+    private void fullHouse(int n) {
+        IntVector one = IntVector.broadcast(SPECIES, 1);
+        for (int i = 0; i < n; i += SPECIES.length()) {
+            IntVector three = IntVector.fromArray(SPECIES, threeOrMore, i);
+            IntVector top = IntVector.fromArray(SPECIES, trip, i);
+            IntVector rest = three.lanewise(VectorOperators.AND_NOT, one.lanewise(VectorOperators.LSHL, top))
+                    .or(IntVector.fromArray(SPECIES, pairs, i));
+            IntVector bits = rest;
+            VectorMask<Integer> above = bits.compare(VectorOperators.GE, 1 << 8);
+            IntVector index = IntVector.zero(SPECIES).blend(8, above);
+            bits = bits.blend(bits.lanewise(VectorOperators.LSHR, 8), above);
+            above = bits.compare(VectorOperators.GE, 1 << 4);
+            index = index.blend(index.add(4), above);
+            bits = bits.blend(bits.lanewise(VectorOperators.LSHR, 4), above);
+            above = bits.compare(VectorOperators.GE, 1 << 2);
+            index = index.blend(index.add(2), above);
+            bits = bits.blend(bits.lanewise(VectorOperators.LSHR, 2), above);
+            index = index.blend(index.add(1), bits.compare(VectorOperators.GE, 2));
+            IntVector value = top.lanewise(VectorOperators.LSHL, 16)
+                    .or(index.lanewise(VectorOperators.LSHL, 12))
+                    .or(FastHandEvaluator.FULL_HOUSE << 20);
+            VectorMask<Integer> applies = three.compare(VectorOperators.NE, 0).and(rest.compare(VectorOperators.NE, 0));
+            IntVector.fromArray(SPECIES, values, i).blend(value, applies).intoArray(values, i);
+        }
+    }
+
+    /**
+     * Straight and royal flushes from the flush suit's runs (scratch2) and their top (scratch)
+     */
+    private void straightFlush(int n) {
+        for (int i = 0; i < n; i += SPECIES.length()) {
+            IntVector top = IntVector.fromArray(SPECIES, scratch, i).add(3);
+            IntVector category = IntVector.broadcast(SPECIES, FastHandEvaluator.STRAIGHT_FLUSH << 20)
+                    .blend(FastHandEvaluator.ROYAL_FLUSH << 20, top.compare(VectorOperators.EQ, ACE));
+            VectorMask<Integer> applies = IntVector.fromArray(SPECIES, scratch2, i).compare(VectorOperators.NE, 0)
+                    .and(IntVector.fromArray(SPECIES, flushSuit, i).compare(VectorOperators.NE, 0));
+            IntVector.fromArray(SPECIES, values, i)
+                    .blend(category.or(top.lanewise(VectorOperators.LSHL, 16)), applies)
+                    .intoArray(values, i);
+        }
+    }
+
+    @Override
+    public String name() {
+        return "vector (" + SPECIES.length() + " lanes)";
+    }
+}
@@ -0,0 +1,71 @@
+package BluffOrBluff.net;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One client socket of a GameServer. Only the selector thread reads and writes the channel;
+ * table threads hand lines to send() and the selector writes them out when the socket is
+ * ready, so a slow client never blocks a table.
+ */
+final class Connection {
+    final SocketChannel channel;
+    final SelectionKey key;
+    final ByteBuffer in = ByteBuffer.allocate(Protocol.MAX_LINE);
+    RemoteTable table;
+
+    private final GameServer server;
+    private final Queue<ByteBuffer> out = new ConcurrentLinkedQueue<>();
+    // True while the selector has (or is about to get) OP_WRITE for this connection
+    private final AtomicBoolean writeScheduled = new AtomicBoolean();
+    private volatile boolean closeWhenFlushed;
+
+    Connection(GameServer server, SocketChannel channel, SelectionKey key) {
+        this.server = server;
+        this.channel = channel;
+        this.key = key;
+    }
+
+    /**
+     * Queues a line; safe from any thread
+     */
+    void send(String line) {
+        out.add(ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.US_ASCII)));
+        if (writeScheduled.compareAndSet(false, true)) server.scheduleWrite(this);
+    }
+
+    /**
+     * Closes the connection once everything queued so far has been written
+     */
+    void closeWhenFlushed() {
+        closeWhenFlushed = true;
+        if (writeScheduled.compareAndSet(false, true)) server.scheduleWrite(this);
+    }
+
+    /**
+     * Selector thread: writes as much as the socket takes
+     * @return false once the connection should be closed
+     */
+    boolean flush() throws IOException {
+        ByteBuffer buffer;
+        while ((buffer = out.peek()) != null) {
+            channel.write(buffer);
+            if (buffer.hasRemaining()) return true; // socket full; OP_WRITE stays on
+            out.poll();
+        }
+        if (closeWhenFlushed) return false;
+        key.interestOps(SelectionKey.OP_READ);
+        writeScheduled.set(false);
+        // A line queued after the loop but before the flag was cleared would otherwise wait
+        if (!out.isEmpty() && writeScheduled.compareAndSet(false, true)) {
+            key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,374 @@
+package BluffOrBluff.net;
+
+import BluffOrBluff.journal.GameJournal;
+import BluffOrBluff.journal.TableImage;
+import BluffOrBluff.logic.TableStore;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Serves heads-up tables to remote players over the line protocol in Protocol.
+ *
+ * One selector thread does all socket I/O without blocking: it accepts connections, splits
+ * incoming bytes into lines and writes queued output when a socket can take it. Each JOIN
+ * starts a RemoteTable, whose game runs on a virtual thread of its own because RoundManager
+ * is written as a blocking loop; the table blocks on its player's next answer, never on I/O,
+ * and an idle table costs no platform thread.
+ *
+ * A player who disconnects leaves their table parked in a TableStore, a few dozen bytes off
+ * the heap, and joining again under the same name and difficulty picks it up where it was.
+ * With a GameJournal every table is journaled, and after a restart a player who joins under
+ * the same name sits back down at their recovered table with the chips it had.
+ *
+ * Usage: GameServer [--port 7777] [--max-hands N] [--journal dir]
+ */
+public class GameServer implements Closeable {
+    private final Selector selector;
+    private final ServerSocketChannel serverChannel;
+    private final int maxHands;
+    private final GameJournal journal;
+    // Recovered tables by player name, waiting for their player; selector thread only
+    private final Map<String, Deque<TableImage>> savedTables = new HashMap<>();
+    // Tables whose player left, by difficulty and name: {table id, TableStore slot}
+    private final TableStore parkedTables = new TableStore(64);
+    private final Map<String, Deque<int[]>> parkedByPlayer = new HashMap<>();
+    private final Queue<Connection> pendingWrites = new ConcurrentLinkedQueue<>();
+    private volatile boolean running = true;
+
+    private final AtomicInteger tableIds = new AtomicInteger();
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicInteger activeTables = new AtomicInteger();
+    private final AtomicLong handsPlayed = new AtomicLong();
+
+    /**
+     * Binds to port on all interfaces (0 picks a free port)
+     *
+     * @param maxHands hands a table plays before it says BYE
+     */
+    public GameServer(int port, int maxHands) throws IOException {
+        this(port, maxHands, null);
+    }
+
+    /**
+     * @param journal journals every table and holds the tables to give back to returning
+     *                players, or null for none
+     */
+    public GameServer(int port, int maxHands, GameJournal journal) throws IOException {
+        this.maxHands = maxHands;
+        this.journal = journal;
+        if (journal != null) {
+            for (TableImage table : journal.getRecoveredTables()) {
+                savedTables.computeIfAbsent(table.getName(), name -> new ArrayDeque<>()).add(table);
+                // New tables mustn't reuse a recovered table's id
+                if (table.getId() > tableIds.get()) tableIds.set(table.getId());
+            }
+        }
+        this.selector = Selector.open();
+        this.serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port), 1024);
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Runs the selector loop on a daemon thread
+     */
+    public GameServer start() {
+        Thread thread = new Thread(this::run, "game-server-selector");
+        thread.setDaemon(true);
+        thread.start();
+        return this;
+    }
+
+    /**
+     * Selector loop; closes every connection and returns after close()
+     */
+    public void run() {
+        while (running) {
+            try {
+                selector.select();
+                Connection connection;
+                while ((connection = pendingWrites.poll()) != null) {
+                    if (connection.key.isValid()) {
+                        connection.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                    }
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    try {
+                        handle(key);
+                    } catch (RuntimeException e) {
+                        // One bad connection mustn't take the server down with it
+                        System.err.println("Connection error: " + e);
+                        if (key.attachment() instanceof Connection broken) disconnect(broken);
+                    }
+                }
+            } catch (IOException e) {
+                if (running) System.err.println("Server error: " + e.getMessage());
+            }
+        }
+        for (SelectionKey key : selector.keys()) {
+            if (key.attachment() instanceof Connection connection) disconnect(connection);
+        }
+        try {
+            serverChannel.close();
+            selector.close();
+        } catch (IOException e) {
+            // Shutting down anyway
+        }
+    }
+
+    private void handle(SelectionKey key) {
+        if (!key.isValid()) return;
+        if (key.isAcceptable()) {
+            accept();
+            return;
+        }
+        Connection connection = (Connection) key.attachment();
+        try {
+            if (key.isReadable() && !read(connection)) {
+                disconnect(connection);
+                return;
+            }
+            if (key.isValid() && key.isWritable() && !connection.flush()) {
+                disconnect(connection);
+            }
+        } catch (IOException e) {
+            disconnect(connection);
+        }
+    }
+
+    private void accept() {
+        try {
+            SocketChannel channel;
+            while ((channel = serverChannel.accept()) != null) {
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+                SelectionKey key = channel.register(selector, SelectionKey.OP_READ);
+                key.attach(new Connection(this, channel, key));
+                accepted.incrementAndGet();
+            }
+        } catch (IOException e) {
+            System.err.println("Accept failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads what is there and handles every complete line
+     * @return false when the connection should be closed
+     */
+    private boolean read(Connection connection) throws IOException {
+        ByteBuffer in = connection.in;
+        if (connection.channel.read(in) < 0) return false;
+        in.flip();
+        int start = 0;
+        for (int i = 0; i < in.limit(); i++) {
+            if (in.get(i) != '\n') continue;
+            String line = new String(in.array(), start, i - start, StandardCharsets.US_ASCII).trim();
+            if (!line.isEmpty()) handleLine(connection, line);
+            start = i + 1;
+        }
+        in.position(start);
+        in.compact();
+        // A full buffer with no newline in it is not a line we accept
+        return in.hasRemaining();
+    }
+
+    private void handleLine(Connection connection, String line) {
+        RemoteTable table = connection.table;
+        if (table == null) {
+            String[] parts = line.split(" ", 3);
+            if (!parts[0].equals("JOIN") || parts.length < 2) {
+                connection.send("ERR expected JOIN <difficulty> [name]");
+                return;
+            }
+            int difficulty;
+            try {
+                difficulty = Integer.parseInt(parts[1]);
+            } catch (NumberFormatException e) {
+                difficulty = -1;
+            }
+            if (difficulty < 1 || difficulty > 4) {
+                connection.send("ERR difficulty must be 1-4");
+                return;
+            }
+            String name = parts.length > 2 ? parts[2] : "Player";
+            int[] parked = claimParkedTable(difficulty, name);
+            if (parked != null) {
+                table = new RemoteTable(parked[0], this, connection, maxHands, parkedTables.unpark(parked[1]));
+            } else {
+                TableImage saved = claimSavedTable(name);
+                int id = saved != null ? saved.getId() : tableIds.incrementAndGet();
+                table = new RemoteTable(id, this, connection, difficulty, name, maxHands, saved);
+            }
+            connection.table = table;
+            activeTables.incrementAndGet();
+            Thread.ofVirtual().name("table-" + table.getId()).start(table);
+        } else if (line.equals("QUIT")) {
+            table.quit();
+        } else {
+            try {
+                table.answer(Integer.parseInt(line));
+            } catch (NumberFormatException e) {
+                connection.send("ERR expected a number");
+            }
+        }
+    }
+
+    /**
+     * Table thread: the player left between hands; keeps the table for when they join again
+     */
+    void parkTable(RemoteTable table) {
+        int slot = parkedTables.park(table.getManager());
+        synchronized (parkedByPlayer) {
+            parkedByPlayer.computeIfAbsent(parkedKey(table.getManager().getDifficulty(), table.getName()),
+                    key -> new ArrayDeque<>()).add(new int[]{table.getId(), slot});
+        }
+    }
+
+    /**
+     * {table id, slot} of the player's oldest parked table at this difficulty, or null
+     */
+    private int[] claimParkedTable(int difficulty, String name) {
+        synchronized (parkedByPlayer) {
+            String key = parkedKey(difficulty, name);
+            Deque<int[]> tables = parkedByPlayer.get(key);
+            if (tables == null) return null;
+            int[] table = tables.poll();
+            if (tables.isEmpty()) parkedByPlayer.remove(key);
+            return table;
+        }
+    }
+
+    private static String parkedKey(int difficulty, String name) {
+        return difficulty + " " + name;
+    }
+
+    /**
+     * The oldest recovered table of a player that can still be played, taken off the list
+     */
+    private TableImage claimSavedTable(String name) {
+        Deque<TableImage> tables = savedTables.get(name);
+        while (tables != null && !tables.isEmpty()) {
+            TableImage table = tables.poll();
+            if (table.getHumanChips() > 0 && table.getAIChips() > 0) return table;
+        }
+        return null;
+    }
+
+    private void disconnect(Connection connection) {
+        connection.key.cancel();
+        try {
+            connection.channel.close();
+        } catch (IOException e) {
+            // Closing anyway
+        }
+        if (connection.table != null) connection.table.disconnected();
+    }
+
+    /**
+     * Called by table threads when a connection has output; wakes the selector to write it
+     */
+    void scheduleWrite(Connection connection) {
+        pendingWrites.add(connection);
+        selector.wakeup();
+    }
+
+    GameJournal getJournal() {
+        return journal;
+    }
+
+    void tableFinished(RemoteTable table) {
+        activeTables.decrementAndGet();
+    }
+
+    void handPlayed() {
+        handsPlayed.incrementAndGet();
+    }
+
+    public long getAcceptedConnections() {
+        return accepted.get();
+    }
+
+    public int getActiveTables() {
+        return activeTables.get();
+    }
+
+    public int getParkedTables() {
+        return parkedTables.getParked();
+    }
+
+    public long getHandsPlayed() {
+        return handsPlayed.get();
+    }
+
+    /**
+     * Stops the selector loop, which then closes the connections and the socket
+     */
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+    }
+
+    public static void main(String[] args) {
+        int port = Protocol.DEFAULT_PORT;
+        int maxHands = Integer.MAX_VALUE;
+        String journalDirectory = null;
+        try {
+            for (int i = 0; i + 1 < args.length; i += 2) {
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--port" -> port = Integer.parseInt(value);
+                    case "--max-hands" -> maxHands = Integer.parseInt(value);
+                    case "--journal" -> journalDirectory = value;
+                    default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+            GameJournal journal = null;
+            if (journalDirectory != null) {
+                journal = new GameJournal(Paths.get(journalDirectory));
+                System.out.printf("Recovered %d table(s) from %s, replaying %d journal entries in %.1f ms%n",
+                        journal.getRecoveredTables().size(), journalDirectory, journal.getReplayedEntries(),
+                        journal.getRecoveryNanos() / 1e6);
+                GameJournal toClose = journal;
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    try {
+                        toClose.close();
+                    } catch (IOException e) {
+                        System.err.println("Could not close game journal: " + e.getMessage());
+                    }
+                }, "game-journal-shutdown"));
+            }
+            GameServer server = new GameServer(port, maxHands, journal);
+            System.out.println("Bluff or Buff server listening on port " + server.getPort());
+            server.run();
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package BluffOrBluff.net;
+
+import BluffOrBluff.metrics.LatencyHistogram;
+import BluffOrBluff.metrics.Metrics;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Opens many client connections to a GameServer from one selector thread and plays simple
+ * bots on all of them: mostly check and call, sometimes bet, raise or fold, never all-in.
+ * Reports how many connections got a table, hands per second and the action round trip:
+ * the time from sending an answer to the server's next line (the ACT for that action, or
+ * the follow-up ASK for a bet size).
+ *
+ * Usage: LoadGenerator [--host localhost] [--port 7777] [--connections N] [--hands H]
+ *                      [--difficulty D] [--seconds S] [--server]
+ * With --server a GameServer is started in this JVM on a free port first.
+ */
+public class LoadGenerator {
+    private static final class Client {
+        final SocketChannel channel;
+        final SplittableRandom random;
+        final ByteBuffer in = ByteBuffer.allocate(Protocol.MAX_LINE);
+        final Queue<ByteBuffer> out = new ArrayDeque<>();
+        long answeredAt;
+        int hands;
+
+        Client(SocketChannel channel, long seed) {
+            this.channel = channel;
+            this.random = new SplittableRandom(seed);
+        }
+    }
+
+    private final LatencyHistogram roundTrip = Metrics.unregistered("loadgen.roundTrip");
+    private final int handsPerTable;
+    private long hands;
+    private long tables;
+    private long errors;
+
+    LoadGenerator(int handsPerTable) {
+        this.handsPerTable = handsPerTable;
+    }
+
+    /**
+     * Plays until every connection is closed or the time is up
+     */
+    void run(String host, int port, int connections, int difficulty, long seconds) throws IOException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(seconds);
+        int open = 0;
+        try (Selector selector = Selector.open()) {
+            for (int i = 0; i < connections; i++) {
+                SocketChannel channel = SocketChannel.open();
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+                channel.connect(new InetSocketAddress(host, port));
+                Client client = new Client(channel, i);
+                client.out.add(line("JOIN " + difficulty + " bot" + i));
+                channel.register(selector, SelectionKey.OP_CONNECT, client);
+                open++;
+            }
+
+            while (open > 0 && System.nanoTime() < deadline) {
+                selector.select(100);
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    Client client = (Client) key.attachment();
+                    try {
+                        if (key.isConnectable()) {
+                            client.channel.finishConnect();
+                            key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                        }
+                        if (key.isReadable() && !read(client)) {
+                            key.cancel();
+                            client.channel.close();
+                            open--;
+                            continue;
+                        }
+                        if (key.isWritable() || !client.out.isEmpty()) write(client, key);
+                    } catch (IOException e) {
+                        errors++;
+                        key.cancel();
+                        client.channel.close();
+                        open--;
+                    }
+                }
+            }
+            for (SelectionKey key : selector.keys()) key.channel().close();
+        }
+
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d connection(s), %d table(s), %d error(s), %s%n", connections, tables, errors,
+                open > 0 ? open + " still playing at the time limit" : "all finished");
+        System.out.printf("%d hands in %.2f s: %.1f hands/s%n", hands, elapsed, hands / elapsed);
+        System.out.printf("Action round trip over %d actions: p50 %.1f us, p90 %.1f us, p99 %.1f us, max %.1f us%n",
+                roundTrip.getCount(), roundTrip.getP50() / 1e3, roundTrip.getP90() / 1e3, roundTrip.getP99() / 1e3,
+                roundTrip.getMax() / 1e3);
+    }
+
+    /**
+     * @return false once the server has closed the connection
+     */
+    private boolean read(Client client) throws IOException {
+        ByteBuffer in = client.in;
+        if (client.channel.read(in) < 0) return false;
+        in.flip();
+        int start = 0;
+        for (int i = 0; i < in.limit(); i++) {
+            if (in.get(i) != '\n') continue;
+            handle(client, new String(in.array(), start, i - start, StandardCharsets.US_ASCII));
+            start = i + 1;
+        }
+        in.position(start);
+        in.compact();
+        return in.hasRemaining();
+    }
+
+    private void handle(Client client, String line) {
+        if (client.answeredAt != 0) {
+            roundTrip.record(System.nanoTime() - client.answeredAt);
+            client.answeredAt = 0;
+        }
+        String[] fields = line.split(" ");
+        switch (fields[0]) {
+            case "WELCOME" -> tables++;
+            case "END" -> {
+                hands++;
+                if (++client.hands == handsPerTable) client.out.add(line("QUIT"));
+            }
+            case "ASK" -> {
+                int answer = answer(client.random, fields[1], Integer.parseInt(fields[2]));
+                client.out.add(line(Integer.toString(answer)));
+                client.answeredAt = System.nanoTime();
+            }
+            case "ERR" -> errors++;
+            default -> {
+                // HAND, BOARD, ACT and BYE need no answer
+            }
+        }
+    }
+
+    private static int answer(SplittableRandom random, String prompt, int min) {
+        int roll = random.nextInt(100);
+        return switch (prompt) {
+            case "OPEN" -> roll < 70 ? 1 : roll < 95 ? 2 : 4;              // check, bet, fold
+            case "FACING_BET" -> roll < 80 ? 1 : roll < 90 ? 2 : 4;        // call, raise, fold
+            case "CALL_OR_FOLD" -> roll < 50 ? 1 : 2;
+            default -> min;                                               // smallest bet
+        };
+    }
+
+    private static void write(Client client, SelectionKey key) throws IOException {
+        ByteBuffer buffer;
+        while ((buffer = client.out.peek()) != null) {
+            client.channel.write(buffer);
+            if (buffer.hasRemaining()) {
+                key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                return;
+            }
+            client.out.poll();
+        }
+        key.interestOps(SelectionKey.OP_READ);
+    }
+
+    private static ByteBuffer line(String text) {
+        return ByteBuffer.wrap((text + "\n").getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public static void main(String[] args) {
+        String host = "localhost";
+        int port = Protocol.DEFAULT_PORT;
+        int connections = 100;
+        int handsPerTable = 20;
+        int difficulty = 1;
+        long seconds = 60;
+        boolean embedded = false;
+        try {
+            for (int i = 0; i < args.length; i += 2) {
+                if (args[i].equals("--server")) {
+                    embedded = true;
+                    i--;
+                    continue;
+                }
+                if (i + 1 == args.length) throw new IllegalArgumentException("Missing value for " + args[i]);
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--host" -> host = value;
+                    case "--port" -> port = Integer.parseInt(value);
+                    case "--connections" -> connections = Integer.parseInt(value);
+                    case "--hands" -> handsPerTable = Integer.parseInt(value);
+                    case "--difficulty" -> difficulty = Integer.parseInt(value);
+                    case "--seconds" -> seconds = Long.parseLong(value);
+                    default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+            GameServer server = null;
+            if (embedded) {
+                server = new GameServer(0, Integer.MAX_VALUE).start();
+                host = "localhost";
+                port = server.getPort();
+            }
+            new LoadGenerator(handsPerTable).run(host, port, connections, difficulty, seconds);
+            if (server != null) server.close();
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+}
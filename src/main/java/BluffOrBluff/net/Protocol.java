@@ -0,0 +1,48 @@
+package BluffOrBluff.net;
+
+import BluffOrBluff.model.Card;
+import BluffOrBluff.model.FastHandEvaluator;
+
+import java.util.List;
+
+/**
+ * Line protocol between GameServer and remote players: one ASCII line per message, fields
+ * separated by single spaces, cards written as rank and suit letters ("As", "Td", "2c").
+ *
+ * Client to server:
+ *   JOIN <difficulty> [name]     take a seat at a new table against the AI, or with a
+ *                                journal, back at the unfinished table of the same name
+ *   <number>                     answer to the last ASK
+ *   QUIT                         leave after the current hand
+ *
+ * Server to client (seat 0 is the client, seat 1 the AI):
+ *   WELCOME <table>
+ *   HAND <number> <your chips> <ai chips> <card> <card>
+ *   BOARD <stage> <card>...
+ *   ACT <seat> <action> <chips put in> <pot>
+ *   ASK <OPEN|FACING_BET|CALL_OR_FOLD|AMOUNT> <min> <max>   (see InputSource.Prompt)
+ *   END <winner seat, -1 for a split> <pot> <showdown 0|1> <your chips> <ai chips>
+ *   BYE <reason>
+ *   ERR <message>
+ */
+public final class Protocol {
+    public static final int DEFAULT_PORT = 7777;
+    // Longest line either side accepts; longer ones close the connection
+    static final int MAX_LINE = 256;
+
+    private Protocol() {
+    }
+
+    public static String card(Card card) {
+        return FastHandEvaluator.text(FastHandEvaluator.code(card));
+    }
+
+    public static String cards(List<Card> cards) {
+        StringBuilder sb = new StringBuilder();
+        for (Card card : cards) {
+            if (sb.length() > 0) sb.append(' ');
+            sb.append(card(card));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,206 @@
+package BluffOrBluff.net;
+
+import BluffOrBluff.journal.GameJournal;
+import BluffOrBluff.journal.TableImage;
+import BluffOrBluff.logic.RoundListener;
+import BluffOrBluff.logic.RoundManager;
+import BluffOrBluff.logic.RoundStage;
+import BluffOrBluff.model.BettingAction;
+import BluffOrBluff.model.Card;
+import BluffOrBluff.model.Deck;
+import BluffOrBluff.model.Player;
+import BluffOrBluff.simulation.DecisionScheduler;
+import BluffOrBluff.util.InputSource;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * A remote player's table: a RoundManager on its own thread whose human seat is a connection.
+ * Prompts go out as ASK lines and the game thread waits for the answer the selector thread
+ * passes in; the hand's progress goes out through the RoundListener callbacks. When the
+ * player disconnects the table is parked with the server between hands.
+ */
+final class RemoteTable implements InputSource, RoundListener, Runnable {
+    private static final int STARTING_CHIPS = 1000;
+    // Answer that tells a waiting game thread the client is gone
+    private static final int DISCONNECTED = Integer.MIN_VALUE;
+
+    private final int id;
+    private final GameServer server;
+    private final Connection connection;
+    private final int difficulty;
+    private final int maxHands;
+    private final GameJournal journal;
+    private final Player human;
+    private final Player ai;
+    private final RoundManager manager;
+    private final BlockingQueue<Integer> answers = new LinkedBlockingQueue<>();
+    private volatile boolean disconnected;
+    private volatile boolean quit;
+
+    /**
+     * @param saved the player's recovered table to continue, or null for a new one
+     */
+    RemoteTable(int id, GameServer server, Connection connection, int difficulty, String name, int maxHands,
+                TableImage saved) {
+        this(id, server, connection, maxHands, newManager(difficulty, name, saved));
+    }
+
+    /**
+     * Seats the player at a table unparked from the server
+     */
+    RemoteTable(int id, GameServer server, Connection connection, int maxHands, RoundManager manager) {
+        this.id = id;
+        this.server = server;
+        this.connection = connection;
+        this.difficulty = manager.getDifficulty();
+        this.maxHands = maxHands;
+        this.journal = server.getJournal();
+        this.human = manager.getHuman();
+        this.ai = manager.getAI();
+        this.manager = manager;
+        manager.setInputSource(this);
+        manager.setOutput(new PrintStream(OutputStream.nullOutputStream()));
+        manager.setDelaysEnabled(false);
+        manager.addRoundListener(this);
+        // Many tables share the CPU: let the AIs' equity work queue by deadline
+        manager.getPokerAI().setDecisionScheduler(DecisionScheduler.shared());
+    }
+
+    private static RoundManager newManager(int difficulty, String name, TableImage saved) {
+        Player human = new Player(name, saved == null ? STARTING_CHIPS : saved.getHumanChips());
+        Player ai = new Player("AI", saved == null ? STARTING_CHIPS : saved.getAIChips());
+        Deck deck = new Deck();
+        deck.shuffle();
+        RoundManager manager = new RoundManager(deck, human, ai, difficulty);
+        if (saved != null) manager.resumeAfter(saved.getHandNumber());
+        return manager;
+    }
+
+    @Override
+    public void run() {
+        // Opened here, not in the constructor: a full journal queue blocks this table, not the selector
+        if (journal != null) {
+            manager.addRoundListener(journal.openTable(id, human.getName(), difficulty, human.getChips(),
+                    ai.getChips()));
+        }
+        connection.send("WELCOME " + id);
+        int hands = 0;
+        String reason = "max hands";
+        try {
+            while (hands < maxHands) {
+                if (disconnected) {
+                    // Between hands, so the table can wait off the heap for its player
+                    if (human.getChips() > 0 && ai.getChips() > 0) server.parkTable(this);
+                    return;
+                }
+                if (quit) {
+                    reason = "quit";
+                    break;
+                }
+                if (human.getChips() <= 0 || ai.getChips() <= 0) {
+                    reason = human.getChips() <= 0 ? "AI wins" : "you win";
+                    break;
+                }
+                manager.playRound();
+                hands++;
+            }
+            // A disconnected player's table stays in the journal for when they come back
+            if (journal != null) journal.closeTable(id);
+            connection.send("BYE " + reason);
+            connection.closeWhenFlushed();
+        } catch (RuntimeException e) {
+            connection.send("ERR " + e.getMessage());
+            connection.closeWhenFlushed();
+        } finally {
+            server.tableFinished(this);
+        }
+    }
+
+    /**
+     * Selector thread: the client answered
+     */
+    void answer(int value) {
+        answers.add(value);
+    }
+
+    /**
+     * Selector thread: the client asked to leave after this hand
+     */
+    void quit() {
+        quit = true;
+    }
+
+    /**
+     * Selector thread: the socket is gone; a waiting prompt gets the fold answer
+     */
+    void disconnected() {
+        disconnected = true;
+        answers.add(DISCONNECTED);
+    }
+
+    @Override
+    public int choose(Prompt prompt, int min, int max) {
+        // Can't cover the minimum: whatever is left is all there is
+        if (max < min) return max;
+        while (!disconnected) {
+            connection.send("ASK " + prompt + " " + min + " " + max);
+            int answer;
+            try {
+                answer = answers.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (answer == DISCONNECTED) break;
+            if (answer >= min && answer <= max) return answer;
+            connection.send("ERR expected a number from " + min + " to " + max);
+        }
+        // Nobody there: fold (or bet the least) so the hand can finish
+        return switch (prompt) {
+            case OPEN, FACING_BET -> 4;
+            case CALL_OR_FOLD -> 2;
+            case AMOUNT -> min;
+        };
+    }
+
+    @Override
+    public void onHandStart(long handNumber, int difficulty, Player human, Player ai) {
+        connection.send("HAND " + handNumber + " " + human.getChips() + " " + ai.getChips() + " "
+                + Protocol.cards(human.getHand().getCards()));
+    }
+
+    @Override
+    public void onCommunityCards(RoundStage stage, List<Card> communityCards) {
+        connection.send("BOARD " + stage + " " + Protocol.cards(communityCards));
+    }
+
+    @Override
+    public void onAction(RoundStage stage, int seat, BettingAction action, int amount, int pot) {
+        connection.send("ACT " + seat + " " + action + " " + amount + " " + pot);
+    }
+
+    @Override
+    public void onHandEnd(int winnerSeat, int pot, boolean showdown) {
+        server.handPlayed();
+        // Chips are final by now: RoundManager pays the pot before notifying
+        connection.send("END " + winnerSeat + " " + pot + " " + (showdown ? 1 : 0) + " "
+                + human.getChips() + " " + ai.getChips());
+    }
+
+    int getId() {
+        return id;
+    }
+
+    String getName() {
+        return human.getName();
+    }
+
+    RoundManager getManager() {
+        return manager;
+    }
+}
@@ -0,0 +1,172 @@
+package BluffOrBluff.shard;
+
+import BluffOrBluff.model.FastHandEvaluator;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs one equity job across several worker JVMs on this machine. The samples are split into
+ * seeded shards (shard i replays SplittableRandom(seed + i)), the shards live in a
+ * ShardResults file that every worker maps, and the coordinator merges the finished shards'
+ * win/tie counts. Each worker has its own heap and GC, and a worker that dies only loses the
+ * shard it was on: that shard is released and the next round of workers re-runs it with the
+ * same seed, so the merged counts do not depend on crashes or on which worker ran what.
+ * Running the coordinator again on the same file resumes an interrupted job; shards the
+ * earlier run's workers still held are taken over. The exit status is 0 only when every shard
+ * finished.
+ *
+ * Usage: ShardCoordinator --file F --hole As,Ks [--board 2s,9h,Kc] [--samples N] [--shards S]
+ *                         [--workers W] [--seed X] [--heap 256m] [--vector]
+ */
+public class ShardCoordinator {
+    // Rounds of workers to start before giving up on shards that keep failing
+    private static final int MAX_ROUNDS = 3;
+
+    private final Path file;
+    private final int workers;
+    private final String workerHeap;
+    private final boolean vectorWorkers;
+
+    /**
+     * @param workerHeap    -Xmx value for the workers, or null for the JVM default
+     * @param vectorWorkers start the workers with the Vector API evaluator. It only pays off
+     *                      for long shards: until C2 compiles it, vector code runs far slower
+     *                      than the scalar loop, and every fresh worker JVM pays that warm-up
+     *                      again (about 1.8 s here)
+     */
+    public ShardCoordinator(Path file, int workers, String workerHeap, boolean vectorWorkers) {
+        if (workers < 1) throw new IllegalArgumentException("Need at least one worker");
+        this.file = file;
+        this.workers = workers;
+        this.workerHeap = workerHeap;
+        this.vectorWorkers = vectorWorkers;
+    }
+
+    /**
+     * Runs (or resumes) the job and returns {wins, ties, samples} over all shards
+     */
+    public long[] run(long hole, long board, long samples, int shards, long seed)
+            throws IOException, InterruptedException {
+        try (ShardResults results = ShardResults.create(file, hole, board, samples, shards, seed)) {
+            int done = results.countDone();
+            if (done > 0) System.out.println("Resuming: " + done + " of " + shards + " shard(s) already done");
+            results.beginEpoch();
+
+            for (int round = 0; round < MAX_ROUNDS && results.countDone() < shards; round++) {
+                int released = results.releaseAbandoned();
+                if (released > 0) System.out.println("Re-running " + released + " shard(s) from stopped or earlier workers");
+
+                int remaining = shards - results.countDone();
+                List<Process> processes = new ArrayList<>();
+                for (int i = 0; i < Math.min(workers, remaining); i++) {
+                    processes.add(launchWorker());
+                }
+                for (Process process : processes) {
+                    int exit = process.waitFor();
+                    if (exit != 0) System.out.println("Worker " + process.pid() + " exited with " + exit);
+                }
+            }
+
+            results.flush();
+            int unfinished = shards - results.countDone();
+            if (unfinished > 0) {
+                throw new IOException(unfinished + " shard(s) still unfinished after " + MAX_ROUNDS
+                        + " rounds; run again to resume");
+            }
+            return results.merge();
+        }
+    }
+
+    private Process launchWorker() throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        if (workerHeap != null) command.add("-Xmx" + workerHeap);
+        if (vectorWorkers) {
+            command.add("--add-modules");
+            command.add("jdk.incubator.vector");
+        }
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(ShardWorker.class.getName());
+        command.add(file.toAbsolutePath().toString());
+        return new ProcessBuilder(command).inheritIO().start();
+    }
+
+    /**
+     * Card mask of a list like "As,Td,2c"
+     */
+    static long parseCards(String cards) {
+        long mask = 0;
+        if (cards.isBlank()) return mask;
+        for (String card : cards.split(",")) {
+            String text = card.trim();
+            int code = text.length() == 2 ? FastHandEvaluator.parseCode(text, 0) : -1;
+            if (code < 0) throw new IllegalArgumentException("Bad card: " + card);
+            long bit = FastHandEvaluator.bit(code);
+            if ((mask & bit) != 0) throw new IllegalArgumentException("Duplicate card: " + card);
+            mask |= bit;
+        }
+        return mask;
+    }
+
+    public static void main(String[] args) {
+        Path file = null;
+        String hole = null;
+        String board = "";
+        long samples = 10_000_000;
+        int shards = 64;
+        int workers = Math.max(1, Runtime.getRuntime().availableProcessors());
+        long seed = 1;
+        String heap = null;
+        boolean vector = false;
+        try {
+            for (int i = 0; i < args.length; i += 2) {
+                if (args[i].equals("--vector")) {
+                    vector = true;
+                    i--;
+                    continue;
+                }
+                if (i + 1 == args.length) throw new IllegalArgumentException("Missing value for " + args[i]);
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--file" -> file = Paths.get(value);
+                    case "--hole" -> hole = value;
+                    case "--board" -> board = value;
+                    case "--samples" -> samples = Long.parseLong(value);
+                    case "--shards" -> shards = Integer.parseInt(value);
+                    case "--workers" -> workers = Integer.parseInt(value);
+                    case "--seed" -> seed = Long.parseLong(value);
+                    case "--heap" -> heap = value;
+                    default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+            if (file == null || hole == null) {
+                System.out.println("Usage: ShardCoordinator --file F --hole As,Ks [--board 2s,9h,Kc] [--samples N]"
+                        + " [--shards S] [--workers W] [--seed X] [--heap 256m] [--vector]");
+                System.exit(2);
+            }
+            long holeMask = parseCards(hole);
+            long boardMask = parseCards(board);
+            if (Long.bitCount(holeMask) != 2 || Long.bitCount(boardMask) > 5 || (holeMask & boardMask) != 0) {
+                throw new IllegalArgumentException("Need two hole cards and up to five other board cards");
+            }
+
+            long start = System.nanoTime();
+            long[] counts = new ShardCoordinator(file, workers, heap, vector).run(holeMask, boardMask, samples, shards, seed);
+            double equity = (counts[0] + 0.5 * counts[1]) / counts[2];
+            System.out.printf("Equity %.5f over %d samples (%d wins, %d ties) in %d ms%n", equity, counts[2],
+                    counts[0], counts[1], (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+            System.exit(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.out.println("Interrupted; run again with the same options to resume");
+            System.exit(1);
+        }
+    }
+}
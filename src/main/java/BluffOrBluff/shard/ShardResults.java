@@ -0,0 +1,260 @@
+package BluffOrBluff.shard;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Memory-mapped results file shared by a coordinator and its worker processes.
+ *
+ * A 64-byte header describes the job (hole and board masks, total samples, shard count, base
+ * seed) and holds the epoch, which each coordinator run bumps. One 32-byte record per shard
+ * follows: owner, wins, ties, samples. The owner word is 0 while the shard is pending, the
+ * epoch and the worker's pid while it runs and DONE once the counts are in. Workers claim
+ * shards with a compare-and-set on the owner word (a plain atomic on shared pages, so it works
+ * across processes), write the counts and then publish DONE with a release store; readers that
+ * see DONE with an acquire load also see the counts.
+ *
+ * The file is the job's only state, so a job resumes by opening the same file again: finished
+ * shards are kept, and shards owned by dead processes or claimed in an earlier epoch go back
+ * to pending. Taking over a shard a live process from an earlier run still holds is safe: the
+ * shard's seed fixes its counts, so whichever process completes it writes the same values.
+ */
+public class ShardResults implements Closeable {
+    static final int MAGIC = 0x424F4253; // "BOBS"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int RECORD_SIZE = 32;
+    static final long PENDING = 0;
+    static final long DONE = -1;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    // Header layout
+    private static final int MAGIC_AT = 0;
+    private static final int VERSION_AT = 4;
+    private static final int SHARDS_AT = 8;
+    private static final int SAMPLES_AT = 16;
+    private static final int HOLE_AT = 24;
+    private static final int BOARD_AT = 32;
+    private static final int SEED_AT = 40;
+    private static final int EPOCH_AT = 48;
+    // Record layout
+    private static final int OWNER = 0;
+    private static final int WINS = 8;
+    private static final int TIES = 16;
+    private static final int COUNT = 24;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int shards;
+
+    private ShardResults(FileChannel channel, MappedByteBuffer buffer) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.shards = buffer.getInt(SHARDS_AT);
+    }
+
+    /**
+     * Opens the job's results file, creating it if it does not exist. An existing file must
+     * describe the same job; its finished shards are kept.
+     */
+    public static ShardResults create(Path file, long hole, long board, long samples, int shards, long seed)
+            throws IOException {
+        if (shards < 1 || samples < shards) throw new IllegalArgumentException("Need at least one sample per shard");
+        if (Files.exists(file)) {
+            ShardResults existing = open(file);
+            if (existing.getHole() != hole || existing.getBoard() != board || existing.getSamples() != samples
+                    || existing.getShards() != shards || existing.getSeed() != seed) {
+                existing.close();
+                throw new IllegalArgumentException(file + " belongs to a different job");
+            }
+            return existing;
+        }
+
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) Files.createDirectories(parent);
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                HEADER_SIZE + (long) shards * RECORD_SIZE);
+        buffer.order(ByteOrder.nativeOrder());
+        buffer.putInt(VERSION_AT, VERSION);
+        buffer.putInt(SHARDS_AT, shards);
+        buffer.putLong(SAMPLES_AT, samples);
+        buffer.putLong(HOLE_AT, hole);
+        buffer.putLong(BOARD_AT, board);
+        buffer.putLong(SEED_AT, seed);
+        // Magic last: a file without it was never fully initialised
+        buffer.putInt(MAGIC_AT, MAGIC);
+        buffer.force();
+        return new ShardResults(channel, buffer);
+    }
+
+    /**
+     * Opens an existing results file (what a worker does)
+     */
+    public static ShardResults open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel.size() < HEADER_SIZE) {
+            channel.close();
+            throw new IOException(file + " is not a shard results file");
+        }
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        buffer.order(ByteOrder.nativeOrder());
+        int shards = buffer.getInt(SHARDS_AT);
+        if (buffer.getInt(MAGIC_AT) != MAGIC || buffer.getInt(VERSION_AT) != VERSION
+                || channel.size() != HEADER_SIZE + (long) shards * RECORD_SIZE) {
+            channel.close();
+            throw new IOException(file + " is not a shard results file");
+        }
+        return new ShardResults(channel, buffer);
+    }
+
+    public int getShards() {
+        return shards;
+    }
+
+    public long getSamples() {
+        return buffer.getLong(SAMPLES_AT);
+    }
+
+    public long getHole() {
+        return buffer.getLong(HOLE_AT);
+    }
+
+    public long getBoard() {
+        return buffer.getLong(BOARD_AT);
+    }
+
+    public long getSeed() {
+        return buffer.getLong(SEED_AT);
+    }
+
+    /**
+     * Samples in a shard: an even split, the first shards taking the remainder
+     */
+    public long samplesIn(int shard) {
+        long samples = getSamples();
+        return samples / shards + (shard < samples % shards ? 1 : 0);
+    }
+
+    /**
+     * Seed of a shard's random generator, so a re-run shard replays the same deals
+     */
+    public long seedOf(int shard) {
+        return getSeed() + shard;
+    }
+
+    public long getEpoch() {
+        return (long) LONGS.getAcquire(buffer, EPOCH_AT);
+    }
+
+    /**
+     * Starts a coordinator run: shards claimed before this are stale from now on
+     * @return the new epoch
+     */
+    public long beginEpoch() {
+        long epoch = getEpoch() + 1;
+        LONGS.setRelease(buffer, EPOCH_AT, epoch);
+        return epoch;
+    }
+
+    /**
+     * Claims the first pending shard for process pid in the current epoch
+     * @return the shard, or -1 when none is pending
+     */
+    public int claim(long pid) {
+        long owner = getEpoch() << 32 | pid;
+        for (int shard = 0; shard < shards; shard++) {
+            if (LONGS.compareAndSet(buffer, record(shard) + OWNER, PENDING, owner)) return shard;
+        }
+        return -1;
+    }
+
+    /**
+     * Stores a claimed shard's counts and marks it done
+     */
+    public void complete(int shard, long wins, long ties, long samples) {
+        int at = record(shard);
+        buffer.putLong(at + WINS, wins);
+        buffer.putLong(at + TIES, ties);
+        buffer.putLong(at + COUNT, samples);
+        LONGS.setRelease(buffer, at + OWNER, DONE);
+    }
+
+    /**
+     * PENDING, DONE or the epoch (high 32 bits) and pid (low 32 bits) of the process working
+     * on the shard
+     */
+    public long ownerOf(int shard) {
+        return (long) LONGS.getAcquire(buffer, record(shard) + OWNER);
+    }
+
+    /**
+     * Puts shards claimed in an earlier epoch, or by processes that are no longer running, back
+     * to pending. A pid from an earlier epoch may be alive but belong to another process by now.
+     * @return how many shards were released
+     */
+    public int releaseAbandoned() {
+        long epoch = getEpoch();
+        int released = 0;
+        for (int shard = 0; shard < shards; shard++) {
+            long owner = ownerOf(shard);
+            if (owner == PENDING || owner == DONE) continue;
+            boolean stale = owner >>> 32 != epoch
+                    || !ProcessHandle.of(owner & 0xFFFF_FFFFL).map(ProcessHandle::isAlive).orElse(false);
+            if (stale && LONGS.compareAndSet(buffer, record(shard) + OWNER, owner, PENDING)) {
+                released++;
+            }
+        }
+        return released;
+    }
+
+    public int countDone() {
+        int done = 0;
+        for (int shard = 0; shard < shards; shard++) {
+            if (ownerOf(shard) == DONE) done++;
+        }
+        return done;
+    }
+
+    /**
+     * {wins, ties, samples} summed over the finished shards
+     */
+    public long[] merge() {
+        long wins = 0, ties = 0, samples = 0;
+        for (int shard = 0; shard < shards; shard++) {
+            if (ownerOf(shard) != DONE) continue;
+            int at = record(shard);
+            wins += buffer.getLong(at + WINS);
+            ties += buffer.getLong(at + TIES);
+            samples += buffer.getLong(at + COUNT);
+        }
+        return new long[]{wins, ties, samples};
+    }
+
+    /**
+     * Forces finished shards to disk; a crashed process loses nothing already written
+     * (the pages belong to the OS), but a power loss does
+     */
+    public void flush() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static int record(int shard) {
+        return HEADER_SIZE + shard * RECORD_SIZE;
+    }
+}
@@ -0,0 +1,40 @@
+package BluffOrBluff.shard;
+
+import BluffOrBluff.simulation.MonteCarloSimulator;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+
+/**
+ * Worker process for a sharded simulation: claims pending shards from the results file one
+ * at a time, plays each shard's seeded samples with MonteCarloSimulator's counting loop and
+ * writes the counts back, until no shard is left. ShardCoordinator starts these; several can
+ * run against the same file without any other coordination.
+ *
+ * Usage: ShardWorker <results file>
+ */
+public class ShardWorker {
+    public static void main(String[] args) {
+        if (args.length != 1) {
+            System.out.println("Usage: ShardWorker <results file>");
+            System.exit(2);
+        }
+        long pid = ProcessHandle.current().pid();
+        try (ShardResults results = ShardResults.open(Paths.get(args[0]))) {
+            int shards = 0;
+            int shard;
+            while ((shard = results.claim(pid)) >= 0) {
+                long samples = results.samplesIn(shard);
+                long[] counts = MonteCarloSimulator.countSamples(results.getHole(), results.getBoard(), samples,
+                        new SplittableRandom(results.seedOf(shard)));
+                results.complete(shard, counts[0], counts[1], samples);
+                shards++;
+            }
+            System.out.println("Worker " + pid + " finished " + shards + " shard(s)");
+        } catch (IOException e) {
+            System.out.println("Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package BluffOrBluff.simulation;
+
+import BluffOrBluff.abstraction.CanonicalHand;
+import BluffOrBluff.model.BatchHandEvaluator;
+import BluffOrBluff.model.FastHandEvaluator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Equity of many hands at once, for many tables asking at the same time.
+ *
+ * Spots that are the same up to a renaming of suits (CanonicalHand) are estimated once.
+ * The remaining hands are grouped by board, and each board's group plays one shared set of
+ * deals, each an opponent hand plus the rest of the board. The opponent's hand is evaluated
+ * once per deal for the whole group, and each hand in the group only pays for its own
+ * evaluation. A deal that uses one of a hand's hole cards is skipped for that hand. What is
+ * left is uniform over the deals that hand could face, so every estimate stays unbiased.
+ *
+ * Deals go out in rounds of ROUND_DEALS per chunk, with every board's chunks of a round
+ * running in parallel on the common pool, so a large batch keeps every core busy on work units
+ * of a few hundred microseconds. After each round a hand whose estimate is within its error
+ * bound stops, as a streaming run would, and a board stops once all its hands have.
+ */
+public final class BatchEquity {
+    private static final int ROUND_DEALS = 512;
+    // Don't trust an error bound computed from only a handful of samples
+    private static final int MIN_SAMPLES_FOR_BOUND = 200;
+    private static final int BATCH = BatchHandEvaluator.BATCH_SIZE;
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    /**
+     * Per-thread evaluator and buffers
+     */
+    private static final class Scratch {
+        final BatchHandEvaluator evaluator = BatchHandEvaluator.create();
+        final long[] deck = new long[52];
+        final long[] dealt = new long[BATCH];
+        final long[] runouts = new long[BATCH];
+        final long[] opponentMasks = new long[BATCH];
+        final long[] masks = new long[BATCH];
+        final int[] opponentValues = new int[BATCH];
+        final int[] values = new int[BATCH];
+        final int[] hands = new int[BATCH];
+        final int[] deals = new int[BATCH];
+    }
+
+    /**
+     * One chunk of deals for the hands of one board
+     */
+    private static final class Chunk {
+        final long board;
+        final long[] holes;
+        final int deals;
+        final long seed;
+
+        Chunk(long board, long[] holes, int deals, long seed) {
+            this.board = board;
+            this.holes = holes;
+            this.deals = deals;
+            this.seed = seed;
+        }
+    }
+
+    private BatchEquity() {
+    }
+
+    /**
+     * Estimates every spot to the 95% error bound its difficulty needs (see
+     * SimulationBudgeter.targetErrorFor)
+     * @return each spot's counts, whose equity counts ties as half
+     */
+    public static EquitySnapshot[] estimate(long[] holes, long[] boards, int[] difficulties, long seed) {
+        int count = holes.length;
+        // One representative per canonical spot, held to the tightest bound any of its duplicates needs
+        Map<Long, Integer> representatives = new HashMap<>();
+        int[] representative = new int[count];
+        double[] targetError = new double[count];
+        Arrays.fill(targetError, 1);
+        for (int i = 0; i < count; i++) {
+            int first = representatives.merge(CanonicalHand.key(holes[i], boards[i]), i, Math::min);
+            representative[i] = first;
+            targetError[first] = Math.min(targetError[first], SimulationBudgeter.targetErrorFor(difficulties[i]));
+        }
+
+        // {wins, ties, deals} per representative
+        long[][] totals = new long[count][];
+        Map<Long, List<Integer>> active = new HashMap<>();
+        for (int first : representatives.values()) {
+            totals[first] = new long[3];
+            active.computeIfAbsent(boards[first], board -> new ArrayList<>()).add(first);
+        }
+
+        // Deal in rounds, like a streaming run, so hands far from a coin flip stop early
+        SplittableRandom seeds = new SplittableRandom(seed);
+        while (!active.isEmpty()) {
+            List<Chunk> chunks = new ArrayList<>();
+            List<List<Integer>> chunkSpots = new ArrayList<>();
+            int chunksPerBoard = Math.max(1, ForkJoinPool.getCommonPoolParallelism() / active.size());
+            for (Map.Entry<Long, List<Integer>> group : active.entrySet()) {
+                List<Integer> spots = group.getValue();
+                long[] groupHoles = new long[spots.size()];
+                for (int h = 0; h < groupHoles.length; h++) groupHoles[h] = holes[spots.get(h)];
+                for (int c = 0; c < chunksPerBoard; c++) {
+                    chunks.add(new Chunk(group.getKey(), groupHoles, ROUND_DEALS, seeds.nextLong()));
+                    chunkSpots.add(spots);
+                }
+            }
+
+            List<long[]> counts = chunks.parallelStream().map(BatchEquity::play).toList();
+            for (int c = 0; c < chunks.size(); c++) {
+                List<Integer> spots = chunkSpots.get(c);
+                long[] chunkCounts = counts.get(c);
+                for (int h = 0; h < spots.size(); h++) {
+                    long[] total = totals[spots.get(h)];
+                    for (int k = 0; k < 3; k++) total[k] += chunkCounts[h * 3 + k];
+                }
+            }
+
+            for (List<Integer> spots : active.values()) {
+                spots.removeIf(spot -> isDone(totals[spot], targetError[spot]));
+            }
+            active.values().removeIf(List::isEmpty);
+        }
+
+        EquitySnapshot[] results = new EquitySnapshot[count];
+        for (int i = 0; i < count; i++) {
+            results[i] = snapshot(totals[representative[i]]);
+        }
+        return results;
+    }
+
+    /**
+     * Within the error bound, or at the sample count that guarantees it even for a coin flip
+     */
+    private static boolean isDone(long[] total, double targetError) {
+        if (total[2] >= SimulationBudgeter.samplesFor(targetError)) return true;
+        if (total[2] < MIN_SAMPLES_FOR_BOUND) return false;
+        return snapshot(total).getErrorBound() <= targetError;
+    }
+
+    private static EquitySnapshot snapshot(long[] total) {
+        return EquitySnapshot.EMPTY.plus((int) total[2], (int) total[0], (int) total[1]);
+    }
+
+    /**
+     * @return {wins, ties, deals} for each hand of the chunk, one after the other
+     */
+    private static long[] play(Chunk chunk) {
+        Scratch scratch = SCRATCH.get();
+        long board = chunk.board;
+        long[] holes = chunk.holes;
+        long[] counts = new long[holes.length * 3];
+        SplittableRandom random = new SplittableRandom(chunk.seed);
+
+        // A board with one hand has nothing to share, so its deals can simply avoid the hole cards
+        long dead = holes.length == 1 ? board | holes[0] : board;
+        long[] deck = scratch.deck;
+        int size = 0;
+        for (int code = 0; code < 52; code++) {
+            long bit = FastHandEvaluator.bit(code);
+            if ((dead & bit) == 0) deck[size++] = bit;
+        }
+        int dealtCards = 2 + 5 - Long.bitCount(board);
+
+        for (int done = 0; done < chunk.deals; done += BATCH) {
+            int deals = Math.min(BATCH, chunk.deals - done);
+            // Deal and evaluate the opponent's side once for every hand
+            for (int s = 0; s < deals; s++) {
+                long opponent = 0, runout = 0;
+                for (int i = 0; i < dealtCards; i++) {
+                    int j = i + random.nextInt(size - i);
+                    long card = deck[j];
+                    deck[j] = deck[i];
+                    deck[i] = card;
+                    if (i < 2) opponent |= card;
+                    else runout |= card;
+                }
+                scratch.dealt[s] = opponent | runout;
+                scratch.runouts[s] = runout;
+                scratch.opponentMasks[s] = opponent | board | runout;
+            }
+            scratch.evaluator.evaluate(scratch.opponentMasks, scratch.opponentValues, deals);
+
+            // Then every hand against the deals it doesn't collide with, a full batch at a time
+            int pending = 0;
+            for (int h = 0; h < holes.length; h++) {
+                long hole = holes[h];
+                for (int s = 0; s < deals; s++) {
+                    if ((scratch.dealt[s] & hole) != 0) continue;
+                    scratch.masks[pending] = hole | board | scratch.runouts[s];
+                    scratch.hands[pending] = h;
+                    scratch.deals[pending] = s;
+                    if (++pending == BATCH) {
+                        score(scratch, pending, counts);
+                        pending = 0;
+                    }
+                }
+            }
+            if (pending > 0) score(scratch, pending, counts);
+        }
+        return counts;
+    }
+
+    private static void score(Scratch scratch, int pending, long[] counts) {
+        scratch.evaluator.evaluate(scratch.masks, scratch.values, pending);
+        for (int p = 0; p < pending; p++) {
+            int mine = scratch.values[p];
+            int theirs = scratch.opponentValues[scratch.deals[p]];
+            int base = scratch.hands[p] * 3;
+            if (mine > theirs) counts[base]++;
+            else if (mine == theirs) counts[base + 1]++;
+            counts[base + 2]++;
+        }
+    }
+}
@@ -0,0 +1,344 @@
+package BluffOrBluff.simulation;
+
+import BluffOrBluff.metrics.Counter;
+import BluffOrBluff.metrics.EquityEstimateEvent;
+import BluffOrBluff.metrics.LatencyHistogram;
+import BluffOrBluff.metrics.Metrics;
+import BluffOrBluff.model.Card;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Runs equity estimates for many tables' AI decisions on a fixed set of worker threads,
+ * earliest deadline first. Every request carries a deadline (by default the difficulty's
+ * time budget from now) and the accuracy its difficulty needs; a worker always takes the
+ * request due soonest, asks SimulationBudgeter how to answer it (cache, exact enumeration or
+ * sampling) and caps that plan by the time the request has left:
+ *
+ *   FULL       the plan (a cached answer, the enumeration or all its samples) fits before the deadline
+ *   REDUCED    only part of the samples fit, so fewer of them and a wider error bound
+ *   CACHE_ONLY not even the budgeter's minimum fits, and an earlier estimate is cached
+ *   MINIMAL    not even the minimum fits and nothing is cached: the minimum is played anyway
+ *
+ * Sampling runs on the worker thread alone (batched, no fork/join), so the order the queue
+ * hands out work is the order CPU time is spent. Requests finishing after their deadline are
+ * counted as missed, with how late they were. Workers start with start(); after shutdown()
+ * no request is left waiting.
+ */
+public class DecisionScheduler {
+    public enum Level { FULL, REDUCED, CACHE_ONLY, MINIMAL }
+
+    /**
+     * The answer to one request and how it was produced
+     */
+    public static final class Estimate {
+        private final double equity;
+        private final Level level;
+        private final int samples;
+        private final long lateNanos;
+
+        Estimate(double equity, Level level, int samples, long lateNanos) {
+            this.equity = equity;
+            this.level = level;
+            this.samples = samples;
+            this.lateNanos = lateNanos;
+        }
+
+        public double getEquity() {
+            return equity;
+        }
+
+        public Level getLevel() {
+            return level;
+        }
+
+        /**
+         * Samples played, or hands enumerated for an exact answer; 0 for a cached one
+         */
+        public int getSamples() {
+            return samples;
+        }
+
+        /**
+         * How long after the deadline the estimate was ready; 0 when it was on time
+         */
+        public long getLateNanos() {
+            return lateNanos;
+        }
+
+        public boolean isLate() {
+            return lateNanos > 0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.3f (%s, %d samples%s)", equity, level, samples,
+                    isLate() ? String.format(", %.1f ms late", lateNanos / 1e6) : "");
+        }
+    }
+
+    private static final class Request implements Comparable<Request> {
+        final int difficulty;
+        final List<Card> playerCards;
+        final List<Card> communityCards;
+        final long deadline;
+        final long sequence;
+        final long submitted = System.nanoTime();
+        final CompletableFuture<Estimate> result = new CompletableFuture<>();
+
+        Request(int difficulty, List<Card> playerCards, List<Card> communityCards, long deadline, long sequence) {
+            this.difficulty = difficulty;
+            this.playerCards = List.copyOf(playerCards);
+            this.communityCards = List.copyOf(communityCards);
+            this.deadline = deadline;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Request other) {
+            // Deadlines are nanoTime values: compare the difference, not the values
+            long order = deadline - other.deadline;
+            if (order != 0) return order < 0 ? -1 : 1;
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+
+    // Time one decision may take: Beginner, Normal, Expert, Expert+
+    private static final long[] BUDGET_MILLIS = {50, 100, 250, 250};
+    private static final double COST_SMOOTHING = 0.2;
+
+    private static volatile DecisionScheduler shared;
+
+    private static final Counter MISSED = Metrics.counter("scheduler.deadline.missed");
+    private static final LatencyHistogram LATENESS = Metrics.latency("scheduler.lateness");
+    private static final LatencyHistogram QUEUE_WAIT = Metrics.latency("scheduler.queue.wait");
+    // scheduler.level.<level>, by Level ordinal
+    private static final Counter[] LEVEL_COUNTERS = new Counter[Level.values().length];
+
+    static {
+        for (Level level : Level.values()) {
+            LEVEL_COUNTERS[level.ordinal()] = Metrics.counter("scheduler.level." + level.name().toLowerCase());
+        }
+    }
+
+    private final PriorityBlockingQueue<Request> queue = new PriorityBlockingQueue<>();
+    private final Thread[] workers;
+    private final AtomicLong sequence = new AtomicLong();
+    private volatile boolean shutdown;
+
+    // Cost model: nanoseconds per sample on one worker thread, smoothed over observed runs.
+    // Held as double bits so every worker's update lands, however they interleave
+    private final AtomicLong nanosPerSample = new AtomicLong(Double.doubleToRawLongBits(150));
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong missed = new AtomicLong();
+    private final AtomicLongArray levels = new AtomicLongArray(Level.values().length);
+    private final LongAccumulator worstLateness = new LongAccumulator(Math::max, 0);
+
+    private DecisionScheduler(int workerCount) {
+        if (workerCount < 1) throw new IllegalArgumentException("Need at least one worker");
+        workers = new Thread[workerCount];
+    }
+
+    /**
+     * New scheduler with its workers running
+     */
+    public static DecisionScheduler start(int workerCount) {
+        DecisionScheduler scheduler = new DecisionScheduler(workerCount);
+        for (int i = 0; i < workerCount; i++) {
+            Thread worker = new Thread(scheduler::work, "decision-scheduler-" + i);
+            worker.setDaemon(true);
+            scheduler.workers[i] = worker;
+            worker.start();
+        }
+        return scheduler;
+    }
+
+    /**
+     * Scheduler with one worker per core, created on first use
+     */
+    public static DecisionScheduler shared() {
+        DecisionScheduler scheduler = shared;
+        if (scheduler == null) {
+            synchronized (DecisionScheduler.class) {
+                if (shared == null) shared = start(Runtime.getRuntime().availableProcessors());
+                scheduler = shared;
+            }
+        }
+        return scheduler;
+    }
+
+    /**
+     * Time an AI of this difficulty gets per decision
+     */
+    public static long budgetNanos(int difficulty) {
+        return TimeUnit.MILLISECONDS.toNanos(BUDGET_MILLIS[Math.max(1, Math.min(difficulty, 4)) - 1]);
+    }
+
+    /**
+     * Queues an estimate due budgetNanos(difficulty) from now
+     */
+    public CompletableFuture<Estimate> submit(int difficulty, List<Card> playerCards, List<Card> communityCards) {
+        return submit(difficulty, playerCards, communityCards, System.nanoTime() + budgetNanos(difficulty));
+    }
+
+    /**
+     * Queues an estimate due at deadlineNanos (a System.nanoTime() value)
+     */
+    public CompletableFuture<Estimate> submit(int difficulty, List<Card> playerCards, List<Card> communityCards,
+                                              long deadlineNanos) {
+        if (shutdown) throw new IllegalStateException("Scheduler is shut down");
+        Request request = new Request(difficulty, playerCards, communityCards, deadlineNanos,
+                sequence.getAndIncrement());
+        submitted.incrementAndGet();
+        queue.add(request);
+        // shutdown() may have drained the queue between the check above and the add; whichever
+        // side takes the request out completes it
+        if (shutdown && queue.remove(request)) {
+            request.result.completeExceptionally(new IllegalStateException("Scheduler shut down"));
+        }
+        return request.result;
+    }
+
+    /**
+     * Blocking form of submit, for callers that need the equity now
+     */
+    public double estimate(int difficulty, List<Card> playerCards, List<Card> communityCards) {
+        return submit(difficulty, playerCards, communityCards).join().getEquity();
+    }
+
+    private void work() {
+        while (!shutdown) {
+            Request request;
+            try {
+                request = queue.take();
+            } catch (InterruptedException e) {
+                if (shutdown) return;
+                continue;
+            }
+            try {
+                request.result.complete(run(request));
+            } catch (Throwable e) {
+                // Errors too: a caller joining the future must never wait forever
+                request.result.completeExceptionally(e);
+            }
+        }
+    }
+
+    private Estimate run(Request request) {
+        EquityEstimateEvent event = new EquityEstimateEvent();
+        event.begin();
+        long start = System.nanoTime();
+        if (Metrics.ENABLED) QUEUE_WAIT.record(start - request.submitted);
+        MonteCarloSimulator simulator = new MonteCarloSimulator(request.playerCards, request.communityCards, 1);
+        SimulationBudgeter.Plan plan = SimulationBudgeter.shared().plan(request.difficulty, simulator);
+        long slack = Math.max(0, request.deadline - start);
+
+        double equity;
+        Level level;
+        int samples;
+        int minimum = SimulationBudgeter.MIN_SAMPLES;
+        if (plan.getStrategy() == SimulationBudgeter.Strategy.CACHE) {
+            equity = plan.getCachedEquity();
+            level = slack / getNanosPerSample() >= minimum ? Level.FULL : Level.CACHE_ONLY;
+            samples = 0;
+            simulator.commitEstimate(event, "cache", 0, true, equity);
+        } else if (plan.getStrategy() == SimulationBudgeter.Strategy.EXACT && plan.getPredictedNanos() <= slack) {
+            equity = simulator.exactWinProbability();
+            level = Level.FULL;
+            samples = (int) simulator.remainingCombinations();
+        } else {
+            // Sampling, or an enumeration that would not finish in time
+            int wanted = plan.getStrategy() == SimulationBudgeter.Strategy.SAMPLE ? plan.getSamples()
+                    : SimulationBudgeter.samplesFor(SimulationBudgeter.targetErrorFor(request.difficulty));
+            int affordable = (int) Math.min(wanted, slack / getNanosPerSample());
+            level = affordable >= wanted ? Level.FULL : affordable >= minimum ? Level.REDUCED : Level.MINIMAL;
+            samples = Math.max(minimum, affordable);
+            long[] counts = MonteCarloSimulator.countSamples(simulator.getHoleMask(), simulator.getBoardMask(),
+                    samples, ThreadLocalRandom.current());
+            equity = (counts[0] + 0.5 * counts[1]) / samples;
+            simulator.commitEstimate(event, "scheduler", samples, false, equity);
+            double observed = (double) (System.nanoTime() - start) / samples;
+            nanosPerSample.updateAndGet(bits -> {
+                double current = Double.longBitsToDouble(bits);
+                return Double.doubleToRawLongBits(current + COST_SMOOTHING * (observed - current));
+            });
+            // Good enough for every difficulty, so later decisions can skip the work
+            if (samples >= SimulationBudgeter.samplesFor(SimulationBudgeter.targetErrorFor(3))) {
+                simulator.cacheResult(equity);
+            }
+        }
+
+        long late = Math.max(0, System.nanoTime() - request.deadline);
+        completed.incrementAndGet();
+        levels.incrementAndGet(level.ordinal());
+        if (late > 0) {
+            missed.incrementAndGet();
+            worstLateness.accumulate(late);
+            if (Metrics.ENABLED) {
+                MISSED.increment();
+                LATENESS.record(late);
+            }
+        }
+        if (Metrics.ENABLED) LEVEL_COUNTERS[level.ordinal()].increment();
+        return new Estimate(equity, level, samples, late);
+    }
+
+    /**
+     * Stops the workers; queued requests are completed exceptionally
+     */
+    public void shutdown() {
+        shutdown = true;
+        for (Thread worker : workers) worker.interrupt();
+        Request request;
+        while ((request = queue.poll()) != null) {
+            request.result.completeExceptionally(new IllegalStateException("Scheduler shut down"));
+        }
+    }
+
+    public int getQueueLength() {
+        return queue.size();
+    }
+
+    public long getSubmitted() {
+        return submitted.get();
+    }
+
+    public long getCompleted() {
+        return completed.get();
+    }
+
+    public long getMissedDeadlines() {
+        return missed.get();
+    }
+
+    public long getCount(Level level) {
+        return levels.get(level.ordinal());
+    }
+
+    public double getNanosPerSample() {
+        return Double.longBitsToDouble(nanosPerSample.get());
+    }
+
+    /**
+     * One-line summary: completed, missed and how the work was downgraded
+     */
+    public String report() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%d completed, %d missed deadline (worst %.1f ms late)",
+                getCompleted(), getMissedDeadlines(), worstLateness.get() / 1e6));
+        for (Level level : Level.values()) {
+            sb.append(", ").append(level).append(' ').append(getCount(level));
+        }
+        sb.append(String.format(", %.0f ns/sample, %d queued", getNanosPerSample(), getQueueLength()));
+        return sb.toString();
+    }
+}
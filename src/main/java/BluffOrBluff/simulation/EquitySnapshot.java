@@ -0,0 +1,76 @@
+package BluffOrBluff.simulation;
+
+/**
+ * Immutable view of a running simulation: how many samples were played, how many
+ * were won or tied, and the 95% error bound of the current equity estimate.
+ */
+public final class EquitySnapshot {
+    public static final EquitySnapshot EMPTY = new EquitySnapshot(0, 0, 0, false);
+
+    private static final double Z_95 = 1.96;
+
+    private final int samples;
+    private final int wins;
+    private final int ties;
+    private final boolean complete;
+
+    EquitySnapshot(int samples, int wins, int ties, boolean complete) {
+        this.samples = samples;
+        this.wins = wins;
+        this.ties = ties;
+        this.complete = complete;
+    }
+
+    public int getSamples() {
+        return samples;
+    }
+
+    public int getWins() {
+        return wins;
+    }
+
+    public int getTies() {
+        return ties;
+    }
+
+    /**
+     * True once every requested sample has been played (or the run was cancelled)
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Win probability so far, counting ties as half-wins
+     */
+    public double getEquity() {
+        return samples == 0 ? 0.5 : (wins + 0.5 * ties) / samples;
+    }
+
+    /**
+     * Half-width of the 95% confidence interval around getEquity()
+     */
+    public double getErrorBound() {
+        if (samples < 2) {
+            return 1.0;
+        }
+        // Each sample scores 1, 0.5 or 0, so the variance comes straight from the counts
+        double mean = getEquity();
+        double meanOfSquares = (wins + 0.25 * ties) / samples;
+        double variance = Math.max(0, meanOfSquares - mean * mean);
+        return Z_95 * Math.sqrt(variance / samples);
+    }
+
+    EquitySnapshot plus(int moreSamples, int moreWins, int moreTies) {
+        return new EquitySnapshot(samples + moreSamples, wins + moreWins, ties + moreTies, complete);
+    }
+
+    EquitySnapshot finished() {
+        return complete ? this : new EquitySnapshot(samples, wins, ties, true);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%.3f ±%.3f (%d samples)", getEquity(), getErrorBound(), samples);
+    }
+}
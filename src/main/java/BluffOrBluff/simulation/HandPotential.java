@@ -0,0 +1,48 @@
+package BluffOrBluff.simulation;
+
+/**
+ * Hand strength and potential of a hand against one random opponent hand:
+ * HS is the chance of being ahead right now, PPOT the chance that the next card puts a hand
+ * that is behind in front, NPOT the chance that it puts a hand that is ahead behind, and
+ * EHS = HS * (1 - NPOT) + (1 - HS) * PPOT combines them.
+ */
+public final class HandPotential {
+    private final double handStrength;
+    private final double positivePotential;
+    private final double negativePotential;
+
+    HandPotential(double handStrength, double positivePotential, double negativePotential) {
+        this.handStrength = handStrength;
+        this.positivePotential = positivePotential;
+        this.negativePotential = negativePotential;
+    }
+
+    public double getHandStrength() {
+        return handStrength;
+    }
+
+    public double getPositivePotential() {
+        return positivePotential;
+    }
+
+    public double getNegativePotential() {
+        return negativePotential;
+    }
+
+    public double getEffectiveHandStrength() {
+        return handStrength * (1 - negativePotential) + (1 - handStrength) * positivePotential;
+    }
+
+    /**
+     * Strong draw: not a made hand worth much yet, but improving often (flush draws, open-enders)
+     */
+    public boolean isDraw() {
+        return handStrength < 0.6 && positivePotential >= 0.2;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("HS %.3f, PPOT %.3f, NPOT %.3f, EHS %.3f",
+                handStrength, positivePotential, negativePotential, getEffectiveHandStrength());
+    }
+}
@@ -1,15 +1,41 @@
 package BluffOrBluff.simulation;
 
+import BluffOrBluff.metrics.Counter;
+import BluffOrBluff.metrics.EquityEstimateEvent;
+import BluffOrBluff.metrics.LatencyHistogram;
+import BluffOrBluff.metrics.Metrics;
 import BluffOrBluff.model.*;
 import java.util.*;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.random.RandomGenerator;
 import java.util.stream.IntStream;
 
 public class MonteCarloSimulator {
     private static final int DEFAULT_SIMULATIONS = 10000;
     private static final Map<String, Double> resultCache = new ConcurrentHashMap<>();
 
+    // Instrumentation (only touched when Metrics.ENABLED)
+    private static final Counter CACHE_HITS = Metrics.counter("simulation.cache.hit");
+    private static final Counter CACHE_MISSES = Metrics.counter("simulation.cache.miss");
+    private static final Counter SAMPLES = Metrics.counter("simulation.samples");
+    private static final Counter EVALUATIONS = Metrics.counter("evaluator.calls");
+    private static final LatencyHistogram ESTIMATE_LATENCY = Metrics.latency("simulation.estimate");
+    private static final LatencyHistogram SAMPLE_RATE = Metrics.values("simulation.samplesPerSecond");
+
+    // Deals per batch: both hands of every deal go to the evaluator together
+    private static final int BATCH_SAMPLES = BatchHandEvaluator.BATCH_SIZE / 2;
+    private static final ThreadLocal<BatchScratch> SCRATCH = ThreadLocal.withInitial(BatchScratch::new);
+
+    /**
+     * Per-thread evaluator and buffers for the batched sampling loop
+     */
+    private static final class BatchScratch {
+        final BatchHandEvaluator evaluator = BatchHandEvaluator.create();
+        final long[] deck = new long[52];
+        final long[] masks = new long[2 * BATCH_SAMPLES];
+        final int[] values = new int[2 * BATCH_SAMPLES];
+    }
+
     private final List<Card> playerCards;
     private final List<Card> knownCommunityCards;
     private final int simulationCount;
@@ -59,132 +85,396 @@ public class MonteCarloSimulator {
      * @return Probability between 0.0 (certain loss) and 1.0 (certain win)
      */
     public double estimateWinProbability() {
+        EquityEstimateEvent event = new EquityEstimateEvent();
+        event.begin();
+
         // Check cache first
         String cacheKey = generateCacheKey();
         if (resultCache.containsKey(cacheKey)) {
-            return resultCache.get(cacheKey);
+            if (Metrics.ENABLED) CACHE_HITS.increment();
+            double cached = resultCache.get(cacheKey);
+            commitEstimate(event, "cache", 0, true, cached);
+            return cached;
         }
+        if (Metrics.ENABLED) CACHE_MISSES.increment();
+        long start = Metrics.start();
 
-        AtomicInteger wins = new AtomicInteger(0);
-        AtomicInteger ties = new AtomicInteger(0);
+        long[] counts;
+        try {
+            counts = sampleParallel();
+        } catch (InterruptedException | ExecutionException e) {
+            // Fall back to single-threaded if parallel execution fails
+            long hole = getHoleMask(), board = getBoardMask();
+            double probability = runSingleThreaded(hole, board, unseenBits(hole | board));
+            if (Metrics.ENABLED) recordRun(start, simulationCount);
+            commitEstimate(event, "single-threaded", simulationCount, false, probability);
+            return probability;
+        }
 
-        List<Card> knownCards = new ArrayList<>();
-        knownCards.addAll(playerCards);
-        knownCards.addAll(knownCommunityCards);
+        double probability = (counts[0] + 0.5 * counts[1]) / simulationCount;
+        if (Metrics.ENABLED) recordRun(start, simulationCount);
+        commitEstimate(event, "parallel", simulationCount, false, probability);
+
+        // Cache results for large simulations
+        if (simulationCount >= 5000) {
+            resultCache.put(cacheKey, probability);
+        }
+
+        return probability;
+    }
+
+    /**
+     * Plays every sample on a fork/join pool, one batch of deals per task
+     * @return {wins, ties}
+     */
+    long[] sampleParallel() throws InterruptedException, ExecutionException {
+        long hole = getHoleMask();
+        long board = getBoardMask();
+        long[] unseen = unseenBits(hole | board);
+        int batches = (simulationCount + BATCH_SAMPLES - 1) / BATCH_SAMPLES;
 
-        // Use parallel stream for faster processing
         ForkJoinPool customThreadPool = new ForkJoinPool(
                 Math.max(2, Runtime.getRuntime().availableProcessors())
         );
-
         try {
-            customThreadPool.submit(() ->
-                IntStream.range(0, simulationCount)
+            return customThreadPool.submit(() ->
+                IntStream.range(0, batches)
                     .parallel()
-                    .forEach(i -> {
-                        // Create a fresh deck and remove known cards
-                        Deck simDeck = new Deck();
-                        simDeck.removeCards(knownCards);
-
-                        // Generate opponent hand
-                        List<Card> opponentCards = new ArrayList<>(2);
-                        opponentCards.add(simDeck.dealCard());
-                        opponentCards.add(simDeck.dealCard());
-
-                        // Complete community cards
-                        List<Card> fullCommunityCards = new ArrayList<>(knownCommunityCards);
-                        while (fullCommunityCards.size() < 5) {
-                            fullCommunityCards.add(simDeck.dealCard());
-                        }
-
-                        // Evaluate hands
-                        List<Card> playerFullHand = new ArrayList<>(playerCards);
-                        playerFullHand.addAll(fullCommunityCards);
-
-                        List<Card> opponentFullHand = new ArrayList<>(opponentCards);
-                        opponentFullHand.addAll(fullCommunityCards);
-
-                        HandRank playerHandRank = HandEvaluator.evaluateHand(playerFullHand);
-                        HandRank opponentHandRank = HandEvaluator.evaluateHand(opponentFullHand);
-
-                        // Compare hands
-                        int comparison = playerHandRank.compareTo(opponentHandRank);
-                        if (comparison > 0) wins.incrementAndGet();
-                        else if (comparison == 0) ties.incrementAndGet();
-                    })
+                    .mapToObj(b -> scoreBatch(hole, board, unseen,
+                            Math.min(BATCH_SAMPLES, simulationCount - b * BATCH_SAMPLES), ThreadLocalRandom.current()))
+                    .reduce(new long[2], (a, c) -> new long[]{a[0] + c[0], a[1] + c[1]})
             ).get(); // Wait for completion
-        } catch (InterruptedException | ExecutionException e) {
-            // Fall back to single-threaded if parallel execution fails
-            return runSingleThreaded(knownCards);
         } finally {
             customThreadPool.shutdown();
         }
+    }
 
-        double probability = (wins.get() + 0.5 * ties.get()) / simulationCount;
+    /**
+     * Runs the samples through a dealer/evaluator/reducer pipeline (see PipelinedSimulation)
+     * instead of the fork/join pool; cached like estimateWinProbability
+     */
+    public double estimatePipelined(PipelinedSimulation.Config config) {
+        EquityEstimateEvent event = new EquityEstimateEvent();
+        event.begin();
+        String cacheKey = generateCacheKey();
+        Double cached = resultCache.get(cacheKey);
+        if (cached != null) {
+            if (Metrics.ENABLED) CACHE_HITS.increment();
+            commitEstimate(event, "cache", 0, true, cached);
+            return cached;
+        }
+        if (Metrics.ENABLED) CACHE_MISSES.increment();
+        long start = Metrics.start();
 
-        // Cache results for large simulations
+        double probability = new PipelinedSimulation(this, config).run().getEquity();
+        if (Metrics.ENABLED) recordRun(start, simulationCount);
+        commitEstimate(event, "pipelined", simulationCount, false, probability);
         if (simulationCount >= 5000) {
             resultCache.put(cacheKey, probability);
         }
-
         return probability;
     }
 
     /**
-     * Fallback method for single-threaded execution
+     * Cached estimate for these cards, or null when nothing has been cached yet
      */
-    private double runSingleThreaded(List<Card> knownCards) {
-        int wins = 0, ties = 0;
+    public Double getCachedEstimate() {
+        Double cached = resultCache.get(generateCacheKey());
+        if (Metrics.ENABLED) {
+            if (cached != null) CACHE_HITS.increment();
+            else CACHE_MISSES.increment();
+        }
+        return cached;
+    }
 
-        for (int i = 0; i < simulationCount; i++) {
-            // Create a fresh deck and remove known cards
-            Deck simDeck = new Deck();
-            simDeck.removeCards(knownCards);
+    /**
+     * Number of (opponent hand, board completion) pairs an exact enumeration has to visit
+     */
+    public long remainingCombinations() {
+        int unknown = 52 - playerCards.size() - knownCommunityCards.size();
+        int missingBoard = 5 - knownCommunityCards.size();
+        return choose(unknown, 2) * choose(unknown - 2, missingBoard);
+    }
 
-            // Generate a random opponent hand
-            List<Card> opponentCards = new ArrayList<>();
-            opponentCards.add(simDeck.dealCard());
-            opponentCards.add(simDeck.dealCard());
+    private static long choose(int n, int k) {
+        if (k < 0 || k > n) return 0;
+        long result = 1;
+        for (int i = 1; i <= k; i++) {
+            result = result * (n - k + i) / i;
+        }
+        return result;
+    }
 
-            // Complete community cards if needed
-            List<Card> fullCommunityCards = new ArrayList<>(knownCommunityCards);
-            while (fullCommunityCards.size() < 5) {
-                fullCommunityCards.add(simDeck.dealCard());
+    /**
+     * Exact win probability against a random hand, enumerating every board completion and
+     * every opponent hand. Only offered from the flop on; pre-flop has millions of runouts.
+     */
+    public double exactWinProbability() {
+        int missingBoard = 5 - knownCommunityCards.size();
+        if (missingBoard > 2) {
+            throw new IllegalStateException("Exact enumeration needs at least the flop");
+        }
+        EquityEstimateEvent event = new EquityEstimateEvent();
+        event.begin();
+        long start = Metrics.start();
+
+        List<Card> unknown = getUnknownCards();
+        List<int[]> runouts = new ArrayList<>();
+        if (missingBoard == 0) {
+            runouts.add(new int[0]);
+        } else if (missingBoard == 1) {
+            for (int i = 0; i < unknown.size(); i++) runouts.add(new int[]{i});
+        } else {
+            for (int i = 0; i < unknown.size(); i++) {
+                for (int j = i + 1; j < unknown.size(); j++) runouts.add(new int[]{i, j});
             }
+        }
 
-            // Evaluate and compare hands
-            List<Card> playerFullHand = new ArrayList<>(playerCards);
-            playerFullHand.addAll(fullCommunityCards);
+        // {wins, ties, total} summed over all runouts
+        long[] counts = runouts.parallelStream()
+                .map(runout -> countRunout(unknown, runout))
+                .reduce(new long[3], (a, b) -> new long[]{a[0] + b[0], a[1] + b[1], a[2] + b[2]});
 
-            List<Card> opponentFullHand = new ArrayList<>(opponentCards);
-            opponentFullHand.addAll(fullCommunityCards);
+        double probability = (counts[0] + 0.5 * counts[1]) / counts[2];
+        if (Metrics.ENABLED) recordRun(start, (int) counts[2], counts[2] + runouts.size());
+        commitEstimate(event, "exact", (int) counts[2], false, probability);
 
-            // Evaluate best 5-card hands
-            HandRank playerHandRank = HandEvaluator.evaluateHand(playerFullHand);
-            HandRank opponentHandRank = HandEvaluator.evaluateHand(opponentFullHand);
+        // Exact answers are as good as it gets, so always cache them
+        resultCache.put(generateCacheKey(), probability);
+        return probability;
+    }
 
-            // Compare hands and track results
-            int comparison = playerHandRank.compareTo(opponentHandRank);
-            if (comparison > 0) wins++;
-            else if (comparison == 0) ties++;
+    private long[] countRunout(List<Card> unknown, int[] runout) {
+        List<Card> board = new ArrayList<>(knownCommunityCards);
+        boolean[] used = new boolean[unknown.size()];
+        for (int index : runout) {
+            board.add(unknown.get(index));
+            used[index] = true;
+        }
+        long boardMask = FastHandEvaluator.mask(board);
+        int playerValue = FastHandEvaluator.evaluate(FastHandEvaluator.mask(playerCards) | boardMask);
+
+        long wins = 0, ties = 0, total = 0;
+        for (int i = 0; i < unknown.size(); i++) {
+            if (used[i]) continue;
+            long first = FastHandEvaluator.bit(FastHandEvaluator.code(unknown.get(i)));
+            for (int j = i + 1; j < unknown.size(); j++) {
+                if (used[j]) continue;
+                long second = FastHandEvaluator.bit(FastHandEvaluator.code(unknown.get(j)));
+                int comparison = Integer.compare(playerValue, FastHandEvaluator.evaluate(boardMask | first | second));
+                if (comparison > 0) wins++;
+                else if (comparison == 0) ties++;
+                total++;
+            }
+        }
+        return new long[]{wins, ties, total};
+    }
+
+    /**
+     * Fallback method for single-threaded execution
+     */
+    private double runSingleThreaded(long hole, long board, long[] unseen) {
+        long wins = 0, ties = 0;
+
+        for (int done = 0; done < simulationCount; done += BATCH_SAMPLES) {
+            long[] counts = scoreBatch(hole, board, unseen, Math.min(BATCH_SAMPLES, simulationCount - done),
+                    ThreadLocalRandom.current());
+            wins += counts[0];
+            ties += counts[1];
         }
 
         // Calculate win probability (counting ties as half-wins)
         return (wins + 0.5 * ties) / simulationCount;
     }
 
+    /**
+     * Deals samples random opponent hands and board completions as card masks and scores both
+     * sides of every deal in one BatchHandEvaluator call
+     * @return {wins, ties}
+     */
+    private static long[] scoreBatch(long hole, long board, long[] unseen, int samples, RandomGenerator random) {
+        BatchScratch scratch = SCRATCH.get();
+        long[] deck = scratch.deck;
+        long[] masks = scratch.masks;
+        System.arraycopy(unseen, 0, deck, 0, unseen.length);
+        int size = unseen.length;
+        int dealt = 2 + 5 - Long.bitCount(board); // opponent's two cards plus the runout
+
+        for (int s = 0; s < samples; s++) {
+            // Partial Fisher-Yates: the first `dealt` cards of the deck are this deal
+            long opponent = 0, runout = 0;
+            for (int i = 0; i < dealt; i++) {
+                int j = i + random.nextInt(size - i);
+                long card = deck[j];
+                deck[j] = deck[i];
+                deck[i] = card;
+                if (i < 2) opponent |= card;
+                else runout |= card;
+            }
+            masks[s] = hole | board | runout;
+            masks[samples + s] = opponent | board | runout;
+        }
+
+        int[] values = scratch.values;
+        scratch.evaluator.evaluate(masks, values, 2 * samples);
+        long wins = 0, ties = 0;
+        for (int s = 0; s < samples; s++) {
+            int mine = values[s], theirs = values[samples + s];
+            if (mine > theirs) wins++;
+            else if (mine == theirs) ties++;
+        }
+        return new long[]{wins, ties};
+    }
+
+    /**
+     * Plays samples deals drawn from random against the fixed hole and board masks, on the
+     * calling thread. The same generator state always gives the same counts, so a job split
+     * into seeded pieces can re-run any piece and get the same answer.
+     * @return {wins, ties}
+     */
+    public static long[] countSamples(long hole, long board, long samples, RandomGenerator random) {
+        long[] unseen = unseenBits(hole | board);
+        long wins = 0, ties = 0;
+        for (long done = 0; done < samples; done += BATCH_SAMPLES) {
+            long[] counts = scoreBatch(hole, board, unseen, (int) Math.min(BATCH_SAMPLES, samples - done), random);
+            wins += counts[0];
+            ties += counts[1];
+        }
+        return new long[]{wins, ties};
+    }
+
+    static long[] unseenBits(long dead) {
+        long[] unseen = new long[52 - Long.bitCount(dead)];
+        int size = 0;
+        for (int code = 0; code < 52; code++) {
+            long bit = FastHandEvaluator.bit(code);
+            if ((dead & bit) == 0) unseen[size++] = bit;
+        }
+        return unseen;
+    }
+
+    /**
+     * Deals one random opponent hand and board completion and compares the results
+     * @return 1 for a win, 0 for a tie, -1 for a loss
+     */
+    int simulateOnce(List<Card> knownCards) {
+        // Create a fresh deck and remove known cards
+        Deck simDeck = new Deck();
+        simDeck.removeCards(knownCards);
+
+        // Generate opponent hand
+        List<Card> opponentCards = new ArrayList<>(2);
+        opponentCards.add(simDeck.dealCard());
+        opponentCards.add(simDeck.dealCard());
+
+        // Complete community cards
+        List<Card> fullCommunityCards = new ArrayList<>(knownCommunityCards);
+        while (fullCommunityCards.size() < 5) {
+            fullCommunityCards.add(simDeck.dealCard());
+        }
+
+        // Evaluate best 5-card hands with the same evaluator as the sampled path
+        long boardMask = FastHandEvaluator.mask(fullCommunityCards);
+        int playerValue = FastHandEvaluator.evaluate(FastHandEvaluator.mask(playerCards) | boardMask);
+        int opponentValue = FastHandEvaluator.evaluate(FastHandEvaluator.mask(opponentCards) | boardMask);
+
+        return Integer.signum(Integer.compare(playerValue, opponentValue));
+    }
+
+    /**
+     * Feeds one finished run into the simulation metrics
+     */
+    static void recordRun(long startNanos, int samples) {
+        recordRun(startNanos, samples, 2L * samples);
+    }
+
+    static void recordRun(long startNanos, int samples, long evaluations) {
+        long elapsed = System.nanoTime() - startNanos;
+        ESTIMATE_LATENCY.record(elapsed);
+        SAMPLES.add(samples);
+        EVALUATIONS.add(evaluations);
+        if (elapsed > 0) {
+            SAMPLE_RATE.record(samples * 1_000_000_000L / elapsed);
+        }
+    }
+
+    /**
+     * Fills in and commits the JFR event; a no-op unless a recording has the event enabled
+     */
+    void commitEstimate(EquityEstimateEvent event, String mode, int samples, boolean cacheHit, double equity) {
+        if (event.shouldCommit()) {
+            event.mode = mode;
+            event.samples = samples;
+            event.communityCards = knownCommunityCards.size();
+            event.cacheHit = cacheHit;
+            event.equity = equity;
+            event.commit();
+        }
+    }
+
+    /**
+     * Hole cards plus known community cards, i.e. everything removed from the simulation deck
+     */
+    List<Card> getKnownCards() {
+        List<Card> knownCards = new ArrayList<>(playerCards);
+        knownCards.addAll(knownCommunityCards);
+        return knownCards;
+    }
+
+    /**
+     * Every card not in the player's hand or on the known board
+     */
+    List<Card> getUnknownCards() {
+        List<Card> knownCards = getKnownCards();
+        List<Card> unknown = new ArrayList<>(52 - knownCards.size());
+        for (Card.Suit suit : Card.Suit.values()) {
+            for (Card.Rank rank : Card.Rank.values()) {
+                Card card = new Card(rank, suit);
+                if (!knownCards.contains(card)) unknown.add(card);
+            }
+        }
+        return unknown;
+    }
+
+    /**
+     * Stores a finished estimate so later simulators for the same cards can skip the work
+     */
+    void cacheResult(double probability) {
+        resultCache.put(generateCacheKey(), probability);
+    }
+
+    long getHoleMask() {
+        return FastHandEvaluator.mask(playerCards);
+    }
+
+    long getBoardMask() {
+        return FastHandEvaluator.mask(knownCommunityCards);
+    }
+
+    int getSimulationCount() {
+        return simulationCount;
+    }
+
+    int getKnownCommunityCardCount() {
+        return knownCommunityCards.size();
+    }
+
     /**
      * Runs a simulation that terminates early when statistical confidence is reached
      */
     public double estimateWithConfidence(double confidenceThreshold) {
         int batchSize = 100;
         int iterations = 0;
-        int wins = 0, ties = 0;
+        long wins = 0, ties = 0;
         double currentEstimate = 0;
         double previousEstimate = -1;
+        long start = Metrics.start();
+        EquityEstimateEvent event = new EquityEstimateEvent();
+        event.begin();
 
-        List<Card> knownCards = new ArrayList<>(playerCards);
-        knownCards.addAll(knownCommunityCards);
+        long hole = FastHandEvaluator.mask(playerCards);
+        long board = FastHandEvaluator.mask(knownCommunityCards);
+        long[] unseen = unseenBits(hole | board);
 
         while (iterations < simulationCount &&
                (iterations < 1000 || Math.abs(currentEstimate - previousEstimate) > confidenceThreshold)) {
@@ -192,37 +482,17 @@ public class MonteCarloSimulator {
             previousEstimate = currentEstimate;
 
             // Run a batch of simulations
-            for (int i = 0; i < batchSize && iterations < simulationCount; i++, iterations++) {
-                Deck simDeck = new Deck();
-                simDeck.removeCards(knownCards);
-
-
-                List<Card> opponentCards = new ArrayList<>();
-                opponentCards.add(simDeck.dealCard());
-                opponentCards.add(simDeck.dealCard());
-
-                List<Card> fullCommunityCards = new ArrayList<>(knownCommunityCards);
-                while (fullCommunityCards.size() < 5) {
-                    fullCommunityCards.add(simDeck.dealCard());
-                }
-
-                List<Card> playerFullHand = new ArrayList<>(playerCards);
-                playerFullHand.addAll(fullCommunityCards);
-
-                List<Card> opponentFullHand = new ArrayList<>(opponentCards);
-                opponentFullHand.addAll(fullCommunityCards);
-
-                HandRank playerHandRank = HandEvaluator.evaluateHand(playerFullHand);
-                HandRank opponentHandRank = HandEvaluator.evaluateHand(opponentFullHand);
-
-                int comparison = playerHandRank.compareTo(opponentHandRank);
-                if (comparison > 0) wins++;
-                else if (comparison == 0) ties++;
-            }
+            int samples = Math.min(batchSize, simulationCount - iterations);
+            long[] counts = scoreBatch(hole, board, unseen, samples, ThreadLocalRandom.current());
+            wins += counts[0];
+            ties += counts[1];
+            iterations += samples;
 
             currentEstimate = (wins + 0.5 * ties) / iterations;
         }
 
+        if (Metrics.ENABLED) recordRun(start, iterations);
+        commitEstimate(event, "confidence", iterations, false, currentEstimate);
         return currentEstimate;
     }
 
@@ -232,4 +502,13 @@ public class MonteCarloSimulator {
     public double quickEstimate() {
         return new MonteCarloSimulator(playerCards, knownCommunityCards, 1000).estimateWinProbability();
     }
-}
\ No newline at end of file
+
+    /**
+     * Starts a background simulation that publishes a snapshot every publishInterval samples.
+     * Callers can read the latest snapshot at any time, stop once the error bound is small
+     * enough, or cancel the remaining work.
+     */
+    public StreamingSimulation stream(int publishInterval) {
+        return new StreamingSimulation(this, publishInterval).start();
+    }
+}
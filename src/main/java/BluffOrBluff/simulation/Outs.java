@@ -0,0 +1,97 @@
+package BluffOrBluff.simulation;
+
+import BluffOrBluff.model.Card;
+import BluffOrBluff.model.FastHandEvaluator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Result of OutsAnalyzer: which unseen cards are outs, what each one makes, and the odds
+ * of hitting one. Outs are kept as a card mask, so they cost nothing to store or combine.
+ */
+public final class Outs {
+    private final long outsMask;
+    // Outs by the category they improve to, indexed by FastHandEvaluator category
+    private final long[] byCategory;
+    private final int currentCategory;
+    private final int unseen;
+    private final int cardsToCome;
+
+    Outs(long outsMask, long[] byCategory, int currentCategory, int unseen, int cardsToCome) {
+        this.outsMask = outsMask;
+        this.byCategory = byCategory;
+        this.currentCategory = currentCategory;
+        this.unseen = unseen;
+        this.cardsToCome = cardsToCome;
+    }
+
+    public int count() {
+        return Long.bitCount(outsMask);
+    }
+
+    public long getOutsMask() {
+        return outsMask;
+    }
+
+    public boolean isOut(Card card) {
+        return (outsMask & FastHandEvaluator.bit(FastHandEvaluator.code(card))) != 0;
+    }
+
+    public List<Card> getOuts() {
+        List<Card> cards = new ArrayList<>(count());
+        for (long remaining = outsMask; remaining != 0; remaining &= remaining - 1) {
+            cards.add(FastHandEvaluator.card(FastHandEvaluator.codeOfBit(remaining & -remaining)));
+        }
+        return cards;
+    }
+
+    /**
+     * Number of outs that make the given FastHandEvaluator category
+     */
+    public int count(int category) {
+        return Long.bitCount(byCategory[category]);
+    }
+
+    public int getCurrentCategory() {
+        return currentCategory;
+    }
+
+    /**
+     * Chance that the next card is an out
+     */
+    public double getNextCardOdds() {
+        return unseen == 0 ? 0 : (double) count() / unseen;
+    }
+
+    /**
+     * Chance of hitting at least one out by the river (two cards to come on the flop)
+     */
+    public double getByRiverOdds() {
+        if (cardsToCome < 2) return getNextCardOdds();
+        double missBoth = (double) (unseen - count()) / unseen * (unseen - count() - 1) / (unseen - 1);
+        return 1 - missBoth;
+    }
+
+    /**
+     * Short summary for hints, e.g. "9 outs (Flush 9): 19.1% next card, 35.0% by the river"
+     */
+    public String describe() {
+        if (count() == 0) return "No outs to improve your " + FastHandEvaluator.categoryName(currentCategory);
+        StringBuilder sb = new StringBuilder().append(count()).append(count() == 1 ? " out (" : " outs (");
+        String separator = "";
+        for (int category = byCategory.length - 1; category > 0; category--) {
+            if (byCategory[category] == 0) continue;
+            sb.append(separator).append(FastHandEvaluator.categoryName(category)).append(' ').append(count(category));
+            separator = ", ";
+        }
+        sb.append(String.format("): %.1f%% next card", 100 * getNextCardOdds()));
+        if (cardsToCome >= 2) sb.append(String.format(", %.1f%% by the river", 100 * getByRiverOdds()));
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return describe();
+    }
+}
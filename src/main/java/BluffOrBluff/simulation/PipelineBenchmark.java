@@ -0,0 +1,76 @@
+package BluffOrBluff.simulation;
+
+import BluffOrBluff.model.Card;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+/**
+ * Compares the pipelined simulation against the fork/join versions on the same flop.
+ * Usage: PipelineBenchmark [samples] [runs]
+ * Build with -Pvector and run with --add-modules jdk.incubator.vector to use the vector evaluator in both.
+ */
+public class PipelineBenchmark {
+    private interface Run {
+        double equity() throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int samples = args.length > 0 ? Integer.parseInt(args[0]) : 400_000;
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        List<Card> hole = List.of(new Card(Card.Rank.ACE, Card.Suit.SPADES), new Card(Card.Rank.KING, Card.Suit.SPADES));
+        List<Card> flop = List.of(new Card(Card.Rank.TWO, Card.Suit.SPADES), new Card(Card.Rank.NINE, Card.Suit.HEARTS),
+                new Card(Card.Rank.KING, Card.Suit.CLUBS));
+        MonteCarloSimulator simulator = new MonteCarloSimulator(hole, flop, samples);
+        int cores = Runtime.getRuntime().availableProcessors();
+        System.out.printf("%d samples, best of %d runs, %d core(s)%n", samples, runs, cores);
+
+        // The per-sample loop is far slower; a tenth of the samples is plenty to time it
+        MonteCarloSimulator small = new MonteCarloSimulator(hole, flop, Math.max(1, samples / 10));
+        report("parallel stream, per sample", small.getSimulationCount(), runs, () -> perSample(small));
+        report("parallel stream, batched", samples, runs, () -> {
+            long[] counts = simulator.sampleParallel();
+            return (counts[0] + 0.5 * counts[1]) / samples;
+        });
+        for (PipelinedSimulation.Config config : new PipelinedSimulation.Config[]{
+                PipelinedSimulation.Config.defaults(),
+                new PipelinedSimulation.Config(Math.max(1, cores), 1024, 64, 128),
+                new PipelinedSimulation.Config(1, 4096, 256, 128),
+                new PipelinedSimulation.Config(1, 256, 16, 32)}) {
+            report("pipeline, " + config, samples, runs,
+                    () -> new PipelinedSimulation(simulator, config).run().getEquity());
+        }
+    }
+
+    private static void report(String name, int samples, int runs, Run run) throws Exception {
+        run.equity(); // warm-up
+        long best = Long.MAX_VALUE;
+        double equity = 0;
+        for (int i = 0; i < runs; i++) {
+            long start = System.nanoTime();
+            equity = run.equity();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        System.out.printf("%-68s %7.1f ns/sample %6.2f M samples/s  equity %.4f%n",
+                name, (double) best / samples, samples * 1e3 / best, equity);
+    }
+
+    /**
+     * The original sampling loop: one Deck, a few Lists and two HandRanks per sample
+     */
+    private static double perSample(MonteCarloSimulator simulator) throws InterruptedException, ExecutionException {
+        List<Card> knownCards = simulator.getKnownCards();
+        AtomicInteger wins = new AtomicInteger();
+        AtomicInteger ties = new AtomicInteger();
+        int samples = simulator.getSimulationCount();
+        IntStream.range(0, samples).parallel().forEach(i -> {
+            int outcome = simulator.simulateOnce(knownCards);
+            if (outcome > 0) wins.incrementAndGet();
+            else if (outcome == 0) ties.incrementAndGet();
+        });
+        return (wins.get() + 0.5 * ties.get()) / samples;
+    }
+}
@@ -0,0 +1,260 @@
+package BluffOrBluff.simulation;
+
+import BluffOrBluff.model.BatchHandEvaluator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Monte Carlo run split into pipeline stages on their own threads:
+ *
+ *   dealer -> [deal ring] -> evaluator -> [count ring] -> reducer
+ *
+ * Each lane is one dealer feeding one evaluator through an SpscRing of (our hand, their hand)
+ * mask pairs. Dealers write straight into the ring's preallocated slots, evaluators score what
+ * has been published in BatchHandEvaluator batches, and the reducer (the calling thread) adds
+ * up the (wins, ties, samples) every evaluator publishes on its count ring. A stage that finds
+ * its output ring full or its input ring empty spins briefly, then yields, then parks, so a
+ * slow evaluator throttles its dealer instead of letting deals pile up.
+ */
+public class PipelinedSimulation {
+    private static final int SPIN_WAITS = 64;
+    private static final int YIELD_WAITS = 128;
+    private static final long PARK_NANOS = 20_000;
+
+    /**
+     * Per-stage settings
+     */
+    public static final class Config {
+        private final int lanes;
+        private final int ringCapacity;
+        private final int dealBatch;
+        private final int evaluateBatch;
+
+        /**
+         * @param lanes         dealer/evaluator pairs (two threads each, plus one reducer)
+         * @param ringCapacity  deals a dealer can get ahead of its evaluator
+         * @param dealBatch     deals a dealer publishes at once
+         * @param evaluateBatch deals an evaluator scores at once (two hands each)
+         */
+        public Config(int lanes, int ringCapacity, int dealBatch, int evaluateBatch) {
+            if (lanes < 1 || ringCapacity < 1 || dealBatch < 1 || evaluateBatch < 1) {
+                throw new IllegalArgumentException("Pipeline settings must be positive");
+            }
+            this.lanes = lanes;
+            this.ringCapacity = ringCapacity;
+            this.dealBatch = dealBatch;
+            this.evaluateBatch = evaluateBatch;
+        }
+
+        /**
+         * One lane per two cores, a 1024-deal ring and full evaluator batches
+         */
+        public static Config defaults() {
+            int lanes = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+            return new Config(lanes, 1024, 64, BatchHandEvaluator.BATCH_SIZE / 2);
+        }
+
+        public int getLanes() {
+            return lanes;
+        }
+
+        public int getRingCapacity() {
+            return ringCapacity;
+        }
+
+        public int getDealBatch() {
+            return dealBatch;
+        }
+
+        public int getEvaluateBatch() {
+            return evaluateBatch;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d lane(s), ring %d, deal batch %d, evaluate batch %d",
+                    lanes, ringCapacity, dealBatch, evaluateBatch);
+        }
+    }
+
+    private final long hole;
+    private final long board;
+    private final long[] unseen;
+    private final int totalSamples;
+    private final Config config;
+
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private volatile boolean cancelled;
+
+    PipelinedSimulation(MonteCarloSimulator simulator, Config config) {
+        this.hole = simulator.getHoleMask();
+        this.board = simulator.getBoardMask();
+        this.unseen = MonteCarloSimulator.unseenBits(hole | board);
+        this.totalSamples = simulator.getSimulationCount();
+        this.config = config;
+    }
+
+    /**
+     * Runs every sample through the pipeline and returns the final counts
+     */
+    EquitySnapshot run() {
+        int lanes = config.lanes;
+        List<Thread> threads = new ArrayList<>(2 * lanes);
+        SpscRing[] counts = new SpscRing[lanes];
+        for (int lane = 0; lane < lanes; lane++) {
+            SpscRing deals = new SpscRing(config.ringCapacity, 2);
+            counts[lane] = new SpscRing(Math.max(16, config.ringCapacity / config.evaluateBatch), 3);
+            // Spread the samples evenly; the first lanes take the remainder
+            int samples = totalSamples / lanes + (lane < totalSamples % lanes ? 1 : 0);
+            SpscRing out = counts[lane];
+            threads.add(stage("sim-deal-" + lane, () -> deal(deals, samples)));
+            threads.add(stage("sim-evaluate-" + lane, () -> evaluate(deals, out)));
+        }
+        threads.forEach(Thread::start);
+
+        // The calling thread is the reducer
+        long wins = 0, ties = 0, samples = 0;
+        int idle = 0;
+        boolean drained = false;
+        while (!drained && !cancelled) {
+            drained = true;
+            boolean progress = false;
+            for (SpscRing ring : counts) {
+                int available = ring.availableSlots();
+                long[] slots = ring.slots();
+                for (int i = 0; i < available; i++) {
+                    int at = ring.readOffset(i);
+                    wins += slots[at];
+                    ties += slots[at + 1];
+                    samples += slots[at + 2];
+                }
+                if (available > 0) {
+                    ring.release(available);
+                    progress = true;
+                }
+                if (!ring.isDrained()) drained = false;
+            }
+            idle = progress ? 0 : idle(idle);
+        }
+
+        for (Thread thread : threads) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                cancelled = true;
+                Thread.currentThread().interrupt();
+            }
+        }
+        Throwable error = failure.get();
+        if (error != null) throw new IllegalStateException("Pipeline stage failed", error);
+        return new EquitySnapshot((int) samples, (int) wins, (int) ties, true);
+    }
+
+    private Thread stage(String name, Runnable body) {
+        Thread thread = new Thread(() -> {
+            try {
+                body.run();
+            } catch (Throwable t) {
+                failure.compareAndSet(null, t);
+                cancelled = true;
+            }
+        }, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private void deal(SpscRing out, int samples) {
+        long[] deck = unseen.clone();
+        int size = deck.length;
+        int dealt = 2 + 5 - Long.bitCount(board); // opponent's two cards plus the runout
+        long known = hole | board;
+        SplittableRandom random = new SplittableRandom(ThreadLocalRandom.current().nextLong());
+        long[] slots = out.slots();
+
+        int idle = 0;
+        int remaining = samples;
+        while (remaining > 0 && !cancelled) {
+            int free = Math.min(Math.min(out.freeSlots(), config.dealBatch), remaining);
+            if (free == 0) {
+                idle = idle(idle);
+                continue;
+            }
+            idle = 0;
+            for (int s = 0; s < free; s++) {
+                // Partial Fisher-Yates: the first `dealt` cards of the deck are this deal
+                long opponent = 0, runout = 0;
+                for (int i = 0; i < dealt; i++) {
+                    int j = i + random.nextInt(size - i);
+                    long card = deck[j];
+                    deck[j] = deck[i];
+                    deck[i] = card;
+                    if (i < 2) opponent |= card;
+                    else runout |= card;
+                }
+                int at = out.writeOffset(s);
+                slots[at] = known | runout;
+                slots[at + 1] = opponent | board | runout;
+            }
+            out.publish(free);
+            remaining -= free;
+        }
+        out.close();
+    }
+
+    private void evaluate(SpscRing in, SpscRing out) {
+        BatchHandEvaluator evaluator = BatchHandEvaluator.create();
+        int batch = config.evaluateBatch;
+        long[] masks = new long[2 * batch];
+        int[] values = new int[2 * batch];
+        long[] deals = in.slots();
+        long[] counts = out.slots();
+
+        int idle = 0;
+        while (!cancelled) {
+            int n = Math.min(in.availableSlots(), batch);
+            if (n == 0) {
+                if (in.isDrained()) break;
+                idle = idle(idle);
+                continue;
+            }
+            idle = 0;
+            // Ours in the first half, theirs in the second, so the ring can wrap mid-batch
+            for (int s = 0; s < n; s++) {
+                int at = in.readOffset(s);
+                masks[s] = deals[at];
+                masks[n + s] = deals[at + 1];
+            }
+            in.release(n);
+            evaluator.evaluate(masks, values, 2 * n);
+
+            long wins = 0, ties = 0;
+            for (int s = 0; s < n; s++) {
+                if (values[s] > values[n + s]) wins++;
+                else if (values[s] == values[n + s]) ties++;
+            }
+            while (out.freeSlots() == 0 && !cancelled) idle = idle(idle);
+            int at = out.writeOffset(0);
+            counts[at] = wins;
+            counts[at + 1] = ties;
+            counts[at + 2] = n;
+            out.publish(1);
+        }
+        out.close();
+    }
+
+    /**
+     * Backs off a little more on every consecutive call that found nothing to do
+     * @return the next idle count
+     */
+    private static int idle(int idle) {
+        if (idle < SPIN_WAITS) Thread.onSpinWait();
+        else if (idle < YIELD_WAITS) Thread.yield();
+        else LockSupport.parkNanos(PARK_NANOS);
+        return idle + 1;
+    }
+}
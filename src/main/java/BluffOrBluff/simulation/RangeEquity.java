@@ -0,0 +1,163 @@
+package BluffOrBluff.simulation;
+
+import BluffOrBluff.model.FastHandEvaluator;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Our equity against every opponent hand, together with how strong each of those hands is
+ * against a random hand. Hands are stored weakest first, so "the opponent continues with its
+ * best X%" is a suffix of the arrays and its total equity is one prefix-sum lookup.
+ *
+ * All runouts are shared by all opponent hands: one evaluation of our hand and one of each
+ * opponent hand per runout. The river has a single runout and the turn is enumerated; with
+ * more cards to come at most maxRunouts runouts are sampled.
+ */
+public final class RangeEquity {
+    private final long[] hands;
+    private final double[] equity;
+    private final double[] strength;
+    // equitySuffix[i] = sum of equity[i..]
+    private final double[] equitySuffix;
+
+    private RangeEquity(long[] hands, double[] equity, double[] strength) {
+        this.hands = hands;
+        this.equity = equity;
+        this.strength = strength;
+        this.equitySuffix = new double[hands.length + 1];
+        for (int i = hands.length - 1; i >= 0; i--) {
+            equitySuffix[i] = equitySuffix[i + 1] + equity[i];
+        }
+    }
+
+    public static RangeEquity compute(long holeMask, long boardMask, int maxRunouts, SplittableRandom random) {
+        long dead = holeMask | boardMask;
+        long[] unseen = new long[52 - Long.bitCount(dead)];
+        int size = 0;
+        for (int code = 0; code < 52; code++) {
+            long bit = FastHandEvaluator.bit(code);
+            if ((dead & bit) == 0) unseen[size++] = bit;
+        }
+        long[] candidates = new long[size * (size - 1) / 2];
+        int count = 0;
+        for (int a = 0; a < size; a++) {
+            for (int b = a + 1; b < size; b++) candidates[count++] = unseen[a] | unseen[b];
+        }
+
+        long[] runouts = runouts(unseen, 5 - Long.bitCount(boardMask), maxRunouts, random);
+        double[] wins = new double[count];
+        double[] percentiles = new double[count];
+        int[] seen = new int[count];
+        // Value in the high bits, index in the low 11: one primitive sort ranks a runout
+        long[] ranked = new long[count];
+        for (long runout : runouts) {
+            long board = boardMask | runout;
+            int mine = FastHandEvaluator.evaluate(holeMask | board);
+            int live = 0;
+            for (int i = 0; i < count; i++) {
+                if ((candidates[i] & runout) != 0) continue;
+                int theirs = FastHandEvaluator.evaluate(candidates[i] | board);
+                ranked[live++] = (long) theirs << 11 | i;
+                wins[i] += mine > theirs ? 1 : mine == theirs ? 0.5 : 0;
+                seen[i]++;
+            }
+            // Strength of each hand on this runout: share of the other live hands it beats
+            Arrays.sort(ranked, 0, live);
+            for (int start = 0; start < live; ) {
+                int end = start;
+                while (end < live && ranked[end] >>> 11 == ranked[start] >>> 11) end++;
+                double percentile = live > 1 ? (start + (end - start - 1) / 2.0) / (live - 1) : 0.5;
+                for (int k = start; k < end; k++) percentiles[(int) (ranked[k] & 0x7FF)] += percentile;
+                start = end;
+            }
+        }
+
+        Integer[] order = new Integer[count];
+        int kept = 0;
+        for (int i = 0; i < count; i++) {
+            if (seen[i] > 0) order[kept++] = i;
+        }
+        double[] strengthOf = new double[count];
+        for (int i = 0; i < count; i++) strengthOf[i] = seen[i] == 0 ? 0 : percentiles[i] / seen[i];
+        Arrays.sort(order, 0, kept, (x, y) -> Double.compare(strengthOf[x], strengthOf[y]));
+
+        long[] hands = new long[kept];
+        double[] equity = new double[kept];
+        double[] strength = new double[kept];
+        for (int k = 0; k < kept; k++) {
+            int i = order[k];
+            hands[k] = candidates[i];
+            equity[k] = wins[i] / seen[i];
+            strength[k] = strengthOf[i];
+        }
+        return new RangeEquity(hands, equity, strength);
+    }
+
+    private static long[] runouts(long[] unseen, int missing, int maxRunouts, SplittableRandom random) {
+        int size = unseen.length;
+        if (missing == 0) return new long[]{0};
+        if (missing == 1) return unseen.clone();
+        if (missing == 2 && size * (size - 1) / 2 <= maxRunouts) {
+            long[] all = new long[size * (size - 1) / 2];
+            int n = 0;
+            for (int a = 0; a < size; a++) {
+                for (int b = a + 1; b < size; b++) all[n++] = unseen[a] | unseen[b];
+            }
+            return all;
+        }
+        long[] deck = unseen.clone();
+        long[] sampled = new long[maxRunouts];
+        for (int r = 0; r < maxRunouts; r++) {
+            long runout = 0;
+            for (int i = 0; i < missing; i++) {
+                int j = i + random.nextInt(size - i);
+                long card = deck[j];
+                deck[j] = deck[i];
+                deck[i] = card;
+                runout |= card;
+            }
+            sampled[r] = runout;
+        }
+        return sampled;
+    }
+
+    /**
+     * Number of opponent hands, weakest first
+     */
+    public int size() {
+        return hands.length;
+    }
+
+    public long getHand(int index) {
+        return hands[index];
+    }
+
+    /**
+     * Our showdown equity against the hand at index
+     */
+    public double getEquity(int index) {
+        return equity[index];
+    }
+
+    /**
+     * The opponent hand's equity against a random hand, between 0 and 1
+     */
+    public double getStrength(int index) {
+        return strength[index];
+    }
+
+    /**
+     * Sum of our equity against the hands from index on (the strongest size() - index hands)
+     */
+    public double equitySum(int from) {
+        return equitySuffix[from];
+    }
+
+    /**
+     * Our equity against the whole range
+     */
+    public double getEquity() {
+        return hands.length == 0 ? 0 : equitySuffix[0] / hands.length;
+    }
+}
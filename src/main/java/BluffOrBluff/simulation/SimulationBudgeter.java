@@ -0,0 +1,305 @@
+package BluffOrBluff.simulation;
+
+import BluffOrBluff.metrics.Counter;
+import BluffOrBluff.metrics.EquityEstimateEvent;
+import BluffOrBluff.metrics.Metrics;
+import BluffOrBluff.model.Card;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Picks how to estimate equity for one AI decision: reuse a cached answer, enumerate every
+ * remaining combination exactly, or sample until the difficulty's accuracy is reached.
+ *
+ * The choice comes from a cost model (nanoseconds of CPU per sample and per enumerated
+ * combination) that starts from rough priors and is corrected after every run, so the
+ * budgeter adapts to the machine it runs on. On the river exact enumeration (990 hands)
+ * is far cheaper than the 17000 samples the old fixed schedule used.
+ */
+public class SimulationBudgeter {
+    public enum Strategy { CACHE, EXACT, SAMPLE }
+
+    /**
+     * The budgeter's decision for one estimate
+     */
+    public static final class Plan {
+        private final Strategy strategy;
+        private final int samples;
+        private final double targetError;
+        private final long predictedNanos;
+        private final Double cachedEquity;
+
+        Plan(Strategy strategy, int samples, double targetError, long predictedNanos, Double cachedEquity) {
+            this.strategy = strategy;
+            this.samples = samples;
+            this.targetError = targetError;
+            this.predictedNanos = predictedNanos;
+            this.cachedEquity = cachedEquity;
+        }
+
+        public Strategy getStrategy() {
+            return strategy;
+        }
+
+        /**
+         * Upper bound on samples; sampling stops earlier once targetError is reached
+         */
+        public int getSamples() {
+            return samples;
+        }
+
+        public double getTargetError() {
+            return targetError;
+        }
+
+        /**
+         * Expected wall-clock time of the plan at the current load
+         */
+        public long getPredictedNanos() {
+            return predictedNanos;
+        }
+
+        /**
+         * The cached answer of a CACHE plan, otherwise null
+         */
+        public Double getCachedEquity() {
+            return cachedEquity;
+        }
+
+        @Override
+        public String toString() {
+            return strategy + (strategy == Strategy.SAMPLE ? " x" + samples : "")
+                    + String.format(" (±%.4f, ~%dus)", targetError, predictedNanos / 1000);
+        }
+    }
+
+    private static final SimulationBudgeter SHARED = new SimulationBudgeter();
+
+    private static final double Z_95 = 1.96;
+    // 95% error bound each difficulty had with the old fixed schedule, indexed by difficulty:
+    // 1000 samples for Beginner, estimateWithConfidence(0.02) for Normal, ~11000 for Expert
+    private static final double[] TARGET_ERROR = {0.031, 0.031, 0.02, 0.0095};
+    private static final long MAX_DECISION_NANOS = TimeUnit.MILLISECONDS.toNanos(750);
+    // Fewest samples any estimate plays
+    static final int MIN_SAMPLES = 300;
+    private static final int PUBLISH_INTERVAL = 250;
+    // Sampling plans cheaper than this run on the caller's thread: handing them to the pool
+    // and polling for the result would take longer than the samples themselves
+    private static final long INLINE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final double COST_SMOOTHING = 0.2;
+    private static final long LOAD_REFRESH_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private static final Counter CACHE_PLANS = Metrics.counter("budget.plan.cache");
+    private static final Counter EXACT_PLANS = Metrics.counter("budget.plan.exact");
+    private static final Counter SAMPLE_PLANS = Metrics.counter("budget.plan.sample");
+    private static final Counter BATCH_PLANS = Metrics.counter("budget.plan.batch");
+
+    private final OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+    private final int cpus = Runtime.getRuntime().availableProcessors();
+
+    // Cost model, smoothed over observed runs: CPU nanoseconds per sample, and wall-clock
+    // nanoseconds per enumerated combination (the parallel stream's speed-up is in the figure)
+    private volatile double nanosPerSample = 15_000;
+    private volatile double nanosPerCombination = 5_000;
+
+    private volatile double effectiveParallelism = 1;
+    private volatile long loadReadAt = Long.MIN_VALUE;
+
+    public static SimulationBudgeter shared() {
+        return SHARED;
+    }
+
+    /**
+     * 95% error bound an estimate must reach for the given difficulty
+     */
+    public static double targetErrorFor(int difficulty) {
+        return TARGET_ERROR[Math.max(1, Math.min(difficulty, 3))];
+    }
+
+    /**
+     * Worst-case (equity = 0.5) sample count for a 95% error bound of targetError
+     */
+    static int samplesFor(double targetError) {
+        return (int) Math.ceil(Z_95 * Z_95 * 0.25 / (targetError * targetError));
+    }
+
+    public Plan plan(int difficulty, MonteCarloSimulator simulator) {
+        double targetError = targetErrorFor(difficulty);
+        Double cached = simulator.getCachedEstimate();
+        if (cached != null) {
+            return new Plan(Strategy.CACHE, 0, 0, 0, cached);
+        }
+
+        double parallelism = currentParallelism();
+        int samples = samplesFor(targetError);
+        double sampleNanos = samples * nanosPerSample;
+
+        if (simulator.getKnownCommunityCardCount() >= 3) {
+            double exactNanos = simulator.remainingCombinations() * nanosPerCombination;
+            if (exactNanos <= sampleNanos / parallelism) {
+                return new Plan(Strategy.EXACT, 0, 0, (long) exactNanos, null);
+            }
+        }
+
+        // Under heavy load give up some accuracy rather than stall the table
+        double predicted = sampleNanos / parallelism;
+        if (predicted > MAX_DECISION_NANOS) {
+            samples = Math.max(MIN_SAMPLES, (int) (MAX_DECISION_NANOS * parallelism / nanosPerSample));
+            predicted = samples * nanosPerSample / parallelism;
+        }
+        return new Plan(Strategy.SAMPLE, samples, targetError, (long) predicted, null);
+    }
+
+    /**
+     * Plans and runs an equity estimate, feeding the measured cost back into the model
+     */
+    public double estimate(int difficulty, List<Card> playerCards, List<Card> communityCards) {
+        EquityEstimateEvent event = new EquityEstimateEvent();
+        event.begin();
+        MonteCarloSimulator simulator = new MonteCarloSimulator(playerCards, communityCards);
+        Plan plan = plan(difficulty, simulator);
+
+        switch (plan.getStrategy()) {
+            case CACHE -> {
+                if (Metrics.ENABLED) CACHE_PLANS.increment();
+                simulator.commitEstimate(event, "cache", 0, true, plan.cachedEquity);
+                return plan.cachedEquity;
+            }
+            case EXACT -> {
+                if (Metrics.ENABLED) EXACT_PLANS.increment();
+                long start = System.nanoTime();
+                double equity = simulator.exactWinProbability();
+                nanosPerCombination = observe(nanosPerCombination, System.nanoTime() - start, 1,
+                        simulator.remainingCombinations());
+                return equity;
+            }
+            default -> {
+                if (Metrics.ENABLED) SAMPLE_PLANS.increment();
+                MonteCarloSimulator sampler = new MonteCarloSimulator(playerCards, communityCards, plan.getSamples());
+                long start = System.nanoTime();
+                EquitySnapshot snapshot;
+                if (plan.getSamples() * nanosPerSample <= INLINE_NANOS) {
+                    long metricsStart = Metrics.start();
+                    long[] counts = MonteCarloSimulator.countSamples(sampler.getHoleMask(), sampler.getBoardMask(),
+                            plan.getSamples(), ThreadLocalRandom.current());
+                    snapshot = EquitySnapshot.EMPTY.plus(plan.getSamples(), (int) counts[0], (int) counts[1]);
+                    if (Metrics.ENABLED) MonteCarloSimulator.recordRun(metricsStart, plan.getSamples());
+                    sampler.commitEstimate(event, "inline", snapshot.getSamples(), false, snapshot.getEquity());
+                    nanosPerSample = observe(nanosPerSample, System.nanoTime() - start, 1, snapshot.getSamples());
+                } else {
+                    StreamingSimulation run = sampler.stream(PUBLISH_INTERVAL);
+                    snapshot = run.awaitErrorBound(plan.getTargetError(),
+                            TimeUnit.NANOSECONDS.toMillis(2 * MAX_DECISION_NANOS));
+                    run.cancel();
+                    nanosPerSample = observe(nanosPerSample, System.nanoTime() - start, effectiveParallelism,
+                            snapshot.getSamples());
+                    if (snapshot.getSamples() < MIN_SAMPLES) {
+                        // Timed out with the pool too busy to get anywhere: take an answer another
+                        // table cached meanwhile, or play the minimum here, rather than guess
+                        Double cached = simulator.getCachedEstimate();
+                        if (cached != null) return cached;
+                        int missing = MIN_SAMPLES - snapshot.getSamples();
+                        long[] counts = MonteCarloSimulator.countSamples(sampler.getHoleMask(), sampler.getBoardMask(),
+                                missing, ThreadLocalRandom.current());
+                        snapshot = snapshot.plus(missing, (int) counts[0], (int) counts[1]);
+                    }
+                }
+
+                // Good enough for every difficulty, so later decisions can skip the work
+                if (snapshot.getErrorBound() <= TARGET_ERROR[3]) {
+                    sampler.cacheResult(snapshot.getEquity());
+                }
+                return snapshot.getEquity();
+            }
+        }
+    }
+
+    /**
+     * Like estimate(), for many spots at once. Cached spots are answered from the cache and
+     * all the others share one BatchEquity run; the cost model is left alone.
+     * @return one equity per spot, in order
+     */
+    public double[] estimateAll(List<List<Card>> playerCards, List<List<Card>> communityCards, int[] difficulties,
+                                long seed) {
+        int count = playerCards.size();
+        double[] equities = new double[count];
+        List<Integer> missing = new ArrayList<>();
+        MonteCarloSimulator[] simulators = new MonteCarloSimulator[count];
+        for (int i = 0; i < count; i++) {
+            EquityEstimateEvent event = new EquityEstimateEvent();
+            event.begin();
+            simulators[i] = new MonteCarloSimulator(playerCards.get(i), communityCards.get(i));
+            Double cached = simulators[i].getCachedEstimate();
+            if (cached != null) {
+                if (Metrics.ENABLED) CACHE_PLANS.increment();
+                simulators[i].commitEstimate(event, "cache", 0, true, cached);
+                equities[i] = cached;
+            } else {
+                missing.add(i);
+            }
+        }
+        if (missing.isEmpty()) return equities;
+
+        long[] holes = new long[missing.size()];
+        long[] boards = new long[missing.size()];
+        int[] levels = new int[missing.size()];
+        for (int m = 0; m < holes.length; m++) {
+            int i = missing.get(m);
+            holes[m] = simulators[i].getHoleMask();
+            boards[m] = simulators[i].getBoardMask();
+            levels[m] = difficulties[i];
+        }
+        if (Metrics.ENABLED) BATCH_PLANS.add(holes.length);
+        EquityEstimateEvent[] events = new EquityEstimateEvent[holes.length];
+        for (int m = 0; m < events.length; m++) {
+            events[m] = new EquityEstimateEvent();
+            events[m].begin();
+        }
+        EquitySnapshot[] results = BatchEquity.estimate(holes, boards, levels, seed);
+        for (int m = 0; m < results.length; m++) {
+            int i = missing.get(m);
+            equities[i] = results[m].getEquity();
+            simulators[i].commitEstimate(events[m], "batch", results[m].getSamples(), false, equities[i]);
+            // Good enough for every difficulty, so later decisions can skip the work
+            if (results[m].getErrorBound() <= TARGET_ERROR[3]) {
+                simulators[i].cacheResult(equities[i]);
+            }
+        }
+        return equities;
+    }
+
+    private double observe(double current, long wallNanos, double parallelism, long units) {
+        if (units <= 0) return current;
+        double cpuNanosPerUnit = wallNanos * parallelism / units;
+        return current + COST_SMOOTHING * (cpuNanosPerUnit - current);
+    }
+
+    /**
+     * Cores the simulation can expect to get, from the pool size and the system load average
+     */
+    private double currentParallelism() {
+        long now = System.nanoTime();
+        if (now - loadReadAt > LOAD_REFRESH_NANOS) {
+            int poolSize = Math.min(cpus, ForkJoinPool.getCommonPoolParallelism());
+            double load = os.getSystemLoadAverage(); // negative when the platform can't tell
+            double idle = load < 0 ? poolSize : cpus - load;
+            effectiveParallelism = Math.max(1.0, Math.min(poolSize, idle));
+            loadReadAt = now;
+        }
+        return effectiveParallelism;
+    }
+
+    public double getNanosPerSample() {
+        return nanosPerSample;
+    }
+
+    public double getNanosPerCombination() {
+        return nanosPerCombination;
+    }
+}
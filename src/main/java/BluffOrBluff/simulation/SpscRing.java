@@ -0,0 +1,128 @@
+package BluffOrBluff.simulation;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Bounded single-producer/single-consumer ring of fixed-width slots of longs, all allocated up
+ * front. The producer writes slots in place and publishes them by moving the tail with a
+ * release store; the consumer reads everything up to the tail and hands the slots back by
+ * moving the head the same way. No locks and no CAS: each index has exactly one writer.
+ *
+ * Each side caches the other side's index and only re-reads it when the cached value says the
+ * ring is full (or empty), so in steady state the two threads do not share a cache line.
+ * A full ring is the pipeline's backpressure: freeSlots() returns 0 until the consumer catches
+ * up.
+ */
+final class SpscRing {
+    private static final VarHandle INDEX = MethodHandles.arrayElementVarHandle(long[].class);
+    // head and tail sit 128 bytes apart (and away from the array header) to avoid false sharing
+    private static final int HEAD = 16;
+    private static final int TAIL = 32;
+
+    private final long[] slots;
+    private final int width;
+    private final int mask;
+    private final int capacity;
+    private final long[] indices = new long[TAIL + 16];
+
+    // Producer side only
+    private long tail;
+    private long cachedHead;
+    // Consumer side only
+    private long head;
+    private long cachedTail;
+
+    private volatile boolean closed;
+
+    /**
+     * @param capacity number of slots, rounded up to a power of two
+     * @param width    longs per slot
+     */
+    SpscRing(int capacity, int width) {
+        if (capacity < 1 || width < 1) throw new IllegalArgumentException("capacity and width must be positive");
+        int rounded = 1;
+        while (rounded < capacity) rounded <<= 1;
+        this.capacity = rounded;
+        this.mask = rounded - 1;
+        this.width = width;
+        this.slots = new long[this.capacity * width];
+    }
+
+    long[] slots() {
+        return slots;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Producer: slots that can be written right now, at writeOffset(0) .. writeOffset(n - 1)
+     */
+    int freeSlots() {
+        long free = capacity - (tail - cachedHead);
+        if (free == 0) {
+            cachedHead = (long) INDEX.getAcquire(indices, HEAD);
+            free = capacity - (tail - cachedHead);
+        }
+        return (int) free;
+    }
+
+    /**
+     * Producer: index in slots() of the i-th free slot
+     */
+    int writeOffset(int i) {
+        return (int) ((tail + i) & mask) * width;
+    }
+
+    /**
+     * Producer: makes the next count written slots visible to the consumer
+     */
+    void publish(int count) {
+        tail += count;
+        INDEX.setRelease(indices, TAIL, tail);
+    }
+
+    /**
+     * Producer: no more slots will be published
+     */
+    void close() {
+        closed = true;
+    }
+
+    /**
+     * Consumer: published slots not read yet, at readOffset(0) .. readOffset(n - 1)
+     */
+    int availableSlots() {
+        long available = cachedTail - head;
+        if (available == 0) {
+            cachedTail = (long) INDEX.getAcquire(indices, TAIL);
+            available = cachedTail - head;
+        }
+        return (int) available;
+    }
+
+    /**
+     * Consumer: index in slots() of the i-th available slot
+     */
+    int readOffset(int i) {
+        return (int) ((head + i) & mask) * width;
+    }
+
+    /**
+     * Consumer: gives the next count read slots back to the producer
+     */
+    void release(int count) {
+        head += count;
+        INDEX.setRelease(indices, HEAD, head);
+    }
+
+    /**
+     * Consumer: true once the producer has closed the ring and every slot has been read
+     */
+    boolean isDrained() {
+        // Read closed before the tail, so a slot published just before close() is not missed
+        return closed && availableSlots() == 0;
+    }
+}
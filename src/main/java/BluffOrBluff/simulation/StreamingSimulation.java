@@ -0,0 +1,151 @@
+package BluffOrBluff.simulation;
+
+import BluffOrBluff.metrics.EquityEstimateEvent;
+import BluffOrBluff.metrics.Metrics;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A Monte Carlo run that keeps going in the background and publishes partial results.
+ * Workers claim chunks of publishInterval samples and fold their counts into the shared
+ * snapshot with a CAS, so readers never block and never see a half-updated result.
+ */
+public class StreamingSimulation {
+    // Don't trust an error bound computed from only a handful of samples
+    private static final int MIN_SAMPLES_FOR_BOUND = 200;
+    private static final long POLL_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    private final MonteCarloSimulator simulator;
+    private final int totalSamples;
+    private final int publishInterval;
+    private final long hole;
+    private final long board;
+
+    private final AtomicReference<EquitySnapshot> latest = new AtomicReference<>(EquitySnapshot.EMPTY);
+    private final AtomicInteger claimed = new AtomicInteger(0);
+    private final AtomicInteger runningWorkers = new AtomicInteger(0);
+    private final CompletableFuture<EquitySnapshot> completion = new CompletableFuture<>();
+    private volatile boolean cancelled;
+    private long startNanos;
+    private final EquityEstimateEvent event = new EquityEstimateEvent();
+
+    StreamingSimulation(MonteCarloSimulator simulator, int publishInterval) {
+        if (publishInterval <= 0) {
+            throw new IllegalArgumentException("Publish interval must be positive");
+        }
+        this.simulator = simulator;
+        this.totalSamples = simulator.getSimulationCount();
+        this.publishInterval = publishInterval;
+        this.hole = simulator.getHoleMask();
+        this.board = simulator.getBoardMask();
+    }
+
+    StreamingSimulation start() {
+        startNanos = Metrics.start();
+        event.begin();
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int chunks = (totalSamples + publishInterval - 1) / publishInterval;
+        int workers = Math.max(1, Math.min(pool.getParallelism(), chunks));
+        runningWorkers.set(workers);
+        for (int i = 0; i < workers; i++) {
+            pool.execute(this::work);
+        }
+        return this;
+    }
+
+    private void work() {
+        try {
+            while (!cancelled) {
+                int start = claimed.getAndAdd(publishInterval);
+                if (start >= totalSamples) break;
+                int count = Math.min(publishInterval, totalSamples - start);
+
+                long[] counts = MonteCarloSimulator.countSamples(hole, board, count, ThreadLocalRandom.current());
+                int chunkWins = (int) counts[0], chunkTies = (int) counts[1];
+                latest.updateAndGet(snapshot -> snapshot.plus(count, chunkWins, chunkTies));
+            }
+        } finally {
+            if (runningWorkers.decrementAndGet() == 0) {
+                finish();
+            }
+        }
+    }
+
+    private void finish() {
+        EquitySnapshot result = latest.updateAndGet(EquitySnapshot::finished);
+        if (Metrics.ENABLED) MonteCarloSimulator.recordRun(startNanos, result.getSamples());
+        simulator.commitEstimate(event, "streaming", result.getSamples(), false, result.getEquity());
+        // Only full runs are as good as a blocking estimate, so only those go into the cache
+        if (!cancelled && result.getSamples() >= 5000) {
+            simulator.cacheResult(result.getEquity());
+        }
+        completion.complete(result);
+    }
+
+    /**
+     * Most recently published snapshot, never null
+     */
+    public EquitySnapshot latest() {
+        return latest.get();
+    }
+
+    /**
+     * Stops the workers after their current chunk; the final snapshot keeps what was played
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public boolean isDone() {
+        return completion.isDone();
+    }
+
+    /**
+     * Completes with the final snapshot once all workers have stopped
+     */
+    public CompletableFuture<EquitySnapshot> completion() {
+        return completion;
+    }
+
+    /**
+     * Waits until the error bound drops to maxError, the run finishes, or the timeout passes.
+     * The simulation keeps running afterwards unless the caller cancels it.
+     */
+    public EquitySnapshot awaitErrorBound(double maxError, long timeoutMillis) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (true) {
+            EquitySnapshot snapshot = latest.get();
+            if (snapshot.isComplete()) return snapshot;
+            if (snapshot.getSamples() >= MIN_SAMPLES_FOR_BOUND && snapshot.getErrorBound() <= maxError) {
+                return snapshot;
+            }
+            if (System.nanoTime() >= deadline) return snapshot;
+            LockSupport.parkNanos(POLL_NANOS);
+        }
+    }
+
+    /**
+     * Blocks until every sample has been played (or the run was cancelled)
+     */
+    public EquitySnapshot awaitCompletion() {
+        try {
+            return completion.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return latest.get();
+        } catch (ExecutionException e) {
+            return latest.get();
+        }
+    }
+}
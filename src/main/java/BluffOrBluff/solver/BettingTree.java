@@ -0,0 +1,230 @@
+package BluffOrBluff.solver;
+
+import BluffOrBluff.model.BettingAction;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Betting abstraction of one street as RoundManager plays it: the human (FIRST) always acts
+ * first, the AI (SECOND) answers, every bet or raise has the same fixed size and either
+ * player can move all-in. The street ends on check-check, a call or a fold.
+ *
+ * Building the tree is deterministic, so node ids are stable for the same parameters and a
+ * strategy table only has to store the parameters, not the tree.
+ */
+public class BettingTree {
+    public static final int FIRST = 0;
+    public static final int SECOND = 1;
+
+    private final int pot;
+    private final int stack;
+    private final int betSize;
+    private final int maxRaises;
+    private final List<Node> nodes = new ArrayList<>();
+    private final List<Node> decisionNodes = new ArrayList<>();
+    private final Node root;
+
+    /**
+     * @param pot       pot at the start of the street, split evenly between the players
+     * @param stack     chips each player has behind at the start of the street
+     * @param betSize   size of a bet and of every raise increment
+     * @param maxRaises bets + raises allowed on the street before only calls and all-ins remain
+     */
+    public BettingTree(int pot, int stack, int betSize, int maxRaises) {
+        if (pot <= 0 || stack <= 0 || betSize <= 0 || maxRaises < 1) {
+            throw new IllegalArgumentException("Invalid betting tree parameters");
+        }
+        this.pot = pot;
+        this.stack = stack;
+        this.betSize = betSize;
+        this.maxRaises = maxRaises;
+        this.root = build(FIRST, 0, 0, 0, false);
+    }
+
+    public static final class Node {
+        private final int id;
+        private final int player;       // FIRST/SECOND, or -1 for a terminal node
+        private final int[] contributed; // chips each player put in on this street
+        private final int folded;       // player who folded, or -1
+        private final List<BettingAction> actions = new ArrayList<>();
+        private final List<Node> children = new ArrayList<>();
+        private int decisionIndex = -1;
+
+        private Node(int id, int player, int contributed0, int contributed1, int folded) {
+            this.id = id;
+            this.player = player;
+            this.contributed = new int[] {contributed0, contributed1};
+            this.folded = folded;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public int getPlayer() {
+            return player;
+        }
+
+        public boolean isTerminal() {
+            return player < 0;
+        }
+
+        public boolean isFold() {
+            return folded >= 0;
+        }
+
+        public int getFolded() {
+            return folded;
+        }
+
+        public int getContributed(int player) {
+            return contributed[player];
+        }
+
+        /**
+         * Index among the decision nodes, used to address regrets and strategies
+         */
+        public int getDecisionIndex() {
+            return decisionIndex;
+        }
+
+        public List<BettingAction> getActions() {
+            return Collections.unmodifiableList(actions);
+        }
+
+        public int actionCount() {
+            return actions.size();
+        }
+
+        public BettingAction getAction(int index) {
+            return actions.get(index);
+        }
+
+        public Node getChild(int index) {
+            return children.get(index);
+        }
+
+        /**
+         * Child reached by a game action, mapping BET and RAISE onto whichever of the two
+         * this node offers; null if the action is not part of the abstraction here
+         */
+        public Node follow(BettingAction action) {
+            int index = actions.indexOf(action);
+            if (index < 0 && action == BettingAction.RAISE) index = actions.indexOf(BettingAction.BET);
+            if (index < 0 && action == BettingAction.BET) index = actions.indexOf(BettingAction.RAISE);
+            if (index < 0 && action == BettingAction.CALL) index = actions.indexOf(BettingAction.CHECK);
+            if (index < 0 && action == BettingAction.CHECK) index = actions.indexOf(BettingAction.CALL);
+            return index < 0 ? null : children.get(index);
+        }
+    }
+
+    private Node build(int player, int mine, int theirs, int raises, boolean opponentAllIn) {
+        int[] contributed = new int[2];
+        contributed[player] = mine;
+        contributed[1 - player] = theirs;
+        Node node = new Node(nodes.size(), player, contributed[0], contributed[1], -1);
+        node.decisionIndex = decisionNodes.size();
+        nodes.add(node);
+        decisionNodes.add(node);
+
+        int opponent = 1 - player;
+        int behind = stack - mine;
+        if (mine == theirs) {
+            // Not facing a bet. A second check closes the street.
+            add(node, BettingAction.CHECK, player == SECOND
+                    ? terminal(contributed[0], contributed[1], -1)
+                    : build(opponent, theirs, mine, raises, false));
+            if (betSize < behind) {
+                add(node, BettingAction.BET, build(opponent, theirs, mine + betSize, raises + 1, false));
+            }
+            add(node, BettingAction.ALL_IN, build(opponent, theirs, stack, raises + 1, true));
+        } else {
+            add(node, BettingAction.FOLD, terminal(contributed[0], contributed[1], player));
+            int called = Math.min(theirs, stack);
+            int[] afterCall = contributed.clone();
+            afterCall[player] = called;
+            add(node, BettingAction.CALL, terminal(afterCall[0], afterCall[1], -1));
+            if (!opponentAllIn) {
+                int raiseTo = theirs + betSize;
+                if (raises < maxRaises && raiseTo < stack) {
+                    add(node, BettingAction.RAISE, build(opponent, theirs, raiseTo, raises + 1, false));
+                }
+                if (stack > theirs) {
+                    add(node, BettingAction.ALL_IN, build(opponent, theirs, stack, raises + 1, true));
+                }
+            }
+        }
+        return node;
+    }
+
+    private Node terminal(int contributed0, int contributed1, int folded) {
+        Node node = new Node(nodes.size(), -1, contributed0, contributed1, folded);
+        nodes.add(node);
+        return node;
+    }
+
+    private static void add(Node node, BettingAction action, Node child) {
+        node.actions.add(action);
+        node.children.add(child);
+    }
+
+    /**
+     * Node reached by a sequence of game actions from the start of the street, or null
+     * when the sequence leaves the abstraction
+     */
+    public Node find(List<BettingAction> history) {
+        Node node = root;
+        for (BettingAction action : history) {
+            if (node.isTerminal()) return null;
+            node = node.follow(action);
+            if (node == null) return null;
+        }
+        return node;
+    }
+
+    /**
+     * Payoff to {@code player} at a terminal node, given the probability that player wins a showdown
+     */
+    public double payoff(Node node, int player, double winProbability) {
+        double invested = pot / 2.0 + node.contributed[player];
+        if (node.isFold()) {
+            double opponentInvested = pot / 2.0 + node.contributed[1 - player];
+            return node.folded == player ? -invested : opponentInvested;
+        }
+        return (2 * winProbability - 1) * invested;
+    }
+
+    public Node getRoot() {
+        return root;
+    }
+
+    public int decisionNodeCount() {
+        return decisionNodes.size();
+    }
+
+    public Node getDecisionNode(int decisionIndex) {
+        return decisionNodes.get(decisionIndex);
+    }
+
+    public int nodeCount() {
+        return nodes.size();
+    }
+
+    public int getPot() {
+        return pot;
+    }
+
+    public int getStack() {
+        return stack;
+    }
+
+    public int getBetSize() {
+        return betSize;
+    }
+
+    public int getMaxRaises() {
+        return maxRaises;
+    }
+}
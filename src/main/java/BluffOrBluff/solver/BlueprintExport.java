@@ -0,0 +1,95 @@
+package BluffOrBluff.solver;
+
+import BluffOrBluff.blueprint.BlueprintRegistry;
+import BluffOrBluff.blueprint.BlueprintWriter;
+import BluffOrBluff.logic.RoundStage;
+import BluffOrBluff.model.BettingAction;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Solves every post-flop street at several starting pots and writes the AI's strategies as a
+ * blueprint file. Different pots make the same betting sequence face different pot odds,
+ * which is what fills the blueprint's pot-odds dimension.
+ *
+ * Usage: BlueprintExport [--out file] [--pots 100,200,...] [--iterations N] [--buckets B]
+ *                        [--hands N] [--stack S] [--bet B] [--raises R]
+ */
+public class BlueprintExport {
+    private static final int HISTORIES = 4;
+    private static final int POT_ODDS_BUCKETS = 8;
+
+    public static void main(String[] args) {
+        Path out = Paths.get(BlueprintRegistry.DEFAULT_FILE);
+        int[] pots = {100, 200, 300, 500, 800, 1200};
+        int iterations = 2000;
+        int buckets = 20;
+        int hands = 2000;
+        int stack = 1000;
+        int bet = 150;
+        int raises = 3;
+        try {
+            for (int i = 0; i + 1 < args.length; i += 2) {
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--out" -> out = Paths.get(value);
+                    case "--pots" -> pots = Arrays.stream(value.split(",")).mapToInt(Integer::parseInt).toArray();
+                    case "--iterations" -> iterations = Integer.parseInt(value);
+                    case "--buckets" -> buckets = Integer.parseInt(value);
+                    case "--hands" -> hands = Integer.parseInt(value);
+                    case "--stack" -> stack = Integer.parseInt(value);
+                    case "--bet" -> bet = Integer.parseInt(value);
+                    case "--raises" -> raises = Integer.parseInt(value);
+                    default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+
+            BlueprintWriter writer = new BlueprintWriter(HISTORIES, POT_ODDS_BUCKETS, buckets);
+            long start = System.nanoTime();
+            for (RoundStage stage : StrategyTable.STAGES) {
+                BucketModel model = BucketModel.estimate(stage, buckets, hands, 200, new Random(stage.ordinal()));
+                for (int pot : pots) {
+                    CfrSolver solver = new CfrSolver(new BettingTree(pot, stack, bet, raises), model);
+                    solver.iterate(iterations);
+                    System.out.printf("%s pot %d: exploitability %.2f chips%n", stage, pot, solver.exploitability());
+                    export(writer, stage, solver, solver.getTree().getRoot(), 0);
+                }
+            }
+            writer.write(out);
+            System.out.println("Blueprint written to " + out + " (" + Files.size(out) + " bytes) in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms");
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Adds the AI's average strategy at every node below this one to the writer
+     */
+    static void export(BlueprintWriter writer, RoundStage stage, CfrSolver solver, BettingTree.Node node, int aggressive) {
+        if (node.isTerminal()) return;
+        BettingTree tree = solver.getTree();
+        if (node.getPlayer() == BettingTree.SECOND) {
+            int toCall = node.getContributed(BettingTree.FIRST) - node.getContributed(BettingTree.SECOND);
+            int pot = tree.getPot() + node.getContributed(BettingTree.FIRST) + node.getContributed(BettingTree.SECOND);
+            for (int bucket = 0; bucket < writer.getHandBuckets(); bucket++) {
+                double[] strategy = solver.averageStrategy(node.getDecisionIndex(), bucket);
+                double[] byAction = new double[BettingAction.values().length];
+                for (int a = 0; a < strategy.length; a++) {
+                    byAction[node.getAction(a).ordinal()] = strategy[a];
+                }
+                writer.add(stage, aggressive, toCall, pot, bucket, byAction);
+            }
+        }
+        for (int a = 0; a < node.actionCount(); a++) {
+            BettingAction action = node.getAction(a);
+            boolean raises = action == BettingAction.BET || action == BettingAction.RAISE || action == BettingAction.ALL_IN;
+            export(writer, stage, solver, node.getChild(a), aggressive + (raises ? 1 : 0));
+        }
+    }
+}
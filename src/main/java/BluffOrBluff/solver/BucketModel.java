@@ -0,0 +1,181 @@
+package BluffOrBluff.solver;
+
+import BluffOrBluff.logic.RoundStage;
+import BluffOrBluff.model.Card;
+import BluffOrBluff.model.HandEvaluator;
+import BluffOrBluff.model.HandRank;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Card abstraction for the solver. A hand is put in bucket floor(equity * buckets), where
+ * equity is its win probability against a random hand - the same number PokerAI already
+ * computes - so the AI can find its bucket at the table without extra work.
+ *
+ * The model holds how likely each bucket is and how often bucket a beats bucket b. The
+ * matchup is approximated from the buckets' mean equities (Bradley-Terry), which ignores
+ * card removal between the two hands but keeps the ordering and the spread right.
+ */
+public class BucketModel {
+    private final int buckets;
+    private final double[] prior;
+    private final double[][] win;
+
+    public BucketModel(double[] prior, double[] meanEquity) {
+        this.buckets = prior.length;
+        this.prior = prior.clone();
+        this.win = new double[buckets][buckets];
+        for (int a = 0; a < buckets; a++) {
+            for (int b = 0; b < buckets; b++) {
+                double strong = meanEquity[a] * (1 - meanEquity[b]);
+                double weak = meanEquity[b] * (1 - meanEquity[a]);
+                win[a][b] = strong + weak == 0 ? 0.5 : strong / (strong + weak);
+            }
+        }
+    }
+
+    /**
+     * Every bucket equally likely, equities at the bucket midpoints
+     */
+    public static BucketModel uniform(int buckets) {
+        double[] prior = new double[buckets];
+        double[] equity = new double[buckets];
+        for (int i = 0; i < buckets; i++) {
+            prior[i] = 1.0 / buckets;
+            equity[i] = (i + 0.5) / buckets;
+        }
+        return new BucketModel(prior, equity);
+    }
+
+    /**
+     * Measures the bucket distribution on a street by dealing random hands and boards and
+     * estimating each hand's equity with {@code samplesPerHand} random opponent hands and runouts
+     */
+    public static BucketModel estimate(RoundStage stage, int buckets, int hands, int samplesPerHand, Random random) {
+        int boardSize = boardSize(stage);
+        double[] count = new double[buckets];
+        double[] equitySum = new double[buckets];
+        List<Card> deck = fullDeck();
+
+        for (int h = 0; h < hands; h++) {
+            shuffle(deck, random, 2 + boardSize);
+            List<Card> hole = new ArrayList<>(deck.subList(0, 2));
+            List<Card> board = new ArrayList<>(deck.subList(2, 2 + boardSize));
+            double equity = equity(hole, board, deck, 2 + boardSize, samplesPerHand, random);
+            int bucket = bucketOf(equity, buckets);
+            count[bucket]++;
+            equitySum[bucket] += equity;
+        }
+
+        double[] prior = new double[buckets];
+        double[] meanEquity = new double[buckets];
+        for (int i = 0; i < buckets; i++) {
+            // Light smoothing so empty buckets still get a sensible strategy
+            prior[i] = (count[i] + 0.5) / (hands + 0.5 * buckets);
+            meanEquity[i] = count[i] > 0 ? equitySum[i] / count[i] : (i + 0.5) / buckets;
+        }
+        return new BucketModel(prior, meanEquity);
+    }
+
+    public static int bucketOf(double equity, int buckets) {
+        return Math.max(0, Math.min(buckets - 1, (int) (equity * buckets)));
+    }
+
+    static int boardSize(RoundStage stage) {
+        return switch (stage) {
+            case FLOP -> 3;
+            case TURN -> 4;
+            case RIVER, SHOWDOWN -> 5;
+            default -> 0;
+        };
+    }
+
+    private static double equity(List<Card> hole, List<Card> board, List<Card> deck, int used,
+                                 int samples, Random random) {
+        int missing = 5 - board.size();
+        double score = 0;
+        List<Card> mine = new ArrayList<>(7);
+        List<Card> theirs = new ArrayList<>(7);
+        for (int s = 0; s < samples; s++) {
+            // Draw the opponent's cards and the runout from the part of the deck not yet dealt
+            for (int i = 0; i < 2 + missing; i++) {
+                int j = used + i + random.nextInt(deck.size() - used - i);
+                Card tmp = deck.get(used + i);
+                deck.set(used + i, deck.get(j));
+                deck.set(j, tmp);
+            }
+            mine.clear();
+            theirs.clear();
+            mine.addAll(hole);
+            mine.addAll(board);
+            theirs.add(deck.get(used));
+            theirs.add(deck.get(used + 1));
+            theirs.addAll(board);
+            for (int i = 0; i < missing; i++) {
+                Card card = deck.get(used + 2 + i);
+                mine.add(card);
+                theirs.add(card);
+            }
+            HandRank myRank = HandEvaluator.evaluateHand(mine);
+            int comparison = myRank.compareTo(HandEvaluator.evaluateHand(theirs));
+            score += comparison > 0 ? 1 : comparison == 0 ? 0.5 : 0;
+        }
+        return score / samples;
+    }
+
+    private static List<Card> fullDeck() {
+        List<Card> deck = new ArrayList<>(52);
+        for (Card.Suit suit : Card.Suit.values()) {
+            for (Card.Rank rank : Card.Rank.values()) {
+                deck.add(new Card(rank, suit));
+            }
+        }
+        return deck;
+    }
+
+    private static void shuffle(List<Card> deck, Random random, int count) {
+        for (int i = 0; i < count; i++) {
+            int j = i + random.nextInt(deck.size() - i);
+            Card tmp = deck.get(i);
+            deck.set(i, deck.get(j));
+            deck.set(j, tmp);
+        }
+    }
+
+    public int getBuckets() {
+        return buckets;
+    }
+
+    public double getPrior(int bucket) {
+        return prior[bucket];
+    }
+
+    /**
+     * Probability that a hand in bucket {@code a} beats one in bucket {@code b}, ties counting half
+     */
+    public double getWin(int a, int b) {
+        return win[a][b];
+    }
+
+    double[] priorArray() {
+        return prior;
+    }
+
+    double[][] winMatrix() {
+        return win;
+    }
+
+    /**
+     * Rebuilds a model from a stored prior and win matrix
+     */
+    static BucketModel of(double[] prior, double[][] win) {
+        BucketModel model = uniform(prior.length);
+        System.arraycopy(prior, 0, model.prior, 0, prior.length);
+        for (int a = 0; a < prior.length; a++) {
+            System.arraycopy(win[a], 0, model.win[a], 0, prior.length);
+        }
+        return model;
+    }
+}
@@ -0,0 +1,329 @@
+package BluffOrBluff.solver;
+
+import BluffOrBluff.logic.RoundStage;
+import BluffOrBluff.model.BettingAction;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Counterfactual regret minimization (CFR+) for one street of the heads-up game, over a
+ * BettingTree and a BucketModel.
+ *
+ * Updates alternate between the players. While one player is updated the other one's
+ * strategy is fixed, and the updating player's buckets are independent information sets,
+ * so every bucket is traversed on its own thread and only ever writes its own slice of the
+ * regret and strategy tables - no locks, no shared writes.
+ *
+ * Usage: CfrSolver [--out file] [--iterations N] [--buckets B] [--hands N]
+ *                  [--pot P] [--stack S] [--bet B] [--raises R] [--checkpoint dir]
+ */
+public class CfrSolver {
+    private static final int CHECKPOINT_MAGIC = 0x424F4346; // "BOCF"
+    private static final int CHECKPOINT_VERSION = 1;
+
+    private final BettingTree tree;
+    private final BucketModel model;
+    private final int buckets;
+    // [decision node][bucket * actions + action]
+    private final double[][] regret;
+    private final double[][] strategySum;
+    private long iterations;
+
+    public CfrSolver(BettingTree tree, BucketModel model) {
+        this.tree = tree;
+        this.model = model;
+        this.buckets = model.getBuckets();
+        this.regret = new double[tree.decisionNodeCount()][];
+        this.strategySum = new double[tree.decisionNodeCount()][];
+        for (int i = 0; i < tree.decisionNodeCount(); i++) {
+            int size = buckets * tree.getDecisionNode(i).actionCount();
+            regret[i] = new double[size];
+            strategySum[i] = new double[size];
+        }
+    }
+
+    public void iterate(int count) {
+        for (int i = 0; i < count; i++) {
+            iterations++;
+            update(BettingTree.FIRST);
+            update(BettingTree.SECOND);
+        }
+    }
+
+    private void update(int player) {
+        double[] opponentReach = model.priorArray().clone();
+        // CFR+ averaging: later iterations weigh more
+        double weight = iterations;
+        IntStream.range(0, buckets).parallel()
+                .forEach(bucket -> traverse(tree.getRoot(), player, bucket, weight, opponentReach));
+    }
+
+    /**
+     * Counterfactual value of {@code bucket} for {@code player} at this node, given the
+     * opponent's reach probability (chance included) for each of their buckets
+     */
+    private double traverse(BettingTree.Node node, int player, int bucket, double reach, double[] opponentReach) {
+        if (node.isTerminal()) {
+            return terminalValue(node, player, bucket, opponentReach);
+        }
+        int actions = node.actionCount();
+        double[] nodeRegret = regret[node.getDecisionIndex()];
+
+        if (node.getPlayer() == player) {
+            double[] strategy = new double[actions];
+            currentStrategy(nodeRegret, bucket * actions, actions, strategy);
+            double[] values = new double[actions];
+            double value = 0;
+            for (int a = 0; a < actions; a++) {
+                values[a] = traverse(node.getChild(a), player, bucket, reach * strategy[a], opponentReach);
+                value += strategy[a] * values[a];
+            }
+            double[] nodeStrategySum = strategySum[node.getDecisionIndex()];
+            int base = bucket * actions;
+            for (int a = 0; a < actions; a++) {
+                nodeRegret[base + a] = Math.max(0, nodeRegret[base + a] + values[a] - value);
+                nodeStrategySum[base + a] += reach * strategy[a];
+            }
+            return value;
+        }
+
+        double value = 0;
+        double[] strategy = new double[actions];
+        double[][] childReach = new double[actions][buckets];
+        for (int b = 0; b < buckets; b++) {
+            if (opponentReach[b] == 0) continue;
+            currentStrategy(nodeRegret, b * actions, actions, strategy);
+            for (int a = 0; a < actions; a++) {
+                childReach[a][b] = opponentReach[b] * strategy[a];
+            }
+        }
+        for (int a = 0; a < actions; a++) {
+            value += traverse(node.getChild(a), player, bucket, reach, childReach[a]);
+        }
+        return value;
+    }
+
+    private double terminalValue(BettingTree.Node node, int player, int bucket, double[] opponentReach) {
+        double value = 0;
+        for (int b = 0; b < buckets; b++) {
+            if (opponentReach[b] == 0) continue;
+            value += opponentReach[b] * tree.payoff(node, player, model.getWin(bucket, b));
+        }
+        return value;
+    }
+
+    private static void currentStrategy(double[] values, int base, int actions, double[] out) {
+        double sum = 0;
+        for (int a = 0; a < actions; a++) {
+            sum += Math.max(0, values[base + a]);
+        }
+        for (int a = 0; a < actions; a++) {
+            out[a] = sum > 0 ? Math.max(0, values[base + a]) / sum : 1.0 / actions;
+        }
+    }
+
+    /**
+     * Average strategy of a bucket at a decision node; this is what converges to equilibrium
+     */
+    public double[] averageStrategy(int decisionIndex, int bucket) {
+        int actions = tree.getDecisionNode(decisionIndex).actionCount();
+        double[] strategy = new double[actions];
+        currentStrategy(strategySum[decisionIndex], bucket * actions, actions, strategy);
+        return strategy;
+    }
+
+    /**
+     * Chips per street the average strategies lose to a best response, averaged over both
+     * seats; zero at a Nash equilibrium of the abstraction
+     */
+    public double exploitability() {
+        double total = 0;
+        for (int player = 0; player < 2; player++) {
+            double[] opponentReach = model.priorArray().clone();
+            int p = player;
+            total += IntStream.range(0, buckets).parallel()
+                    .mapToDouble(bucket -> model.getPrior(bucket) * bestResponse(tree.getRoot(), p, bucket, opponentReach))
+                    .sum();
+        }
+        return total / 2;
+    }
+
+    private double bestResponse(BettingTree.Node node, int player, int bucket, double[] opponentReach) {
+        if (node.isTerminal()) {
+            return terminalValue(node, player, bucket, opponentReach);
+        }
+        int actions = node.actionCount();
+        if (node.getPlayer() == player) {
+            double best = Double.NEGATIVE_INFINITY;
+            for (int a = 0; a < actions; a++) {
+                best = Math.max(best, bestResponse(node.getChild(a), player, bucket, opponentReach));
+            }
+            return best;
+        }
+        double value = 0;
+        double[][] childReach = new double[actions][buckets];
+        for (int b = 0; b < buckets; b++) {
+            double[] strategy = averageStrategy(node.getDecisionIndex(), b);
+            for (int a = 0; a < actions; a++) {
+                childReach[a][b] = opponentReach[b] * strategy[a];
+            }
+        }
+        for (int a = 0; a < actions; a++) {
+            value += bestResponse(node.getChild(a), player, bucket, childReach[a]);
+        }
+        return value;
+    }
+
+    public long getIterations() {
+        return iterations;
+    }
+
+    public BettingTree getTree() {
+        return tree;
+    }
+
+    public int getBuckets() {
+        return buckets;
+    }
+
+    /**
+     * Writes the full solver state; the file is replaced atomically so a crash mid-write
+     * leaves the previous checkpoint intact
+     */
+    public void checkpoint(Path file) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(CHECKPOINT_MAGIC);
+            out.writeInt(CHECKPOINT_VERSION);
+            out.writeInt(tree.getPot());
+            out.writeInt(tree.getStack());
+            out.writeInt(tree.getBetSize());
+            out.writeInt(tree.getMaxRaises());
+            out.writeInt(buckets);
+            out.writeLong(iterations);
+            for (int a = 0; a < buckets; a++) {
+                out.writeDouble(model.getPrior(a));
+                for (int b = 0; b < buckets; b++) {
+                    out.writeDouble(model.getWin(a, b));
+                }
+            }
+            for (int i = 0; i < regret.length; i++) {
+                for (int j = 0; j < regret[i].length; j++) {
+                    out.writeDouble(regret[i][j]);
+                    out.writeDouble(strategySum[i][j]);
+                }
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public static CfrSolver resume(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != CHECKPOINT_MAGIC || in.readInt() != CHECKPOINT_VERSION) {
+                throw new IOException("Not a solver checkpoint: " + file);
+            }
+            BettingTree tree = new BettingTree(in.readInt(), in.readInt(), in.readInt(), in.readInt());
+            int buckets = in.readInt();
+            long iterations = in.readLong();
+            double[] prior = new double[buckets];
+            double[][] win = new double[buckets][buckets];
+            for (int a = 0; a < buckets; a++) {
+                prior[a] = in.readDouble();
+                for (int b = 0; b < buckets; b++) {
+                    win[a][b] = in.readDouble();
+                }
+            }
+            CfrSolver solver = new CfrSolver(tree, BucketModel.of(prior, win));
+            solver.iterations = iterations;
+            for (int i = 0; i < solver.regret.length; i++) {
+                for (int j = 0; j < solver.regret[i].length; j++) {
+                    solver.regret[i][j] = in.readDouble();
+                    solver.strategySum[i][j] = in.readDouble();
+                }
+            }
+            return solver;
+        }
+    }
+
+    public static void main(String[] args) {
+        Path out = Paths.get(StrategyTable.DEFAULT_FILE);
+        Path checkpointDir = null;
+        int iterations = 20000;
+        int buckets = 20;
+        int hands = 2000;
+        int pot = 300;
+        int stack = 1000;
+        int bet = 150;   // RoundManager's AI bet size at Expert+: MIN_BET + 4 * 25
+        int raises = 3;
+        try {
+            for (int i = 0; i + 1 < args.length; i += 2) {
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--out" -> out = Paths.get(value);
+                    case "--checkpoint" -> checkpointDir = Paths.get(value);
+                    case "--iterations" -> iterations = Integer.parseInt(value);
+                    case "--buckets" -> buckets = Integer.parseInt(value);
+                    case "--hands" -> hands = Integer.parseInt(value);
+                    case "--pot" -> pot = Integer.parseInt(value);
+                    case "--stack" -> stack = Integer.parseInt(value);
+                    case "--bet" -> bet = Integer.parseInt(value);
+                    case "--raises" -> raises = Integer.parseInt(value);
+                    default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+            if (checkpointDir != null) Files.createDirectories(checkpointDir);
+
+            Map<RoundStage, CfrSolver> solvers = new EnumMap<>(RoundStage.class);
+            for (RoundStage stage : StrategyTable.STAGES) {
+                Path checkpoint = checkpointDir == null ? null : checkpointDir.resolve(stage.name().toLowerCase() + ".cfr");
+                CfrSolver solver;
+                if (checkpoint != null && Files.exists(checkpoint)) {
+                    solver = resume(checkpoint);
+                    System.out.println(stage + ": resumed at iteration " + solver.getIterations());
+                } else {
+                    System.out.println(stage + ": measuring buckets over " + hands + " hands...");
+                    BucketModel model = BucketModel.estimate(stage, buckets, hands, 200, new Random(stage.ordinal()));
+                    solver = new CfrSolver(new BettingTree(pot, stack, bet, raises), model);
+                }
+                solveStage(stage, solver, iterations, checkpoint);
+                solvers.put(stage, solver);
+            }
+            StrategyTable.write(out, solvers);
+            System.out.println("Strategy table written to " + out + " (" + Files.size(out) + " bytes)");
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+
+    private static void solveStage(RoundStage stage, CfrSolver solver, int iterations, Path checkpoint) throws IOException {
+        int chunk = Math.max(1, iterations / 10);
+        long start = System.nanoTime();
+        while (solver.getIterations() < iterations) {
+            solver.iterate((int) Math.min(chunk, iterations - solver.getIterations()));
+            if (checkpoint != null) solver.checkpoint(checkpoint);
+            System.out.printf("%s: %d iterations, exploitability %.2f chips, %d ms%n", stage,
+                    solver.getIterations(), solver.exploitability(), (System.nanoTime() - start) / 1_000_000);
+        }
+        BettingTree.Node root = solver.getTree().getRoot();
+        BettingTree.Node afterCheck = root.follow(BettingAction.CHECK);
+        System.out.println(stage + ": AI after a check, by bucket " + afterCheck.getActions());
+        for (int bucket = 0; bucket < solver.getBuckets(); bucket += Math.max(1, solver.getBuckets() / 5)) {
+            double[] strategy = solver.averageStrategy(afterCheck.getDecisionIndex(), bucket);
+            StringBuilder sb = new StringBuilder("  bucket " + bucket + ":");
+            for (double p : strategy) sb.append(String.format(" %.2f", p));
+            System.out.println(sb);
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package BluffOrBluff.solver;
+
+import BluffOrBluff.logic.RoundManager;
+import BluffOrBluff.model.BettingAction;
+import BluffOrBluff.simulation.RangeEquity;
+
+import java.util.SplittableRandom;
+
+/**
+ * Depth-limited expectimax over the river betting, played the way RoundManager runs it: the
+ * human has acted, the AI answers with check/call, bet/raise, all-in or fold, the human can
+ * fold, call, raise or move all-in in turn, and a call closes the street. Every action puts in
+ * its full amount (a call pays the whole current bet), as in RoundManager.
+ *
+ * The opponent's hand is a RangeEquity range, weakest first, and the opponent plays by
+ * thresholds: it folds the weakest part of its range, raises with the strongest and calls
+ * with the rest. The range at every node therefore stays a slice [low, high), chance nodes
+ * weight the opponent's actions by their share of the slice, and a showdown is an exact
+ * prefix-sum lookup of our equity against the slice.
+ *
+ * Node values go into a transposition table keyed by a Zobrist hash of the betting state, so
+ * they carry over between the iterations of iterative deepening and between the AI's
+ * decisions on the same river. The search deepens until the tree is exhausted or the time
+ * budget runs out, and returns the best action of the deepest finished iteration.
+ */
+public class RiverSearch {
+    private static final int MAX_RAISES = 4;
+    private static final int MAX_DEPTH = 2 * MAX_RAISES + 2;
+    // Share of the hands that continue which the opponent raises with
+    private static final double RAISE_SHARE = 0.15;
+    private static final double MAX_FOLD_SHARE = 0.9;
+    private static final int TABLE_BITS = 16;
+
+    // AI moves, in the order they are tried
+    private static final int FOLD = 0;
+    private static final int CHECK_CALL = 1;
+    private static final int BET_RAISE = 2;
+    private static final int ALL_IN = 3;
+
+    // Zobrist features of a state where the AI is to act (only those are cached)
+    private static final int POT = 0;
+    private static final int TO_CALL = 1;
+    private static final int AI_CHIPS = 2;
+    private static final int HUMAN_CHIPS = 3;
+    private static final int RAISES = 4;
+    private static final int LOW = 5;
+    private static final int HIGH = 6;
+    // One random key per feature, byte position and byte value (tabulation hashing, so
+    // integer features of any size get Zobrist keys from a small table)
+    private static final long[][][] ZOBRIST = new long[HIGH + 1][4][256];
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5EA4C4L);
+        for (long[][] feature : ZOBRIST) {
+            for (long[] position : feature) {
+                for (int b = 0; b < 256; b++) position[b] = random.nextLong();
+            }
+        }
+    }
+
+    /**
+     * Size of the AI's bet (currentBet == 0) or raise; the total it puts in
+     */
+    public interface BetSizer {
+        int size(int currentBet, int pot, int aiChips, int humanChips);
+    }
+
+    private final RangeEquity range;
+    private final BetSizer sizer;
+    private final double tightness;
+
+    // Transposition table: exact entries store depth Byte.MAX_VALUE
+    private final long[] keys = new long[1 << TABLE_BITS];
+    private final double[] values = new double[1 << TABLE_BITS];
+    private final byte[] depths = new byte[1 << TABLE_BITS];
+    private final byte[] moves = new byte[1 << TABLE_BITS];
+
+    // Move chosen by the aiNode call that returned last; after a search iteration, the root's
+    private int lastMove;
+    private long deadline;
+    private boolean aborted;
+    private long nodes;
+    private long cutLeaves;
+    private long tableHits;
+
+    /**
+     * @param tightness how readily the opponent folds, as in BetSizingEngine
+     */
+    public RiverSearch(RangeEquity range, BetSizer sizer, double tightness) {
+        this.range = range;
+        this.sizer = sizer;
+        this.tightness = tightness;
+    }
+
+    public static final class Result {
+        private final BettingAction action;
+        private final double value;
+        private final int depth;
+        private final boolean complete;
+        private final long nodes;
+        private final long tableHits;
+
+        private Result(BettingAction action, double value, int depth, boolean complete, long nodes, long tableHits) {
+            this.action = action;
+            this.value = value;
+            this.depth = depth;
+            this.complete = complete;
+            this.nodes = nodes;
+            this.tableHits = tableHits;
+        }
+
+        public BettingAction getAction() {
+            return action;
+        }
+
+        /**
+         * Expected chips won from here on, net of what the AI still puts in
+         */
+        public double getValue() {
+            return value;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        /**
+         * True when the whole tree was searched, so no leaf was an estimate
+         */
+        public boolean isComplete() {
+            return complete;
+        }
+
+        public long getNodes() {
+            return nodes;
+        }
+
+        public long getTableHits() {
+            return tableHits;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s (EV %.1f, depth %d%s, %d nodes, %d table hits)",
+                    action, value, depth, complete ? ", complete" : "", nodes, tableHits);
+        }
+    }
+
+    /**
+     * Best AI action facing currentBet, or null if not even one ply finished in time
+     *
+     * @param rangeLow index of the weakest hand the opponent can still have
+     * @param raises   bets and raises made on the river so far
+     */
+    public Result search(int currentBet, int pot, int aiChips, int humanChips, int rangeLow, int raises,
+                         long budgetNanos) {
+        deadline = System.nanoTime() + budgetNanos;
+        aborted = false;
+        nodes = 0;
+        tableHits = 0;
+        int low = Math.max(0, Math.min(rangeLow, range.size() - 1));
+
+        Result best = null;
+        for (int depth = 1; depth <= MAX_DEPTH; depth++) {
+            long cutBefore = cutLeaves;
+            double value = aiNode(pot, currentBet, aiChips, humanChips, raises, low, range.size(), depth);
+            if (aborted) break;
+            boolean complete = cutLeaves == cutBefore;
+            best = new Result(toAction(lastMove, currentBet), value, depth, complete, nodes, tableHits);
+            if (complete) break;
+        }
+        return best;
+    }
+
+    private double aiNode(int pot, int toCall, int aiChips, int humanChips, int raises, int low, int high, int depth) {
+        if (++nodes % 1024 == 0 && System.nanoTime() > deadline) aborted = true;
+        if (aborted) return 0;
+        long hash = hash(pot, toCall, aiChips, humanChips, raises, low, high);
+        int slot = index(hash);
+        if (keys[slot] == hash && depths[slot] >= depth) {
+            tableHits++;
+            lastMove = moves[slot];
+            return values[slot];
+        }
+        long cutBefore = cutLeaves;
+
+        double best;
+        int move;
+        int call = Math.min(toCall, aiChips);
+        if (toCall > 0) {
+            best = 0; // fold: nothing more in, nothing back
+            move = FOLD;
+            double called = showdown(pot + call, low, high) - call;
+            if (called > best) {
+                best = called;
+                move = CHECK_CALL;
+            }
+        } else {
+            best = showdown(pot, low, high);
+            move = CHECK_CALL;
+        }
+
+        // Raising needs chips behind and an opponent who can still act
+        if (aiChips > toCall && humanChips > 0 && raises < MAX_RAISES) {
+            if (depth == 0) {
+                cutLeaves++;
+            } else {
+                int minimum = RoundManager.minimumRaise(toCall);
+                int size = Math.max(minimum, sizer.size(toCall, pot, aiChips, humanChips));
+                if (size < aiChips) {
+                    double raised = humanNode(pot + size, size, aiChips - size, humanChips, raises + 1, low, high,
+                            depth - 1) - size;
+                    if (raised > best) {
+                        best = raised;
+                        move = BET_RAISE;
+                    }
+                }
+                double shoved = humanNode(pot + aiChips, aiChips, 0, humanChips, raises + 1, low, high, depth - 1)
+                        - aiChips;
+                if (shoved > best) {
+                    best = shoved;
+                    move = ALL_IN;
+                }
+            }
+        }
+        if (aborted) return 0;
+
+        keys[slot] = hash;
+        values[slot] = best;
+        depths[slot] = cutLeaves == cutBefore ? Byte.MAX_VALUE : (byte) depth;
+        moves[slot] = (byte) move;
+        lastMove = move;
+        return best;
+    }
+
+    /**
+     * Opponent facing a bet of toCall: an expectation over fold, call and raise, each weighted
+     * by the share of the range [low, high) that takes it
+     */
+    private double humanNode(int pot, int toCall, int aiChips, int humanChips, int raises, int low, int high,
+                             int depth) {
+        if (aborted) return 0;
+        int hands = high - low;
+        int folds = (int) Math.round(Math.min(MAX_FOLD_SHARE, tightness * toCall / pot) * hands);
+        boolean canRaise = aiChips > 0 && humanChips > toCall && raises < MAX_RAISES;
+        int raisers = canRaise ? (int) Math.round(RAISE_SHARE * (hands - folds)) : 0;
+        if (raisers > 0 && depth == 0) {
+            // Out of depth: treat the raisers as callers
+            cutLeaves++;
+            raisers = 0;
+        }
+        int calls = hands - folds - raisers;
+
+        double value = (double) folds * pot;
+        if (calls > 0) {
+            value += calls * showdown(pot + Math.min(toCall, humanChips), low + folds, high - raisers);
+        }
+        if (raisers > 0) {
+            int raise = Math.min(humanChips, Math.max(RoundManager.minimumRaise(toCall), 2 * toCall));
+            value += raisers * aiNode(pot + raise, raise, aiChips, humanChips - raise, raises + 1, high - raisers,
+                    high, depth - 1);
+        }
+        return value / hands;
+    }
+
+    /**
+     * Our share of the pot at showdown against the hands [low, high)
+     */
+    private double showdown(int pot, int low, int high) {
+        if (high <= low) return 0;
+        return (range.equitySum(low) - range.equitySum(high)) / (high - low) * pot;
+    }
+
+    private static BettingAction toAction(int move, int currentBet) {
+        return switch (move) {
+            case FOLD -> BettingAction.FOLD;
+            case CHECK_CALL -> currentBet == 0 ? BettingAction.CHECK : BettingAction.CALL;
+            case BET_RAISE -> currentBet == 0 ? BettingAction.BET : BettingAction.RAISE;
+            default -> BettingAction.ALL_IN;
+        };
+    }
+
+    private static long hash(int pot, int toCall, int aiChips, int humanChips, int raises, int low, int high) {
+        return feature(POT, pot) ^ feature(TO_CALL, toCall)
+                ^ feature(AI_CHIPS, aiChips) ^ feature(HUMAN_CHIPS, humanChips) ^ feature(RAISES, raises)
+                ^ feature(LOW, low) ^ feature(HIGH, high);
+    }
+
+    private static long feature(int feature, int value) {
+        long[][] keys = ZOBRIST[feature];
+        return keys[0][value & 0xFF] ^ keys[1][value >>> 8 & 0xFF] ^ keys[2][value >>> 16 & 0xFF]
+                ^ keys[3][value >>> 24];
+    }
+
+    private static int index(long hash) {
+        return (int) (hash >>> (64 - TABLE_BITS));
+    }
+}
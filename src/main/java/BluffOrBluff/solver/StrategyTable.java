@@ -0,0 +1,178 @@
+package BluffOrBluff.solver;
+
+import BluffOrBluff.logic.RoundStage;
+import BluffOrBluff.model.BettingAction;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * The AI's side of a solved strategy, exported by CfrSolver. Only the AI's decision nodes
+ * are stored, one byte per action probability, so a table with 20 buckets is a few KB.
+ * A lookup walks the street's action history through the tree and reads one row.
+ */
+public class StrategyTable {
+    public static final String DEFAULT_FILE = "expert-plus.strategy";
+    static final RoundStage[] STAGES = {RoundStage.FLOP, RoundStage.TURN, RoundStage.RIVER};
+
+    private static final int MAGIC = 0x424F5354; // "BOST"
+    private static final int VERSION = 1;
+
+    private static StrategyTable shared;
+    private static boolean sharedLoaded;
+
+    private final int buckets;
+    private final Map<RoundStage, BettingTree> trees = new EnumMap<>(RoundStage.class);
+    // Per stage: [decision index][bucket * actions + action], null rows for the human's nodes
+    private final Map<RoundStage, byte[][]> rows = new EnumMap<>(RoundStage.class);
+
+    private StrategyTable(int buckets) {
+        this.buckets = buckets;
+    }
+
+    /**
+     * Table from -Dbluff.strategy.file (default expert-plus.strategy), loaded on first use;
+     * null if there is no usable table
+     */
+    public static synchronized StrategyTable shared() {
+        if (!sharedLoaded) {
+            sharedLoaded = true;
+            Path file = Paths.get(System.getProperty("bluff.strategy.file", DEFAULT_FILE));
+            try {
+                shared = load(file);
+            } catch (IOException e) {
+                System.out.println("No Expert+ strategy table (" + e.getMessage() + "), playing Expert instead.");
+            }
+        }
+        return shared;
+    }
+
+    public static StrategyTable load(Path file) throws IOException {
+        if (!Files.exists(file)) throw new IOException(file + " not found; run CfrSolver to create it");
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a strategy table: " + file);
+            }
+            StrategyTable table = new StrategyTable(in.readInt());
+            int stages = in.readInt();
+            for (int s = 0; s < stages; s++) {
+                RoundStage stage = RoundStage.values()[in.readByte()];
+                BettingTree tree = new BettingTree(in.readInt(), in.readInt(), in.readInt(), in.readInt());
+                byte[][] stageRows = new byte[tree.decisionNodeCount()][];
+                for (int i = 0; i < stageRows.length; i++) {
+                    BettingTree.Node node = tree.getDecisionNode(i);
+                    if (node.getPlayer() != BettingTree.SECOND) continue;
+                    stageRows[i] = new byte[table.buckets * node.actionCount()];
+                    in.readFully(stageRows[i]);
+                }
+                table.trees.put(stage, tree);
+                table.rows.put(stage, stageRows);
+            }
+            return table;
+        }
+    }
+
+    static void write(Path file, Map<RoundStage, CfrSolver> solvers) throws IOException {
+        int buckets = solvers.values().iterator().next().getBuckets();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(buckets);
+            out.writeInt(solvers.size());
+            for (Map.Entry<RoundStage, CfrSolver> entry : solvers.entrySet()) {
+                CfrSolver solver = entry.getValue();
+                if (solver.getBuckets() != buckets) throw new IllegalArgumentException("Streets use different bucket counts");
+                BettingTree tree = solver.getTree();
+                out.writeByte(entry.getKey().ordinal());
+                out.writeInt(tree.getPot());
+                out.writeInt(tree.getStack());
+                out.writeInt(tree.getBetSize());
+                out.writeInt(tree.getMaxRaises());
+                for (int i = 0; i < tree.decisionNodeCount(); i++) {
+                    if (tree.getDecisionNode(i).getPlayer() != BettingTree.SECOND) continue;
+                    for (int bucket = 0; bucket < buckets; bucket++) {
+                        out.write(quantize(solver.averageStrategy(i, bucket)));
+                    }
+                }
+            }
+        }
+    }
+
+    private static byte[] quantize(double[] strategy) {
+        byte[] row = new byte[strategy.length];
+        int best = 0;
+        int sum = 0;
+        for (int a = 0; a < strategy.length; a++) {
+            int value = (int) Math.round(strategy[a] * 255);
+            row[a] = (byte) value;
+            sum += value;
+            if (strategy[a] > strategy[best]) best = a;
+        }
+        if (sum == 0) row[best] = (byte) 255;
+        return row;
+    }
+
+    public int bucketOf(double equity) {
+        return BucketModel.bucketOf(equity, buckets);
+    }
+
+    /**
+     * Node the street's actions lead to, or null if the street is not covered or the
+     * actions leave the abstraction
+     */
+    public BettingTree.Node find(RoundStage stage, List<BettingAction> history) {
+        BettingTree tree = trees.get(stage);
+        return tree == null ? null : tree.find(history);
+    }
+
+    /**
+     * Probability of each of the node's actions for a bucket
+     */
+    public double[] strategy(RoundStage stage, BettingTree.Node node, int bucket) {
+        byte[] row = rows.get(stage)[node.getDecisionIndex()];
+        int actions = node.actionCount();
+        double[] strategy = new double[actions];
+        double sum = 0;
+        for (int a = 0; a < actions; a++) {
+            strategy[a] = row[bucket * actions + a] & 0xFF;
+            sum += strategy[a];
+        }
+        for (int a = 0; a < actions; a++) {
+            strategy[a] /= sum;
+        }
+        return strategy;
+    }
+
+    /**
+     * Draws an action from the mixed strategy of an AI node
+     */
+    public BettingAction sample(RoundStage stage, BettingTree.Node node, int bucket, Random random) {
+        byte[] row = rows.get(stage)[node.getDecisionIndex()];
+        int actions = node.actionCount();
+        int base = bucket * actions;
+        int sum = 0;
+        for (int a = 0; a < actions; a++) {
+            sum += row[base + a] & 0xFF;
+        }
+        int pick = random.nextInt(sum);
+        for (int a = 0; a < actions; a++) {
+            pick -= row[base + a] & 0xFF;
+            if (pick < 0) return node.getAction(a);
+        }
+        return node.getAction(actions - 1);
+    }
+
+    public int getBuckets() {
+        return buckets;
+    }
+}
@@ -0,0 +1,11 @@
+package BluffOrBluff.util;
+
+/**
+ * The local player typing at the console, through InputHandler's shared Scanner
+ */
+public class ConsoleInputSource implements InputSource {
+    @Override
+    public int choose(Prompt prompt, int min, int max) {
+        return InputHandler.getValidInt(min, max);
+    }
+}
@@ -0,0 +1,24 @@
+package BluffOrBluff.util;
+
+/**
+ * Where the human seat's choices come from: the console, a network connection, a script.
+ * RoundManager says which question it is asking, so a source that doesn't read the printed
+ * menu can still answer it.
+ */
+public interface InputSource {
+    enum Prompt {
+        /** No bet to face: 1 check, 2 bet, 3 all-in, 4 fold */
+        OPEN,
+        /** Facing a bet: 1 call, 2 raise, 3 all-in, 4 fold */
+        FACING_BET,
+        /** Facing an all-in: 1 call, 2 fold */
+        CALL_OR_FOLD,
+        /** Bet or raise size in chips */
+        AMOUNT
+    }
+
+    /**
+     * A number between min and max (inclusive) answering prompt
+     */
+    int choose(Prompt prompt, int min, int max);
+}
@@ -0,0 +1,45 @@
+package BluffOrBluff.util;
+
+import java.util.Arrays;
+
+/**
+ * Plays back a fixed list of answers, starting over when it runs out, for tests and for
+ * reproducing a game exactly. An answer outside the range a prompt allows is moved to the
+ * nearest end of it.
+ */
+public class ScriptedInputSource implements InputSource {
+    private final int[] answers;
+    private int next;
+    private long answered;
+
+    public ScriptedInputSource(int... answers) {
+        if (answers.length == 0) throw new IllegalArgumentException("Script has no answers");
+        this.answers = answers.clone();
+    }
+
+    /**
+     * A script written as numbers separated by commas or spaces, e.g. "1, 2, 150, 1"
+     */
+    public static ScriptedInputSource parse(String script) {
+        String[] parts = script.trim().split("[,\\s]+");
+        try {
+            return new ScriptedInputSource(Arrays.stream(parts).mapToInt(Integer::parseInt).toArray());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Bad script: " + script, e);
+        }
+    }
+
+    @Override
+    public int choose(Prompt prompt, int min, int max) {
+        int answer = answers[next];
+        next = (next + 1) % answers.length;
+        answered++;
+        // Can't cover the minimum: whatever is left is all there is
+        if (max < min) return max;
+        return Math.max(min, Math.min(max, answer));
+    }
+
+    public long getAnswered() {
+        return answered;
+    }
+}
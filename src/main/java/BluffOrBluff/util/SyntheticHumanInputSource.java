@@ -0,0 +1,68 @@
+package BluffOrBluff.util;
+
+import java.util.SplittableRandom;
+
+/**
+ * A randomized stand-in for a person at the console. Given a seed, it makes the same
+ * choices every time. It mostly checks and calls, and bets or raises a random one to three
+ * minimum raises some of the time. It folds to a bet now and then and goes all-in rarely.
+ * Optionally it takes a random think time before answering, up to twice thinkMillis, as a
+ * person would.
+ */
+public class SyntheticHumanInputSource implements InputSource {
+    private final SplittableRandom random;
+    private final double aggression;
+    private final double foldRate;
+    private final double allInRate;
+    private final long thinkMillis;
+
+    /**
+     * Plays the LoadGenerator's bot: bets or raises 20% of the time, folds to 10% of bets,
+     * goes all-in 1% of the time and answers at once
+     */
+    public SyntheticHumanInputSource(long seed) {
+        this(seed, 0.2, 0.1, 0.01, 0);
+    }
+
+    /**
+     * @param aggression  chance of betting or raising instead of checking or calling
+     * @param foldRate    chance of folding when facing a bet or an all-in
+     * @param allInRate   chance of moving all-in instead
+     * @param thinkMillis mean pause before each answer, 0 for none
+     */
+    public SyntheticHumanInputSource(long seed, double aggression, double foldRate, double allInRate,
+                                     long thinkMillis) {
+        this.random = new SplittableRandom(seed);
+        this.aggression = aggression;
+        this.foldRate = foldRate;
+        this.allInRate = allInRate;
+        this.thinkMillis = thinkMillis;
+    }
+
+    @Override
+    public int choose(Prompt prompt, int min, int max) {
+        think();
+        // Can't cover the minimum: whatever is left is all there is
+        if (max < min) return max;
+        double roll = random.nextDouble();
+        int answer = switch (prompt) {
+            // 1 check/call, 2 bet/raise, 3 all-in, 4 fold
+            case OPEN -> roll < allInRate ? 3 : roll < allInRate + aggression ? 2 : 1;
+            case FACING_BET -> roll < allInRate ? 3 : roll < allInRate + foldRate ? 4
+                    : roll < allInRate + foldRate + aggression ? 2 : 1;
+            // 1 call, 2 fold
+            case CALL_OR_FOLD -> roll < foldRate ? 2 : 1;
+            case AMOUNT -> min + min * random.nextInt(3);
+        };
+        return Math.max(min, Math.min(max, answer));
+    }
+
+    private void think() {
+        if (thinkMillis <= 0) return;
+        try {
+            Thread.sleep(random.nextLong(2 * thinkMillis + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
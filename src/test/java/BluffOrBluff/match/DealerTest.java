@@ -0,0 +1,70 @@
+package BluffOrBluff.match;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DealerTest {
+    /**
+     * A bot that plays the same line whatever its cards
+     */
+    private static BotEndpoint bot(String name, String action) {
+        return new BotEndpoint() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String onState(String matchState, boolean toAct) {
+                MatchState.parse(matchState, Dealer.DEFAULT_STACK);
+                return toAct ? action : null;
+            }
+        };
+    }
+
+    @Test
+    public void swappedSeatsCancelTheLuckOfTheDeal() throws IOException {
+        // With card-blind bots both plays of a deal bet the same, so only the cards differ
+        Dealer dealer = new Dealer(bot("raiser", "r0"), bot("caller", "c"), Dealer.DEFAULT_STACK, 3, null);
+        dealer.play(50);
+        assertEquals(100, dealer.getHands());
+        assertEquals(0, dealer.getMeanNet(), 1e-9);
+        assertEquals(0, dealer.getDuplicateError(), 1e-9);
+        assertTrue(dealer.getSingleError() > 0);
+    }
+
+    @Test
+    public void eachDealIsLoggedFromBothSeats() throws IOException {
+        ByteArrayOutputStream log = new ByteArrayOutputStream();
+        Dealer dealer = new Dealer(bot("A", "c"), bot("B", "f"), Dealer.DEFAULT_STACK, 11,
+                new PrintStream(log, true, StandardCharsets.US_ASCII), 40);
+        dealer.play(2);
+
+        String[] lines = log.toString(StandardCharsets.US_ASCII).split("\n");
+        assertEquals(4, lines.length);
+        for (int pair = 0; pair < 2; pair++) {
+            String[] first = lines[2 * pair].split(":");
+            String[] second = lines[2 * pair + 1].split(":");
+            assertEquals("STATE", first[0]);
+            assertEquals(String.valueOf(40 + 2 * pair), first[1]);
+            assertEquals(String.valueOf(41 + 2 * pair), second[1]);
+            // Checks all the way down; the folder never has to fold
+            assertEquals("cc/cc/cc/cc", first[2]);
+            // The second play deals the same cards to the same seats, with the bots swapped
+            assertEquals(first[3], second[3]);
+            assertEquals("A|B", first[5]);
+            assertEquals("B|A", second[5]);
+            // So the seats win the same, and each bot wins what the other did
+            String[] net = first[4].split("\\|");
+            assertEquals(-Integer.parseInt(net[0]), Integer.parseInt(net[1]));
+            assertEquals(first[4], second[4]);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package BluffOrBluff.match;
+
+import BluffOrBluff.model.Card;
+import BluffOrBluff.model.FastHandEvaluator;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MatchStateTest {
+    private static final int STACK = 1000;
+    // Seat 0 holds As Kd, seat 1 9s 8h; the board is Ts 7c 2d Jh 3c
+    private static final int[] HOLES = codes("As Kd 9s 8h");
+    private static final int[] BOARD = codes("Ts 7c 2d Jh 3c");
+
+    private static int[] codes(String cards) {
+        int[] codes = new int[(cards.length() + 1) / 3];
+        for (int i = 0; i < codes.length; i++) codes[i] = FastHandEvaluator.parseCode(cards, 3 * i);
+        return codes;
+    }
+
+    private static Betting play(String... actions) {
+        Betting betting = new Betting(STACK);
+        for (String action : actions) betting.apply(action);
+        return betting;
+    }
+
+    @Test
+    public void parsesTheTurnFromSeatOnesView() {
+        MatchState state = MatchState.parse("MATCHSTATE:1:17:cc/r100c/c:|9s8h/Ts7c2d/Jh", STACK);
+        assertEquals(1, state.getSeat());
+        assertEquals(17, state.getHand());
+        assertEquals(2, state.getStreet());
+        assertTrue(state.isMyTurn());
+        assertFalse(state.isOver());
+        assertEquals(List.of("c", "c", "r100", "c", "c"), state.getActions());
+        assertEquals(200, state.getPot());
+        assertEquals(900, state.getChipsLeft(0));
+        assertEquals(0, state.getToCall());
+        assertEquals(List.of(), state.getHoleCards(0));
+        assertEquals("9s 8h", text(state.getHoleCards(1)));
+        assertEquals("Ts 7c 2d Jh", text(state.getBoard()));
+    }
+
+    @Test
+    public void formatAndParseAgree() {
+        Betting betting = play("r100", "r200", "c", "c");
+        String seat0 = MatchState.format(0, 5, betting, HOLES, BOARD);
+        String seat1 = MatchState.format(1, 5, betting, HOLES, BOARD);
+        assertEquals("MATCHSTATE:0:5:r100r200c/c:AsKd|/Ts7c2d", seat0);
+        assertEquals("MATCHSTATE:1:5:r100r200c/c:|9s8h/Ts7c2d", seat1);
+
+        MatchState state = MatchState.parse(seat1, STACK);
+        assertEquals(1, state.getStreet());
+        assertEquals(400, state.getPot());
+        assertTrue(state.isMyTurn());
+        // An answer with the action appended reads the same
+        assertEquals(state.getActions(), MatchState.parse(seat1 + ":r50", STACK).getActions());
+    }
+
+    @Test
+    public void bothHandsShowAfterAShowdownOnly() {
+        Betting folded = play("r100", "f");
+        assertEquals("MATCHSTATE:1:3:r100f:|9s8h", MatchState.format(1, 3, folded, HOLES, BOARD));
+
+        Betting showdown = play("c", "c", "c", "c", "c", "c", "c", "c");
+        assertTrue(showdown.isShowdown());
+        assertEquals("MATCHSTATE:1:3:cc/cc/cc/cc:AsKd|9s8h/Ts7c2d/Jh/3c",
+                MatchState.format(1, 3, showdown, HOLES, BOARD));
+    }
+
+    @Test
+    public void aCallPutsInOnlyTheDifference() {
+        Betting betting = play("r100", "r300", "c");
+        assertEquals(300, betting.invested(0));
+        assertEquals(300, betting.invested(1));
+        assertEquals(1, betting.street());
+        assertEquals(0, betting.actor());
+    }
+
+    @Test
+    public void anAllInRunsTheBoardOut() {
+        Betting betting = play("r1000", "c");
+        assertTrue(betting.isShowdown());
+        assertEquals(3, betting.street());
+        assertEquals("r1000c///", betting.text());
+        assertEquals(2000, betting.pot());
+    }
+
+    @Test
+    public void aStreetAllowsFourRaises() {
+        Betting betting = play("r50", "r100", "r150", "r200");
+        assertFalse(betting.canRaise());
+        assertEquals("c", betting.legalize("r500"));
+        betting.apply("c");
+        assertEquals(1, betting.street());
+        assertTrue(betting.canRaise());
+    }
+
+    @Test
+    public void repliesAreMadeLegal() {
+        Betting betting = play("r100");
+        assertEquals("f", betting.legalize(null));
+        assertEquals("f", betting.legalize("x"));
+        assertEquals("r150", betting.legalize("r120"));
+        assertEquals("r1000", betting.legalize("r5000"));
+        assertEquals("r150", betting.legalize("r"));
+
+        Betting unopened = play();
+        assertEquals("c", unopened.legalize("f"));
+        assertEquals("c", unopened.legalize(""));
+    }
+
+    @Test
+    public void malformedStatesAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> MatchState.parse("STATE:0:1:c:AsKd|", STACK));
+        assertThrows(IllegalArgumentException.class, () -> MatchState.parse("MATCHSTATE:2:1:c:AsKd|", STACK));
+        assertThrows(IllegalArgumentException.class, () -> MatchState.parse("MATCHSTATE:0:1:cc:AsKd|", STACK));
+        assertThrows(IllegalArgumentException.class, () -> MatchState.parse("MATCHSTATE:0:1:c:AsXd|", STACK));
+        assertThrows(IllegalArgumentException.class, () -> MatchState.parse("MATCHSTATE:0:1:r100r50:AsKd|", STACK));
+    }
+
+    private static String text(List<Card> cards) {
+        StringBuilder sb = new StringBuilder();
+        for (Card card : cards) {
+            if (sb.length() > 0) sb.append(' ');
+            sb.append(FastHandEvaluator.text(FastHandEvaluator.code(card)));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,26 @@
+package BluffOrBluff.shard;
+
+import BluffOrBluff.model.FastHandEvaluator;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ShardCoordinatorTest {
+    @Test
+    public void cardListsParseIntoMasks() {
+        long expected = FastHandEvaluator.bit(FastHandEvaluator.parseCode("As", 0))
+                | FastHandEvaluator.bit(FastHandEvaluator.parseCode("Td", 0))
+                | FastHandEvaluator.bit(FastHandEvaluator.parseCode("2c", 0));
+        assertEquals(expected, ShardCoordinator.parseCards("As,Td,2c"));
+        assertEquals(expected, ShardCoordinator.parseCards(" as , TD,2C "));
+        assertEquals(0, ShardCoordinator.parseCards(""));
+    }
+
+    @Test
+    public void badOrRepeatedCardsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ShardCoordinator.parseCards("As,1d"));
+        assertThrows(IllegalArgumentException.class, () -> ShardCoordinator.parseCards("As,Ts,As"));
+        assertThrows(IllegalArgumentException.class, () -> ShardCoordinator.parseCards("Asd"));
+    }
+}
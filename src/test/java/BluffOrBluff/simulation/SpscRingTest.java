@@ -0,0 +1,86 @@
+package BluffOrBluff.simulation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * SpscRing is package-private, so its test lives in the simulation package
+ */
+public class SpscRingTest {
+    @Test
+    public void wrapsAroundInOrder() {
+        SpscRing ring = new SpscRing(3, 2);
+        assertEquals(4, ring.capacity());
+        long[] slots = ring.slots();
+        // Uneven batches so the head and tail land on every slot, across many laps
+        long next = 0;
+        long expected = 0;
+        for (int round = 0; round < 100; round++) {
+            int free = ring.freeSlots();
+            int write = Math.min(free, 1 + round % 3);
+            for (int i = 0; i < write; i++) {
+                slots[ring.writeOffset(i)] = next;
+                slots[ring.writeOffset(i) + 1] = ~next;
+                next++;
+            }
+            ring.publish(write);
+
+            int available = ring.availableSlots();
+            int read = Math.min(available, 1 + round % 2);
+            for (int i = 0; i < read; i++) {
+                assertEquals(expected, slots[ring.readOffset(i)]);
+                assertEquals(~expected, slots[ring.readOffset(i) + 1]);
+                expected++;
+            }
+            ring.release(read);
+        }
+        assertTrue(expected > 10L * ring.capacity());
+    }
+
+    @Test
+    public void fullRingHasNoFreeSlots() {
+        SpscRing ring = new SpscRing(4, 1);
+        ring.publish(ring.freeSlots());
+        assertEquals(0, ring.freeSlots());
+        assertEquals(4, ring.availableSlots());
+        ring.release(1);
+        assertEquals(1, ring.freeSlots());
+    }
+
+    @Test
+    public void drainsAcrossThreads() throws InterruptedException {
+        SpscRing ring = new SpscRing(8, 1);
+        long[] slots = ring.slots();
+        int items = 200_000;
+        Thread producer = new Thread(() -> {
+            int sent = 0;
+            while (sent < items) {
+                int free = Math.min(ring.freeSlots(), items - sent);
+                // Let the consumer run even on a single core, as PipelinedSimulation's stages do
+                if (free == 0) Thread.yield();
+                for (int i = 0; i < free; i++) slots[ring.writeOffset(i)] = sent + i;
+                ring.publish(free);
+                sent += free;
+            }
+            ring.close();
+        });
+        producer.start();
+
+        long received = 0;
+        boolean inOrder = true;
+        while (!ring.isDrained()) {
+            int available = ring.availableSlots();
+            if (available == 0) Thread.yield();
+            for (int i = 0; i < available; i++) {
+                inOrder &= slots[ring.readOffset(i)] == received;
+                received++;
+            }
+            ring.release(available);
+        }
+        producer.join();
+        assertTrue(inOrder);
+        assertEquals(items, received);
+    }
+}
@@ -0,0 +1,107 @@
+package BluffOrBluff.test;
+
+import BluffOrBluff.analytics.ArchiveAnalyzer;
+import BluffOrBluff.analytics.ArchiveStats;
+import BluffOrBluff.analytics.PlayerAccumulator;
+import BluffOrBluff.analytics.StartingHands;
+import BluffOrBluff.history.HandRecord;
+import BluffOrBluff.history.SegmentReader;
+import BluffOrBluff.history.SegmentWriter;
+import BluffOrBluff.logic.RoundStage;
+import BluffOrBluff.model.BettingAction;
+import BluffOrBluff.model.Card;
+import BluffOrBluff.model.FastHandEvaluator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ArchiveAnalyzerTest {
+    private static final int HANDS = 6000;
+    // The smallest segment SegmentWriter takes, so the archive spans several segments
+    private static final int SEGMENT_SIZE = 32 + 64 * 1024;
+
+    @TempDir
+    Path directory;
+
+    private static Card card(String text) {
+        return FastHandEvaluator.card(FastHandEvaluator.parseCode(text, 0));
+    }
+
+    /**
+     * Even hands: Alice's aces bet 100, the AI calls and loses the showdown. Odd hands: Alice's
+     * 7-2 bets 50 and the AI folds.
+     */
+    private static HandRecord record(int number) {
+        HandRecord record = new HandRecord();
+        record.setHand(number, 1_700_000_000_000L + number, 3);
+        if (number % 2 == 0) {
+            record.setSeat(0, "Alice", 1000, card("As"), card("Ad"));
+            record.setSeat(1, "AI", 1000, card("Kh"), card("Qc"));
+            record.setBoard(List.of(card("2c"), card("9d"), card("5s"), card("3h"), card("8c")));
+            record.addAction(RoundStage.PRE_FLOP, 0, BettingAction.BET, 100);
+            record.addAction(RoundStage.PRE_FLOP, 1, BettingAction.CALL, 100);
+            record.setResult(0, 200, true);
+        } else {
+            record.setSeat(0, "Alice", 1000, card("7h"), card("2c"));
+            record.setSeat(1, "AI", 1000, card("Kd"), card("Jc"));
+            record.addAction(RoundStage.PRE_FLOP, 0, BettingAction.BET, 50);
+            record.addAction(RoundStage.PRE_FLOP, 1, BettingAction.FOLD, 0);
+            record.setResult(0, 50, false);
+        }
+        return record;
+    }
+
+    @Test
+    public void segmentsAnalysedInParallelAddUp() throws IOException {
+        ArchiveStats expected = new ArchiveStats();
+        try (SegmentWriter writer = new SegmentWriter(directory, SEGMENT_SIZE)) {
+            for (int i = 0; i < HANDS; i++) {
+                HandRecord record = record(i);
+                writer.append(record);
+                expected.add(record);
+            }
+        }
+        List<Path> segments = SegmentReader.listSegments(directory);
+        assertTrue(segments.size() > 1, segments.size() + " segment(s)");
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        ArchiveStats stats;
+        try {
+            stats = new ArchiveAnalyzer(pool).analyze(segments);
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals(HANDS, stats.getHands());
+        assertEquals(HANDS, stats.getAIDecisions(3, RoundStage.PRE_FLOP));
+        assertEquals(0.5, stats.getAIFoldRate(3, RoundStage.PRE_FLOP), 1e-12);
+        assertEquals(0, stats.getAIDecisions(2, RoundStage.PRE_FLOP));
+
+        PlayerAccumulator alice = stats.getPlayers().get("Alice");
+        assertEquals(HANDS, alice.getHands());
+        assertEquals(1.0, alice.getWinRate(), 1e-12);
+        assertEquals(0.5, alice.getShowdownFrequency(), 1e-12);
+        assertEquals(HANDS / 2 * 100L, alice.getNetChips());
+        int aces = StartingHands.indexOf(card("As"), card("Ad"));
+        int sevenTwo = StartingHands.indexOf(card("7h"), card("2c"));
+        assertEquals("AA", StartingHands.nameOf(aces));
+        assertEquals("72o", StartingHands.nameOf(sevenTwo));
+        assertEquals(HANDS / 2, alice.getHands(aces));
+        assertEquals(100, alice.getNetPerHand(aces), 1e-12);
+        assertEquals(0, alice.getNetPerHand(sevenTwo), 1e-12);
+
+        PlayerAccumulator ai = stats.getPlayers().get("AI");
+        assertEquals(0, ai.getWinRate(), 1e-12);
+        assertEquals(-alice.getNetChips(), ai.getNetChips());
+
+        // The same totals as reading every hand in order on one thread
+        assertEquals(expected.report(5), stats.report(5));
+    }
+}
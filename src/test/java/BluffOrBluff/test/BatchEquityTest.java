@@ -0,0 +1,86 @@
+package BluffOrBluff.test;
+
+import BluffOrBluff.model.Card;
+import BluffOrBluff.model.FastHandEvaluator;
+import BluffOrBluff.simulation.BatchEquity;
+import BluffOrBluff.simulation.EquitySnapshot;
+import BluffOrBluff.simulation.MonteCarloSimulator;
+import BluffOrBluff.simulation.SimulationBudgeter;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BatchEquityTest {
+    private static List<Card> cards(String text) {
+        List<Card> cards = new ArrayList<>();
+        for (int i = 0; i < text.length(); i += 3) {
+            cards.add(FastHandEvaluator.card(FastHandEvaluator.parseCode(text, i)));
+        }
+        return cards;
+    }
+
+    // Spot 1 repeats spot 0, spot 2 is spot 0 with its suits renamed, spot 3 shares spot 0's board
+    private static final String[][] SPOTS = {
+            {"As Ks", "Qs Js 2d 7c"},
+            {"As Ks", "Qs Js 2d 7c"},
+            {"Ah Kh", "Qh Jh 2c 7d"},
+            {"7h 7d", "Qs Js 2d 7c"},
+            {"Ah Td", "Kc 9s 5d 3h 2c"},
+            {"8c 9c", "Tc 2h Kd"},
+    };
+    private static final int[] DIFFICULTIES = {1, 3, 2, 2, 3, 1};
+
+    private static EquitySnapshot[] estimate(int[] spots, long seed) {
+        long[] holes = new long[spots.length];
+        long[] boards = new long[spots.length];
+        int[] difficulties = new int[spots.length];
+        for (int i = 0; i < spots.length; i++) {
+            holes[i] = FastHandEvaluator.mask(cards(SPOTS[spots[i]][0]));
+            boards[i] = FastHandEvaluator.mask(cards(SPOTS[spots[i]][1]));
+            difficulties[i] = DIFFICULTIES[spots[i]];
+        }
+        return BatchEquity.estimate(holes, boards, difficulties, seed);
+    }
+
+    private static double exact(int spot) {
+        return new MonteCarloSimulator(cards(SPOTS[spot][0]), cards(SPOTS[spot][1])).exactWinProbability();
+    }
+
+    /**
+     * Off by less than twice the snapshot's own 95% bound: a failure by chance is a four-sigma event
+     */
+    private static void assertNear(double expected, EquitySnapshot snapshot) {
+        assertTrue(snapshot.getSamples() > 0);
+        assertTrue(Math.abs(snapshot.getEquity() - expected) <= 2 * snapshot.getErrorBound(),
+                expected + " vs " + snapshot);
+    }
+
+    @Test
+    public void duplicatesShareOneEstimate() {
+        EquitySnapshot[] batch = estimate(new int[] {0, 1, 2, 3, 4, 5}, 11);
+        for (int duplicate : new int[] {1, 2}) {
+            assertEquals(batch[0].getSamples(), batch[duplicate].getSamples());
+            assertEquals(batch[0].getWins(), batch[duplicate].getWins());
+            assertEquals(batch[0].getTies(), batch[duplicate].getTies());
+        }
+    }
+
+    @Test
+    public void batchedSpotsMatchTheirOwnTables() {
+        EquitySnapshot[] batch = estimate(new int[] {0, 1, 2, 3, 4, 5}, 5);
+        for (int spot = 0; spot < SPOTS.length; spot++) {
+            double exact = exact(spot);
+            EquitySnapshot alone = estimate(new int[] {spot}, 100 + spot)[0];
+            assertNear(exact, alone);
+            assertNear(exact, batch[spot]);
+        }
+        // The duplicates are held to the tightest bound among them, spot 1's expert one
+        double target = SimulationBudgeter.targetErrorFor(3);
+        assertTrue(batch[0].getErrorBound() <= target
+                || batch[0].getSamples() >= Math.ceil(1.96 * 1.96 * 0.25 / (target * target)), batch[0].toString());
+    }
+}
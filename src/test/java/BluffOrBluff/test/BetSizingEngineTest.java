@@ -0,0 +1,95 @@
+package BluffOrBluff.test;
+
+import BluffOrBluff.ai.BetSizingEngine;
+import BluffOrBluff.model.FastHandEvaluator;
+import BluffOrBluff.simulation.HandPotentialCalculator;
+import BluffOrBluff.simulation.RangeEquity;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BetSizingEngineTest {
+    private static long mask(String text) {
+        long mask = 0;
+        for (int i = 0; i < text.length(); i += 3) mask |= FastHandEvaluator.bit(FastHandEvaluator.parseCode(text, i));
+        return mask;
+    }
+
+    private static RangeEquity river(String hole, String board) {
+        return RangeEquity.compute(mask(hole), mask(board), 1, new SplittableRandom(1));
+    }
+
+    @Test
+    public void riverRangeIsSortedAndMatchesHandStrength() {
+        RangeEquity range = river("Qd Qc", "Qs 9h 5c 2d Kh");
+        // Every two cards of the 45 unseen
+        assertEquals(990, range.size());
+        for (int i = 1; i < range.size(); i++) {
+            assertTrue(range.getStrength(i) >= range.getStrength(i - 1));
+            // On the river a stronger hand never gives us more equity
+            assertTrue(range.getEquity(i) <= range.getEquity(i - 1), "hand " + i);
+        }
+        assertEquals(range.getEquity() * range.size(), range.equitySum(0), 1e-9);
+        assertEquals(0, range.equitySum(range.size()));
+        // Against the whole range, equity is the enumerated hand strength
+        assertEquals(HandPotentialCalculator.calculate(mask("Qd Qc"), mask("Qs 9h 5c 2d Kh")).getHandStrength(),
+                range.getEquity(), 1e-12);
+    }
+
+    @Test
+    public void turnRangeEnumeratesEveryRiver() {
+        long hole = mask("8h 7h");
+        long board = mask("6h 5d Kc 2h");
+        RangeEquity first = RangeEquity.compute(hole, board, 10, new SplittableRandom(1));
+        RangeEquity second = RangeEquity.compute(hole, board, 10, new SplittableRandom(2));
+        // No sampling on the turn, so the random source doesn't matter
+        assertEquals(first.getEquity(), second.getEquity(), 1e-12);
+        assertEquals(1035, first.size());
+        // Eight high with an open-ended straight flush draw: close to a coin flip
+        assertTrue(first.getEquity() > 0.4 && first.getEquity() < 0.5, "equity " + first.getEquity());
+    }
+
+    @Test
+    public void expectedValueWithTheNutsIsPotPlusWhatGetsCalled() {
+        RangeEquity nuts = river("As Ks", "Qs Js Ts 2d 3c");
+        assertEquals(1.0, nuts.getEquity());
+        int pot = 100;
+        int size = 60;
+        double tightness = 0.8;
+        int folds = (int) Math.round(tightness * size / (pot + size) * nuts.size());
+        double called = (double) (nuts.size() - folds) / nuts.size();
+        assertEquals(pot + called * size, BetSizingEngine.expectedValue(nuts, pot, size, tightness), 1e-9);
+        // Folds win nothing more, so the nuts want the biggest bet
+        assertEquals(400, new BetSizingEngine().chooseSize(nuts, pot, 20, 400, tightness));
+    }
+
+    @Test
+    public void chosenSizeIsTheBestOfEverySize() {
+        RangeEquity range = river("Jd Tc", "Jh 8s 4c 3d Ac");
+        int pot = 120;
+        int minimum = 20;
+        int maximum = 300;
+        for (double tightness : new double[]{0.3, 0.8, 1.5}) {
+            // One grid step per chip tries every size
+            int chosen = new BetSizingEngine(maximum - minimum).chooseSize(range, pot, minimum, maximum, tightness);
+            double best = BetSizingEngine.expectedValue(range, pot, chosen, tightness);
+            for (int size = minimum; size <= maximum; size++) {
+                double value = BetSizingEngine.expectedValue(range, pot, size, tightness);
+                assertTrue(value <= best, size + " beats " + chosen + " at tightness " + tightness);
+                if (size < chosen) assertTrue(value < best, "ties go to the smaller size");
+            }
+        }
+    }
+
+    @Test
+    public void degenerateInputs() {
+        RangeEquity range = river("9c 9d", "Th 7s 4h 2c 2s");
+        assertEquals(50, new BetSizingEngine().chooseSize(range, 100, 50, 50, 1));
+        assertThrows(IllegalArgumentException.class, () -> new BetSizingEngine(0));
+        assertEquals(0.8, BetSizingEngine.tightness(null, null));
+    }
+}
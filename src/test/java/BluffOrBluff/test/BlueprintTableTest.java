@@ -0,0 +1,118 @@
+package BluffOrBluff.test;
+
+import BluffOrBluff.blueprint.BlueprintRegistry;
+import BluffOrBluff.blueprint.BlueprintTable;
+import BluffOrBluff.blueprint.BlueprintWriter;
+import BluffOrBluff.logic.RoundStage;
+import BluffOrBluff.model.BettingAction;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class BlueprintTableTest {
+    // One byte per cumulative probability
+    private static final double STEP = 1 / 255.0;
+
+    @TempDir
+    Path directory;
+
+    private static double[] strategy(BettingAction... weighted) {
+        double[] probabilities = new double[BettingAction.values().length];
+        for (BettingAction action : weighted) probabilities[action.ordinal()] += 1.0 / weighted.length;
+        return probabilities;
+    }
+
+    private BlueprintTable write(BlueprintWriter writer) throws IOException {
+        Path file = directory.resolve("test.blueprint");
+        writer.write(file);
+        return BlueprintTable.open(file);
+    }
+
+    @Test
+    public void aStrategyReadsBackAsWritten() throws IOException {
+        BlueprintWriter writer = new BlueprintWriter(3, 4, 5);
+        double[] written = strategy(BettingAction.FOLD, BettingAction.CALL, BettingAction.CALL, BettingAction.RAISE);
+        writer.add(RoundStage.RIVER, 1, 50, 100, 2, written);
+        BlueprintTable table = write(writer);
+
+        assertEquals(3, table.getHistories());
+        assertEquals(4, table.getPotOddsBuckets());
+        assertEquals(5, table.getHandBuckets());
+        int history = table.historyOf(List.of(BettingAction.CHECK, BettingAction.BET));
+        double[] read = table.probabilities(RoundStage.RIVER, history, table.potOddsBucket(50, 100),
+                table.handBucketOf(0.5));
+        assertArrayEquals(written, read, STEP);
+        // Nothing was written for the turn
+        assertArrayEquals(new double[written.length], table.probabilities(RoundStage.TURN, history,
+                table.potOddsBucket(50, 100), 2));
+    }
+
+    @Test
+    public void strategiesInOneCellAreAveraged() throws IOException {
+        BlueprintWriter writer = new BlueprintWriter(2, 4, 1);
+        writer.add(RoundStage.FLOP, 0, 0, 100, 0, strategy(BettingAction.CHECK));
+        writer.add(RoundStage.FLOP, 0, 0, 100, 0, strategy(BettingAction.BET));
+        BlueprintTable table = write(writer);
+
+        double[] read = table.probabilities(RoundStage.FLOP, 0, 0, 0);
+        assertEquals(0.5, read[BettingAction.CHECK.ordinal()], STEP);
+        assertEquals(0.5, read[BettingAction.BET.ordinal()], STEP);
+    }
+
+    @Test
+    public void emptyCellsBorrowTheNearestPriceFacingABetOnly() throws IOException {
+        BlueprintWriter writer = new BlueprintWriter(2, 4, 1);
+        writer.add(RoundStage.TURN, 1, 50, 100, 0, strategy(BettingAction.CALL));
+        BlueprintTable table = write(writer);
+
+        int cheap = table.potOddsBucket(10, 100);
+        assertEquals(1, cheap);
+        Random random = new Random(7);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(BettingAction.CALL, table.sample(RoundStage.TURN, 1, cheap, 0, random));
+        }
+        // "No bet" cells never borrow from "facing a bet" ones
+        assertNull(table.sample(RoundStage.TURN, 1, table.potOddsBucket(0, 100), 0, random));
+    }
+
+    @Test
+    public void samplesFollowTheCellsDistribution() throws IOException {
+        BlueprintWriter writer = new BlueprintWriter(1, 2, 1);
+        writer.add(RoundStage.PRE_FLOP, 0, 0, 30, 0,
+                strategy(BettingAction.CHECK, BettingAction.CHECK, BettingAction.CHECK, BettingAction.BET));
+        BlueprintTable table = write(writer);
+
+        Random random = new Random(11);
+        int checks = 0;
+        int draws = 20_000;
+        for (int i = 0; i < draws; i++) {
+            if (table.sample(RoundStage.PRE_FLOP, 0, 0, 0, random) == BettingAction.CHECK) checks++;
+        }
+        assertEquals(0.75, (double) checks / draws, 0.02);
+    }
+
+    @Test
+    public void truncatedAndMissingFilesAreRejected() throws IOException {
+        BlueprintWriter writer = new BlueprintWriter(2, 4, 3);
+        writer.add(RoundStage.FLOP, 0, 0, 100, 1, strategy(BettingAction.CHECK));
+        Path file = directory.resolve("short.blueprint");
+        writer.write(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 8);
+        }
+        assertThrows(IOException.class, () -> BlueprintTable.open(file));
+        assertNull(BlueprintRegistry.get(file));
+        assertNull(BlueprintRegistry.get(directory.resolve("missing.blueprint")));
+    }
+}
@@ -0,0 +1,102 @@
+package BluffOrBluff.test;
+
+import BluffOrBluff.abstraction.CardAbstraction;
+import BluffOrBluff.abstraction.KMeans;
+import BluffOrBluff.logic.RoundStage;
+import BluffOrBluff.model.FastHandEvaluator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CardAbstractionTest {
+    @TempDir
+    Path directory;
+
+    private static long mask(String cards) {
+        long mask = 0;
+        for (String card : cards.split(" ")) mask |= FastHandEvaluator.bit(FastHandEvaluator.parseCode(card, 0));
+        return mask;
+    }
+
+    /**
+     * Histogram with all of its mass in one bin
+     */
+    private static float[] spike(int bin, int bins) {
+        float[] histogram = new float[bins];
+        histogram[bin] = 1;
+        return histogram;
+    }
+
+    @Test
+    public void kMeansSeparatesDistinctEquityGroups() {
+        int bins = 20;
+        Random random = new Random(3);
+        float[][] points = new float[300][];
+        int[] groups = new int[points.length];
+        for (int i = 0; i < points.length; i++) {
+            groups[i] = i % 3;
+            // Group g sits around bin 2, 10 or 18, one bin either way
+            points[i] = spike(2 + 8 * groups[i] + random.nextInt(3) - 1, bins);
+        }
+        KMeans.Result result = new KMeans(50, 1).cluster(points, 3);
+
+        assertEquals(3, result.getCentroids().length);
+        int[] clusterOf = new int[3];
+        for (int g = 0; g < 3; g++) clusterOf[g] = result.getAssignments()[g];
+        assertNotEquals(clusterOf[0], clusterOf[1]);
+        assertNotEquals(clusterOf[1], clusterOf[2]);
+        assertNotEquals(clusterOf[0], clusterOf[2]);
+        for (int i = 0; i < points.length; i++) {
+            assertEquals(clusterOf[groups[i]], result.getAssignments()[i], "point " + i);
+        }
+        assertTrue(result.getIterations() <= 50);
+        // Same seed, same clustering
+        assertArrayEquals(result.getAssignments(), new KMeans(50, 1).cluster(points, 3).getAssignments());
+    }
+
+    @Test
+    public void preFlopBucketsRankHandsAndIgnoreSuitNames() throws IOException {
+        CardAbstraction abstraction = CardAbstraction.build(Map.of(RoundStage.PRE_FLOP, 8), 0, 4, 16, 42);
+        assertEquals(8, abstraction.bucketCount(RoundStage.PRE_FLOP));
+        assertEquals(169, abstraction.knownHands(RoundStage.PRE_FLOP));
+
+        int aces = abstraction.bucket(mask("As Ad"), 0);
+        int sevenDeuce = abstraction.bucket(mask("7c 2d"), 0);
+        assertTrue(aces > sevenDeuce, aces + " vs " + sevenDeuce);
+        assertEquals(7, aces);
+        assertTrue(abstraction.bucketEquity(RoundStage.PRE_FLOP, aces)
+                > abstraction.bucketEquity(RoundStage.PRE_FLOP, sevenDeuce));
+        // Suit isomorphism: the same canonical hand under other suits
+        assertEquals(abstraction.bucket(mask("As Ks"), 0), abstraction.bucket(mask("Ah Kh"), 0));
+        assertEquals(sevenDeuce, abstraction.bucket(mask("7h 2s"), 0));
+
+        Path file = directory.resolve("abstraction.bin");
+        abstraction.save(file);
+        CardAbstraction loaded = CardAbstraction.load(file);
+        assertEquals(169, loaded.knownHands(RoundStage.PRE_FLOP));
+        assertEquals(aces, loaded.bucket(mask("Ac Ah"), 0));
+        assertEquals(sevenDeuce, loaded.bucket(mask("7s 2c"), 0));
+    }
+
+    @Test
+    public void riverHandsOutsideTheSampleFindTheirNearestBucket() {
+        CardAbstraction abstraction = CardAbstraction.build(Map.of(RoundStage.RIVER, 5), 400, 1, 64, 7);
+        int known = abstraction.knownHands(RoundStage.RIVER);
+        int nuts = abstraction.bucket(mask("As Ks"), mask("Qs Js Ts 2d 3c"));
+        int air = abstraction.bucket(mask("7d 2c"), mask("Ah Kc Qs 9h 4s"));
+        assertEquals(4, nuts);
+        assertTrue(nuts > air);
+        // Looked-up hands are remembered
+        assertTrue(abstraction.knownHands(RoundStage.RIVER) > known);
+        assertEquals(nuts, abstraction.bucket(mask("Ad Kd"), mask("Qd Jd Td 2s 3h")));
+    }
+}
@@ -0,0 +1,54 @@
+package BluffOrBluff.test;
+
+import BluffOrBluff.model.Card;
+import BluffOrBluff.model.Deck;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Cards are values: two instances of the same rank and suit are the same card
+ */
+public class CardTest {
+    @Test
+    public void equalityIsByRankAndSuit() {
+        Card ace = new Card(Card.Rank.ACE, Card.Suit.SPADES);
+        assertEquals(new Card(Card.Rank.ACE, Card.Suit.SPADES), ace);
+        assertEquals(new Card(Card.Rank.ACE, Card.Suit.SPADES).hashCode(), ace.hashCode());
+        assertFalse(ace.equals(new Card(Card.Rank.ACE, Card.Suit.HEARTS)));
+        assertFalse(ace.equals(new Card(Card.Rank.KING, Card.Suit.SPADES)));
+
+        Set<Integer> hashes = new HashSet<>();
+        for (Card.Suit suit : Card.Suit.values()) {
+            for (Card.Rank rank : Card.Rank.values()) hashes.add(new Card(rank, suit).hashCode());
+        }
+        assertEquals(52, hashes.size());
+    }
+
+    @Test
+    public void deckRemovesCardsDealtFromAnotherDeck() {
+        Deck deck = new Deck();
+        deck.removeCards(List.of(new Card(Card.Rank.ACE, Card.Suit.SPADES),
+                new Card(Card.Rank.TWO, Card.Suit.HEARTS)));
+        assertEquals(50, deck.cardsLeft());
+        while (!deck.isEmpty()) {
+            Card card = deck.dealCard();
+            assertFalse(card.equals(new Card(Card.Rank.ACE, Card.Suit.SPADES)));
+            assertFalse(card.equals(new Card(Card.Rank.TWO, Card.Suit.HEARTS)));
+        }
+    }
+
+    @Test
+    public void listsFindCardsByValue() {
+        List<Card> hand = List.of(new Card(Card.Rank.TEN, Card.Suit.CLUBS),
+                new Card(Card.Rank.NINE, Card.Suit.CLUBS));
+        assertTrue(hand.contains(new Card(Card.Rank.TEN, Card.Suit.CLUBS)));
+        assertFalse(hand.contains(new Card(Card.Rank.TEN, Card.Suit.DIAMONDS)));
+    }
+}
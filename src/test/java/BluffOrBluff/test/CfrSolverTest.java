@@ -0,0 +1,91 @@
+package BluffOrBluff.test;
+
+import BluffOrBluff.model.BettingAction;
+import BluffOrBluff.solver.BettingTree;
+import BluffOrBluff.solver.BucketModel;
+import BluffOrBluff.solver.CfrSolver;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CfrSolverTest {
+    private static final int BUCKETS = 5;
+
+    @TempDir
+    Path directory;
+
+    private static CfrSolver solver() {
+        return new CfrSolver(new BettingTree(100, 200, 50, 2), BucketModel.uniform(BUCKETS));
+    }
+
+    @Test
+    public void exploitabilityFallsTowardsZero() {
+        CfrSolver solver = solver();
+        double start = solver.exploitability();
+        solver.iterate(100);
+        double early = solver.exploitability();
+        solver.iterate(900);
+        double late = solver.exploitability();
+
+        assertEquals(1000, solver.getIterations());
+        assertTrue(early < start / 10, start + " -> " + early);
+        assertTrue(late < early, early + " -> " + late);
+        // A hundredth of a chip in a 100-chip pot
+        assertTrue(late < 0.01, "after 1000 iterations: " + late);
+    }
+
+    @Test
+    public void averageStrategiesAreDistributions() {
+        CfrSolver solver = solver();
+        solver.iterate(200);
+        BettingTree tree = solver.getTree();
+        for (int node = 0; node < tree.decisionNodeCount(); node++) {
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                double sum = 0;
+                for (double p : solver.averageStrategy(node, bucket)) {
+                    assertTrue(p >= 0 && p <= 1);
+                    sum += p;
+                }
+                assertEquals(1, sum, 1e-9);
+            }
+        }
+    }
+
+    @Test
+    public void weakHandsFoldToABetAndTheNutsDoNot() {
+        CfrSolver solver = solver();
+        solver.iterate(1000);
+        BettingTree.Node facingBet = solver.getTree().getRoot().follow(BettingAction.BET);
+        assertEquals(BettingAction.FOLD, facingBet.getAction(0));
+        double[] weakest = solver.averageStrategy(facingBet.getDecisionIndex(), 0);
+        double[] strongest = solver.averageStrategy(facingBet.getDecisionIndex(), BUCKETS - 1);
+        assertTrue(weakest[0] > 0.9, "weakest folds " + weakest[0]);
+        assertTrue(strongest[0] < 0.01, "strongest folds " + strongest[0]);
+    }
+
+    @Test
+    public void aResumedSolverCarriesOnWhereItStopped() throws IOException {
+        CfrSolver solver = solver();
+        solver.iterate(200);
+        Path file = directory.resolve("flop.ckpt");
+        solver.checkpoint(file);
+        CfrSolver resumed = CfrSolver.resume(file);
+        assertEquals(200, resumed.getIterations());
+
+        solver.iterate(100);
+        resumed.iterate(100);
+        BettingTree tree = solver.getTree();
+        for (int node = 0; node < tree.decisionNodeCount(); node++) {
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                assertArrayEquals(solver.averageStrategy(node, bucket), resumed.averageStrategy(node, bucket), 1e-12);
+            }
+        }
+        assertEquals(solver.exploitability(), resumed.exploitability(), 1e-9);
+    }
+}
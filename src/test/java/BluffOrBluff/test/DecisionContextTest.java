@@ -0,0 +1,74 @@
+package BluffOrBluff.test;
+
+import BluffOrBluff.ai.DecisionContext;
+import BluffOrBluff.ai.PokerAI;
+import BluffOrBluff.exception.GameException;
+import BluffOrBluff.logic.RoundStage;
+import BluffOrBluff.model.Card;
+import BluffOrBluff.model.Player;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DecisionContextTest {
+    private static final List<Card> FLOP = List.of(new Card(Card.Rank.QUEEN, Card.Suit.HEARTS),
+            new Card(Card.Rank.SEVEN, Card.Suit.CLUBS), new Card(Card.Rank.TWO, Card.Suit.HEARTS));
+    private static final Card TURN_CARD = new Card(Card.Rank.KING, Card.Suit.SPADES);
+
+    private static PokerAI ai() throws GameException {
+        Player player = new Player("AI", 1000);
+        player.receiveCard(new Card(Card.Rank.ACE, Card.Suit.HEARTS));
+        player.receiveCard(new Card(Card.Rank.QUEEN, Card.Suit.DIAMONDS));
+        return new PokerAI(player, 2);
+    }
+
+    @Test
+    public void reRaisesOnTheSameStreetReuseTheRankAndEquity() throws GameException {
+        PokerAI ai = ai();
+        DecisionContext flop = ai.contextFor(RoundStage.FLOP, FLOP);
+        assertFalse(flop.hasEquity());
+
+        ai.getAIDecision(flop.getHandRank(), 0, 100, RoundStage.FLOP, FLOP);
+        assertTrue(flop.hasEquity());
+        double equity = flop.getEquity(2);
+
+        // The human raises; the board is the same cards in a new list
+        DecisionContext again = ai.contextFor(RoundStage.FLOP, new ArrayList<>(FLOP));
+        assertSame(flop, again);
+        assertSame(flop.getHandRank(), again.getHandRank());
+        ai.getAIDecision(again.getHandRank(), 300, 700, RoundStage.FLOP, FLOP);
+        assertSame(flop, ai.contextFor(RoundStage.FLOP, FLOP));
+        assertEquals(equity, ai.contextFor(RoundStage.FLOP, FLOP).getEquity(2));
+    }
+
+    @Test
+    public void aNewStreetStartsAFreshContext() throws GameException {
+        PokerAI ai = ai();
+        DecisionContext flop = ai.contextFor(RoundStage.FLOP, FLOP);
+        ai.getAIDecision(flop.getHandRank(), 0, 100, RoundStage.FLOP, FLOP);
+
+        List<Card> turnBoard = new ArrayList<>(FLOP);
+        turnBoard.add(TURN_CARD);
+        DecisionContext turn = ai.contextFor(RoundStage.TURN, turnBoard);
+        assertNotSame(flop, turn);
+        assertEquals(RoundStage.TURN, turn.getStage());
+        assertFalse(turn.hasEquity());
+        assertNotSame(flop.getHandRank(), turn.getHandRank());
+        assertEquals(List.of(10, 12, 11, 5), turn.getHandRank().getHighCards());
+    }
+
+    @Test
+    public void resetDropsTheContext() throws GameException {
+        PokerAI ai = ai();
+        DecisionContext flop = ai.contextFor(RoundStage.FLOP, FLOP);
+        ai.resetContext();
+        assertNotSame(flop, ai.contextFor(RoundStage.FLOP, FLOP));
+    }
+}
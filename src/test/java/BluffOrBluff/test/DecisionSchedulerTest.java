@@ -0,0 +1,197 @@
+package BluffOrBluff.test;
+
+import BluffOrBluff.model.Card;
+import BluffOrBluff.model.FastHandEvaluator;
+import BluffOrBluff.simulation.DecisionScheduler;
+import BluffOrBluff.simulation.DecisionScheduler.Estimate;
+import BluffOrBluff.simulation.DecisionScheduler.Level;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * The result cache is shared by every simulator, so each test uses cards no other test does
+ */
+public class DecisionSchedulerTest {
+    private static final long FAR = TimeUnit.SECONDS.toNanos(30);
+
+    private static List<Card> cards(String text) {
+        List<Card> cards = new ArrayList<>();
+        for (int i = 0; i < text.length(); i += 3) {
+            cards.add(FastHandEvaluator.card(FastHandEvaluator.parseCode(text, i)));
+        }
+        return cards;
+    }
+
+    /**
+     * Holds the single worker inside the completion of a first request until release counts down
+     * @return false if that request finished before the hold was in place
+     */
+    private static boolean holdWorker(DecisionScheduler scheduler, String hand, CountDownLatch release)
+            throws InterruptedException {
+        Thread test = Thread.currentThread();
+        CountDownLatch held = new CountDownLatch(1);
+        scheduler.submit(4, cards(hand), List.of(), System.nanoTime() + FAR).thenRun(() -> {
+            if (Thread.currentThread() == test) return;
+            held.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        return held.await(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void earliestDeadlineRunsFirst() throws Exception {
+        DecisionScheduler scheduler = DecisionScheduler.start(1);
+        try {
+            CountDownLatch release = new CountDownLatch(1);
+            assumeTrue(holdWorker(scheduler, "Kc Jd", release), "the first request finished before it was held");
+
+            long now = System.nanoTime();
+            long[] dueInSeconds = {25, 5, 15, 10, 20};
+            String[] hands = {"2c 5d", "2d 6h", "3c 7s", "3d 8h", "4c 9s"};
+            List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+            List<CompletableFuture<Void>> done = new ArrayList<>();
+            for (int i = 0; i < hands.length; i++) {
+                int index = i;
+                long deadline = now + TimeUnit.SECONDS.toNanos(dueInSeconds[i]);
+                done.add(scheduler.submit(1, cards(hands[i]), List.of(), deadline).thenRun(() -> order.add(index)));
+            }
+            assertEquals(5, scheduler.getQueueLength());
+            release.countDown();
+            CompletableFuture.allOf(done.toArray(new CompletableFuture[0])).get(30, TimeUnit.SECONDS);
+            assertEquals(List.of(1, 3, 2, 4, 0), order);
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void anExpiredRequestStillPlaysTheMinimum() throws Exception {
+        DecisionScheduler scheduler = DecisionScheduler.start(1);
+        try {
+            Estimate estimate = scheduler.submit(2, cards("5c Td"), List.of(), System.nanoTime() - 1)
+                    .get(30, TimeUnit.SECONDS);
+            assertEquals(Level.MINIMAL, estimate.getLevel());
+            assertEquals(300, estimate.getSamples());
+            assertTrue(estimate.isLate());
+            assertTrue(estimate.getEquity() > 0 && estimate.getEquity() < 1, estimate.toString());
+            assertEquals(1, scheduler.getMissedDeadlines());
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void aShortDeadlineReducesTheSamples() throws Exception {
+        DecisionScheduler scheduler = DecisionScheduler.start(1);
+        try {
+            // Time for about 5000 samples by the scheduler's cost model; Expert wants over 10000
+            long slack = (long) (5000 * scheduler.getNanosPerSample());
+            Estimate estimate = scheduler.submit(4, cards("6c Jh"), List.of(), System.nanoTime() + slack)
+                    .get(30, TimeUnit.SECONDS);
+            assertEquals(Level.REDUCED, estimate.getLevel(), estimate.toString());
+            assertTrue(estimate.getSamples() >= 300 && estimate.getSamples() <= 5000, estimate.toString());
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void aCachedAnswerServesExpiredRequests() throws Exception {
+        DecisionScheduler scheduler = DecisionScheduler.start(1);
+        try {
+            List<Card> hand = cards("7c Qh");
+            Estimate full = scheduler.submit(4, hand, List.of(), System.nanoTime() + FAR).get(30, TimeUnit.SECONDS);
+            assertEquals(Level.FULL, full.getLevel());
+            assertTrue(full.getSamples() > 10_000, full.toString());
+
+            Estimate cached = scheduler.submit(4, hand, List.of(), System.nanoTime() - 1).get(30, TimeUnit.SECONDS);
+            assertEquals(Level.CACHE_ONLY, cached.getLevel());
+            assertEquals(0, cached.getSamples());
+            assertEquals(full.getEquity(), cached.getEquity(), 1e-12);
+            assertEquals(1, scheduler.getCount(Level.FULL));
+            assertEquals(1, scheduler.getCount(Level.CACHE_ONLY));
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void theRiverIsEnumeratedWhenTheBudgeterSaysSo() throws Exception {
+        DecisionScheduler scheduler = DecisionScheduler.start(1);
+        try {
+            Estimate estimate = scheduler.submit(3, cards("8c Kh"), cards("2s 4s 9d Jc Ad"),
+                    System.nanoTime() + FAR).get(30, TimeUnit.SECONDS);
+            assertEquals(Level.FULL, estimate.getLevel());
+            // Either every one of the 990 opponent hands, or a full sample run if sampling was cheaper
+            assertTrue(estimate.getSamples() == 990 || estimate.getSamples() >= 1000, estimate.toString());
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void shutdownFailsQueuedAndLaterRequests() throws Exception {
+        DecisionScheduler scheduler = DecisionScheduler.start(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            assumeTrue(holdWorker(scheduler, "Kc Js", release), "the first request finished before it was held");
+            CompletableFuture<Estimate> queued = scheduler.submit(1, cards("9c Kd"), List.of());
+            scheduler.shutdown();
+            assertTrue(queued.isCompletedExceptionally());
+            ExecutionException e = assertThrows(ExecutionException.class, () -> queued.get(1, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof IllegalStateException);
+            assertThrows(IllegalStateException.class, () -> scheduler.submit(1, cards("9c Kd"), List.of()));
+        } finally {
+            release.countDown();
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    public void noRequestIsLeftWaitingBySubmitsRacingShutdown() throws Exception {
+        for (int round = 0; round < 20; round++) {
+            DecisionScheduler scheduler = DecisionScheduler.start(1);
+            List<CompletableFuture<Estimate>> futures = Collections.synchronizedList(new ArrayList<>());
+            CountDownLatch started = new CountDownLatch(1);
+            Thread submitter = new Thread(() -> {
+                started.countDown();
+                try {
+                    while (true) futures.add(scheduler.submit(1, cards("Tc Ad"), List.of(), System.nanoTime() - 1));
+                } catch (IllegalStateException e) {
+                    // Shut down
+                }
+            });
+            submitter.start();
+            started.await();
+            scheduler.shutdown();
+            submitter.join();
+            synchronized (futures) {
+                for (CompletableFuture<Estimate> future : futures) {
+                    try {
+                        future.get(5, TimeUnit.SECONDS);
+                    } catch (ExecutionException e) {
+                        assertTrue(e.getCause() instanceof IllegalStateException);
+                    }
+                }
+            }
+            assertFalse(futures.stream().anyMatch(future -> !future.isDone()));
+        }
+    }
+}
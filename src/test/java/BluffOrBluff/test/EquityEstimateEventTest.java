@@ -0,0 +1,67 @@
+package BluffOrBluff.test;
+
+import BluffOrBluff.model.Card;
+import BluffOrBluff.model.FastHandEvaluator;
+import BluffOrBluff.simulation.DecisionScheduler;
+import BluffOrBluff.simulation.SimulationBudgeter;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Every way of estimating equity shows up in a recording. The result cache is shared by every
+ * simulator, so the cards here are used by no other test.
+ */
+public class EquityEstimateEventTest {
+    @TempDir
+    Path directory;
+
+    private static List<Card> cards(String text) {
+        List<Card> cards = new ArrayList<>();
+        for (int i = 0; i < text.length(); i += 3) {
+            cards.add(FastHandEvaluator.card(FastHandEvaluator.parseCode(text, i)));
+        }
+        return cards;
+    }
+
+    @Test
+    public void budgeterSchedulerAndBatchEstimatesAreRecorded() throws Exception {
+        List<String> modes = new ArrayList<>();
+        try (Recording recording = new Recording()) {
+            recording.enable("BluffOrBluff.EquityEstimate");
+            recording.start();
+
+            SimulationBudgeter budgeter = SimulationBudgeter.shared();
+            budgeter.estimateAll(List.of(cards("2h 7s"), cards("3h 8s")), List.of(List.of(), List.of()),
+                    new int[]{4, 4}, 7);
+            // The batch met Expert's bound, so this is answered from the cache
+            budgeter.estimate(1, cards("2h 7s"), List.of());
+
+            DecisionScheduler scheduler = DecisionScheduler.start(1);
+            try {
+                scheduler.submit(1, cards("4h 9s"), List.of(), System.nanoTime() - 1).get(30, TimeUnit.SECONDS);
+            } finally {
+                scheduler.shutdown();
+            }
+
+            recording.stop();
+            Path file = directory.resolve("estimates.jfr");
+            recording.dump(file);
+            for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+                modes.add(event.getString("mode"));
+            }
+        }
+        assertTrue(modes.stream().filter("batch"::equals).count() == 2, modes.toString());
+        assertTrue(modes.contains("cache"), modes.toString());
+        assertTrue(modes.contains("scheduler"), modes.toString());
+    }
+}
@@ -0,0 +1,204 @@
+package BluffOrBluff.test;
+
+import BluffOrBluff.exception.GameException;
+import BluffOrBluff.journal.GameJournal;
+import BluffOrBluff.journal.TableImage;
+import BluffOrBluff.logic.RoundListener;
+import BluffOrBluff.logic.RoundManager;
+import BluffOrBluff.logic.RoundStage;
+import BluffOrBluff.model.BettingAction;
+import BluffOrBluff.model.Card;
+import BluffOrBluff.model.Deck;
+import BluffOrBluff.model.Player;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GameJournalTest {
+    @TempDir
+    Path directory;
+
+    /**
+     * Counts the entries a table's listener journals, plus the one openTable writes
+     */
+    private static final class EntryCounter implements RoundListener {
+        int entries = 1;
+        long lastHand;
+
+        @Override
+        public void onHandStart(long handNumber, int difficulty, Player human, Player ai) {
+            entries++;
+            lastHand = handNumber;
+        }
+
+        @Override
+        public void onCommunityCards(RoundStage stage, List<Card> communityCards) {
+            entries++;
+        }
+
+        @Override
+        public void onAction(RoundStage stage, int seat, BettingAction action, int amount, int pot) {
+            entries++;
+        }
+
+        @Override
+        public void onHandEnd(int winnerSeat, int pot, boolean showdown) {
+            entries++;
+        }
+    }
+
+    private static RoundManager table(GameJournal journal, int id, String name, int difficulty, RoundListener counter) {
+        Player human = new Player(name, 1000);
+        Player ai = new Player("AI", 1000);
+        Deck deck = new Deck();
+        deck.shuffle();
+        RoundManager manager = new RoundManager(deck, human, ai, difficulty);
+        manager.setInputSource((prompt, min, max) -> min);
+        manager.setOutput(new PrintStream(OutputStream.nullOutputStream()));
+        manager.setDelaysEnabled(false);
+        manager.addRoundListener(journal.openTable(id, name, difficulty, human.getChips(), ai.getChips()));
+        manager.addRoundListener(counter);
+        return manager;
+    }
+
+    private static void play(RoundManager manager, int hands) {
+        for (int i = 0; i < hands && manager.getHuman().getChips() > 0 && manager.getAI().getChips() > 0; i++) {
+            manager.playRound();
+        }
+    }
+
+    private static long count(Path directory, String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith(prefix)).count();
+        }
+    }
+
+    /**
+     * Waits until the writer thread has stopped growing the journal, as it has once the queue is empty
+     */
+    private static void awaitWriter(Path directory) throws IOException, InterruptedException {
+        long last = -1;
+        for (int stable = 0, tries = 0; stable < 5 && tries < 200; tries++) {
+            Thread.sleep(50);
+            long size = 0;
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path path : files.filter(p -> p.getFileName().toString().startsWith("journal-")).toList()) {
+                    size += Files.size(path);
+                }
+            }
+            stable = size == last ? stable + 1 : 0;
+            last = size;
+        }
+    }
+
+    private static void copy(Path from, Path to) throws IOException {
+        Files.createDirectories(to);
+        try (Stream<Path> files = Files.list(from)) {
+            for (Path path : files.toList()) Files.copy(path, to.resolve(path.getFileName()));
+        }
+    }
+
+    @Test
+    public void cleanCloseRecoversFromTheSnapshot() throws IOException {
+        EntryCounter firstCounter = new EntryCounter();
+        EntryCounter secondCounter = new EntryCounter();
+        RoundManager first;
+        RoundManager second;
+        try (GameJournal journal = new GameJournal(directory, 4)) {
+            first = table(journal, 1, "Alice", 2, firstCounter);
+            second = table(journal, 2, "Bob", 4, secondCounter);
+            RoundManager closed = table(journal, 3, "Carol", 1, new EntryCounter());
+            play(first, 10);
+            play(second, 5);
+            play(closed, 2);
+            journal.closeTable(3);
+        }
+        // Every few entries took a snapshot, and each one replaced the files before it
+        assertEquals(1, count(directory, "snapshot-"));
+        assertEquals(1, count(directory, "journal-"));
+
+        try (GameJournal journal = new GameJournal(directory, 4)) {
+            assertEquals(0, journal.getReplayedEntries());
+            List<TableImage> tables = journal.getRecoveredTables();
+            assertEquals(2, tables.size());
+            assertTable(tables.get(0), 1, "Alice", 2, first, firstCounter.lastHand);
+            assertTable(tables.get(1), 2, "Bob", 4, second, secondCounter.lastHand);
+        }
+    }
+
+    private static void assertTable(TableImage image, int id, String name, int difficulty, RoundManager manager,
+                                    long lastHand) {
+        assertEquals(id, image.getId());
+        assertEquals(name, image.getName());
+        assertEquals(difficulty, image.getDifficulty());
+        assertEquals(manager.getHuman().getChips(), image.getHumanChips());
+        assertEquals(manager.getAI().getChips(), image.getAIChips());
+        assertEquals(lastHand, image.getHandNumber());
+        assertFalse(image.isHandVoided());
+        assertFalse(image.isClosed());
+    }
+
+    @Test
+    public void crashReplaysTheJournalAndVoidsTheOpenHand() throws IOException, InterruptedException, GameException {
+        Path crashed = directory.resolve("crashed");
+        EntryCounter counter = new EntryCounter();
+        RoundManager manager;
+        int humanBefore;
+        int aiBefore;
+        try (GameJournal journal = new GameJournal(directory.resolve("live"), GameJournal.DEFAULT_SNAPSHOT_INTERVAL)) {
+            manager = table(journal, 7, "Alice", 3, counter);
+            play(manager, 6);
+
+            // A hand that is dealt and bet into but never finishes
+            RoundListener listener = journal.openTable(8, "Bob", 1, 500, 1500);
+            Player human = new Player("Bob", 500);
+            Player ai = new Player("AI", 1500);
+            human.receiveCard(new Card(Card.Rank.ACE, Card.Suit.SPADES));
+            human.receiveCard(new Card(Card.Rank.KING, Card.Suit.SPADES));
+            ai.receiveCard(new Card(Card.Rank.TWO, Card.Suit.HEARTS));
+            ai.receiveCard(new Card(Card.Rank.SEVEN, Card.Suit.CLUBS));
+            humanBefore = human.getChips();
+            aiBefore = ai.getChips();
+            listener.onHandStart(1, 1, human, ai);
+            listener.onAction(RoundStage.PRE_FLOP, RoundListener.HUMAN_SEAT, BettingAction.BET, 40, 40);
+            listener.onAction(RoundStage.PRE_FLOP, RoundListener.AI_SEAT, BettingAction.CALL, 40, 80);
+
+            // What a process killed right now would leave behind
+            awaitWriter(directory.resolve("live"));
+            copy(directory.resolve("live"), crashed);
+        }
+
+        try (GameJournal journal = new GameJournal(crashed, GameJournal.DEFAULT_SNAPSHOT_INTERVAL)) {
+            // Table 7's entries, then table 8's open, hand start and two actions
+            assertEquals(counter.entries + 4, journal.getReplayedEntries());
+            List<TableImage> tables = journal.getRecoveredTables();
+            assertEquals(2, tables.size());
+            assertTable(tables.get(0), 7, "Alice", 3, manager, counter.lastHand);
+
+            TableImage voided = tables.get(1);
+            assertEquals(8, voided.getId());
+            assertTrue(voided.isHandVoided());
+            assertEquals(80, voided.getVoidedPot());
+            assertEquals(1, voided.getHandNumber());
+            assertEquals(humanBefore, voided.getHumanChips());
+            assertEquals(aiBefore, voided.getAIChips());
+        }
+
+        // Recovery folded the replay into a snapshot, so the next start replays nothing
+        try (GameJournal journal = new GameJournal(crashed, GameJournal.DEFAULT_SNAPSHOT_INTERVAL)) {
+            assertEquals(0, journal.getReplayedEntries());
+            assertEquals(2, journal.getRecoveredTables().size());
+        }
+    }
+}
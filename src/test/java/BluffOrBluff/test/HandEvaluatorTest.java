@@ -0,0 +1,215 @@
+package BluffOrBluff.test;
+
+import BluffOrBluff.model.BatchHandEvaluator;
+import BluffOrBluff.model.Card;
+import BluffOrBluff.model.FastHandEvaluator;
+import BluffOrBluff.model.HandEvaluator;
+import BluffOrBluff.model.HandRank;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * FastHandEvaluator against a plain best-of-21 reference, and everything built on it
+ * (HandEvaluator, the batch evaluators) against FastHandEvaluator
+ */
+public class HandEvaluatorTest {
+    private static long mask(String cards) {
+        long mask = 0;
+        for (int i = 0; i < cards.length(); i += 3) {
+            mask |= FastHandEvaluator.bit(FastHandEvaluator.parseCode(cards, i));
+        }
+        return mask;
+    }
+
+    private static int[] randomCodes(SplittableRandom random, int count) {
+        int[] deck = new int[52];
+        for (int i = 0; i < 52; i++) deck[i] = i;
+        for (int i = 0; i < count; i++) {
+            int j = i + random.nextInt(52 - i);
+            int swap = deck[i];
+            deck[i] = deck[j];
+            deck[j] = swap;
+        }
+        return Arrays.copyOf(deck, count);
+    }
+
+    private static long mask(int[] codes) {
+        long mask = 0;
+        for (int code : codes) mask |= FastHandEvaluator.bit(code);
+        return mask;
+    }
+
+    /**
+     * Category followed by the ranks that break ties, for exactly five cards
+     */
+    private static int[] reference(int[] five) {
+        int[] counts = new int[13];
+        boolean flush = true;
+        for (int code : five) {
+            counts[code % 13]++;
+            flush &= code / 13 == five[0] / 13;
+        }
+        // Ranks by how often they appear, then by rank
+        List<Integer> ranks = new ArrayList<>();
+        for (int rank = 12; rank >= 0; rank--) if (counts[rank] > 0) ranks.add(rank);
+        ranks.sort((a, b) -> counts[b] != counts[a] ? counts[b] - counts[a] : b - a);
+
+        int straightHigh = -1;
+        if (ranks.size() == 5) {
+            if (ranks.get(0) - ranks.get(4) == 4) straightHigh = ranks.get(0);
+            else if (ranks.equals(List.of(12, 3, 2, 1, 0))) straightHigh = 3;
+        }
+        int first = counts[ranks.get(0)];
+        int second = ranks.size() > 1 ? counts[ranks.get(1)] : 0;
+        int category;
+        if (straightHigh >= 0 && flush) {
+            category = straightHigh == 12 ? FastHandEvaluator.ROYAL_FLUSH : FastHandEvaluator.STRAIGHT_FLUSH;
+        } else if (first == 4) category = FastHandEvaluator.FOUR_OF_A_KIND;
+        else if (first == 3 && second == 2) category = FastHandEvaluator.FULL_HOUSE;
+        else if (flush) category = FastHandEvaluator.FLUSH;
+        else if (straightHigh >= 0) category = FastHandEvaluator.STRAIGHT;
+        else if (first == 3) category = FastHandEvaluator.THREE_OF_A_KIND;
+        else if (first == 2 && second == 2) category = FastHandEvaluator.TWO_PAIR;
+        else if (first == 2) category = FastHandEvaluator.ONE_PAIR;
+        else category = FastHandEvaluator.HIGH_CARD;
+
+        if (straightHigh >= 0) return new int[] {category, straightHigh};
+        int[] key = new int[1 + ranks.size()];
+        key[0] = category;
+        for (int i = 0; i < ranks.size(); i++) key[1 + i] = ranks.get(i);
+        return key;
+    }
+
+    private static int[] bestOfSeven(int[] seven) {
+        int[] best = null;
+        int[] five = new int[5];
+        for (int skipA = 0; skipA < 7; skipA++) {
+            for (int skipB = skipA + 1; skipB < 7; skipB++) {
+                for (int i = 0, n = 0; i < 7; i++) if (i != skipA && i != skipB) five[n++] = seven[i];
+                int[] key = reference(five);
+                if (best == null || Arrays.compare(key, best) > 0) best = key;
+            }
+        }
+        return best;
+    }
+
+    @Test
+    public void sevenCardHandsMatchTheReference() {
+        SplittableRandom random = new SplittableRandom(41);
+        for (int i = 0; i < 20_000; i++) {
+            int[] a = randomCodes(random, 7);
+            int[] b = randomCodes(random, 7);
+            int[] keyA = bestOfSeven(a);
+            int[] keyB = bestOfSeven(b);
+            int valueA = FastHandEvaluator.evaluate(mask(a));
+            int valueB = FastHandEvaluator.evaluate(mask(b));
+            assertEquals(keyA[0], FastHandEvaluator.category(valueA));
+            assertEquals(Integer.signum(Arrays.compare(keyA, keyB)), Integer.signum(Integer.compare(valueA, valueB)));
+        }
+    }
+
+    @Test
+    public void edgeCases() {
+        int wheel = FastHandEvaluator.evaluate(mask("Ah 2d 3c 4s 5h 9c Jd"));
+        int sixHigh = FastHandEvaluator.evaluate(mask("2d 3c 4s 5h 6h 9c Jd"));
+        assertEquals(FastHandEvaluator.STRAIGHT, FastHandEvaluator.category(wheel));
+        assertTrue(sixHigh > wheel);
+
+        int steelWheel = FastHandEvaluator.evaluate(mask("Ah 2h 3h 4h 5h Kh Qh"));
+        assertEquals(FastHandEvaluator.STRAIGHT_FLUSH, FastHandEvaluator.category(steelWheel));
+        assertEquals(FastHandEvaluator.ROYAL_FLUSH, FastHandEvaluator.category(FastHandEvaluator.evaluate(
+                mask("Ts Js Qs Ks As 2d 3c"))));
+        assertEquals(FastHandEvaluator.FULL_HOUSE, FastHandEvaluator.category(FastHandEvaluator.evaluate(
+                mask("9h 9d 9c 4s 4h 4d 2c"))));
+
+        // Three pairs: the best two, and the third pair's card only counts as a kicker
+        int threePairs = FastHandEvaluator.evaluate(mask("Kh Kd 8c 8s 3h 3d Qc"));
+        int twoPairs = FastHandEvaluator.evaluate(mask("Kh Kd 8c 8s 3h 2d Jc"));
+        assertEquals(FastHandEvaluator.TWO_PAIR, FastHandEvaluator.category(threePairs));
+        assertTrue(threePairs > twoPairs);
+    }
+
+    @Test
+    public void fewerThanFiveCards() {
+        assertEquals(FastHandEvaluator.FOUR_OF_A_KIND, FastHandEvaluator.category(FastHandEvaluator.evaluate(
+                mask("7h 7d 7c 7s"))));
+        assertEquals(FastHandEvaluator.TWO_PAIR, FastHandEvaluator.category(FastHandEvaluator.evaluate(
+                mask("7h 7d 5c 5s"))));
+        assertEquals(FastHandEvaluator.ONE_PAIR, FastHandEvaluator.category(FastHandEvaluator.evaluate(
+                mask("Ah Ad"))));
+        assertTrue(FastHandEvaluator.evaluate(mask("Ah Kd")) > FastHandEvaluator.evaluate(mask("Ah Qd")));
+    }
+
+    @Test
+    public void handEvaluatorRanksLikeFastHandEvaluator() {
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < 5_000; i++) {
+            List<Card> a = cards(randomCodes(random, 7));
+            List<Card> b = cards(randomCodes(random, 7));
+            HandRank rankA = HandEvaluator.evaluateHand(a);
+            HandRank rankB = HandEvaluator.evaluateHand(b);
+            int valueA = FastHandEvaluator.evaluate(a);
+            int valueB = FastHandEvaluator.evaluate(b);
+            assertEquals(FastHandEvaluator.categoryName(FastHandEvaluator.category(valueA)), rankA.getRank());
+            assertEquals(Integer.signum(Integer.compare(valueA, valueB)), Integer.signum(rankA.compareTo(rankB)));
+        }
+    }
+
+    @Test
+    public void highCardsOnlyListTheCardsHeld() {
+        assertEquals(List.of(12, 11), highCards("Ah Kd"));
+        assertEquals(List.of(12), highCards("Ah Ad"));
+        assertEquals(List.of(9, 7, 5, 3, 2), highCards("Jh 9d 7c 5s 4h 3c 2d"));
+        assertEquals(List.of(12, 9, 7, 5), highCards("Ah Ad Jc 9s 7h 5c 2d"));
+        assertEquals(List.of(7, 2), highCards("9h 9d 9c 4s 4h 4d 2c"));
+        assertEquals(List.of(4), highCards("Ah 2d 3c 4s 6h Kc 5d"));
+        assertEquals("One Pair (High cards: [12])", HandEvaluator.evaluateHand(cards("Ah Ad")).toString());
+    }
+
+    private static List<Integer> highCards(String text) {
+        return HandEvaluator.evaluateHand(cards(text)).getHighCards();
+    }
+
+    private static List<Card> cards(String text) {
+        List<Card> cards = new ArrayList<>();
+        for (int i = 0; i < text.length(); i += 3) {
+            cards.add(FastHandEvaluator.card(FastHandEvaluator.parseCode(text, i)));
+        }
+        return cards;
+    }
+
+    private static List<Card> cards(int[] codes) {
+        List<Card> cards = new ArrayList<>(codes.length);
+        for (int code : codes) cards.add(FastHandEvaluator.card(code));
+        return cards;
+    }
+
+    /**
+     * Covers VectorHandEvaluator when it is built (mvn -Pvector) and the test JVM has the incubator module
+     */
+    @Test
+    public void batchEvaluatorsMatchTheScalarValues() {
+        SplittableRandom random = new SplittableRandom(3);
+        // Not a multiple of the vector width, so the tail loop runs too
+        int count = BatchHandEvaluator.BATCH_SIZE - 3;
+        long[] masks = new long[count];
+        int[] expected = new int[count];
+        for (int i = 0; i < count; i++) {
+            masks[i] = mask(randomCodes(random, i % 8));
+            expected[i] = FastHandEvaluator.evaluate(masks[i]);
+        }
+        for (BatchHandEvaluator evaluator : List.of(BatchHandEvaluator.create(), new BatchHandEvaluator.Scalar())) {
+            int[] values = new int[BatchHandEvaluator.BATCH_SIZE];
+            evaluator.evaluate(masks, values, count);
+            assertArrayEquals(expected, Arrays.copyOf(values, count), evaluator.name());
+        }
+    }
+}
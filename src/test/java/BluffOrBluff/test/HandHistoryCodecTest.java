@@ -0,0 +1,98 @@
+package BluffOrBluff.test;
+
+import BluffOrBluff.history.HandHistoryCodec;
+import BluffOrBluff.history.HandRecord;
+import BluffOrBluff.logic.RoundListener;
+import BluffOrBluff.logic.RoundStage;
+import BluffOrBluff.model.BettingAction;
+import BluffOrBluff.model.Card;
+import BluffOrBluff.model.FastHandEvaluator;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+public class HandHistoryCodecTest {
+    private static Card card(String text) {
+        return FastHandEvaluator.card(FastHandEvaluator.parseCode(text, 0));
+    }
+
+    private static HandRecord record(long handNumber, long timestamp, String human, boolean showdown) {
+        HandRecord record = new HandRecord();
+        record.setHand(handNumber, timestamp, 3);
+        record.setSeat(0, human, 1000, card("As"), card("Kd"));
+        record.setSeat(1, "AI", 985, card("7h"), card("7c"));
+        if (showdown) {
+            record.setBoard(List.of(card("2c"), card("9d"), card("Ts"), card("Jh"), card("Qc")));
+        }
+        record.addAction(RoundStage.PRE_FLOP, 0, BettingAction.BET, 20);
+        record.addAction(RoundStage.PRE_FLOP, 1, BettingAction.RAISE, 70);
+        // More actions than HandRecord starts with room for
+        for (int i = 0; i < 10; i++) {
+            record.addAction(RoundStage.RIVER, i & 1, BettingAction.CHECK, 0);
+        }
+        record.addAction(RoundStage.SHOWDOWN, 0, BettingAction.ALL_IN, 100_000);
+        record.setResult(showdown ? 0 : RoundListener.SPLIT_POT, 100_140, showdown);
+        return record;
+    }
+
+    private static void assertSameRecord(HandRecord expected, HandRecord actual) {
+        assertEquals(expected.getHandNumber(), actual.getHandNumber());
+        assertEquals(expected.getTimestamp(), actual.getTimestamp());
+        assertEquals(expected.getDifficulty(), actual.getDifficulty());
+        for (int seat = 0; seat < 2; seat++) {
+            assertEquals(expected.getName(seat), actual.getName(seat));
+            assertEquals(expected.getStartingStack(seat), actual.getStartingStack(seat));
+            assertEquals(expected.getHoleCard(seat, 0), actual.getHoleCard(seat, 0));
+            assertEquals(expected.getHoleCard(seat, 1), actual.getHoleCard(seat, 1));
+        }
+        assertEquals(expected.getBoard(), actual.getBoard());
+        assertEquals(expected.getActionCount(), actual.getActionCount());
+        for (int i = 0; i < expected.getActionCount(); i++) {
+            assertEquals(expected.getActionStage(i), actual.getActionStage(i));
+            assertEquals(expected.getActionSeat(i), actual.getActionSeat(i));
+            assertEquals(expected.getAction(i), actual.getAction(i));
+            assertEquals(expected.getActionAmount(i), actual.getActionAmount(i));
+        }
+        assertEquals(expected.getPot(), actual.getPot());
+        assertEquals(expected.getWinner(), actual.getWinner());
+        assertEquals(expected.isShowdown(), actual.isShowdown());
+    }
+
+    @Test
+    public void roundTripInOrder() {
+        // Hand numbers and timestamps go backwards too, and the names change between records
+        HandRecord[] records = {
+                record(41, 1_700_000_000_000L, "Alice", true),
+                record(42, 1_700_000_004_250L, "Alice", false),
+                record(7, 1_600_000_000_000L, "Bob", true),
+                record(8, 1_600_000_000_000L, "Bob", false),
+        };
+        ByteBuffer buffer = ByteBuffer.allocate(4096);
+        HandHistoryCodec writer = new HandHistoryCodec();
+        for (HandRecord record : records) writer.encode(record, buffer);
+        buffer.flip();
+
+        HandHistoryCodec reader = new HandHistoryCodec();
+        for (HandRecord record : records) assertSameRecord(record, reader.decode(buffer));
+        assertFalse(buffer.hasRemaining());
+    }
+
+    @Test
+    public void resetStartsANewSegment() {
+        HandRecord first = record(100, 5_000, "Alice", true);
+        HandRecord second = record(101, 6_000, "Alice", false);
+        HandHistoryCodec codec = new HandHistoryCodec();
+        codec.encode(first, ByteBuffer.allocate(1024));
+        codec.reset();
+        ByteBuffer segment = ByteBuffer.allocate(1024);
+        codec.encode(second, segment);
+        segment.flip();
+
+        // A fresh reader knows nothing of the first record, so the second must stand alone
+        assertSameRecord(second, new HandHistoryCodec().decode(segment));
+    }
+}
@@ -0,0 +1,38 @@
+package BluffOrBluff.test;
+
+import BluffOrBluff.history.HandHistoryWriter;
+import BluffOrBluff.history.HandRecord;
+import BluffOrBluff.history.SegmentWriter;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HandHistoryWriterTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    public void writerStopsAndDropsAfterAnUncheckedError() throws IOException, InterruptedException {
+        try (HandHistoryWriter writer = new HandHistoryWriter(directory, SegmentWriter.DEFAULT_SEGMENT_SIZE)) {
+            // A record with no seats can't be encoded: the codec throws on the writer thread
+            assertTrue(writer.submit(new HandRecord()));
+
+            boolean accepted = true;
+            for (int i = 0; i < 500 && accepted; i++) {
+                Thread.sleep(10);
+                accepted = writer.submit(new HandRecord());
+            }
+            assertFalse(accepted);
+            long dropped = writer.getDroppedCount();
+            assertTrue(dropped >= 1);
+            assertFalse(writer.submit(new HandRecord()));
+            assertEquals(dropped + 1, writer.getDroppedCount());
+        }
+    }
+}
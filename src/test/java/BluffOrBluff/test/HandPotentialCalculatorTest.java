@@ -0,0 +1,124 @@
+package BluffOrBluff.test;
+
+import BluffOrBluff.model.Card;
+import BluffOrBluff.model.FastHandEvaluator;
+import BluffOrBluff.model.HandEvaluator;
+import BluffOrBluff.model.HandRank;
+import BluffOrBluff.simulation.HandPotential;
+import BluffOrBluff.simulation.HandPotentialCalculator;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HandPotentialCalculatorTest {
+    private static final int AHEAD = 0;
+    private static final int TIED = 1;
+    private static final int BEHIND = 2;
+
+    private static List<Card> cards(String text) {
+        List<Card> cards = new ArrayList<>();
+        for (int i = 0; i < text.length(); i += 3) {
+            cards.add(FastHandEvaluator.card(FastHandEvaluator.parseCode(text, i)));
+        }
+        return cards;
+    }
+
+    /**
+     * The pseudocode of Billings et al., over Card lists and HandRank: {HS, PPOT, NPOT}
+     */
+    private static double[] reference(List<Card> hole, List<Card> board) {
+        List<Card> unseen = new ArrayList<>();
+        for (int code = 0; code < 52; code++) {
+            Card card = FastHandEvaluator.card(code);
+            if (!hole.contains(card) && !board.contains(card)) unseen.add(card);
+        }
+
+        long[][] hp = new long[3][3];
+        long[] hpTotal = new long[3];
+        HandRank ours = rank(hole, board, null);
+        for (int a = 0; a < unseen.size(); a++) {
+            for (int b = a + 1; b < unseen.size(); b++) {
+                List<Card> opponent = List.of(unseen.get(a), unseen.get(b));
+                int index = compare(ours, rank(opponent, board, null));
+                hpTotal[index]++;
+                for (Card next : unseen) {
+                    if (opponent.contains(next)) continue;
+                    hp[index][compare(rank(hole, board, next), rank(opponent, board, next))]++;
+                }
+            }
+        }
+        double runouts = unseen.size() - 2;
+        double hs = (hpTotal[AHEAD] + hpTotal[TIED] / 2.0) / (hpTotal[AHEAD] + hpTotal[TIED] + hpTotal[BEHIND]);
+        double ppot = (hp[BEHIND][AHEAD] + hp[BEHIND][TIED] / 2.0 + hp[TIED][AHEAD] / 2.0)
+                / ((hpTotal[BEHIND] + hpTotal[TIED] / 2.0) * runouts);
+        double npot = (hp[AHEAD][BEHIND] + hp[TIED][BEHIND] / 2.0 + hp[AHEAD][TIED] / 2.0)
+                / ((hpTotal[AHEAD] + hpTotal[TIED] / 2.0) * runouts);
+        return new double[]{hs, ppot, npot};
+    }
+
+    private static HandRank rank(List<Card> hole, List<Card> board, Card next) {
+        List<Card> hand = new ArrayList<>(hole);
+        hand.addAll(board);
+        if (next != null) hand.add(next);
+        return HandEvaluator.evaluateHand(hand);
+    }
+
+    private static int compare(HandRank ours, HandRank theirs) {
+        int comparison = ours.compareTo(theirs);
+        return comparison > 0 ? AHEAD : comparison == 0 ? TIED : BEHIND;
+    }
+
+    @Test
+    public void matchesThePublishedFlopExample() {
+        // Billings et al., "Opponent Modeling in Poker": AdQc on 3h4cJh has HS 0.585
+        List<Card> hole = cards("Ad Qc");
+        List<Card> board = cards("3h 4c Jh");
+        HandPotential potential = HandPotentialCalculator.calculate(hole, board);
+        assertEquals(0.585, potential.getHandStrength(), 0.0005);
+
+        // The paper's potentials look two cards ahead; ours look one, so check them against its pseudocode
+        double[] expected = reference(hole, board);
+        assertEquals(expected[0], potential.getHandStrength(), 1e-12);
+        assertEquals(expected[1], potential.getPositivePotential(), 1e-12);
+        assertEquals(expected[2], potential.getNegativePotential(), 1e-12);
+        assertEquals(0.108, potential.getPositivePotential(), 0.0005);
+        assertEquals(0.145, potential.getNegativePotential(), 0.0005);
+    }
+
+    @Test
+    public void matchesThePseudocodeOnTheTurn() {
+        List<Card> hole = cards("9s 8s");
+        List<Card> board = cards("7s 2s Kd Jc");
+        HandPotential potential = HandPotentialCalculator.calculate(hole, board);
+        double[] expected = reference(hole, board);
+        assertEquals(expected[0], potential.getHandStrength(), 1e-12);
+        assertEquals(expected[1], potential.getPositivePotential(), 1e-12);
+        assertEquals(expected[2], potential.getNegativePotential(), 1e-12);
+        // A flush and straight-flush draw with nothing made yet
+        assertTrue(potential.getPositivePotential() > 0.3, potential.toString());
+    }
+
+    @Test
+    public void theNutsCannotBeOutdrawnAndTheRiverHasNoPotential() {
+        HandPotential royal = HandPotentialCalculator.calculate(cards("As Ks"), cards("Qs Js Ts"));
+        assertEquals(1.0, royal.getHandStrength());
+        assertEquals(0.0, royal.getNegativePotential());
+
+        // A royal flush on the board: every hand splits
+        HandPotential board = HandPotentialCalculator.calculate(cards("2c 3d"), cards("Ah Kh Qh Jh Th"));
+        assertEquals(0.5, board.getHandStrength());
+        assertEquals(0.0, board.getPositivePotential());
+        assertEquals(0.0, board.getNegativePotential());
+    }
+
+    @Test
+    public void rejectsBoardsWithoutAFlop() {
+        assertThrows(IllegalArgumentException.class,
+                () -> HandPotentialCalculator.calculate(cards("Ad Qc"), cards("3h 4c")));
+    }
+}
@@ -0,0 +1,74 @@
+package BluffOrBluff.test;
+
+import BluffOrBluff.util.InputSource.Prompt;
+import BluffOrBluff.util.ScriptedInputSource;
+import BluffOrBluff.util.SyntheticHumanInputSource;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class InputSourceTest {
+    @Test
+    public void scriptPlaysBackInOrderAndStartsOver() {
+        ScriptedInputSource script = ScriptedInputSource.parse("1, 2 150,4");
+        assertEquals(1, script.choose(Prompt.OPEN, 1, 4));
+        assertEquals(2, script.choose(Prompt.OPEN, 1, 4));
+        assertEquals(150, script.choose(Prompt.AMOUNT, 20, 500));
+        assertEquals(4, script.choose(Prompt.FACING_BET, 1, 4));
+        assertEquals(1, script.choose(Prompt.OPEN, 1, 4));
+        assertEquals(5, script.getAnswered());
+    }
+
+    @Test
+    public void scriptedAnswersAreClampedToThePrompt() {
+        ScriptedInputSource script = new ScriptedInputSource(150, 4, 0);
+        assertEquals(100, script.choose(Prompt.AMOUNT, 40, 100));
+        assertEquals(2, script.choose(Prompt.CALL_OR_FOLD, 1, 2));
+        assertEquals(40, script.choose(Prompt.AMOUNT, 40, 100));
+        // Fewer chips than the minimum raise: all that is left
+        assertEquals(30, script.choose(Prompt.AMOUNT, 40, 30));
+    }
+
+    @Test
+    public void badScriptsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ScriptedInputSource.parse("1, two, 3"));
+        assertThrows(IllegalArgumentException.class, ScriptedInputSource::new);
+    }
+
+    @Test
+    public void syntheticHumanRepeatsItselfUnderOneSeed() {
+        SyntheticHumanInputSource first = new SyntheticHumanInputSource(99);
+        SyntheticHumanInputSource second = new SyntheticHumanInputSource(99);
+        Prompt[] prompts = Prompt.values();
+        for (int i = 0; i < 1000; i++) {
+            Prompt prompt = prompts[i % prompts.length];
+            int max = prompt == Prompt.AMOUNT ? 1000 : prompt == Prompt.CALL_OR_FOLD ? 2 : 4;
+            assertEquals(first.choose(prompt, 1, max), second.choose(prompt, 1, max), "answer " + i);
+        }
+    }
+
+    @Test
+    public void syntheticHumanPlaysToItsRates() {
+        SyntheticHumanInputSource human = new SyntheticHumanInputSource(5, 0.3, 0.2, 0.05, 0);
+        int rounds = 20_000;
+        int[] open = new int[5];
+        int[] facing = new int[5];
+        int folds = 0;
+        for (int i = 0; i < rounds; i++) {
+            open[human.choose(Prompt.OPEN, 1, 4)]++;
+            facing[human.choose(Prompt.FACING_BET, 1, 4)]++;
+            if (human.choose(Prompt.CALL_OR_FOLD, 1, 2) == 2) folds++;
+            int amount = human.choose(Prompt.AMOUNT, 40, 100);
+            assertTrue(amount == 40 || amount == 80 || amount == 100, "amount " + amount);
+        }
+        // Never folds when it can check
+        assertEquals(0, open[4]);
+        assertEquals(0.05, (double) open[3] / rounds, 0.01);
+        assertEquals(0.3, (double) open[2] / rounds, 0.015);
+        assertEquals(0.2, (double) facing[4] / rounds, 0.015);
+        assertEquals(0.3, (double) facing[2] / rounds, 0.015);
+        assertEquals(0.2, (double) folds / rounds, 0.015);
+    }
+}
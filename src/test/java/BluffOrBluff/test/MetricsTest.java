@@ -0,0 +1,59 @@
+package BluffOrBluff.test;
+
+import BluffOrBluff.ai.PokerAI;
+import BluffOrBluff.exception.GameException;
+import BluffOrBluff.logic.RoundStage;
+import BluffOrBluff.metrics.Counter;
+import BluffOrBluff.metrics.LatencyHistogram;
+import BluffOrBluff.metrics.Metrics;
+import BluffOrBluff.model.Card;
+import BluffOrBluff.model.HandEvaluator;
+import BluffOrBluff.model.Player;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+public class MetricsTest {
+    @Test
+    public void histogramQuantilesStayWithinABucket() {
+        LatencyHistogram histogram = Metrics.unregistered("test.quantiles");
+        for (long value = 1; value <= 10_000; value++) histogram.record(value * 1000);
+        assertEquals(10_000, histogram.getCount());
+        assertEquals(10_000_000, histogram.getMax());
+        // Log-linear buckets keep every quantile within a few percent
+        assertEquals(5_000_000, histogram.getP50(), 5_000_000 * 0.05);
+        assertEquals(9_900_000, histogram.getP99(), 9_900_000 * 0.05);
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+    }
+
+    @Test
+    public void disabledLookupsShareOneInertInstance() {
+        assumeFalse(Metrics.ENABLED);
+        Counter counter = Metrics.counter("test.a");
+        assertSame(counter, Metrics.counter("test.b"));
+        assertSame(Metrics.latency("test.a"), Metrics.values("test.b"));
+        assertTrue(!Metrics.dump().contains("test.a"));
+        assertEquals(0, Metrics.start());
+    }
+
+    @Test
+    public void anyDifficultyDecides() throws GameException {
+        List<Card> board = List.of(new Card(Card.Rank.TWO, Card.Suit.CLUBS), new Card(Card.Rank.NINE, Card.Suit.HEARTS),
+                new Card(Card.Rank.KING, Card.Suit.SPADES));
+        for (int difficulty : new int[] {0, 5}) {
+            Player player = new Player("AI", 1000);
+            player.receiveCard(new Card(Card.Rank.KING, Card.Suit.HEARTS));
+            player.receiveCard(new Card(Card.Rank.QUEEN, Card.Suit.HEARTS));
+            PokerAI ai = new PokerAI(player, difficulty);
+            assertNotNull(ai.getAIDecision(HandEvaluator.evaluateHand(player.getFullHand(board)), 0, 100,
+                    RoundStage.FLOP, board));
+        }
+    }
+}
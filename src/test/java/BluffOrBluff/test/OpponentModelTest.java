@@ -0,0 +1,131 @@
+package BluffOrBluff.test;
+
+import BluffOrBluff.ai.OpponentModel;
+import BluffOrBluff.ai.OpponentProfile;
+import BluffOrBluff.logic.RoundListener;
+import BluffOrBluff.logic.RoundStage;
+import BluffOrBluff.model.BettingAction;
+import BluffOrBluff.model.Player;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OpponentModelTest {
+    private static final int HUMAN = RoundListener.HUMAN_SEAT;
+    private static final int AI = RoundListener.AI_SEAT;
+    private static final Player ALICE = new Player("Alice", 1000);
+    private static final Player BOT = new Player("AI", 1000);
+
+    @TempDir
+    Path directory;
+
+    private static void hand(OpponentModel model, Player human) {
+        model.onHandStart(0, 2, human, BOT);
+    }
+
+    @Test
+    public void vpipAndPfrCountEachHandOnce() {
+        OpponentModel model = new OpponentModel(1.0);
+        for (int i = 0; i < 10; i++) {
+            hand(model, ALICE);
+            if (i < 5) {
+                // A raise and a re-raise in one hand still count once
+                model.onAction(RoundStage.PRE_FLOP, HUMAN, BettingAction.BET, 50, 50);
+                model.onAction(RoundStage.PRE_FLOP, AI, BettingAction.RAISE, 100, 150);
+                model.onAction(RoundStage.PRE_FLOP, HUMAN, BettingAction.RAISE, 150, 300);
+            } else if (i < 8) {
+                model.onAction(RoundStage.PRE_FLOP, HUMAN, BettingAction.CHECK, 0, 0);
+                model.onAction(RoundStage.PRE_FLOP, AI, BettingAction.BET, 50, 50);
+                model.onAction(RoundStage.PRE_FLOP, HUMAN, BettingAction.CALL, 50, 100);
+            } else {
+                model.onAction(RoundStage.PRE_FLOP, HUMAN, BettingAction.CHECK, 0, 0);
+            }
+        }
+        OpponentProfile alice = model.getProfile("Alice");
+        assertSame(alice, model.currentProfile());
+        assertEquals(10, alice.getHands(), 1e-9);
+        assertEquals(0.8, alice.getVpip(), 1e-9);
+        assertEquals(0.5, alice.getPfr(), 1e-9);
+    }
+
+    @Test
+    public void foldToBetIsCountedPerStreetOnlyWhenFacingABet() {
+        OpponentModel model = new OpponentModel(1.0);
+        for (int i = 0; i < 6; i++) {
+            hand(model, ALICE);
+            model.onAction(RoundStage.FLOP, HUMAN, BettingAction.CHECK, 0, 100);
+            model.onAction(RoundStage.FLOP, AI, BettingAction.BET, 50, 150);
+            model.onAction(RoundStage.FLOP, HUMAN, i % 2 == 0 ? BettingAction.FOLD : BettingAction.CALL,
+                    i % 2 == 0 ? 0 : 50, 200);
+            // A fold with nothing to face is not a fold to a bet
+            model.onAction(RoundStage.TURN, HUMAN, BettingAction.FOLD, 0, 200);
+        }
+        OpponentProfile alice = model.getProfile("Alice");
+        assertEquals(0.5, alice.getFoldToBet(RoundStage.FLOP), 1e-9);
+        assertTrue(alice.knowsFoldToBet(RoundStage.FLOP));
+        assertFalse(alice.knowsFoldToBet(RoundStage.TURN));
+        assertEquals(0, alice.getFoldToBet(RoundStage.TURN), 1e-9);
+    }
+
+    @Test
+    public void aggressionFactorWaitsForData() {
+        OpponentModel model = new OpponentModel(1.0);
+        hand(model, ALICE);
+        model.onAction(RoundStage.FLOP, HUMAN, BettingAction.BET, 50, 50);
+        model.onAction(RoundStage.TURN, HUMAN, BettingAction.BET, 50, 100);
+        assertEquals(1.0, model.currentProfile().getAggressionFactor(), 1e-9);
+
+        for (int i = 0; i < 4; i++) model.onAction(RoundStage.RIVER, HUMAN, BettingAction.RAISE, 100, 300);
+        model.onAction(RoundStage.RIVER, HUMAN, BettingAction.CALL, 100, 400);
+        model.onAction(RoundStage.RIVER, HUMAN, BettingAction.CALL, 100, 500);
+        assertEquals(3.0, model.currentProfile().getAggressionFactor(), 1e-9);
+    }
+
+    @Test
+    public void oldHabitsFadeOut() {
+        OpponentModel model = new OpponentModel(0.5);
+        for (int i = 0; i < 20; i++) {
+            hand(model, ALICE);
+            model.onAction(RoundStage.PRE_FLOP, HUMAN, BettingAction.RAISE, 100, 100);
+        }
+        assertEquals(1.0, model.currentProfile().getPfr(), 1e-9);
+        for (int i = 0; i < 5; i++) {
+            hand(model, ALICE);
+            model.onAction(RoundStage.PRE_FLOP, HUMAN, BettingAction.CHECK, 0, 0);
+        }
+        // Each passive hand halves the raises; the hand count stays near 1 / (1 - decay)
+        assertEquals(1.0 / 32, model.currentProfile().getPfr(), 1e-3);
+    }
+
+    @Test
+    public void profilesSurviveSaveAndLoad() throws IOException {
+        OpponentModel model = new OpponentModel(1.0);
+        for (int i = 0; i < 4; i++) {
+            hand(model, i % 2 == 0 ? ALICE : new Player("Bob", 1000));
+            model.onAction(RoundStage.PRE_FLOP, HUMAN, BettingAction.CALL, 50, 100);
+            model.onAction(RoundStage.FLOP, AI, BettingAction.BET, 50, 150);
+            model.onAction(RoundStage.FLOP, HUMAN, BettingAction.FOLD, 0, 150);
+        }
+        Path file = directory.resolve("opponents.bin");
+        model.save(file);
+
+        OpponentModel loaded = OpponentModel.load(file);
+        assertNull(loaded.currentProfile());
+        for (String name : new String[]{"Alice", "Bob"}) {
+            OpponentProfile before = model.getProfile(name);
+            OpponentProfile after = loaded.getProfile(name);
+            assertEquals(before.getHands(), after.getHands(), 1e-6);
+            assertEquals(before.getVpip(), after.getVpip(), 1e-6);
+            assertEquals(before.getFoldToBet(RoundStage.FLOP), after.getFoldToBet(RoundStage.FLOP), 1e-6);
+        }
+        assertNull(OpponentModel.load(directory.resolve("missing.bin")).getProfile("Alice"));
+    }
+}
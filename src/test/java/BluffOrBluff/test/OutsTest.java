@@ -0,0 +1,80 @@
+package BluffOrBluff.test;
+
+import BluffOrBluff.model.Card;
+import BluffOrBluff.model.FastHandEvaluator;
+import BluffOrBluff.simulation.Outs;
+import BluffOrBluff.simulation.OutsAnalyzer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OutsTest {
+    private static long mask(String cards) {
+        long mask = 0;
+        for (int i = 0; i < cards.length(); i += 3) {
+            mask |= FastHandEvaluator.bit(FastHandEvaluator.parseCode(cards, i));
+        }
+        return mask;
+    }
+
+    private static Card card(String text) {
+        return FastHandEvaluator.card(FastHandEvaluator.parseCode(text, 0));
+    }
+
+    @Test
+    public void flushDrawWithOvercards() {
+        Outs outs = OutsAnalyzer.analyze(mask("Ah Kh"), mask("7h 2h 9c"));
+        assertEquals(FastHandEvaluator.HIGH_CARD, outs.getCurrentCategory());
+        // Nine hearts, three aces and three kings; a 7, 2 or 9 pairs the board for everyone
+        assertEquals(15, outs.count());
+        assertEquals(9, outs.count(FastHandEvaluator.FLUSH));
+        assertEquals(6, outs.count(FastHandEvaluator.ONE_PAIR));
+        assertEquals(15, outs.getOuts().size());
+        assertTrue(outs.isOut(card("Qh")));
+        assertFalse(outs.isOut(card("7d")));
+        assertEquals(15.0 / 47, outs.getNextCardOdds(), 1e-12);
+        assertEquals(1 - 32.0 / 47 * 31 / 46, outs.getByRiverOdds(), 1e-12);
+    }
+
+    @Test
+    public void openEndedStraightDrawOnTheTurn() {
+        Outs outs = OutsAnalyzer.analyze(mask("8s 9d"), mask("7c 6h 2s Kd"));
+        assertEquals(8, outs.count(FastHandEvaluator.STRAIGHT));
+        assertEquals(6, outs.count(FastHandEvaluator.ONE_PAIR));
+        assertEquals(14, outs.count());
+        // One card to come, so both odds are the river card's
+        assertEquals(14.0 / 46, outs.getNextCardOdds(), 1e-12);
+        assertEquals(outs.getNextCardOdds(), outs.getByRiverOdds(), 1e-12);
+    }
+
+    @Test
+    public void setImprovesToFullHouseOrQuads() {
+        Outs outs = OutsAnalyzer.analyze(mask("7h 7d"), mask("7c Ks 2d"));
+        assertEquals(FastHandEvaluator.THREE_OF_A_KIND, outs.getCurrentCategory());
+        assertEquals(6, outs.count(FastHandEvaluator.FULL_HOUSE));
+        assertEquals(1, outs.count(FastHandEvaluator.FOUR_OF_A_KIND));
+        assertEquals(7, outs.count());
+        assertTrue(outs.isOut(card("7s")));
+    }
+
+    @Test
+    public void cardsThatOnlyImproveTheBoardAreNotOuts() {
+        Outs outs = OutsAnalyzer.analyze(mask("Ah Kd"), mask("9c 9d 4s"));
+        assertEquals(FastHandEvaluator.ONE_PAIR, outs.getCurrentCategory());
+        // Trip nines and a second pair of fours are on the board for everyone
+        assertFalse(outs.isOut(card("9h")));
+        assertFalse(outs.isOut(card("4h")));
+        assertEquals(6, outs.count());
+        assertEquals(6, outs.count(FastHandEvaluator.TWO_PAIR));
+    }
+
+    @Test
+    public void onlyTheFlopAndTurnHaveOuts() {
+        assertThrows(IllegalArgumentException.class, () -> OutsAnalyzer.analyze(mask("Ah Kd"), 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> OutsAnalyzer.analyze(mask("Ah Kd"), mask("9c 9d 4s 5h 6h")));
+    }
+}
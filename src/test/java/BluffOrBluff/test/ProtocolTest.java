@@ -0,0 +1,79 @@
+package BluffOrBluff.test;
+
+import BluffOrBluff.model.Card;
+import BluffOrBluff.net.GameServer;
+import BluffOrBluff.net.Protocol;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Card text and the server's line framing, over a real socket with no table ever started
+ */
+public class ProtocolTest {
+    private static final int TIMEOUT_MILLIS = 10_000;
+
+    @Test
+    public void cardsAreRankAndSuitLetters() {
+        assertEquals("As", Protocol.card(new Card(Card.Rank.ACE, Card.Suit.SPADES)));
+        assertEquals("Td 2c 9h", Protocol.cards(List.of(new Card(Card.Rank.TEN, Card.Suit.DIAMONDS),
+                new Card(Card.Rank.TWO, Card.Suit.CLUBS), new Card(Card.Rank.NINE, Card.Suit.HEARTS))));
+        assertEquals("", Protocol.cards(List.of()));
+    }
+
+    @Test
+    public void linesAreFramedByNewlinesWhateverTheWrites() throws IOException {
+        try (GameServer server = new GameServer(0, 1).start();
+             Socket socket = new Socket("localhost", server.getPort())) {
+            socket.setSoTimeout(TIMEOUT_MILLIS);
+            OutputStream out = socket.getOutputStream();
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                    StandardCharsets.US_ASCII));
+
+            // One line in two writes
+            write(out, "JOIN");
+            sleep();
+            write(out, " 9\n");
+            assertEquals("ERR difficulty must be 1-4", in.readLine());
+
+            // Two lines, with a blank one between, in one write
+            write(out, "HELLO\n\n  \nJOIN x\n");
+            assertEquals("ERR expected JOIN <difficulty> [name]", in.readLine());
+            assertEquals("ERR difficulty must be 1-4", in.readLine());
+        }
+    }
+
+    @Test
+    public void aLineLongerThanTheLimitClosesTheConnection() throws IOException {
+        try (GameServer server = new GameServer(0, 1).start();
+             Socket socket = new Socket("localhost", server.getPort())) {
+            socket.setSoTimeout(TIMEOUT_MILLIS);
+            write(socket.getOutputStream(), "J".repeat(300));
+            BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(),
+                    StandardCharsets.US_ASCII));
+            assertNull(in.readLine());
+        }
+    }
+
+    private static void write(OutputStream out, String text) throws IOException {
+        out.write(text.getBytes(StandardCharsets.US_ASCII));
+        out.flush();
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(50);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
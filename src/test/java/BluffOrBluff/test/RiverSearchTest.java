@@ -0,0 +1,68 @@
+package BluffOrBluff.test;
+
+import BluffOrBluff.model.BettingAction;
+import BluffOrBluff.model.FastHandEvaluator;
+import BluffOrBluff.simulation.RangeEquity;
+import BluffOrBluff.solver.RiverSearch;
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RiverSearchTest {
+    private static final long BUDGET_NANOS = 2_000_000_000L;
+
+    private static long mask(String cards) {
+        long mask = 0;
+        for (int i = 0; i < cards.length(); i += 3) {
+            mask |= FastHandEvaluator.bit(FastHandEvaluator.parseCode(cards, i));
+        }
+        return mask;
+    }
+
+    private static RiverSearch search(String hole, String board) {
+        RangeEquity range = RangeEquity.compute(mask(hole), mask(board), 1, new SplittableRandom(1));
+        return new RiverSearch(range, (bet, pot, aiChips, humanChips) -> Math.max(2 * bet, pot / 2), 1.0);
+    }
+
+    @Test
+    public void theNutsRaisesABet() {
+        RiverSearch.Result result = search("As Ks", "Qs Js Ts 2d 3c").search(100, 300, 1000, 1000, 0, 1, BUDGET_NANOS);
+        assertNotNull(result);
+        assertTrue(result.isComplete());
+        assertTrue(result.getAction() == BettingAction.RAISE || result.getAction() == BettingAction.ALL_IN,
+                "raised with the nuts: " + result);
+        assertTrue(result.getValue() > 200, "worth more than calling: " + result);
+    }
+
+    @Test
+    public void theNutsNeverChecksBehind() {
+        RiverSearch.Result result = search("As Ks", "Qs Js Ts 2d 3c").search(0, 200, 1000, 1000, 0, 0, BUDGET_NANOS);
+        assertNotNull(result);
+        assertTrue(result.getAction() == BettingAction.BET || result.getAction() == BettingAction.ALL_IN,
+                "bet the nuts: " + result);
+    }
+
+    @Test
+    public void airFoldsToAShove() {
+        RiverSearch.Result result = search("3c 4d", "Ah Kd 8s 7c 2h").search(1000, 1200, 1000, 0, 0, 1, BUDGET_NANOS);
+        assertNotNull(result);
+        assertEquals(BettingAction.FOLD, result.getAction(), result.toString());
+        assertEquals(0, result.getValue(), 1e-9);
+    }
+
+    @Test
+    public void aRepeatedSearchGivesTheSameMove() {
+        // The second search answers from the transposition table the first one filled
+        RiverSearch search = search("Qh Qd", "Qs 9h 6c 3d 2s");
+        for (int bet : new int[]{0, 100, 400, 1000}) {
+            RiverSearch.Result first = search.search(bet, 200 + bet, 1000, 1000, 0, bet == 0 ? 0 : 1, BUDGET_NANOS);
+            RiverSearch.Result second = search.search(bet, 200 + bet, 1000, 1000, 0, bet == 0 ? 0 : 1, BUDGET_NANOS);
+            assertEquals(first.getAction(), second.getAction(), "facing " + bet);
+            assertEquals(first.getValue(), second.getValue(), 1e-9);
+        }
+    }
+}
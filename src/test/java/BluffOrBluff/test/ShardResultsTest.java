@@ -0,0 +1,75 @@
+package BluffOrBluff.test;
+
+import BluffOrBluff.shard.ShardResults;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class ShardResultsTest {
+    private static final long HOLE = 0x3L;
+    private static final long BOARD = 0x1C00L;
+    private static final long PID = ProcessHandle.current().pid();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void samplesAreSplitWithTheRemainderUpFront() throws IOException {
+        try (ShardResults results = ShardResults.create(directory.resolve("split.bin"), HOLE, BOARD, 10, 3, 1)) {
+            assertEquals(4, results.samplesIn(0));
+            assertEquals(3, results.samplesIn(1));
+            assertEquals(3, results.samplesIn(2));
+            assertEquals(results.seedOf(0) + 2, results.seedOf(2));
+        }
+    }
+
+    @Test
+    public void mergeSumsOnlyFinishedShards() throws IOException {
+        try (ShardResults results = ShardResults.create(directory.resolve("merge.bin"), HOLE, BOARD, 300, 3, 1)) {
+            results.beginEpoch();
+            assertEquals(0, results.claim(PID));
+            assertEquals(1, results.claim(PID));
+            assertEquals(2, results.claim(PID));
+            assertEquals(-1, results.claim(PID));
+
+            results.complete(0, 60, 10, 100);
+            results.complete(2, 40, 5, 100);
+            assertEquals(2, results.countDone());
+            assertArrayEquals(new long[]{100, 15, 200}, results.merge());
+        }
+    }
+
+    @Test
+    public void reopeningKeepsFinishedShardsAndReleasesStaleClaims() throws IOException {
+        Path file = directory.resolve("resume.bin");
+        try (ShardResults results = ShardResults.create(file, HOLE, BOARD, 200, 2, 7)) {
+            results.beginEpoch();
+            results.claim(PID);
+            results.claim(PID);
+            results.complete(0, 30, 2, 100);
+        }
+        try (ShardResults results = ShardResults.create(file, HOLE, BOARD, 200, 2, 7)) {
+            // Shard 1 was claimed by a live process, but in the previous run
+            results.beginEpoch();
+            assertEquals(1, results.releaseAbandoned());
+            assertEquals(1, results.claim(PID));
+            results.complete(1, 50, 4, 100);
+            assertEquals(2, results.countDone());
+            assertArrayEquals(new long[]{80, 6, 200}, results.merge());
+        }
+    }
+
+    @Test
+    public void aFileOfAnotherJobIsRefused() throws IOException {
+        Path file = directory.resolve("job.bin");
+        ShardResults.create(file, HOLE, BOARD, 200, 2, 7).close();
+        assertThrows(IllegalArgumentException.class, () -> ShardResults.create(file, HOLE, BOARD, 200, 2, 8));
+        assertThrows(IllegalArgumentException.class, () -> ShardResults.create(file, HOLE, BOARD, 200, 4, 7));
+    }
+}
@@ -0,0 +1,133 @@
+package BluffOrBluff.test;
+
+import BluffOrBluff.model.Card;
+import BluffOrBluff.model.FastHandEvaluator;
+import BluffOrBluff.simulation.MonteCarloSimulator;
+import BluffOrBluff.simulation.SimulationBudgeter;
+import BluffOrBluff.simulation.SimulationBudgeter.Plan;
+import BluffOrBluff.simulation.SimulationBudgeter.Strategy;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * The result cache is shared by every simulator, so each test uses cards no other test does
+ */
+public class SimulationBudgeterTest {
+    @TempDir
+    Path directory;
+
+    private static List<Card> cards(String text) {
+        List<Card> cards = new ArrayList<>();
+        for (int i = 0; i < text.length(); i += 3) {
+            cards.add(FastHandEvaluator.card(FastHandEvaluator.parseCode(text, i)));
+        }
+        return cards;
+    }
+
+    @Test
+    public void targetErrorTightensWithDifficulty() {
+        assertTrue(SimulationBudgeter.targetErrorFor(1) >= SimulationBudgeter.targetErrorFor(2));
+        assertTrue(SimulationBudgeter.targetErrorFor(2) > SimulationBudgeter.targetErrorFor(3));
+        // Expert+ shares the expert bound
+        assertEquals(SimulationBudgeter.targetErrorFor(3), SimulationBudgeter.targetErrorFor(4));
+    }
+
+    @Test
+    public void preFlopIsSampled() {
+        MonteCarloSimulator preFlop = new MonteCarloSimulator(cards("9h 8h"), List.of());
+        for (int difficulty = 1; difficulty <= 4; difficulty++) {
+            Plan plan = SimulationBudgeter.shared().plan(difficulty, preFlop);
+            assertEquals(Strategy.SAMPLE, plan.getStrategy(), plan.toString());
+            assertEquals(SimulationBudgeter.targetErrorFor(difficulty), plan.getTargetError());
+            assertTrue(plan.getSamples() >= 300, plan.toString());
+        }
+    }
+
+    /**
+     * Whether enumeration beats sampling follows the cost model, wherever it has got to; a
+     * spot that only wins with some of the cores spread across is left out, as that depends on load
+     */
+    @Test
+    public void enumeratesWhenThatIsCheaper() {
+        SimulationBudgeter budgeter = SimulationBudgeter.shared();
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (String board : new String[] {"2c 7d Js", "2c 7d Js 4h", "2c 7d Js 4h Ad"}) {
+            for (int difficulty = 1; difficulty <= 4; difficulty++) {
+                MonteCarloSimulator simulator = new MonteCarloSimulator(cards("Th 9h"), cards(board));
+                double target = SimulationBudgeter.targetErrorFor(difficulty);
+                double sampleNanos = Math.ceil(1.96 * 1.96 * 0.25 / (target * target)) * budgeter.getNanosPerSample();
+                double exactNanos = simulator.remainingCombinations() * budgeter.getNanosPerCombination();
+                Plan plan = budgeter.plan(difficulty, simulator);
+                if (exactNanos <= sampleNanos / cores) {
+                    assertEquals(Strategy.EXACT, plan.getStrategy(), board + ": " + plan);
+                } else if (exactNanos > sampleNanos) {
+                    assertEquals(Strategy.SAMPLE, plan.getStrategy(), board + ": " + plan);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void exactEstimateIsTheEnumeration() {
+        SimulationBudgeter budgeter = SimulationBudgeter.shared();
+        MonteCarloSimulator river = new MonteCarloSimulator(cards("Qd Jd"), cards("2s 5h 9c Kh Td"));
+        assumeTrue(budgeter.plan(3, river).getStrategy() == Strategy.EXACT);
+        double equity = budgeter.estimate(3, cards("Qd Jd"), cards("2s 5h 9c Kh Td"));
+        assertEquals(new MonteCarloSimulator(cards("Qd Jd"), cards("2s 5h 9c Kh Td")).exactWinProbability(), equity,
+                1e-12);
+    }
+
+    @Test
+    public void cachedSpotsSkipTheWork() {
+        List<Card> hole = cards("As 4s");
+        List<Card> board = cards("3s 8s Kd 2h");
+        double exact = new MonteCarloSimulator(hole, board).exactWinProbability();
+
+        Plan plan = SimulationBudgeter.shared().plan(1, new MonteCarloSimulator(hole, board));
+        assertEquals(Strategy.CACHE, plan.getStrategy());
+        assertEquals(0, plan.getSamples());
+        assertEquals(exact, SimulationBudgeter.shared().estimate(4, hole, board), 1e-12);
+    }
+
+    /**
+     * A Beginner pre-flop plan (1000 samples) is cheap enough to play on the caller's thread
+     * once the cost model has seen enough runs, unless the machine is very slow
+     */
+    @Test
+    public void smallSamplingPlansRunInline() throws Exception {
+        SimulationBudgeter budgeter = SimulationBudgeter.shared();
+        List<Card> hole = cards("6d 2s");
+        Plan plan = budgeter.plan(1, new MonteCarloSimulator(hole, List.of()));
+        // Until the JIT has warmed up, runs are slow and the model follows them
+        for (int i = 0; i < 500 && plan.getSamples() * budgeter.getNanosPerSample() > 1_000_000; i++) {
+            budgeter.estimate(1, hole, List.of());
+        }
+        assumeTrue(plan.getSamples() * budgeter.getNanosPerSample() <= 1_000_000, plan.toString());
+
+        List<RecordedEvent> events;
+        try (Recording recording = new Recording()) {
+            recording.enable("BluffOrBluff.EquityEstimate");
+            recording.start();
+            double equity = budgeter.estimate(1, hole, List.of());
+            recording.stop();
+            assertTrue(equity > 0.2 && equity < 0.45, "6-2 offsuit: " + equity);
+            Path file = directory.resolve("inline.jfr");
+            recording.dump(file);
+            events = RecordingFile.readAllEvents(file);
+        }
+        assertEquals(1, events.size(), events.toString());
+        assertEquals("inline", events.get(0).getString("mode"));
+        assertEquals(plan.getSamples(), events.get(0).getInt("samples"));
+    }
+}
@@ -0,0 +1,82 @@
+package BluffOrBluff.test;
+
+import BluffOrBluff.model.Card;
+import BluffOrBluff.model.FastHandEvaluator;
+import BluffOrBluff.simulation.EquitySnapshot;
+import BluffOrBluff.simulation.MonteCarloSimulator;
+import BluffOrBluff.simulation.StreamingSimulation;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The result cache is shared by every simulator, so each test uses cards no other test does
+ */
+public class StreamingSimulationTest {
+    private static List<Card> cards(String text) {
+        List<Card> cards = new ArrayList<>();
+        for (int i = 0; i < text.length(); i += 3) {
+            cards.add(FastHandEvaluator.card(FastHandEvaluator.parseCode(text, i)));
+        }
+        return cards;
+    }
+
+    @Test
+    public void aFullRunPlaysEverySampleAndMatchesTheExactAnswer() {
+        List<Card> hole = cards("Jc Tc");
+        List<Card> board = cards("9c 2c 7h");
+        EquitySnapshot result = new MonteCarloSimulator(hole, board, 20_000).stream(250).awaitCompletion();
+        assertTrue(result.isComplete());
+        assertEquals(20_000, result.getSamples());
+        assertTrue(result.getWins() + result.getTies() <= result.getSamples());
+
+        double exact = new MonteCarloSimulator(hole, board).exactWinProbability();
+        assertEquals(exact, result.getEquity(), 2 * result.getErrorBound() + 1e-3);
+    }
+
+    @Test
+    public void readersOnlyEverSeeWholeChunks() {
+        StreamingSimulation run = new MonteCarloSimulator(cards("Qd 8s"), List.of(), 200_000).stream(250);
+        List<String> problems = new ArrayList<>();
+        int previous = 0;
+        while (!run.isDone()) {
+            EquitySnapshot snapshot = run.latest();
+            int samples = snapshot.getSamples();
+            // Every chunk but the last is 250 samples, and counts move together with them
+            if (samples < previous) problems.add("went back from " + previous + " to " + samples);
+            if (samples % 250 != 0) problems.add("partial chunk: " + samples);
+            if (snapshot.getWins() + snapshot.getTies() > samples) problems.add("counts ahead: " + snapshot);
+            previous = samples;
+            Thread.onSpinWait();
+        }
+        assertTrue(problems.isEmpty(), problems.toString());
+        assertEquals(200_000, run.awaitCompletion().getSamples());
+    }
+
+    @Test
+    public void awaitingAnErrorBoundStopsEarly() {
+        StreamingSimulation run = new MonteCarloSimulator(cards("5s 5d"), List.of(), 2_000_000).stream(250);
+        EquitySnapshot snapshot = run.awaitErrorBound(0.02, 30_000);
+        run.cancel();
+        assertTrue(snapshot.getErrorBound() <= 0.02, snapshot.toString());
+        assertTrue(snapshot.getSamples() >= 200 && snapshot.getSamples() < 2_000_000, snapshot.toString());
+    }
+
+    @Test
+    public void aCancelledRunKeepsWhatItPlayedButIsNotCached() {
+        List<Card> hole = cards("Ah 3s");
+        StreamingSimulation run = new MonteCarloSimulator(hole, List.of(), 5_000_000).stream(250);
+        while (run.latest().getSamples() < 10_000) Thread.onSpinWait();
+        run.cancel();
+        EquitySnapshot result = run.awaitCompletion();
+        assertTrue(run.isCancelled());
+        assertTrue(result.isComplete());
+        assertTrue(result.getSamples() >= 10_000 && result.getSamples() < 5_000_000, result.toString());
+        assertNull(new MonteCarloSimulator(hole, List.of()).getCachedEstimate());
+    }
+}
@@ -0,0 +1,73 @@
+package BluffOrBluff.test;
+
+import BluffOrBluff.logic.RoundManager;
+import BluffOrBluff.logic.TableStateCodec;
+import BluffOrBluff.model.Deck;
+import BluffOrBluff.model.Player;
+import org.junit.jupiter.api.Test;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class TableStateCodecTest {
+    private static RoundManager playedTable(int difficulty, int hands) {
+        Deck deck = new Deck();
+        deck.shuffle();
+        RoundManager manager = new RoundManager(deck, new Player("Alice", 1000), new Player("AI", 1000), difficulty);
+        manager.setInputSource((prompt, min, max) -> min);
+        manager.setOutput(new PrintStream(OutputStream.nullOutputStream()));
+        manager.setDelaysEnabled(false);
+        for (int i = 0; i < hands && manager.getHuman().getChips() > 0 && manager.getAI().getChips() > 0; i++) {
+            manager.playRound();
+        }
+        return manager;
+    }
+
+    private static byte[] encode(RoundManager manager, int offset) {
+        ByteBuffer buffer = ByteBuffer.allocate(offset + TableStateCodec.RECORD_BYTES);
+        TableStateCodec.encode(manager, buffer, offset);
+        byte[] record = new byte[TableStateCodec.RECORD_BYTES];
+        buffer.get(offset, record);
+        return record;
+    }
+
+    @Test
+    public void roundTripKeepsTheTable() {
+        for (int difficulty = 1; difficulty <= 4; difficulty++) {
+            RoundManager original = playedTable(difficulty, 3);
+            byte[] bytes = encode(original, 0);
+
+            RoundManager restored = TableStateCodec.decode(ByteBuffer.wrap(bytes), 0, "Alice");
+            assertEquals("Alice", restored.getHuman().getName());
+            assertEquals(difficulty, restored.getDifficulty());
+            assertEquals(original.getHuman().getChips(), restored.getHuman().getChips());
+            assertEquals(original.getAI().getChips(), restored.getAI().getChips());
+            assertEquals(original.getHuman().getHand().getCards(), restored.getHuman().getHand().getCards());
+            assertEquals(original.getAI().getHand().getCards(), restored.getAI().getHand().getCards());
+            // The rest (stage, pot, hand number, board, deck) is only visible through the bytes
+            assertArrayEquals(bytes, encode(restored, 0));
+        }
+    }
+
+    @Test
+    public void recordsSitAtAnyOffset() {
+        RoundManager manager = playedTable(2, 1);
+        ByteBuffer buffer = ByteBuffer.allocate(3 * TableStateCodec.RECORD_BYTES);
+        TableStateCodec.encode(manager, buffer, TableStateCodec.RECORD_BYTES);
+        assertEquals(0, buffer.position());
+
+        RoundManager restored = TableStateCodec.decode(buffer, TableStateCodec.RECORD_BYTES, "Alice");
+        assertArrayEquals(encode(manager, 0), encode(restored, 0));
+    }
+
+    @Test
+    public void rejectsUnknownFormat() {
+        assertThrows(IllegalArgumentException.class,
+                () -> TableStateCodec.decode(ByteBuffer.allocate(TableStateCodec.RECORD_BYTES), 0, "Alice"));
+    }
+}